@@ -0,0 +1,161 @@
+package nablarch.common.databind.csv;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.Random;
+
+import nablarch.common.databind.csv.CsvDataBindConfig.QuoteMode;
+
+/**
+ * ベンチマークで使用するCSVデータを生成するクラス。
+ * <p/>
+ * 同じパラメータからは常に同じデータを生成する。
+ *
+ * @author Hisaaki Shioiri
+ */
+final class CsvBenchmarkData {
+
+    /** 1回のベンチマークで処理するレコード数 */
+    static final int ROWS = 1000;
+
+    /** フィールドの値に使用する文字 */
+    private static final String CHARACTERS = "abcdefghijklmnopqrstuvwxyz0123456789あいうえおかきくけこ漢字表現テスト";
+
+    /** 乱数の種 */
+    private static final long SEED = 20161018L;
+
+    /**
+     * 隠蔽コンストラクタ。
+     */
+    private CsvBenchmarkData() {
+    }
+
+    /**
+     * プロパティ名の配列を生成する。
+     *
+     * @param columns 項目数
+     * @return プロパティ名の配列(col1, col2...)
+     */
+    static String[] propertyNames(final int columns) {
+        if (columns > Row.MAX_COLUMNS) {
+            throw new IllegalArgumentException("columns must be less than or equal to " + Row.MAX_COLUMNS + '.');
+        }
+        final String[] names = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            names[i] = "col" + (i + 1);
+        }
+        return names;
+    }
+
+    /**
+     * レコードを生成する。
+     * <p/>
+     * {@code quotedRatio}の割合のフィールドには、囲み文字と区切り文字を含めるため、
+     * {@link QuoteMode#NORMAL}で出力した場合に囲み文字で囲まれる。
+     *
+     * @param columns 項目数
+     * @param fieldLength フィールドの文字数
+     * @param quotedRatio 囲み文字で囲む必要のあるフィールドの割合
+     * @return レコードの配列
+     */
+    static String[][] records(final int columns, final int fieldLength, final double quotedRatio) {
+        final Random random = new Random(SEED);
+        final String[][] records = new String[ROWS][columns];
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < columns; column++) {
+                records[row][column] = field(random, fieldLength, random.nextDouble() < quotedRatio);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * フィールドの値を生成する。
+     *
+     * @param random 乱数
+     * @param fieldLength フィールドの文字数
+     * @param quoted 囲み文字で囲む必要のある値とする場合は{@code true}
+     * @return フィールドの値
+     */
+    private static String field(final Random random, final int fieldLength, final boolean quoted) {
+        final StringBuilder sb = new StringBuilder(fieldLength);
+        for (int i = 0; i < fieldLength; i++) {
+            sb.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+        }
+        if (quoted && fieldLength >= 2) {
+            sb.setCharAt(fieldLength / 2, '"');
+            sb.setCharAt(fieldLength - 1, ',');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 出力用の値の配列を生成する。
+     * <p/>
+     * {@link QuoteMode#NOT_NUMERIC}の評価のため、4項目ごとに数値を含める。
+     *
+     * @param records レコードの配列
+     * @return 出力用の値の配列
+     */
+    static Object[][] values(final String[][] records) {
+        final Object[][] values = new Object[records.length][];
+        for (int row = 0; row < records.length; row++) {
+            values[row] = new Object[records[row].length];
+            for (int column = 0; column < records[row].length; column++) {
+                values[row][column] = column % 4 == 3 ? Integer.valueOf(row * column) : records[row][column];
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Beanの配列を生成する。
+     *
+     * @param records レコードの配列
+     * @return Beanの配列
+     */
+    static Row[] rows(final String[][] records) {
+        final Row[] rows = new Row[records.length];
+        for (int i = 0; i < records.length; i++) {
+            rows[i] = Row.of(records[i]);
+        }
+        return rows;
+    }
+
+    /**
+     * ヘッダ行を含むCSVを生成する。
+     *
+     * @param records レコードの配列
+     * @param config CSVの設定
+     * @return CSVのバイト配列
+     * @throws IOException 出力に失敗した場合
+     */
+    static byte[] csv(final String[][] records, final CsvDataBindConfig config) throws IOException {
+        final StringWriter writer = new StringWriter();
+        final CsvDataWriter csvWriter = new CsvDataWriter(
+                writer, config.withQuoteMode(QuoteMode.NORMAL), config.getHeaderTitles());
+        csvWriter.write(config.getHeaderTitles());
+        for (String[] record : records) {
+            csvWriter.write(record);
+        }
+        csvWriter.close();
+        return writer.toString().getBytes(config.getCharset());
+    }
+
+    /**
+     * 書き込まれたデータを破棄する{@link OutputStream}。
+     */
+    static final class NullOutputStream extends OutputStream {
+
+        @Override
+        public void write(final int b) {
+            // nop
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            // nop
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package nablarch.common.databind.csv;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * CSV読み込みのベンチマーク。
+ * <p/>
+ * 1回の呼び出しで{@link CsvBenchmarkData#ROWS}件のレコードを読み込み、1レコードあたりの処理時間を計測する。
+ * パッケージプライベートの{@link CsvTokenizer}を直接計測するため、本体と同じパッケージに配置している。
+ * 入力はバイト配列から{@link InputStreamReader}で読み込むため、文字コードの変換も計測に含まれる。
+ *
+ * @author Hisaaki Shioiri
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(CsvBenchmarkData.ROWS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvReadBenchmark {
+
+    /** 項目数 */
+    @Param({"4", "16"})
+    public int columns;
+
+    /** フィールドの文字数 */
+    @Param({"8", "64"})
+    public int fieldLength;
+
+    /** 囲み文字で囲まれたフィールドの割合 */
+    @Param({"0.0", "0.5"})
+    public double quotedRatio;
+
+    /** 文字コード */
+    @Param({"UTF-8", "Windows-31J"})
+    public String charset;
+
+    /** CSVの設定 */
+    private CsvDataBindConfig config;
+
+    /** Beanのマッピング情報 */
+    private CsvMappingMetadata metadata;
+
+    /** 入力データ */
+    private byte[] input;
+
+    /**
+     * 入力データを生成する。
+     *
+     * @throws IOException 生成に失敗した場合
+     */
+    @Setup
+    public void setup() throws IOException {
+        final String[] properties = CsvBenchmarkData.propertyNames(columns);
+        config = CsvDataBindConfig.DEFAULT
+                .withCharset(charset)
+                .withRequiredHeader(true)
+                .withHeaderTitles(properties);
+        metadata = new CsvMappingMetadata(config, properties, null);
+        input = CsvBenchmarkData.csv(CsvBenchmarkData.records(columns, fieldLength, quotedRatio), config);
+    }
+
+    /**
+     * 入力データを読み込む{@link Reader}を生成する。
+     *
+     * @return {@link Reader}
+     */
+    private Reader openReader() {
+        return new InputStreamReader(new ByteArrayInputStream(input), config.getCharset());
+    }
+
+    /**
+     * {@link CsvTokenizer#next()}で全ての要素を読み込む。
+     *
+     * @param blackhole {@link Blackhole}
+     * @throws IOException 読み込みに失敗した場合
+     */
+    @Benchmark
+    public void tokenizerNext(final Blackhole blackhole) throws IOException {
+        final CsvTokenizer tokenizer = new CsvTokenizer(openReader(), config);
+        while (!tokenizer.isEndOfFile()) {
+            tokenizer.reset();
+            while (!tokenizer.isEndOfLine()) {
+                blackhole.consume(tokenizer.next());
+            }
+        }
+        tokenizer.close();
+    }
+
+    /**
+     * {@link CsvDataReader#read()}で全てのレコードを読み込む。
+     *
+     * @param blackhole {@link Blackhole}
+     * @throws IOException 読み込みに失敗した場合
+     */
+    @Benchmark
+    public void dataReaderRead(final Blackhole blackhole) throws IOException {
+        final CsvDataReader reader = new CsvDataReader(openReader(), config);
+        String[] record;
+        while ((record = reader.read()) != null) {
+            blackhole.consume(record);
+        }
+        reader.close();
+    }
+
+    /**
+     * {@link CsvBeanMapper#read()}で全てのレコードをBeanに変換する。
+     *
+     * @param blackhole {@link Blackhole}
+     */
+    @Benchmark
+    public void beanMapperRead(final Blackhole blackhole) {
+        final CsvBeanMapper<Row> mapper = new CsvBeanMapper<Row>(Row.class, metadata, openReader());
+        Row row;
+        while ((row = mapper.read()) != null) {
+            blackhole.consume(row);
+        }
+        mapper.close();
+    }
+
+    /**
+     * {@link CsvMapMapper#read()}で全てのレコードを{@link Map}に変換する。
+     *
+     * @param blackhole {@link Blackhole}
+     */
+    @Benchmark
+    public void mapMapperRead(final Blackhole blackhole) {
+        final CsvMapMapper mapper = new CsvMapMapper(config, openReader());
+        Map<String, ?> map;
+        while ((map = mapper.read()) != null) {
+            blackhole.consume(map);
+        }
+        mapper.close();
+    }
+}
@@ -0,0 +1,129 @@
+package nablarch.common.databind.csv;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.common.databind.csv.CsvDataBindConfig.QuoteMode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CSV書き込みのベンチマーク。
+ * <p/>
+ * 1回の呼び出しで{@link CsvBenchmarkData#ROWS}件のレコードを書き込み、1レコードあたりの処理時間を計測する。
+ * 出力は{@link OutputStreamWriter}で符号化した後に破棄するため、文字コードの変換も計測に含まれる。
+ *
+ * @author Hisaaki Shioiri
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(CsvBenchmarkData.ROWS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvWriteBenchmark {
+
+    /** 囲み文字の出力モード */
+    @Param({"NORMAL", "ALL", "NOT_NUMERIC", "CUSTOM"})
+    public QuoteMode quoteMode;
+
+    /** 項目数 */
+    @Param({"4", "16"})
+    public int columns;
+
+    /** フィールドの文字数 */
+    @Param({"8", "64"})
+    public int fieldLength;
+
+    /** 囲み文字で囲む必要のあるフィールドの割合 */
+    @Param({"0.0", "0.5"})
+    public double quotedRatio;
+
+    /** 文字コード */
+    @Param({"UTF-8", "Windows-31J"})
+    public String charset;
+
+    /** CSVの設定 */
+    private CsvDataBindConfig config;
+
+    /** Beanのマッピング情報 */
+    private CsvMappingMetadata metadata;
+
+    /** 出力する値 */
+    private Object[][] values;
+
+    /** 出力するBean */
+    private Row[] rows;
+
+    /**
+     * 出力データを生成する。
+     */
+    @Setup
+    public void setup() {
+        final String[] properties = CsvBenchmarkData.propertyNames(columns);
+        CsvDataBindConfig newConfig = CsvDataBindConfig.DEFAULT
+                .withCharset(charset)
+                .withQuoteMode(quoteMode)
+                .withHeaderTitles(properties);
+        if (quoteMode == QuoteMode.CUSTOM) {
+            // 前半の項目を囲み文字で囲む
+            newConfig = newConfig.withQuotedColumnNames(Arrays.copyOf(properties, columns / 2));
+        }
+        config = newConfig;
+        metadata = new CsvMappingMetadata(config, properties, null);
+
+        final String[][] records = CsvBenchmarkData.records(columns, fieldLength, quotedRatio);
+        values = CsvBenchmarkData.values(records);
+        rows = CsvBenchmarkData.rows(records);
+    }
+
+    /**
+     * 出力先の{@link Writer}を生成する。
+     *
+     * @return {@link Writer}
+     */
+    private Writer openWriter() {
+        return new OutputStreamWriter(new CsvBenchmarkData.NullOutputStream(), config.getCharset());
+    }
+
+    /**
+     * {@link CsvDataWriter#write(Object[])}で全てのレコードを書き込む。
+     *
+     * @throws IOException 書き込みに失敗した場合
+     */
+    @Benchmark
+    public void dataWriterWrite() throws IOException {
+        final CsvDataWriter writer = new CsvDataWriter(openWriter(), config, metadata.getPropertyNames());
+        for (Object[] value : values) {
+            writer.write(value);
+        }
+        writer.close();
+    }
+
+    /**
+     * {@link BeanCsvMapper#write(Object)}で全てのBeanを書き込む。
+     */
+    @Benchmark
+    public void beanMapperWrite() {
+        final BeanCsvMapper<Row> mapper = new BeanCsvMapper<Row>(metadata, openWriter());
+        for (Row row : rows) {
+            mapper.write(row);
+        }
+        mapper.close();
+    }
+}
@@ -0,0 +1,190 @@
+package nablarch.common.databind.csv;
+
+import nablarch.core.beans.BeanUtil;
+
+/**
+ * ベンチマークで使用するBean。
+ * <p/>
+ * 項目数を可変とするため{@link Csv}は付与せず、{@link CsvMappingMetadata}で使用するプロパティを指定する。
+ *
+ * @author Hisaaki Shioiri
+ */
+public class Row {
+
+    /** プロパティの最大数 */
+    static final int MAX_COLUMNS = 16;
+
+    private String col1;
+
+    private String col2;
+
+    private String col3;
+
+    private String col4;
+
+    private String col5;
+
+    private String col6;
+
+    private String col7;
+
+    private String col8;
+
+    private String col9;
+
+    private String col10;
+
+    private String col11;
+
+    private String col12;
+
+    private String col13;
+
+    private String col14;
+
+    private String col15;
+
+    private String col16;
+
+    /**
+     * 値を設定した{@code Row}を生成する。
+     *
+     * @param values 先頭のプロパティから順に設定する値
+     * @return {@code Row}
+     */
+    static Row of(final String[] values) {
+        final Row row = new Row();
+        for (int i = 0; i < values.length; i++) {
+            BeanUtil.setProperty(row, "col" + (i + 1), values[i]);
+        }
+        return row;
+    }
+
+    public String getCol1() {
+        return col1;
+    }
+
+    public void setCol1(final String col1) {
+        this.col1 = col1;
+    }
+
+    public String getCol2() {
+        return col2;
+    }
+
+    public void setCol2(final String col2) {
+        this.col2 = col2;
+    }
+
+    public String getCol3() {
+        return col3;
+    }
+
+    public void setCol3(final String col3) {
+        this.col3 = col3;
+    }
+
+    public String getCol4() {
+        return col4;
+    }
+
+    public void setCol4(final String col4) {
+        this.col4 = col4;
+    }
+
+    public String getCol5() {
+        return col5;
+    }
+
+    public void setCol5(final String col5) {
+        this.col5 = col5;
+    }
+
+    public String getCol6() {
+        return col6;
+    }
+
+    public void setCol6(final String col6) {
+        this.col6 = col6;
+    }
+
+    public String getCol7() {
+        return col7;
+    }
+
+    public void setCol7(final String col7) {
+        this.col7 = col7;
+    }
+
+    public String getCol8() {
+        return col8;
+    }
+
+    public void setCol8(final String col8) {
+        this.col8 = col8;
+    }
+
+    public String getCol9() {
+        return col9;
+    }
+
+    public void setCol9(final String col9) {
+        this.col9 = col9;
+    }
+
+    public String getCol10() {
+        return col10;
+    }
+
+    public void setCol10(final String col10) {
+        this.col10 = col10;
+    }
+
+    public String getCol11() {
+        return col11;
+    }
+
+    public void setCol11(final String col11) {
+        this.col11 = col11;
+    }
+
+    public String getCol12() {
+        return col12;
+    }
+
+    public void setCol12(final String col12) {
+        this.col12 = col12;
+    }
+
+    public String getCol13() {
+        return col13;
+    }
+
+    public void setCol13(final String col13) {
+        this.col13 = col13;
+    }
+
+    public String getCol14() {
+        return col14;
+    }
+
+    public void setCol14(final String col14) {
+        this.col14 = col14;
+    }
+
+    public String getCol15() {
+        return col15;
+    }
+
+    public void setCol15(final String col15) {
+        this.col15 = col15;
+    }
+
+    public String getCol16() {
+        return col16;
+    }
+
+    public void setCol16(final String col16) {
+        this.col16 = col16;
+    }
+}
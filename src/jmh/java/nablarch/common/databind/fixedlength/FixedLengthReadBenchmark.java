@@ -0,0 +1,158 @@
+package nablarch.common.databind.fixedlength;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.common.databind.csv.CsvDataBindConfig;
+import nablarch.common.databind.csv.CsvMapMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 固定長ファイル読み込みのベンチマーク。
+ * <p/>
+ * 同じ内容のレコードを固定長ファイルとCSVで{@link #ROWS}件ずつ生成し、1レコードあたりの読み込み時間を比較する。
+ *
+ * @author Hisaaki Shioiri
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(FixedLengthReadBenchmark.ROWS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FixedLengthReadBenchmark {
+
+    /** 1回の呼び出しで読み込むレコード数 */
+    static final int ROWS = 1000;
+
+    /** 文字コード */
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    /** 項目数 */
+    @Param({"4", "16"})
+    public int columns;
+
+    /** フィールドのバイト数 */
+    @Param({"8", "64"})
+    public int fieldLength;
+
+    /** 固定長ファイルの設定 */
+    private FixedLengthDataBindConfig fixedLengthConfig;
+
+    /** CSVの設定 */
+    private CsvDataBindConfig csvConfig;
+
+    /** 固定長ファイルの入力データ */
+    private byte[] fixedLengthInput;
+
+    /** CSVの入力データ */
+    private byte[] csvInput;
+
+    /**
+     * 入力データを生成する。
+     */
+    @Setup
+    public void setup() {
+        final String[] names = new String[columns];
+        FixedLengthDataBindConfig config = new FixedLengthDataBindConfig(columns * fieldLength, CHARSET)
+                .withLineSeparator("\r\n");
+        for (int i = 0; i < columns; i++) {
+            names[i] = "field" + i;
+            config = config.withField(names[i], i * fieldLength + 1, fieldLength);
+        }
+        fixedLengthConfig = config;
+        csvConfig = CsvDataBindConfig.DEFAULT.withCharset(CHARSET.name()).withHeaderTitles(names);
+
+        final Random random = new Random(1);
+        final StringBuilder fixedLength = new StringBuilder();
+        final StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < columns; i++) {
+            csv.append(i == 0 ? "" : ",").append(names[i]);
+        }
+        csv.append("\r\n");
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < columns; column++) {
+                final int length = 1 + random.nextInt(fieldLength);
+                final StringBuilder value = new StringBuilder(length);
+                for (int i = 0; i < length; i++) {
+                    value.append((char) ('a' + random.nextInt(26)));
+                }
+                fixedLength.append(value);
+                for (int i = length; i < fieldLength; i++) {
+                    fixedLength.append(' ');
+                }
+                csv.append(column == 0 ? "" : ",").append(value);
+            }
+            fixedLength.append("\r\n");
+            csv.append("\r\n");
+        }
+        fixedLengthInput = fixedLength.toString().getBytes(CHARSET);
+        csvInput = csv.toString().getBytes(CHARSET);
+    }
+
+    /**
+     * {@link FixedLengthDataReader#read()}で全てのレコードを読み込む。
+     *
+     * @param blackhole {@link Blackhole}
+     * @throws IOException 読み込みに失敗した場合
+     */
+    @Benchmark
+    public void fixedLengthDataReaderRead(final Blackhole blackhole) throws IOException {
+        final FixedLengthDataReader reader = new FixedLengthDataReader(
+                new ByteArrayInputStream(fixedLengthInput), fixedLengthConfig);
+        String[] record;
+        while ((record = reader.read()) != null) {
+            blackhole.consume(record);
+        }
+        reader.close();
+    }
+
+    /**
+     * {@link FixedLengthMapMapper#read()}で全てのレコードを{@link Map}に変換する。
+     *
+     * @param blackhole {@link Blackhole}
+     */
+    @Benchmark
+    public void fixedLengthMapMapperRead(final Blackhole blackhole) {
+        final FixedLengthMapMapper mapper = new FixedLengthMapMapper(
+                fixedLengthConfig, new ByteArrayInputStream(fixedLengthInput));
+        Map<String, ?> map;
+        while ((map = mapper.read()) != null) {
+            blackhole.consume(map);
+        }
+        mapper.close();
+    }
+
+    /**
+     * 比較対象として、同じ内容のCSVを{@link CsvMapMapper#read()}で{@link Map}に変換する。
+     *
+     * @param blackhole {@link Blackhole}
+     */
+    @Benchmark
+    public void csvMapMapperRead(final Blackhole blackhole) {
+        final CsvMapMapper mapper = new CsvMapMapper(csvConfig, new ByteArrayInputStream(csvInput));
+        Map<String, ?> map;
+        while ((map = mapper.read()) != null) {
+            blackhole.consume(map);
+        }
+        mapper.close();
+    }
+}
@@ -0,0 +1,177 @@
+package nablarch.common.databind.fixedlength;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.common.databind.csv.CsvDataBindConfig;
+import nablarch.common.databind.csv.MapCsvMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 固定長ファイル書き込みのベンチマーク。
+ * <p/>
+ * 文字列と整数を交互に並べたレコードを{@link #ROWS}件書き込み、1レコードあたりの処理時間を計測する。
+ * 比較対象として、同じ内容をCSVで書き込む場合も計測する。
+ * 出力先は書き込んだバイト数のみを{@link Blackhole}に渡すため、I/Oの時間は含まない。
+ *
+ * @author Hisaaki Shioiri
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(FixedLengthWriteBenchmark.ROWS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FixedLengthWriteBenchmark {
+
+    /** 1回の呼び出しで書き込むレコード数 */
+    static final int ROWS = 1000;
+
+    /** 文字コード */
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    /** 項目数 */
+    @Param({"4", "16"})
+    public int columns;
+
+    /** フィールドのバイト数 */
+    @Param({"8", "64"})
+    public int fieldLength;
+
+    /** 固定長ファイルの設定 */
+    private FixedLengthDataBindConfig fixedLengthConfig;
+
+    /** CSVの設定 */
+    private CsvDataBindConfig csvConfig;
+
+    /** 書き込む値 */
+    private Object[][] values;
+
+    /** 書き込むMap */
+    private Map<String, ?>[] maps;
+
+    /**
+     * 書き込むデータを生成する。
+     */
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        final String[] names = new String[columns];
+        FixedLengthDataBindConfig config = new FixedLengthDataBindConfig(columns * fieldLength, CHARSET)
+                .withLineSeparator("\r\n");
+        for (int i = 0; i < columns; i++) {
+            names[i] = "field" + i;
+            final int offset = i * fieldLength + 1;
+            config = i % 2 == 0
+                    ? config.withField(names[i], offset, fieldLength)
+                    : config.withNumericField(names[i], offset, fieldLength);
+        }
+        fixedLengthConfig = config;
+        csvConfig = CsvDataBindConfig.DEFAULT.withCharset(CHARSET.name()).withHeaderTitles(names);
+
+        final Random random = new Random(1);
+        values = new Object[ROWS][columns];
+        maps = new Map[ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            final Map<String, Object> map = new HashMap<String, Object>();
+            for (int column = 0; column < columns; column++) {
+                final Object value;
+                if (column % 2 == 0) {
+                    final StringBuilder text = new StringBuilder();
+                    final int length = 1 + random.nextInt(fieldLength);
+                    for (int i = 0; i < length; i++) {
+                        text.append((char) ('a' + random.nextInt(26)));
+                    }
+                    value = text.toString();
+                } else {
+                    value = (long) random.nextInt(fieldLength < 9 ? (int) Math.pow(10, fieldLength) : Integer.MAX_VALUE);
+                }
+                values[row][column] = value;
+                map.put(names[column], value);
+            }
+            maps[row] = map;
+        }
+    }
+
+    /**
+     * 書き込んだバイト数のみを{@link Blackhole}に渡す出力ストリームを生成する。
+     *
+     * @param blackhole {@link Blackhole}
+     * @return 出力ストリーム
+     */
+    private static OutputStream nullStream(final Blackhole blackhole) {
+        return new OutputStream() {
+            @Override
+            public void write(final int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+                blackhole.consume(len);
+            }
+        };
+    }
+
+    /**
+     * {@link FixedLengthDataWriter#write(Object[])}で全てのレコードを書き込む。
+     *
+     * @param blackhole {@link Blackhole}
+     * @throws IOException 書き込みに失敗した場合
+     */
+    @Benchmark
+    public void fixedLengthDataWriterWrite(final Blackhole blackhole) throws IOException {
+        final FixedLengthDataWriter writer = new FixedLengthDataWriter(nullStream(blackhole), fixedLengthConfig);
+        for (Object[] record : values) {
+            writer.write(record);
+        }
+        writer.close();
+    }
+
+    /**
+     * {@link MapFixedLengthMapper#write(Object)}で全てのレコードを書き込む。
+     *
+     * @param blackhole {@link Blackhole}
+     */
+    @Benchmark
+    public void mapFixedLengthMapperWrite(final Blackhole blackhole) {
+        final MapFixedLengthMapper mapper = new MapFixedLengthMapper(fixedLengthConfig, nullStream(blackhole));
+        for (Map<String, ?> map : maps) {
+            mapper.write(map);
+        }
+        mapper.close();
+    }
+
+    /**
+     * 比較対象として、同じ内容を{@link MapCsvMapper#write(Object)}でCSVに書き込む。
+     *
+     * @param blackhole {@link Blackhole}
+     */
+    @Benchmark
+    public void mapCsvMapperWrite(final Blackhole blackhole) {
+        final MapCsvMapper mapper = new MapCsvMapper(csvConfig, nullStream(blackhole));
+        for (Map<String, ?> map : maps) {
+            mapper.write(map);
+        }
+        mapper.close();
+    }
+}
@@ -0,0 +1,212 @@
+package nablarch.common.databind;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 入出力で使用する{@code char}配列のバッファを再利用するためのプール。
+ * <p/>
+ * {@link ObjectMapper}は生成時にバッファを借り受け、{@link ObjectMapper#close()}で返却する。
+ * これにより、多数の小さなファイルを並行して処理する場合でも、ストリームごとにバッファを確保せずに済む。
+ * <p/>
+ * プールが保持するバッファの数には上限がある。
+ * プールが空の場合は新たにバッファを確保し、上限を超えて返却されたバッファは破棄する。
+ * 借り受け及び返却はロックを取得せずに行い、スレッドごとに異なる位置から空きを探索するため、
+ * 複数スレッドから同時に使用しても競合しにくい。
+ * <p/>
+ * {@link ThreadLocal}は使用しないため、アプリケーションサーバのスレッドにバッファが残り続けることはない。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class CharBufferPool {
+
+    /** デフォルトのバッファサイズ */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /** デフォルトのプール */
+    private static final CharBufferPool DEFAULT = new CharBufferPool(
+            DEFAULT_BUFFER_SIZE, Runtime.getRuntime().availableProcessors() * 4);
+
+    /** バッファサイズ */
+    private final int bufferSize;
+
+    /** バッファを保持するスロット */
+    private final AtomicReferenceArray<char[]> slots;
+
+    /** プールからバッファを取得できた回数 */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /** プールが空のため新たにバッファを確保した回数 */
+    private final AtomicLong missCount = new AtomicLong();
+
+    /** プールが満杯のため破棄したバッファの数 */
+    private final AtomicLong discardCount = new AtomicLong();
+
+    /**
+     * デフォルトのプールを取得する。
+     *
+     * @return デフォルトのプール
+     */
+    public static CharBufferPool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * {@code CharBufferPool}を生成する。
+     *
+     * @param bufferSize バッファサイズ
+     * @param capacity プールに保持するバッファの最大数
+     */
+    public CharBufferPool(final int bufferSize, final int capacity) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("buffer size must be greater than 0. buffer size = [" + bufferSize + ']');
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0. capacity = [" + capacity + ']');
+        }
+        this.bufferSize = bufferSize;
+        slots = new AtomicReferenceArray<char[]>(capacity);
+    }
+
+    /**
+     * バッファを借り受ける。
+     * <p/>
+     * 借り受けたバッファは、使用後に{@link #release(char[])}で返却すること。
+     * 返却したバッファは、以降使用してはならない。
+     *
+     * @return バッファ
+     */
+    public char[] borrow() {
+        final int capacity = slots.length();
+        final int start = startIndex(capacity);
+        for (int i = 0; i < capacity; i++) {
+            final int index = (start + i) % capacity;
+            final char[] buffer = slots.get(index);
+            if (buffer != null && slots.compareAndSet(index, buffer, null)) {
+                hitCount.incrementAndGet();
+                return buffer;
+            }
+        }
+        missCount.incrementAndGet();
+        return new char[bufferSize];
+    }
+
+    /**
+     * バッファを返却する。
+     * <p/>
+     * {@code null}やサイズの異なるバッファは無視する。
+     *
+     * @param buffer 返却するバッファ
+     */
+    public void release(final char[] buffer) {
+        if (buffer == null || buffer.length != bufferSize) {
+            return;
+        }
+        final int capacity = slots.length();
+        final int start = startIndex(capacity);
+        for (int i = 0; i < capacity; i++) {
+            final int index = (start + i) % capacity;
+            if (slots.get(index) == null && slots.compareAndSet(index, null, buffer)) {
+                return;
+            }
+        }
+        discardCount.incrementAndGet();
+    }
+
+    /**
+     * 探索を開始するスロットの位置を返す。
+     *
+     * @param capacity スロットの数
+     * @return 探索を開始する位置
+     */
+    private static int startIndex(final int capacity) {
+        return (int) (Thread.currentThread().getId() % capacity);
+    }
+
+    /**
+     * バッファサイズを取得する。
+     *
+     * @return バッファサイズ
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * プールに保持するバッファの最大数を取得する。
+     *
+     * @return バッファの最大数
+     */
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * 現在プールに保持しているバッファの数を取得する。
+     *
+     * @return バッファの数
+     */
+    public int getIdleCount() {
+        int count = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * プールからバッファを取得できた回数を取得する。
+     *
+     * @return プールからバッファを取得できた回数
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * プールが空のため新たにバッファを確保した回数を取得する。
+     *
+     * @return 新たにバッファを確保した回数
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * プールが満杯のため破棄したバッファの数を取得する。
+     *
+     * @return 破棄したバッファの数
+     */
+    public long getDiscardCount() {
+        return discardCount.get();
+    }
+
+    /**
+     * バッファの借り受けのうち、プールから取得できた割合を取得する。
+     * <p/>
+     * 一度も借り受けていない場合は{@code 0}を返す。
+     *
+     * @return プールから取得できた割合(0.0～1.0)
+     */
+    public double getHitRate() {
+        final long hit = hitCount.get();
+        final long total = hit + missCount.get();
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CharBufferPool{bufferSize=" + bufferSize
+                + ", capacity=" + slots.length()
+                + ", idle=" + getIdleCount()
+                + ", hit=" + hitCount.get()
+                + ", miss=" + missCount.get()
+                + ", discard=" + discardCount.get()
+                + '}';
+    }
+}
@@ -0,0 +1,150 @@
+package nablarch.common.databind;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link Class}をキーとして、クラスから導出した値を保持するキャッシュ。
+ * <p/>
+ * 参照はロックを取得せずに行う。値が存在しない場合は{@link #computeValue(Class)}で値を導出して格納する。
+ * 複数スレッドで同時に導出した場合は、最初に格納された値を全てのスレッドで使用する。
+ * <p/>
+ * キーのクラスは弱参照で保持するため、キャッシュがクラス(及びそのクラスローダ)のアンロードを妨げることはない。
+ * このため、値にはキーのクラスやそのクラスローダでロードしたオブジェクトを強参照で保持させないこと。
+ * <p/>
+ * {@code java.lang.ClassValue}と同じ役割を持つが、Java6でも動作するように実装している。
+ *
+ * @param <V> キャッシュする値の型
+ * @author Hisaaki Shioiri
+ */
+abstract class ClassCache<V> {
+
+    /** キャッシュ */
+    private final ConcurrentMap<Object, V> cache = new ConcurrentHashMap<Object, V>();
+
+    /** アンロードされたクラスのキーが登録されるキュー */
+    private final ReferenceQueue<Class<?>> queue = new ReferenceQueue<Class<?>>();
+
+    /**
+     * クラスに対応した値を取得する。
+     *
+     * @param clazz クラス
+     * @return クラスに対応した値
+     */
+    V get(final Class<?> clazz) {
+        final V cached = cache.get(new LookupKey(clazz));
+        if (cached != null) {
+            return cached;
+        }
+        expungeStaleEntries();
+        final V value = computeValue(clazz);
+        final V previous = cache.putIfAbsent(new WeakKey(clazz, queue), value);
+        return previous == null ? value : previous;
+    }
+
+    /**
+     * キャッシュしているエントリの数を返す。
+     *
+     * @return エントリの数
+     */
+    int size() {
+        expungeStaleEntries();
+        return cache.size();
+    }
+
+    /**
+     * クラスに対応した値を導出する。
+     * <p/>
+     * {@code null}を返してはならない。
+     *
+     * @param clazz クラス
+     * @return クラスに対応した値
+     */
+    protected abstract V computeValue(Class<?> clazz);
+
+    /**
+     * アンロードされたクラスのエントリを削除する。
+     */
+    private void expungeStaleEntries() {
+        Reference<? extends Class<?>> reference;
+        while ((reference = queue.poll()) != null) {
+            cache.remove(reference);
+        }
+    }
+
+    /**
+     * キャッシュに格納するキー。
+     * <p/>
+     * クラスを弱参照で保持し、クラスの同一性で比較する。
+     */
+    private static final class WeakKey extends WeakReference<Class<?>> {
+
+        /** ハッシュ値 */
+        private final int hash;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param clazz クラス
+         * @param queue 参照キュー
+         */
+        private WeakKey(final Class<?> clazz, final ReferenceQueue<Class<?>> queue) {
+            super(clazz, queue);
+            hash = System.identityHashCode(clazz);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            final Class<?> clazz = get();
+            if (clazz == null) {
+                return false;
+            }
+            if (obj instanceof LookupKey) {
+                return ((LookupKey) obj).clazz == clazz;
+            }
+            return obj instanceof WeakKey && ((WeakKey) obj).get() == clazz;
+        }
+    }
+
+    /**
+     * キャッシュを参照する際に使用する一時的なキー。
+     */
+    private static final class LookupKey {
+
+        /** クラス */
+        private final Class<?> clazz;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param clazz クラス
+         */
+        private LookupKey(final Class<?> clazz) {
+            this.clazz = clazz;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(clazz);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj instanceof WeakKey) {
+                return ((WeakKey) obj).get() == clazz;
+            }
+            return obj instanceof LookupKey && ((LookupKey) obj).clazz == clazz;
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package nablarch.common.databind;
 
 import java.beans.PropertyDescriptor;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 import nablarch.common.databind.csv.Csv;
 import nablarch.common.databind.csv.CsvDataBindConfig;
 import nablarch.common.databind.csv.CsvFormat;
+import nablarch.common.databind.csv.CsvLayoutMetadata;
+import nablarch.common.databind.csv.CsvLayouts;
+import nablarch.common.databind.csv.CsvMapperProvider;
+import nablarch.common.databind.csv.CsvMappingMetadata;
 import nablarch.common.databind.csv.Quoted;
+import nablarch.common.databind.csv.RecordType;
+import nablarch.common.databind.fixedlength.Field;
+import nablarch.common.databind.fixedlength.FixedLength;
+import nablarch.common.databind.fixedlength.FixedLengthDataBindConfig;
+import nablarch.common.databind.fixedlength.FixedLengthField;
+import nablarch.common.databind.fixedlength.FixedLengthMappingMetadata;
 import nablarch.core.beans.BeanUtil;
 import nablarch.core.beans.BeansException;
 import nablarch.core.util.annotation.Published;
@@ -27,25 +38,92 @@ public final class DataBindUtil {
     }
 
     /** {@link Csv#properties()}に設定されているプロパティ名配列のキャッシュ */
-    private static final Map<Class<?>, String[]> CSV_PROPERTY_NAMES_MAP = new WeakHashMap<Class<?>, String[]>();
+    private static final ClassCache<String[]> CSV_PROPERTY_NAMES_CACHE = new ClassCache<String[]>() {
+        @Override
+        protected String[] computeValue(final Class<?> clazz) {
+            return clazz.getAnnotation(Csv.class)
+                    .properties();
+        }
+    };
 
     /**
      * クラスに対応したCSVのプロパティ情報を取得する。
      * <p/>
      * キャッシュ上にCSVのプロパティ情報が存在する場合はその情報を返す。
      * まだキャッシュされていない場合には、CSVのプロパティ情報を生成しキャッシュに格納する。
+     * <p/>
+     * キャッシュの参照はロックを取得せずに行うため、複数スレッドから同時に呼び出しても待ち合わせは発生しない。
      *
      * @param clazz Beanの{@link Class}
      * @return CSVのプロパティ情報
      */
-    public static synchronized String[] findCsvProperties(final Class<?> clazz) {
-        String[] propertyNames = CSV_PROPERTY_NAMES_MAP.get(clazz);
-        if (propertyNames == null) {
-            propertyNames = clazz.getAnnotation(Csv.class)
-                    .properties();
-            CSV_PROPERTY_NAMES_MAP.put(clazz, propertyNames);
+    public static String[] findCsvProperties(final Class<?> clazz) {
+        return CSV_PROPERTY_NAMES_CACHE.get(clazz);
+    }
+
+    /** {@link CsvMapperProvider}が生成されていないことを表す値 */
+    private static final Object NO_PROVIDER = new Object();
+
+    /**
+     * コンパイル時に生成された{@link CsvMapperProvider}のキャッシュ。
+     * <p/>
+     * 生成されていないクラスは{@link #NO_PROVIDER}を、生成されているクラスは{@link CsvMapperProvider}の弱参照を保持する。
+     * 生成クラスのインスタンスは生成クラス自身が保持しているため、Beanのクラスが存在する間は弱参照が回収されることはない。
+     * 弱参照で保持することで、キャッシュがBeanのクラスローダを保持し続けることはない。
+     */
+    private static final ClassCache<Object> CSV_MAPPER_PROVIDER_CACHE = new ClassCache<Object>() {
+        @Override
+        protected Object computeValue(final Class<?> clazz) {
+            final CsvMapperProvider<?> provider = loadCsvMapperProvider(clazz);
+            return provider == null ? NO_PROVIDER : new WeakReference<CsvMapperProvider<?>>(provider);
+        }
+    };
+
+    /**
+     * クラスに対応したコンパイル時生成の{@link CsvMapperProvider}を取得する。
+     * <p/>
+     * Beanと同じパッケージに{@link CsvMapperProvider#CLASS_NAME_SUFFIX}を付与した名前のクラスが存在する場合、
+     * そのクラスが保持するインスタンスを返す。
+     *
+     * @param clazz Beanの{@link Class}
+     * @param <T> Beanの型
+     * @return 生成された{@link CsvMapperProvider}(存在しない場合は{@code null})
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CsvMapperProvider<T> findCsvMapperProvider(final Class<T> clazz) {
+        final Object cached = CSV_MAPPER_PROVIDER_CACHE.get(clazz);
+        if (cached == NO_PROVIDER) {
+            return null;
+        }
+        return ((WeakReference<CsvMapperProvider<T>>) cached).get();
+    }
+
+    /**
+     * コンパイル時に生成された{@link CsvMapperProvider}をロードする。
+     *
+     * @param clazz Beanの{@link Class}
+     * @param <T> Beanの型
+     * @return 生成された{@link CsvMapperProvider}(存在しない場合は{@code null})
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> CsvMapperProvider<T> loadCsvMapperProvider(final Class<T> clazz) {
+        final ClassLoader classLoader = clazz.getClassLoader();
+        if (classLoader == null || clazz.getAnnotation(Csv.class) == null) {
+            return null;
+        }
+        final String providerClassName = clazz.getName().replace('$', '_') + CsvMapperProvider.CLASS_NAME_SUFFIX;
+        try {
+            final Class<?> providerClass = Class.forName(providerClassName, true, classLoader);
+            if (!CsvMapperProvider.class.isAssignableFrom(providerClass)) {
+                return null;
+            }
+            return (CsvMapperProvider<T>) providerClass.getField(CsvMapperProvider.INSTANCE_FIELD_NAME).get(null);
+        } catch (ClassNotFoundException ignored) {
+            return null;
+        } catch (Exception e) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "failed to load generated mapper. class = [{0}]", providerClassName), e);
         }
-        return propertyNames;
     }
 
     /**
@@ -56,6 +134,29 @@ public final class DataBindUtil {
      */
     @Published(tag = "architect")
     public static String findLineNumberProperty(final Class<?> clazz) {
+        final String propertyName = LINE_NUMBER_PROPERTY_CACHE.get(clazz);
+        return propertyName == NO_LINE_NUMBER_PROPERTY ? null : propertyName;
+    }
+
+    /** ファイル行数を保持するプロパティが存在しないことを表す値 */
+    private static final String NO_LINE_NUMBER_PROPERTY = new String();
+
+    /** ファイル行数を保持するプロパティ名のキャッシュ(存在しないクラスは{@link #NO_LINE_NUMBER_PROPERTY}) */
+    private static final ClassCache<String> LINE_NUMBER_PROPERTY_CACHE = new ClassCache<String>() {
+        @Override
+        protected String computeValue(final Class<?> clazz) {
+            final String propertyName = scanLineNumberProperty(clazz);
+            return propertyName == null ? NO_LINE_NUMBER_PROPERTY : propertyName;
+        }
+    };
+
+    /**
+     * Beanのプロパティからファイル行数を保持するプロパティを検索する。
+     *
+     * @param clazz Beanの{@link Class}
+     * @return ファイル行数を保持するプロパティ名(存在しない場合は{@code null})
+     */
+    private static String scanLineNumberProperty(final Class<?> clazz) {
         String propertyName = null;
         for (PropertyDescriptor pd : BeanUtil.getPropertyDescriptors(clazz)) {
             if (hasLineNumberProperty(pd)) {
@@ -69,19 +170,240 @@ public final class DataBindUtil {
         return propertyName;
     }
 
+    /** Beanに定義されたCSVのマッピング情報のキャッシュ */
+    private static final ClassCache<CsvMappingMetadata> CSV_MAPPING_METADATA_CACHE = new ClassCache<CsvMappingMetadata>() {
+        @Override
+        protected CsvMappingMetadata computeValue(final Class<?> clazz) {
+            final CsvDataBindConfig config = buildCsvDataBindConfig(clazz);
+            return new CsvMappingMetadata(config, findCsvProperties(clazz), findLineNumberProperty(clazz));
+        }
+    };
+
+    /**
+     * Beanに定義されたCSVのマッピング情報を取得する。
+     * <p/>
+     * マッピング情報はクラスごとに一度だけ構築し、キャッシュする。
+     * キャッシュの参照はロックを取得せずに行う。
+     *
+     * @param clazz Beanクラス
+     * @return CSVのマッピング情報
+     * @throws IllegalStateException Beanに定義されたCSVの設定が不正な場合
+     */
+    public static CsvMappingMetadata findCsvMappingMetadata(final Class<?> clazz) {
+        return CSV_MAPPING_METADATA_CACHE.get(clazz);
+    }
+
+    /** Beanに定義された固定長ファイルのマッピング情報のキャッシュ */
+    private static final ClassCache<FixedLengthMappingMetadata> FIXED_LENGTH_MAPPING_METADATA_CACHE =
+            new ClassCache<FixedLengthMappingMetadata>() {
+                @Override
+                protected FixedLengthMappingMetadata computeValue(final Class<?> clazz) {
+                    return new FixedLengthMappingMetadata(
+                            buildFixedLengthDataBindConfig(clazz), findLineNumberProperty(clazz));
+                }
+            };
+
+    /**
+     * Beanに定義された固定長ファイルのマッピング情報を取得する。
+     * <p/>
+     * マッピング情報はクラスごとに一度だけ構築し、キャッシュする。
+     * キャッシュの参照はロックを取得せずに行う。
+     *
+     * @param clazz Beanクラス
+     * @return 固定長ファイルのマッピング情報
+     * @throws IllegalStateException Beanに定義された固定長ファイルの設定が不正な場合
+     */
+    public static FixedLengthMappingMetadata findFixedLengthMappingMetadata(final Class<?> clazz) {
+        return FIXED_LENGTH_MAPPING_METADATA_CACHE.get(clazz);
+    }
+
+    /** マルチレイアウトファイルのマッピング情報のキャッシュ */
+    private static final ClassCache<CsvLayoutMetadata> CSV_LAYOUT_METADATA_CACHE = new ClassCache<CsvLayoutMetadata>() {
+        @Override
+        protected CsvLayoutMetadata computeValue(final Class<?> clazz) {
+            return buildCsvLayoutMetadata(clazz);
+        }
+    };
+
+    /**
+     * {@link CsvLayouts}を設定した型に定義されたマルチレイアウトファイルのマッピング情報を取得する。
+     * <p/>
+     * マッピング情報は型ごとに一度だけ構築し、キャッシュする。
+     *
+     * @param clazz レイアウトに共通する型
+     * @return マルチレイアウトファイルのマッピング情報
+     * @throws IllegalStateException 型に定義されたレイアウトが不正な場合
+     */
+    public static CsvLayoutMetadata findCsvLayoutMetadata(final Class<?> clazz) {
+        return CSV_LAYOUT_METADATA_CACHE.get(clazz);
+    }
+
     /**
      * Beanの{@link Class}に設定された{@link DataBindConfig}を取得する。
+     * <p/>
+     * {@link FixedLength}が設定されている場合は固定長ファイルの設定を、
+     * {@link CsvLayouts}が設定されている場合は各レイアウトに共通するCSVの設定を、それ以外の場合はCSVの設定を返す。
      *
      * @param clazz Beanクラス
      * @param <T> 総称型
      * @return {@link DataBindConfig}オブジェクト
      */
     public static <T> DataBindConfig createDataBindConfig(Class<T> clazz) {
+        if (clazz.isAnnotationPresent(FixedLength.class)) {
+            return findFixedLengthMappingMetadata(clazz).getConfig();
+        }
+        if (clazz.isAnnotationPresent(CsvLayouts.class)) {
+            return findCsvLayoutMetadata(clazz).getConfig();
+        }
+        return findCsvMappingMetadata(clazz).getConfig();
+    }
+
+    /**
+     * {@link CsvLayouts}を設定した型から{@link CsvLayoutMetadata}を構築する。
+     * <p/>
+     * 各レイアウトのCSVフォーマットは、先頭のレイアウトと同じであることを検証する。
+     *
+     * @param clazz レイアウトに共通する型
+     * @return {@link CsvLayoutMetadata}オブジェクト
+     */
+    private static CsvLayoutMetadata buildCsvLayoutMetadata(final Class<?> clazz) {
+        final CsvLayouts csvLayouts = clazz.getAnnotation(CsvLayouts.class);
+        if (csvLayouts == null) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "can not find config. class = [{0}]", clazz.getName()));
+        }
+        final Class<?>[] layoutClasses = csvLayouts.value();
+        if (layoutClasses.length == 0) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "layouts is required. class = [{0}]", clazz.getName()));
+        }
+        if (csvLayouts.recordTypeIndex() < 0) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "record type index must not be negative. class = [{0}]", clazz.getName()));
+        }
+        final String[] recordTypes = new String[layoutClasses.length];
+        final CsvMappingMetadata[] layouts = new CsvMappingMetadata[layoutClasses.length];
+        for (int i = 0; i < layoutClasses.length; i++) {
+            final Class<?> layoutClass = layoutClasses[i];
+            if (!clazz.isAssignableFrom(layoutClass)) {
+                throw new IllegalStateException(MessageFormat.format(
+                        "layout class must be subtype of {0}. class = [{1}]", clazz.getName(), layoutClass.getName()));
+            }
+            final RecordType recordType = layoutClass.getAnnotation(RecordType.class);
+            if (recordType == null) {
+                throw new IllegalStateException(MessageFormat.format(
+                        "record type is required. class = [{0}]", layoutClass.getName()));
+            }
+            final CsvMappingMetadata layout = findCsvMappingMetadata(layoutClass);
+            if (layout.getConfig().isRequiredHeader()) {
+                throw new IllegalStateException(MessageFormat.format(
+                        "header can not be required in multi layout csv. class = [{0}]", layoutClass.getName()));
+            }
+            if (layout.getPropertyNames().length <= csvLayouts.recordTypeIndex()) {
+                throw new IllegalStateException(MessageFormat.format(
+                        "record type index exceeds properties size. class = [{0}]", layoutClass.getName()));
+            }
+            if (i > 0 && !isSameFormat(layouts[0].getConfig(), layout.getConfig())) {
+                throw new IllegalStateException(MessageFormat.format(
+                        "csv format does not match first layout. class = [{0}]", layoutClass.getName()));
+            }
+            recordTypes[i] = recordType.value();
+            layouts[i] = layout;
+        }
+        try {
+            return new CsvLayoutMetadata(layouts[0].getConfig(), csvLayouts.recordTypeIndex(), recordTypes, layouts);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "invalid layouts. class = [{0}]", clazz.getName()), e);
+        }
+    }
+
+    /**
+     * 2つのCSVの設定が、読み込みに関して同じフォーマットであるか否かを判定する。
+     *
+     * @param expected 比較元の設定
+     * @param actual 比較先の設定
+     * @return 同じフォーマットの場合は{@code true}
+     */
+    private static boolean isSameFormat(final CsvDataBindConfig expected, final CsvDataBindConfig actual) {
+        return expected.getFieldSeparator() == actual.getFieldSeparator()
+                && expected.getLineSeparator().equals(actual.getLineSeparator())
+                && expected.getQuote() == actual.getQuote()
+                && expected.isIgnoreEmptyLine() == actual.isIgnoreEmptyLine()
+                && expected.getCharset().equals(actual.getCharset())
+                && expected.isEmptyToNull() == actual.isEmptyToNull();
+    }
+
+    /**
+     * Beanの{@link Class}に設定されたアノテーションから{@link FixedLengthDataBindConfig}を構築する。
+     *
+     * @param clazz Beanクラス
+     * @return {@link FixedLengthDataBindConfig}オブジェクト
+     */
+    private static FixedLengthDataBindConfig buildFixedLengthDataBindConfig(final Class<?> clazz) {
+        final FixedLength fixedLength = clazz.getAnnotation(FixedLength.class);
+        if (fixedLength == null) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "can not find config. class = [{0}]", clazz.getName()));
+        }
+        final List<FixedLengthField> fields = new ArrayList<FixedLengthField>();
+        for (PropertyDescriptor pd : BeanUtil.getPropertyDescriptors(clazz)) {
+            final Method getter = pd.getReadMethod();
+            final Field field = getter == null ? null : getter.getAnnotation(Field.class);
+            if (field != null) {
+                fields.add(new FixedLengthField(pd.getName(), field.offset(), field.length(), field.numeric()));
+            }
+        }
+        if (fields.isEmpty()) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "fields is required. class = [{0}]", clazz.getName()));
+        }
+        try {
+            return new FixedLengthDataBindConfig(fixedLength.length(), Charset.forName(fixedLength.charset()),
+                    fixedLength.lineSeparator(), fixedLength.fillChar(), fields);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "invalid fixed length config. class = [{0}]", clazz.getName()), e);
+        }
+    }
+
+    /**
+     * Beanの{@link Class}に設定されたアノテーションから{@link CsvDataBindConfig}を構築する。
+     *
+     * @param clazz Beanクラス
+     * @return {@link CsvDataBindConfig}オブジェクト
+     */
+    private static CsvDataBindConfig buildCsvDataBindConfig(final Class<?> clazz) {
         final Csv csv = clazz.getAnnotation(Csv.class);
-        verifyCsvConfig(clazz, csv);
+        if (csv == null) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "can not find config. class = [{0}]", clazz.getName()));
+        }
+        final CsvDataBindConfig config = createCsvDataBindConfig(
+                clazz.getName(), csv, clazz.getAnnotation(CsvFormat.class));
+        if (config.getQuoteMode() == CsvDataBindConfig.QuoteMode.CUSTOM) {
+            return config.withQuotedColumnNames(findQuotedItemList(clazz));
+        }
+        return config;
+    }
 
-        CsvFormat csvFormat = clazz.getAnnotation(CsvFormat.class);
-        verifyCsvFormat(clazz, csv, csvFormat);
+    /**
+     * {@link Csv}及び{@link CsvFormat}の設定から{@link CsvDataBindConfig}を構築する。
+     * <p/>
+     * 実行時のリフレクションによる構築と、{@link nablarch.common.databind.csv.processor.CsvMapperProcessor}による
+     * コンパイル時の構築で同じ規則を使用するために公開している。
+     * {@link CsvDataBindConfig.QuoteMode#CUSTOM}の場合のクォート対象の項目は、呼び出し元で設定すること。
+     *
+     * @param className Beanのクラス名(例外のメッセージに使用する)
+     * @param csv CSV設定
+     * @param csvFormat CSVフォーマット(設定されていない場合は{@code null})
+     * @return {@link CsvDataBindConfig}オブジェクト
+     * @throws IllegalStateException CSVの設定が不正な場合
+     */
+    public static CsvDataBindConfig createCsvDataBindConfig(
+            final String className, final Csv csv, final CsvFormat csvFormat) {
+        verifyCsvConfig(className, csv);
+        verifyCsvFormat(className, csv, csvFormat);
 
         CsvDataBindConfig config;
         if (csvFormat == null) {
@@ -98,16 +420,12 @@ public final class DataBindUtil {
                     .withQuoteMode(csvFormat.quoteMode());
         }
 
-        if (config.getQuoteMode() == CsvDataBindConfig.QuoteMode.CUSTOM) {
-            config = config.withQuotedColumnNames(findQuotedItemList(clazz));
-        }
-
         if (config.isRequiredHeader()) {
             if (csv.headers().length == csv.properties().length) {
                 config = config.withHeaderTitles(csv.headers());
             } else {
                 throw new IllegalStateException(MessageFormat.format(
-                        "headers and properties size does not match. class = [{0}]", clazz.getName()));
+                        "headers and properties size does not match. class = [{0}]", className));
             }
         }
 
@@ -197,33 +515,26 @@ public final class DataBindUtil {
 
     /**
      * CSVフォーマットの設定が正しいことを検証する。
-     * @param clazz Beanクラス
+     * @param className Beanのクラス名
      * @param csv CSV設定
      * @param csvFormat CSVフォーマット
-     * @param <T> Beanクラスの型
      */
-    private static <T> void verifyCsvFormat(Class<T> clazz, Csv csv, CsvFormat csvFormat) {
+    private static void verifyCsvFormat(String className, Csv csv, CsvFormat csvFormat) {
         if (csv.type() != Csv.CsvType.CUSTOM && csvFormat != null) {
             throw new IllegalStateException(MessageFormat.format(
-                    "CsvFormat annotation can not defined because CsvType is not CUSTOM. class = [{0}]", clazz.getName()));
+                    "CsvFormat annotation can not defined because CsvType is not CUSTOM. class = [{0}]", className));
         }
     }
 
     /**
      * CSVの設定が正しいことを検証する。
-     * @param clazz Beanクラス
+     * @param className Beanのクラス名
      * @param csv CSV設定
-     * @param <T> Beanクラスの型
      */
-    private static <T> void verifyCsvConfig(Class<T> clazz, Csv csv) {
-        if (csv == null) {
-            throw new IllegalStateException(MessageFormat.format(
-                    "can not find config. class = [{0}]", clazz.getName()));
-        }
-
+    private static void verifyCsvConfig(String className, Csv csv) {
         if (csv.properties().length == 0) {
             throw new IllegalStateException(MessageFormat.format(
-                    "properties is required. class = [{0}]", clazz.getName()));
+                    "properties is required. class = [{0}]", className));
         }
     }
 
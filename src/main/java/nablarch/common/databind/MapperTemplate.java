@@ -0,0 +1,80 @@
+package nablarch.common.databind;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 特定のクラス及び設定に対する{@link ObjectMapper}を繰り返し生成するテンプレート。
+ * <p/>
+ * 設定情報の解決やファクトリの取得はテンプレートの生成時に一度だけ行うため、
+ * 同じクラスで多数のストリームを扱う場合は{@link ObjectMapperFactory#create(Class, InputStream)}
+ * などを都度呼び出すよりも少ないコストで{@link ObjectMapper}を生成できる。
+ * <p/>
+ * 実装クラスはスレッドセーフでなければならない。
+ * 生成した{@link ObjectMapper}はスレッドセーフではないため、スレッド間で共有しないこと。
+ *
+ * @param <T> バインディング対象のJavaのクラス
+ * @author Hisaaki Shioiri
+ * @see ObjectMapperFactory#createTemplate(Class)
+ * @see ObjectMapperFactory#createTemplate(Class, DataBindConfig)
+ */
+@Published(tag = "architect")
+public interface MapperTemplate<T> {
+
+    /**
+     * 入力用の{@link ObjectMapper}を生成する。
+     * <p/>
+     * {@code stream}は、使用後に{@link ObjectMapper#close()}を呼び出して閉じること。
+     *
+     * @param stream 入力ストリーム
+     * @return データとJava ObjectのMapper
+     */
+    @Published
+    ObjectMapper<T> create(InputStream stream);
+
+    /**
+     * 入力用の{@link ObjectMapper}を生成する。
+     * <p/>
+     * {@code reader}は、使用後に{@link ObjectMapper#close()}を呼び出して閉じること。
+     *
+     * @param reader リーダ
+     * @return データとJava ObjectのMapper
+     */
+    @Published
+    ObjectMapper<T> create(Reader reader);
+
+    /**
+     * 入力用の{@link ObjectMapper}を生成する。
+     *
+     * @param input 入力テキスト
+     * @return データとJava ObjectのMapper
+     */
+    @Published
+    ObjectMapper<T> create(String input);
+
+    /**
+     * 出力用の{@link ObjectMapper}を生成する。
+     * <p/>
+     * {@code stream}は、使用後に{@link ObjectMapper#close()}を呼び出して閉じること。
+     *
+     * @param stream 出力ストリーム
+     * @return データとJava ObjectのMapper
+     */
+    @Published
+    ObjectMapper<T> create(OutputStream stream);
+
+    /**
+     * 出力用の{@link ObjectMapper}を生成する。
+     * <p/>
+     * {@code writer}は、使用後に{@link ObjectMapper#close()}を呼び出して閉じること。
+     *
+     * @param writer ライタ
+     * @return データとJava ObjectのMapper
+     */
+    @Published
+    ObjectMapper<T> create(Writer writer);
+}
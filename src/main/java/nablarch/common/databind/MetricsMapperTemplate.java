@@ -0,0 +1,99 @@
+package nablarch.common.databind;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+
+import nablarch.common.databind.metrics.MapperMetrics;
+import nablarch.common.databind.metrics.MapperMetricsListener;
+import nablarch.common.databind.metrics.MetricsAware;
+
+/**
+ * 生成した{@link ObjectMapper}のメトリクスを収集する{@link MapperTemplate}。
+ *
+ * @param <T> バインディング対象のJavaのクラス
+ * @author Hisaaki Shioiri
+ */
+class MetricsMapperTemplate<T> implements MapperTemplate<T> {
+
+    /** 委譲先のテンプレート */
+    private final MapperTemplate<T> delegate;
+
+    /** バインディング対象のクラス */
+    private final Class<T> clazz;
+
+    /** メトリクスの通知先 */
+    private final MapperMetricsListener listener;
+
+    /** 処理時間を計測する間隔(レコード数) */
+    private final int samplingInterval;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param delegate 委譲先のテンプレート
+     * @param clazz バインディング対象のクラス
+     * @param listener メトリクスの通知先
+     * @param samplingInterval 処理時間を計測する間隔(レコード数)
+     */
+    MetricsMapperTemplate(final MapperTemplate<T> delegate, final Class<T> clazz,
+            final MapperMetricsListener listener, final int samplingInterval) {
+        this.delegate = delegate;
+        this.clazz = clazz;
+        this.listener = listener;
+        this.samplingInterval = samplingInterval;
+    }
+
+    @Override
+    public ObjectMapper<T> create(final InputStream stream) {
+        final MapperMetrics metrics = createMetrics(MapperMetrics.Direction.READ);
+        return attach(delegate.create(metrics.countBytes(stream)), metrics);
+    }
+
+    @Override
+    public ObjectMapper<T> create(final Reader reader) {
+        return attach(delegate.create(reader), createMetrics(MapperMetrics.Direction.READ));
+    }
+
+    @Override
+    public ObjectMapper<T> create(final String input) {
+        return create(new StringReader(input));
+    }
+
+    @Override
+    public ObjectMapper<T> create(final OutputStream stream) {
+        final MapperMetrics metrics = createMetrics(MapperMetrics.Direction.WRITE);
+        return attach(delegate.create(metrics.countBytes(stream)), metrics);
+    }
+
+    @Override
+    public ObjectMapper<T> create(final Writer writer) {
+        return attach(delegate.create(writer), createMetrics(MapperMetrics.Direction.WRITE));
+    }
+
+    /**
+     * メトリクスの収集先を生成する。
+     *
+     * @param direction 処理の方向
+     * @return メトリクスの収集先
+     */
+    private MapperMetrics createMetrics(final MapperMetrics.Direction direction) {
+        return new MapperMetrics(clazz, direction, listener, samplingInterval);
+    }
+
+    /**
+     * {@link ObjectMapper}にメトリクスの収集先を設定する。
+     *
+     * @param mapper {@link ObjectMapper}
+     * @param metrics メトリクスの収集先
+     * @return {@code mapper}
+     */
+    private ObjectMapper<T> attach(final ObjectMapper<T> mapper, final MapperMetrics metrics) {
+        if (mapper instanceof MetricsAware) {
+            ((MetricsAware) mapper).setMetrics(metrics);
+        }
+        return mapper;
+    }
+}
@@ -1,7 +1,9 @@
 package nablarch.common.databind;
 
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.Writer;
@@ -9,9 +11,25 @@ import java.util.Map;
 
 import nablarch.common.databind.csv.BeanCsvMapper;
 import nablarch.common.databind.csv.CsvBeanMapper;
+import nablarch.common.databind.csv.CsvBeanMapperTemplate;
 import nablarch.common.databind.csv.CsvDataBindConfig;
 import nablarch.common.databind.csv.CsvMapMapper;
+import nablarch.common.databind.csv.CsvMapMapperTemplate;
+import nablarch.common.databind.csv.CsvMapperProvider;
+import nablarch.common.databind.csv.CsvLayoutMetadata;
+import nablarch.common.databind.csv.CsvLayouts;
+import nablarch.common.databind.csv.CsvMappingMetadata;
 import nablarch.common.databind.csv.MapCsvMapper;
+import nablarch.common.databind.csv.MultiLayoutCsvMapper;
+import nablarch.common.databind.csv.PositionedReader;
+import nablarch.common.databind.fixedlength.BeanFixedLengthMapper;
+import nablarch.common.databind.fixedlength.FixedLengthBeanMapper;
+import nablarch.common.databind.fixedlength.FixedLengthDataBindConfig;
+import nablarch.common.databind.fixedlength.FixedLengthMapMapper;
+import nablarch.common.databind.fixedlength.MapFixedLengthMapper;
+import nablarch.common.databind.metrics.MapperMetrics;
+import nablarch.common.databind.metrics.MapperMetricsListener;
+import nablarch.common.databind.metrics.MetricsAware;
 import nablarch.core.repository.SystemRepository;
 import nablarch.core.util.annotation.Published;
 
@@ -24,6 +42,16 @@ import nablarch.core.util.annotation.Published;
  *     そのオブジェクトを利用する。</li>
  *     <li>SystemRepositoryに登録されていない場合、本クラスをファクトリクラスとして利用する。</li>
  * </ul>
+ * <p/>
+ * Beanに対応する{@link CsvMapperProvider}がコンパイル時に生成されている場合は、
+ * リフレクションを使用するMapperではなく生成されたMapperを使用する。
+ * <p/>
+ * 同じクラスで多数のストリームを扱う場合は、{@link #createTemplate(Class)}で生成した{@link MapperTemplate}
+ * を使い回すことで、{@link ObjectMapper}の生成ごとに発生する設定の解決などを省略できる。
+ * <p/>
+ * {@link #setMetricsListener(MapperMetricsListener)}でリスナを設定した場合は、生成した{@link ObjectMapper}の
+ * 処理件数や処理時間などのメトリクスを収集し、{@link ObjectMapper#close()}時にリスナに通知する。
+ * リスナを設定しない場合は、メトリクスの収集は行わない。
  *
  * @see ObjectMapper
  *
@@ -35,6 +63,12 @@ public class ObjectMapperFactory {
     /** 唯一のインスタンス */
     private static final ObjectMapperFactory FACTORY = new ObjectMapperFactory();
 
+    /** メトリクスの通知先(収集しない場合は{@code null}) */
+    private MapperMetricsListener metricsListener;
+
+    /** 処理時間を計測する間隔(レコード数) */
+    private int metricsSamplingInterval = 100;
+
     // -------------------------------------------------- static factory method
     /**
      * 入力用の{@link ObjectMapper}を生成する。
@@ -206,6 +240,84 @@ public class ObjectMapperFactory {
         return factory.createMapper(clazz, writer, dataBindConfig);
     }
 
+    /**
+     * 指定された位置から読み込みを開始する{@link ResumableObjectMapper}を生成する。
+     * <p/>
+     * {@code stream}はファイルの先頭を指していること。{@code position}のバイト位置まで読み飛ばしてから読み込みを開始する。
+     * {@link java.io.FileInputStream}を指定した場合、読み飛ばしはシークとなるため、それまでのデータは読み込まない。
+     * ファイルの途中から再開する場合、ヘッダ行は読み込まない。
+     * 行番号は{@code position}の行番号から数えるため、{@link LineNumber}には再開前と連続した値が設定される。
+     * <p/>
+     * 初回の読み込みでは{@link ReadPosition#START}を指定する。
+     * 読み込み中は{@link ResumableObjectMapper#getPosition()}で位置を取得し、コミットのタイミングで保存しておくこと。
+     * <p/>
+     * 現在はCSVのみをサポートする。
+     * 読み込み位置は読み込んだ文字を元の文字コードのバイト数に換算して求めるため、
+     * 入力はその文字コードとして正しいバイト列である必要がある。
+     *
+     * @param clazz バインディング対象のJavaのクラス
+     * @param stream 入力ストリーム
+     * @param position 読み込みを開始する位置
+     * @param <T> バインディング対象のJavaのクラス
+     * @return データとJava ObjectのMapper
+     */
+    @Published
+    public static <T> ResumableObjectMapper<T> createResumable(
+            final Class<T> clazz, final InputStream stream, final ReadPosition position) {
+        final ObjectMapperFactory factory = createFactory();
+        return factory.createResumableMapper(clazz, stream, position);
+    }
+
+    /**
+     * 指定された位置から読み込みを開始する{@link ResumableObjectMapper}を生成する。
+     * <p/>
+     * 詳細は{@link #createResumable(Class, InputStream, ReadPosition)}を参照。
+     *
+     * @param clazz バインディング対象のJavaのクラス
+     * @param stream 入力ストリーム
+     * @param dataBindConfig マッパー設定
+     * @param position 読み込みを開始する位置
+     * @param <T> バインディング対象のJavaのクラス
+     * @return データとJava ObjectのMapper
+     */
+    @Published
+    public static <T> ResumableObjectMapper<T> createResumable(final Class<T> clazz, final InputStream stream,
+            final DataBindConfig dataBindConfig, final ReadPosition position) {
+        final ObjectMapperFactory factory = createFactory();
+        return factory.createResumableMapper(clazz, stream, dataBindConfig, position);
+    }
+
+    /**
+     * {@link ObjectMapper}を繰り返し生成するための{@link MapperTemplate}を生成する。
+     * <p/>
+     * 同じクラスで多数のストリームを扱う場合は、本メソッドで生成したテンプレートを保持して使い回すこと。
+     *
+     * @param clazz バインディング対象のJavaのクラス
+     * @param <T> バインディング対象のJavaのクラス
+     * @return {@link ObjectMapper}のテンプレート
+     */
+    @Published
+    public static <T> MapperTemplate<T> createTemplate(final Class<T> clazz) {
+        final ObjectMapperFactory factory = createFactory();
+        return factory.createMapperTemplate(clazz);
+    }
+
+    /**
+     * {@link ObjectMapper}を繰り返し生成するための{@link MapperTemplate}を生成する。
+     * <p/>
+     * 同じクラスで多数のストリームを扱う場合は、本メソッドで生成したテンプレートを保持して使い回すこと。
+     *
+     * @param clazz バインディング対象のJavaのクラス
+     * @param dataBindConfig マッパー設定
+     * @param <T> バインディング対象のJavaのクラス
+     * @return {@link ObjectMapper}のテンプレート
+     */
+    @Published
+    public static <T> MapperTemplate<T> createTemplate(final Class<T> clazz, final DataBindConfig dataBindConfig) {
+        final ObjectMapperFactory factory = createFactory();
+        return factory.createMapperTemplate(clazz, dataBindConfig);
+    }
+
     // -------------------------------------------------- instance factory method
 
     /**
@@ -219,12 +331,27 @@ public class ObjectMapperFactory {
     @SuppressWarnings("unchecked")
     public <T> ObjectMapper<T> createMapper(
             final Class<T> clazz, final InputStream stream) {
+        final MapperMetrics metrics = createMetrics(clazz, MapperMetrics.Direction.READ, stream);
+        final InputStream counted = metrics == null ? stream : metrics.countBytes(stream);
+        final CsvMapperProvider<T> provider = DataBindUtil.findCsvMapperProvider(clazz);
+        if (provider != null) {
+            return withMetrics(provider.createReader(
+                    new InputStreamReader(counted, provider.getConfig().getCharset())), metrics);
+        }
         final DataBindConfig dataBindConfig = DataBindUtil.createDataBindConfig(clazz);
         final MapperType type = toMapperType(clazz, dataBindConfig);
 
         if (type == MapperType.CSV_BEAN) {
-            final CsvDataBindConfig config = CsvDataBindConfig.class.cast(dataBindConfig);
-            return new CsvBeanMapper<T>(clazz, config, stream);
+            final CsvMappingMetadata metadata = DataBindUtil.findCsvMappingMetadata(clazz);
+            return withMetrics(new CsvBeanMapper<T>(clazz, metadata,
+                    new InputStreamReader(counted, metadata.getConfig().getCharset())), metrics);
+        } else if (type == MapperType.CSV_MULTI_LAYOUT) {
+            final CsvLayoutMetadata layouts = DataBindUtil.findCsvLayoutMetadata(clazz);
+            return withMetrics(new MultiLayoutCsvMapper<T>(clazz, layouts,
+                    new InputStreamReader(counted, layouts.getConfig().getCharset())), metrics);
+        } else if (type == MapperType.FIXED_LENGTH_BEAN) {
+            return withMetrics(new FixedLengthBeanMapper<T>(
+                    clazz, DataBindUtil.findFixedLengthMappingMetadata(clazz), counted), metrics);
         }
 
         // 到達しない
@@ -244,13 +371,19 @@ public class ObjectMapperFactory {
     @SuppressWarnings("unchecked")
     public <T> ObjectMapper<T> createMapper(
             final Class<T> clazz, final InputStream stream, final DataBindConfig dataBindConfig) {
+        final MapperMetrics metrics = createMetrics(clazz, MapperMetrics.Direction.READ, stream);
+        final InputStream counted = metrics == null ? stream : metrics.countBytes(stream);
         final MapperType type = toMapperType(clazz, dataBindConfig);
 
-        if (type == MapperType.CSV_BEAN) {
+        if (type == MapperType.CSV_BEAN || type == MapperType.CSV_MULTI_LAYOUT
+                || type == MapperType.FIXED_LENGTH_BEAN) {
             throw new IllegalArgumentException("this class should not be set config. class = [" + toFQCN(clazz) + ']');
         } else if (type == MapperType.CSV_MAP) {
             final CsvDataBindConfig config = CsvDataBindConfig.class.cast(dataBindConfig);
-            return (ObjectMapper<T>) new CsvMapMapper(config, stream);
+            return withMetrics((ObjectMapper<T>) new CsvMapMapper(config, counted), metrics);
+        } else if (type == MapperType.FIXED_LENGTH_MAP) {
+            final FixedLengthDataBindConfig config = FixedLengthDataBindConfig.class.cast(dataBindConfig);
+            return withMetrics((ObjectMapper<T>) new FixedLengthMapMapper(config, counted), metrics);
         }
         // 到達しない
         throw new IllegalArgumentException("Unsupported config or class. class = [" + toFQCN(clazz) + "],"
@@ -268,12 +401,22 @@ public class ObjectMapperFactory {
     @SuppressWarnings("unchecked")
     public <T> ObjectMapper<T> createMapper(
             final Class<T> clazz, final Reader reader) {
+        final MapperMetrics metrics = createMetrics(clazz, MapperMetrics.Direction.READ, reader);
+        final CsvMapperProvider<T> provider = DataBindUtil.findCsvMapperProvider(clazz);
+        if (provider != null) {
+            return withMetrics(provider.createReader(reader), metrics);
+        }
         final DataBindConfig dataBindConfig = DataBindUtil.createDataBindConfig(clazz);
         final MapperType type = toMapperType(clazz, dataBindConfig);
 
         if (type == MapperType.CSV_BEAN) {
-            final CsvDataBindConfig config = CsvDataBindConfig.class.cast(dataBindConfig);
-            return new CsvBeanMapper<T>(clazz, config, reader);
+            final CsvMappingMetadata metadata = DataBindUtil.findCsvMappingMetadata(clazz);
+            return withMetrics(new CsvBeanMapper<T>(clazz, metadata, reader), metrics);
+        } else if (type == MapperType.CSV_MULTI_LAYOUT) {
+            return withMetrics(new MultiLayoutCsvMapper<T>(
+                    clazz, DataBindUtil.findCsvLayoutMetadata(clazz), reader), metrics);
+        } else if (type == MapperType.FIXED_LENGTH_BEAN) {
+            throw characterStreamNotSupported(clazz);
         }
         // 到達しない
         throw new IllegalArgumentException("Unsupported config or class. class = [" + toFQCN(clazz) + "],"
@@ -292,19 +435,81 @@ public class ObjectMapperFactory {
     @SuppressWarnings("unchecked")
     public <T> ObjectMapper<T> createMapper(
             final Class<T> clazz, final Reader reader, final DataBindConfig dataBindConfig) {
+        final MapperMetrics metrics = createMetrics(clazz, MapperMetrics.Direction.READ, reader);
         final MapperType type = toMapperType(clazz, dataBindConfig);
 
-        if (type == MapperType.CSV_BEAN) {
+        if (type == MapperType.CSV_BEAN || type == MapperType.CSV_MULTI_LAYOUT
+                || type == MapperType.FIXED_LENGTH_BEAN) {
             throw new IllegalArgumentException("this class should not be set config. class = [" + toFQCN(clazz) + ']');
         } else if (type == MapperType.CSV_MAP) {
             final CsvDataBindConfig config = CsvDataBindConfig.class.cast(dataBindConfig);
-            return (ObjectMapper<T>) new CsvMapMapper(config, reader);
+            return withMetrics((ObjectMapper<T>) new CsvMapMapper(config, reader), metrics);
+        } else if (type == MapperType.FIXED_LENGTH_MAP) {
+            throw characterStreamNotSupported(clazz);
         }
         // 到達しない
         throw new IllegalArgumentException("Unsupported config or class. class = [" + toFQCN(clazz) + "],"
                 + " config = [" + toFQCN(dataBindConfig) + ']');
     }
 
+    /**
+     * 指定された位置から読み込みを開始する{@link ResumableObjectMapper}を生成する。
+     *
+     * @param clazz データとのバインディングを行うクラス
+     * @param stream 入力ストリーム
+     * @param position 読み込みを開始する位置
+     * @param <T> バインディング対象のJavaのクラス
+     * @return データとJava ObjectのMapper
+     */
+    public <T> ResumableObjectMapper<T> createResumableMapper(
+            final Class<T> clazz, final InputStream stream, final ReadPosition position) {
+        final CsvMapperProvider<T> provider = DataBindUtil.findCsvMapperProvider(clazz);
+        final DataBindConfig dataBindConfig =
+                provider != null ? provider.getConfig() : DataBindUtil.createDataBindConfig(clazz);
+        if (!(dataBindConfig instanceof CsvDataBindConfig)) {
+            throw resumingNotSupported(clazz);
+        }
+        final Reader reader = new PositionedReader(
+                stream, ((CsvDataBindConfig) dataBindConfig).getCharset(), position);
+        return toResumable(createMapper(clazz, reader), clazz);
+    }
+
+    /**
+     * 指定された位置から読み込みを開始する{@link ResumableObjectMapper}を生成する。
+     *
+     * @param clazz データとのバインディングを行うクラス
+     * @param stream 入力ストリーム
+     * @param dataBindConfig マッピング設定
+     * @param position 読み込みを開始する位置
+     * @param <T> バインディング対象のJavaのクラス
+     * @return データとJava ObjectのMapper
+     */
+    public <T> ResumableObjectMapper<T> createResumableMapper(final Class<T> clazz, final InputStream stream,
+            final DataBindConfig dataBindConfig, final ReadPosition position) {
+        if (!(dataBindConfig instanceof CsvDataBindConfig)) {
+            throw resumingNotSupported(clazz);
+        }
+        final Reader reader = new PositionedReader(
+                stream, ((CsvDataBindConfig) dataBindConfig).getCharset(), position);
+        return toResumable(createMapper(clazz, reader, dataBindConfig), clazz);
+    }
+
+    /**
+     * {@link ObjectMapper}を{@link ResumableObjectMapper}に変換する。
+     *
+     * @param mapper {@link ObjectMapper}
+     * @param clazz バインディング対象のクラス
+     * @param <T> バインディング対象のJavaのクラス
+     * @return {@link ResumableObjectMapper}
+     */
+    private static <T> ResumableObjectMapper<T> toResumable(final ObjectMapper<T> mapper, final Class<T> clazz) {
+        if (mapper instanceof ResumableObjectMapper) {
+            return (ResumableObjectMapper<T>) mapper;
+        }
+        mapper.close();
+        throw resumingNotSupported(clazz);
+    }
+
     /**
      * {@link ObjectMapper}を生成する。
      *
@@ -316,12 +521,25 @@ public class ObjectMapperFactory {
     @SuppressWarnings("unchecked")
     public <T> ObjectMapper<T> createMapper(
             final Class<T> clazz, final OutputStream stream) {
+        final MapperMetrics metrics = createMetrics(clazz, MapperMetrics.Direction.WRITE, stream);
+        final OutputStream counted = metrics == null ? stream : metrics.countBytes(stream);
+        final CsvMapperProvider<T> provider = DataBindUtil.findCsvMapperProvider(clazz);
+        if (provider != null) {
+            return withMetrics(provider.createWriter(
+                    new OutputStreamWriter(counted, provider.getConfig().getCharset())), metrics);
+        }
         final DataBindConfig dataBindConfig = DataBindUtil.createDataBindConfig(clazz);
         final MapperType type = toMapperType(clazz, dataBindConfig);
 
         if (type == MapperType.CSV_BEAN) {
-            final CsvDataBindConfig config = CsvDataBindConfig.class.cast(dataBindConfig);
-            return new BeanCsvMapper<T>(clazz, config, stream);
+            final CsvMappingMetadata metadata = DataBindUtil.findCsvMappingMetadata(clazz);
+            return withMetrics(new BeanCsvMapper<T>(metadata,
+                    new OutputStreamWriter(counted, metadata.getConfig().getCharset())), metrics);
+        } else if (type == MapperType.CSV_MULTI_LAYOUT) {
+            throw writingNotSupported(clazz);
+        } else if (type == MapperType.FIXED_LENGTH_BEAN) {
+            return withMetrics(new BeanFixedLengthMapper<T>(
+                    DataBindUtil.findFixedLengthMappingMetadata(clazz), counted), metrics);
         }
         // 到達しない
         throw new IllegalArgumentException("Unsupported config or class. class = [" + toFQCN(clazz) + "],"
@@ -340,13 +558,19 @@ public class ObjectMapperFactory {
     @SuppressWarnings("unchecked")
     public <T> ObjectMapper<T> createMapper(
             final Class<T> clazz, final OutputStream stream, final DataBindConfig dataBindConfig) {
+        final MapperMetrics metrics = createMetrics(clazz, MapperMetrics.Direction.WRITE, stream);
+        final OutputStream counted = metrics == null ? stream : metrics.countBytes(stream);
         final MapperType type = toMapperType(clazz, dataBindConfig);
 
-        if (type == MapperType.CSV_BEAN) {
+        if (type == MapperType.CSV_BEAN || type == MapperType.CSV_MULTI_LAYOUT
+                || type == MapperType.FIXED_LENGTH_BEAN) {
             throw new IllegalArgumentException("this class should not be set config. class = [" + toFQCN(clazz) + ']');
         } else if (type == MapperType.CSV_MAP) {
             final CsvDataBindConfig config = CsvDataBindConfig.class.cast(dataBindConfig);
-            return (ObjectMapper<T>) new MapCsvMapper(config, stream);
+            return withMetrics((ObjectMapper<T>) new MapCsvMapper(config, counted), metrics);
+        } else if (type == MapperType.FIXED_LENGTH_MAP) {
+            final FixedLengthDataBindConfig config = FixedLengthDataBindConfig.class.cast(dataBindConfig);
+            return withMetrics((ObjectMapper<T>) new MapFixedLengthMapper(config, counted), metrics);
         }
         // 到達しない
         throw new IllegalArgumentException("Unsupported config or class. class = [" + toFQCN(clazz) + "],"
@@ -364,12 +588,21 @@ public class ObjectMapperFactory {
     @SuppressWarnings("unchecked")
     public <T> ObjectMapper<T> createMapper(
             final Class<T> clazz, final Writer writer) {
+        final MapperMetrics metrics = createMetrics(clazz, MapperMetrics.Direction.WRITE, writer);
+        final CsvMapperProvider<T> provider = DataBindUtil.findCsvMapperProvider(clazz);
+        if (provider != null) {
+            return withMetrics(provider.createWriter(writer), metrics);
+        }
         final DataBindConfig dataBindConfig = DataBindUtil.createDataBindConfig(clazz);
         final MapperType type = toMapperType(clazz, dataBindConfig);
 
         if (type == MapperType.CSV_BEAN) {
-            final CsvDataBindConfig config = CsvDataBindConfig.class.cast(dataBindConfig);
-            return new BeanCsvMapper<T>(clazz, config, writer);
+            final CsvMappingMetadata metadata = DataBindUtil.findCsvMappingMetadata(clazz);
+            return withMetrics(new BeanCsvMapper<T>(metadata, writer), metrics);
+        } else if (type == MapperType.CSV_MULTI_LAYOUT) {
+            throw writingNotSupported(clazz);
+        } else if (type == MapperType.FIXED_LENGTH_BEAN) {
+            throw characterStreamNotSupported(clazz);
         }
         // 到達しない
         throw new IllegalArgumentException("Unsupported config or class. class = [" + toFQCN(clazz) + "],"
@@ -388,19 +621,171 @@ public class ObjectMapperFactory {
     @SuppressWarnings("unchecked")
     public <T> ObjectMapper<T> createMapper(
             final Class<T> clazz, final Writer writer, final DataBindConfig dataBindConfig) {
+        final MapperMetrics metrics = createMetrics(clazz, MapperMetrics.Direction.WRITE, writer);
+        final MapperType type = toMapperType(clazz, dataBindConfig);
+
+        if (type == MapperType.CSV_BEAN || type == MapperType.CSV_MULTI_LAYOUT
+                || type == MapperType.FIXED_LENGTH_BEAN) {
+            throw new IllegalArgumentException("this class should not be set config. class = [" + toFQCN(clazz) + ']');
+        } else if (type == MapperType.CSV_MAP) {
+            final CsvDataBindConfig config = CsvDataBindConfig.class.cast(dataBindConfig);
+            return withMetrics((ObjectMapper<T>) new MapCsvMapper(config, writer), metrics);
+        } else if (type == MapperType.FIXED_LENGTH_MAP) {
+            throw characterStreamNotSupported(clazz);
+        }
+        // 到達しない
+        throw new IllegalArgumentException("Unsupported config or class. class = [" + toFQCN(clazz) + "],"
+                + " config = [" + toFQCN(dataBindConfig) + ']');
+    }
+
+    /**
+     * {@link MapperTemplate}を生成する。
+     *
+     * @param clazz データとのバインディングを行うクラス
+     * @param <T> バインディング対象のJavaのクラス
+     * @return {@link ObjectMapper}のテンプレート
+     */
+    public <T> MapperTemplate<T> createMapperTemplate(final Class<T> clazz) {
+        final CsvMapperProvider<T> provider = DataBindUtil.findCsvMapperProvider(clazz);
+        if (provider != null) {
+            return withMetrics(new CsvBeanMapperTemplate<T>(clazz, provider), clazz);
+        }
+        final DataBindConfig dataBindConfig = DataBindUtil.createDataBindConfig(clazz);
+        final MapperType type = toMapperType(clazz, dataBindConfig);
+
+        if (type == MapperType.CSV_BEAN) {
+            return withMetrics(
+                    new CsvBeanMapperTemplate<T>(clazz, DataBindUtil.findCsvMappingMetadata(clazz)), clazz);
+        }
+        // 到達しない
+        throw new IllegalArgumentException("Unsupported config or class. class = [" + toFQCN(clazz) + "],"
+                + " config = [" + toFQCN(dataBindConfig) + ']');
+    }
+
+    /**
+     * {@link MapperTemplate}を生成する。
+     *
+     * @param clazz データとのバインディングを行うクラス
+     * @param dataBindConfig マッピング設定
+     * @param <T> バインディング対象のJavaのクラス
+     * @return {@link ObjectMapper}のテンプレート
+     */
+    @SuppressWarnings("unchecked")
+    public <T> MapperTemplate<T> createMapperTemplate(final Class<T> clazz, final DataBindConfig dataBindConfig) {
         final MapperType type = toMapperType(clazz, dataBindConfig);
 
         if (type == MapperType.CSV_BEAN) {
             throw new IllegalArgumentException("this class should not be set config. class = [" + toFQCN(clazz) + ']');
         } else if (type == MapperType.CSV_MAP) {
             final CsvDataBindConfig config = CsvDataBindConfig.class.cast(dataBindConfig);
-            return (ObjectMapper<T>) new MapCsvMapper(config, writer);
+            return withMetrics((MapperTemplate<T>) new CsvMapMapperTemplate(config), clazz);
         }
         // 到達しない
         throw new IllegalArgumentException("Unsupported config or class. class = [" + toFQCN(clazz) + "],"
                 + " config = [" + toFQCN(dataBindConfig) + ']');
     }
 
+    /**
+     * メトリクスの通知先を設定する。
+     * <p/>
+     * 設定した場合、本ファクトリで生成した{@link ObjectMapper}のメトリクスを収集する。
+     *
+     * @param metricsListener メトリクスの通知先
+     */
+    public void setMetricsListener(final MapperMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    /**
+     * 処理時間を計測する間隔(レコード数)を設定する。
+     * <p/>
+     * 指定したレコード数ごとに1レコードの処理時間を計測する。デフォルトは{@code 100}。
+     *
+     * @param metricsSamplingInterval 処理時間を計測する間隔
+     */
+    public void setMetricsSamplingInterval(final int metricsSamplingInterval) {
+        this.metricsSamplingInterval = metricsSamplingInterval;
+    }
+
+    /**
+     * メトリクスの収集先を生成する。
+     *
+     * @param clazz バインディング対象のクラス
+     * @param direction 処理の方向
+     * @return メトリクスの収集先(リスナが設定されていない場合は{@code null})
+     */
+    protected MapperMetrics createMetrics(final Class<?> clazz, final MapperMetrics.Direction direction) {
+        if (metricsListener == null) {
+            return null;
+        }
+        return new MapperMetrics(clazz, direction, metricsListener, metricsSamplingInterval);
+    }
+
+    /**
+     * 入出力先を指定してメトリクスの収集先を生成する。
+     * <p/>
+     * 入出力先を{@link #describeSource(Object)}で文字列に変換し、{@link MapperMetrics#getSource()}に設定する。
+     *
+     * @param clazz バインディング対象のクラス
+     * @param direction 処理の方向
+     * @param source 入出力先のストリーム
+     * @return メトリクスの収集先(リスナが設定されていない場合は{@code null})
+     */
+    protected MapperMetrics createMetrics(final Class<?> clazz, final MapperMetrics.Direction direction,
+            final Object source) {
+        final MapperMetrics metrics = createMetrics(clazz, direction);
+        if (metrics != null) {
+            metrics.setSource(describeSource(source));
+        }
+        return metrics;
+    }
+
+    /**
+     * メトリクスやイベントに出力する、入出力先の説明を生成する。
+     * <p/>
+     * デフォルトでは、ストリームのクラス名と識別ハッシュコードを返す。
+     * ストリームからファイル名を取得することはできないため、ファイル名を出力する場合は、
+     * ストリームとファイル名を対応付けてサブクラスで本メソッドをオーバーライドすること。
+     *
+     * @param source 入出力先のストリーム
+     * @return 入出力先の説明
+     */
+    protected String describeSource(final Object source) {
+        return source.getClass().getName() + '@' + Integer.toHexString(System.identityHashCode(source));
+    }
+
+    /**
+     * {@link ObjectMapper}にメトリクスの収集先を設定する。
+     * <p/>
+     * メトリクスを収集できない{@link ObjectMapper}の場合は何もしない。
+     *
+     * @param mapper {@link ObjectMapper}
+     * @param metrics メトリクスの収集先
+     * @param <T> バインディング対象のJavaのクラス
+     * @return {@code mapper}
+     */
+    private static <T> ObjectMapper<T> withMetrics(final ObjectMapper<T> mapper, final MapperMetrics metrics) {
+        if (metrics != null && mapper instanceof MetricsAware) {
+            ((MetricsAware) mapper).setMetrics(metrics);
+        }
+        return mapper;
+    }
+
+    /**
+     * メトリクスを収集する場合は、{@link MapperTemplate}をメトリクスを収集するテンプレートでラップする。
+     *
+     * @param template {@link MapperTemplate}
+     * @param clazz バインディング対象のクラス
+     * @param <T> バインディング対象のJavaのクラス
+     * @return {@link MapperTemplate}
+     */
+    private <T> MapperTemplate<T> withMetrics(final MapperTemplate<T> template, final Class<T> clazz) {
+        if (metricsListener == null) {
+            return template;
+        }
+        return new MetricsMapperTemplate<T>(template, clazz, metricsListener, metricsSamplingInterval);
+    }
+
     /**
      * マッパーのタイプを返す。
      *
@@ -411,13 +796,53 @@ public class ObjectMapperFactory {
     protected static MapperType toMapperType(final Class<?> clazz, final DataBindConfig dataBindConfig) {
         if (Map.class.isAssignableFrom(clazz) && dataBindConfig instanceof CsvDataBindConfig) {
             return MapperType.CSV_MAP;
+        } else if (clazz.isAnnotationPresent(CsvLayouts.class) && dataBindConfig instanceof CsvDataBindConfig) {
+            return MapperType.CSV_MULTI_LAYOUT;
         } else if (dataBindConfig instanceof CsvDataBindConfig) {
             return MapperType.CSV_BEAN;
+        } else if (Map.class.isAssignableFrom(clazz) && dataBindConfig instanceof FixedLengthDataBindConfig) {
+            return MapperType.FIXED_LENGTH_MAP;
+        } else if (dataBindConfig instanceof FixedLengthDataBindConfig) {
+            return MapperType.FIXED_LENGTH_BEAN;
         }
         throw new IllegalArgumentException("Unsupported config or class. class = [" + toFQCN(clazz) + "],"
                 + " config = [" + toFQCN(dataBindConfig) + ']');
     }
 
+    /**
+     * 文字ストリームを使用できないことを表す例外を生成する。
+     * <p/>
+     * 固定長ファイルはバイト位置でフィールドを切り出すため、入出力にはバイトストリームを使用する必要がある。
+     *
+     * @param clazz クラス
+     * @return 例外
+     */
+    private static IllegalArgumentException characterStreamNotSupported(final Class<?> clazz) {
+        return new IllegalArgumentException(
+                "fixed length data requires InputStream or OutputStream. class = [" + toFQCN(clazz) + ']');
+    }
+
+    /**
+     * 書き込みをサポートしないことを表す例外を生成する。
+     *
+     * @param clazz クラス
+     * @return 例外
+     */
+    private static IllegalArgumentException writingNotSupported(final Class<?> clazz) {
+        return new IllegalArgumentException(
+                "multi layout csv does not support writing. class = [" + toFQCN(clazz) + ']');
+    }
+
+    /**
+     * 読み込みの再開をサポートしないことを表す例外を生成する。
+     *
+     * @param clazz クラス
+     * @return 例外
+     */
+    private static IllegalArgumentException resumingNotSupported(final Class<?> clazz) {
+        return new IllegalArgumentException("resumable read is supported only for csv. class = [" + toFQCN(clazz) + ']');
+    }
+
     /**
      * クラスからFQCNを返す。
      * <p/>
@@ -445,7 +870,13 @@ public class ObjectMapperFactory {
         /** CSVとBeanとのマッパー */
         CSV_BEAN,
         /** CSVとMapとのマッパー */
-        CSV_MAP
+        CSV_MAP,
+        /** マルチレイアウトのCSVとレコード種別ごとのBeanとのマッパー */
+        CSV_MULTI_LAYOUT,
+        /** 固定長ファイルとBeanとのマッパー */
+        FIXED_LENGTH_BEAN,
+        /** 固定長ファイルとMapとのマッパー */
+        FIXED_LENGTH_MAP
     }
 
     /**
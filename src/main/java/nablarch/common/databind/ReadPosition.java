@@ -0,0 +1,117 @@
+package nablarch.common.databind;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 読み込みを再開するための位置を表すクラス。
+ * <p/>
+ * レコードの区切り位置(次に読み込むレコードの先頭)を、ファイルの先頭からのバイト位置、行番号、
+ * 読み込み済みのレコード数の組で保持する。
+ * いずれも{@code long}の値のため、チェックポイントとしてデータベース等にそのまま保存できる。
+ *
+ * @author Hisaaki Shioiri
+ * @see ResumableObjectMapper
+ */
+@Published(tag = "architect")
+public final class ReadPosition {
+
+    /** ファイルの先頭を表す位置 */
+    public static final ReadPosition START = new ReadPosition(0L, 1L, 0L);
+
+    /** ファイルの先頭からのバイト位置 */
+    private final long byteOffset;
+
+    /** 次に読み込む行の行番号 */
+    private final long lineNumber;
+
+    /** 読み込み済みのレコード数(ヘッダ行を除く) */
+    private final long recordCount;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param byteOffset ファイルの先頭からのバイト位置
+     * @param lineNumber 次に読み込む行の行番号(1始まり)
+     * @param recordCount 読み込み済みのレコード数(ヘッダ行を除く)
+     */
+    public ReadPosition(final long byteOffset, final long lineNumber, final long recordCount) {
+        if (byteOffset < 0) {
+            throw new IllegalArgumentException("byte offset must not be negative. byte offset = [" + byteOffset + ']');
+        }
+        if (lineNumber < 1) {
+            throw new IllegalArgumentException(
+                    "line number must be greater than 0. line number = [" + lineNumber + ']');
+        }
+        if (recordCount < 0) {
+            throw new IllegalArgumentException(
+                    "record count must not be negative. record count = [" + recordCount + ']');
+        }
+        this.byteOffset = byteOffset;
+        this.lineNumber = lineNumber;
+        this.recordCount = recordCount;
+    }
+
+    /**
+     * ファイルの先頭からのバイト位置を取得する。
+     *
+     * @return バイト位置
+     */
+    public long getByteOffset() {
+        return byteOffset;
+    }
+
+    /**
+     * 次に読み込む行の行番号を取得する。
+     *
+     * @return 行番号
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * 読み込み済みのレコード数を取得する。
+     *
+     * @return レコード数(ヘッダ行を除く)
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * ファイルの先頭を表す位置か否かを返す。
+     *
+     * @return ファイルの先頭の場合は{@code true}
+     */
+    public boolean isStart() {
+        return byteOffset == 0L;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReadPosition)) {
+            return false;
+        }
+        final ReadPosition other = (ReadPosition) o;
+        return byteOffset == other.byteOffset && lineNumber == other.lineNumber && recordCount == other.recordCount;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (byteOffset ^ (byteOffset >>> 32));
+        result = 31 * result + (int) (lineNumber ^ (lineNumber >>> 32));
+        result = 31 * result + (int) (recordCount ^ (recordCount >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ReadPosition{byteOffset=" + byteOffset
+                + ", lineNumber=" + lineNumber
+                + ", recordCount=" + recordCount
+                + '}';
+    }
+}
@@ -0,0 +1,25 @@
+package nablarch.common.databind;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 読み込みの中断位置を取得できる{@link ObjectMapper}。
+ * <p/>
+ * {@link #getPosition()}で取得した位置を、コミットのタイミングでチェックポイントとして保存しておくことで、
+ * 処理が中断した場合に{@link ObjectMapperFactory#createResumable(Class, java.io.InputStream, ReadPosition)}で
+ * 保存した位置から読み込みを再開できる。
+ *
+ * @param <T> バインディング対象のJavaオブジェクトの型
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public interface ResumableObjectMapper<T> extends ObjectMapper<T> {
+
+    /**
+     * 現在の読み込み位置(次に読み込むレコードの先頭)を取得する。
+     *
+     * @return 読み込み位置
+     * @throws IllegalStateException 読み込み位置を追跡していない場合
+     */
+    ReadPosition getPosition();
+}
@@ -0,0 +1,114 @@
+package nablarch.common.databind.checksum;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32;
+
+/**
+ * 1つのアルゴリズムでチェックサムを算出するクラス。
+ * <p/>
+ * {@link StreamChecksum#CRC32}は{@link CRC32}で、それ以外のアルゴリズムは{@link MessageDigest}で算出する。
+ *
+ * @author Hisaaki Shioiri
+ */
+abstract class ChecksumAccumulator {
+
+    /**
+     * アルゴリズムに対応した{@code ChecksumAccumulator}を生成する。
+     *
+     * @param algorithm アルゴリズム
+     * @return {@code ChecksumAccumulator}
+     * @throws IllegalArgumentException サポートしていないアルゴリズムの場合
+     */
+    static ChecksumAccumulator create(final String algorithm) {
+        if (StreamChecksum.CRC32.equals(algorithm)) {
+            return new Crc32Accumulator();
+        }
+        try {
+            return new DigestAccumulator(MessageDigest.getInstance(algorithm));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("unsupported algorithm. algorithm = [" + algorithm + ']', e);
+        }
+    }
+
+    /**
+     * バイト列を加算する。
+     *
+     * @param b バイト列
+     * @param off 開始位置
+     * @param len バイト数
+     */
+    abstract void update(byte[] b, int off, int len);
+
+    /**
+     * 1バイトを加算する。
+     *
+     * @param b バイト
+     */
+    abstract void update(int b);
+
+    /**
+     * チェックサムを確定する。
+     *
+     * @return チェックサム
+     */
+    abstract byte[] finish();
+
+    /**
+     * {@link CRC32}でチェックサムを算出するクラス。
+     */
+    private static final class Crc32Accumulator extends ChecksumAccumulator {
+
+        /** CRC32 */
+        private final CRC32 crc32 = new CRC32();
+
+        @Override
+        void update(final byte[] b, final int off, final int len) {
+            crc32.update(b, off, len);
+        }
+
+        @Override
+        void update(final int b) {
+            crc32.update(b);
+        }
+
+        @Override
+        byte[] finish() {
+            final long value = crc32.getValue();
+            return new byte[] {(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+        }
+    }
+
+    /**
+     * {@link MessageDigest}でチェックサムを算出するクラス。
+     */
+    private static final class DigestAccumulator extends ChecksumAccumulator {
+
+        /** メッセージダイジェスト */
+        private final MessageDigest digest;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param digest メッセージダイジェスト
+         */
+        DigestAccumulator(final MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        void update(final byte[] b, final int off, final int len) {
+            digest.update(b, off, len);
+        }
+
+        @Override
+        void update(final int b) {
+            digest.update((byte) b);
+        }
+
+        @Override
+        byte[] finish() {
+            return digest.digest();
+        }
+    }
+}
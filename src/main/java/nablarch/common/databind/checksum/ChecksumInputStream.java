@@ -0,0 +1,88 @@
+package nablarch.common.databind.checksum;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 読み込んだバイト列を{@link StreamChecksum}に加算する入力ストリーム。
+ *
+ * @author Hisaaki Shioiri
+ */
+class ChecksumInputStream extends FilterInputStream {
+
+    /** 加算先のチェックサム */
+    private final StreamChecksum checksum;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param in 入力ストリーム
+     * @param checksum 加算先のチェックサム
+     */
+    ChecksumInputStream(final InputStream in, final StreamChecksum checksum) {
+        super(in);
+        this.checksum = checksum;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int read = super.read();
+        if (read != -1) {
+            checksum.update(read);
+        }
+        return read;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final int read = super.read(b, off, len);
+        if (read > 0) {
+            checksum.update(b, off, read);
+        }
+        return read;
+    }
+
+    /**
+     * 読み飛ばすバイト列もチェックサムに加算するため、読み込んで破棄する。
+     */
+    @Override
+    public long skip(final long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        final byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            final int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * 読み直したバイト列がチェックサムに重複して加算されないよう、マークはサポートしない。
+     */
+    @Override
+    public synchronized void mark(final int readlimit) {
+        // nop
+    }
+
+    /**
+     * マークはサポートしないため、常に例外を送出する。
+     *
+     * @throws IOException 常に送出する
+     */
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported.");
+    }
+}
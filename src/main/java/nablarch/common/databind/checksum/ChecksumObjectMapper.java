@@ -0,0 +1,104 @@
+package nablarch.common.databind.checksum;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ObjectMapper;
+
+/**
+ * 読み書きしたレコード数を{@link StreamChecksum}に加算する{@link ObjectMapper}。
+ * <p/>
+ * {@link TrailerVerifier}が指定された場合は、読み込んだレコード数をトレーラレコードに記載された件数と照合する。
+ * トレーラレコードは最後のレコードでなければならない。
+ * 照合に失敗した場合に送出する{@link InvalidDataFormatException}の行番号には、
+ * 物理的な行番号ではなく、それまでに読み込んだレコード数(ヘッダ行を除く)を設定する。
+ *
+ * @param <T> レコードの型
+ * @author Hisaaki Shioiri
+ */
+class ChecksumObjectMapper<T> implements ObjectMapper<T> {
+
+    /** 委譲先の{@link ObjectMapper} */
+    private final ObjectMapper<T> delegate;
+
+    /** 加算先のチェックサム */
+    private final StreamChecksum checksum;
+
+    /** トレーラレコードとの照合を行うインタフェース(照合しない場合は{@code null}) */
+    private final TrailerVerifier<? super T> verifier;
+
+    /** トレーラレコードの件数に含まれるレコード数 */
+    private long countedRecords;
+
+    /** トレーラレコードを読み込んだか否か */
+    private boolean trailerRead;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param delegate 委譲先の{@link ObjectMapper}
+     * @param checksum 加算先のチェックサム
+     * @param verifier トレーラレコードとの照合を行うインタフェース(照合しない場合は{@code null})
+     */
+    ChecksumObjectMapper(final ObjectMapper<T> delegate, final StreamChecksum checksum,
+            final TrailerVerifier<? super T> verifier) {
+        this.delegate = delegate;
+        this.checksum = checksum;
+        this.verifier = verifier;
+    }
+
+    @Override
+    public void write(final T object) {
+        delegate.write(object);
+        checksum.addRecord();
+    }
+
+    @Override
+    public T read() {
+        final T record = delegate.read();
+        if (record != null) {
+            checksum.addRecord();
+        }
+        if (verifier != null) {
+            verify(record);
+        }
+        return record;
+    }
+
+    /**
+     * 読み込んだレコードをトレーラレコードと照合する。
+     *
+     * @param record 読み込んだレコード(ファイルの終端に達した場合は{@code null})
+     */
+    private void verify(final T record) {
+        if (record == null) {
+            if (!trailerRead) {
+                throw new InvalidDataFormatException("trailer record not found.", checksum.getRecordCount());
+            }
+            return;
+        }
+        if (trailerRead) {
+            throw new InvalidDataFormatException("record found after trailer record.", checksum.getRecordCount());
+        }
+        if (verifier.isTrailer(record)) {
+            trailerRead = true;
+            final long expected = verifier.getRecordCount(record);
+            if (expected != countedRecords) {
+                throw new InvalidDataFormatException("record count does not match trailer record."
+                        + " expected record count = [" + expected + "],"
+                        + " actual record count = [" + countedRecords + "].", checksum.getRecordCount());
+            }
+        } else if (verifier.isCounted(record)) {
+            countedRecords++;
+        }
+    }
+
+    /**
+     * 委譲先の{@link ObjectMapper}を閉じ、チェックサムを確定する。
+     *
+     * @throws InvalidDataFormatException チェックサムが期待値と一致しない場合
+     */
+    @Override
+    public void close() {
+        delegate.close();
+        checksum.complete();
+    }
+}
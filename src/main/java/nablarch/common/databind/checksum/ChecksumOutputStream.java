@@ -0,0 +1,40 @@
+package nablarch.common.databind.checksum;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 書き込んだバイト列を{@link StreamChecksum}に加算する出力ストリーム。
+ *
+ * @author Hisaaki Shioiri
+ */
+class ChecksumOutputStream extends FilterOutputStream {
+
+    /** 加算先のチェックサム */
+    private final StreamChecksum checksum;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param out 出力ストリーム
+     * @param checksum 加算先のチェックサム
+     */
+    ChecksumOutputStream(final OutputStream out, final StreamChecksum checksum) {
+        super(out);
+        this.checksum = checksum;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        out.write(b);
+        checksum.update(b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        // FilterOutputStreamは1バイトずつ書き込むため、出力先にまとめて書き込む
+        out.write(b, off, len);
+        checksum.update(b, off, len);
+    }
+}
@@ -0,0 +1,299 @@
+package nablarch.common.databind.checksum;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 入出力のバイト列のチェックサムとレコード数を、{@link ObjectMapper}による読み書きと同時に算出するクラス。
+ * <p/>
+ * 以下のように、ストリームを{@link #track(InputStream)}で包んでから{@link ObjectMapper}を生成し、
+ * {@link #attach(ObjectMapper)}で包んで使用する。
+ * {@link ObjectMapper#close()}を呼び出した時点でチェックサムが確定する。
+ * <pre>
+ * {@code
+ * StreamChecksum checksum = new StreamChecksum(StreamChecksum.CRC32, StreamChecksum.SHA256);
+ * ObjectMapper<Person> mapper = checksum.attach(
+ *         ObjectMapperFactory.create(Person.class, checksum.track(new FileInputStream(file))));
+ * // 読み込み処理は省略
+ * mapper.close();
+ * String sha256 = checksum.getHexValue(StreamChecksum.SHA256);
+ * long count = checksum.getRecordCount();
+ * }
+ * </pre>
+ * 同一のストリームから算出するため、チェックサムの検証のためにファイルを再度読み込む必要はない。
+ * <p/>
+ * 期待値を{@link #setExpectedValue(String, String)}で設定した場合は、チェックサムの確定時に照合する。
+ * 読み込み時は、{@link #attach(ObjectMapper, TrailerVerifier)}でレコード数をトレーラレコードと照合することもできる。
+ * 書き込み時は、{@link #getRecordCount()}で書き込んだレコード数を取得し、トレーラレコードに出力できる。
+ * <p/>
+ * {@link nablarch.common.databind.metrics.ReadProgress}等を{@link ObjectMapper}に設定する場合は、
+ * {@link #attach(ObjectMapper)}で包む前に設定すること。
+ * <p/>
+ * 本クラスはスレッドセーフではない。1つの{@link ObjectMapper}に対して1つのインスタンスを使用すること。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class StreamChecksum {
+
+    /** CRC32を表すアルゴリズム名 */
+    public static final String CRC32 = "CRC32";
+
+    /** SHA-256を表すアルゴリズム名 */
+    public static final String SHA256 = "SHA-256";
+
+    /** 16進数の文字 */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** アルゴリズムごとのチェックサムの算出 */
+    private final Map<String, ChecksumAccumulator> accumulators = new LinkedHashMap<String, ChecksumAccumulator>();
+
+    /** 読み書きのたびに走査するため、{@link #accumulators}の値を配列にしたもの */
+    private final ChecksumAccumulator[] accumulatorArray;
+
+    /** アルゴリズムごとの確定したチェックサム */
+    private final Map<String, byte[]> values = new LinkedHashMap<String, byte[]>();
+
+    /** アルゴリズムごとのチェックサムの期待値(16進数表記) */
+    private final Map<String, String> expectedValues = new LinkedHashMap<String, String>();
+
+    /** バイト数 */
+    private long byteCount;
+
+    /** レコード数 */
+    private long recordCount;
+
+    /** チェックサムが確定したか否か */
+    private boolean completed;
+
+    /**
+     * {@code StreamChecksum}を生成する。
+     *
+     * @param algorithms アルゴリズム({@link #CRC32}または{@link java.security.MessageDigest}のアルゴリズム名)
+     * @throws IllegalArgumentException アルゴリズムが指定されていない場合、サポートしていないアルゴリズムの場合
+     */
+    public StreamChecksum(final String... algorithms) {
+        if (algorithms.length == 0) {
+            throw new IllegalArgumentException("algorithms must not be empty.");
+        }
+        for (String algorithm : algorithms) {
+            accumulators.put(algorithm, ChecksumAccumulator.create(algorithm));
+        }
+        accumulatorArray = accumulators.values().toArray(new ChecksumAccumulator[accumulators.size()]);
+    }
+
+    /**
+     * 入力ストリームから読み込んだバイト列をチェックサムの算出対象とする。
+     *
+     * @param in 入力ストリーム
+     * @return 読み込んだバイト列をチェックサムに加算する入力ストリーム
+     */
+    public InputStream track(final InputStream in) {
+        return new ChecksumInputStream(in, this);
+    }
+
+    /**
+     * 出力ストリームに書き込んだバイト列をチェックサムの算出対象とする。
+     *
+     * @param out 出力ストリーム
+     * @return 書き込んだバイト列をチェックサムに加算する出力ストリーム
+     */
+    public OutputStream track(final OutputStream out) {
+        return new ChecksumOutputStream(out, this);
+    }
+
+    /**
+     * {@link ObjectMapper}が読み書きしたレコード数を計上し、{@link ObjectMapper#close()}でチェックサムを確定する。
+     *
+     * @param mapper {@link ObjectMapper}
+     * @param <T> レコードの型
+     * @return レコード数を計上する{@link ObjectMapper}
+     */
+    public <T> ObjectMapper<T> attach(final ObjectMapper<T> mapper) {
+        return new ChecksumObjectMapper<T>(mapper, this, null);
+    }
+
+    /**
+     * {@link ObjectMapper}が読み込んだレコード数を計上し、トレーラレコードに記載された件数と照合する。
+     * <p/>
+     * トレーラレコードを読み込んだ時点で照合し、一致しない場合は{@link InvalidDataFormatException}を送出する。
+     * トレーラレコードが存在しない場合、トレーラレコードの後にレコードが存在する場合も同様に送出する。
+     *
+     * @param mapper {@link ObjectMapper}
+     * @param verifier トレーラレコードとの照合を行うインタフェース
+     * @param <T> レコードの型
+     * @return レコード数を計上する{@link ObjectMapper}
+     */
+    public <T> ObjectMapper<T> attach(final ObjectMapper<T> mapper, final TrailerVerifier<? super T> verifier) {
+        if (verifier == null) {
+            throw new IllegalArgumentException("verifier must not be null.");
+        }
+        return new ChecksumObjectMapper<T>(mapper, this, verifier);
+    }
+
+    /**
+     * チェックサムの期待値を設定する。
+     * <p/>
+     * 設定した場合は、{@link #complete()}で算出したチェックサムと照合する。
+     *
+     * @param algorithm アルゴリズム
+     * @param hexValue 期待値(16進数表記。大文字小文字は区別しない)
+     * @throws IllegalArgumentException 算出対象でないアルゴリズムの場合
+     */
+    public void setExpectedValue(final String algorithm, final String hexValue) {
+        verifyAlgorithm(algorithm);
+        expectedValues.put(algorithm, hexValue);
+    }
+
+    /**
+     * バイト列をチェックサムに加算する。
+     *
+     * @param b バイト列
+     * @param off 開始位置
+     * @param len バイト数
+     */
+    void update(final byte[] b, final int off, final int len) {
+        for (ChecksumAccumulator accumulator : accumulatorArray) {
+            accumulator.update(b, off, len);
+        }
+        byteCount += len;
+    }
+
+    /**
+     * 1バイトをチェックサムに加算する。
+     *
+     * @param b バイト
+     */
+    void update(final int b) {
+        for (ChecksumAccumulator accumulator : accumulatorArray) {
+            accumulator.update(b);
+        }
+        byteCount++;
+    }
+
+    /**
+     * レコード数に1を加算する。
+     */
+    void addRecord() {
+        recordCount++;
+    }
+
+    /**
+     * チェックサムを確定し、期待値が設定されている場合は照合する。
+     * <p/>
+     * 通常は{@link #attach(ObjectMapper)}で包んだ{@link ObjectMapper}の{@link ObjectMapper#close()}から呼び出される。
+     * 2回目以降の呼び出しでは何もしない。
+     * <p/>
+     * チェックサムはストリーム全体から算出するため、行番号は特定できない。
+     * 送出する{@link InvalidDataFormatException}の行番号には、それまでに読み書きしたレコード数を設定する。
+     *
+     * @throws InvalidDataFormatException チェックサムが期待値と一致しない場合
+     */
+    public void complete() {
+        if (completed) {
+            return;
+        }
+        completed = true;
+        for (Map.Entry<String, ChecksumAccumulator> entry : accumulators.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().finish());
+        }
+        for (Map.Entry<String, String> entry : expectedValues.entrySet()) {
+            final String actual = getHexValue(entry.getKey());
+            if (!actual.equalsIgnoreCase(entry.getValue())) {
+                throw new InvalidDataFormatException("checksum does not match."
+                        + " algorithm = [" + entry.getKey() + "],"
+                        + " expected value = [" + entry.getValue() + "],"
+                        + " actual value = [" + actual + "].", recordCount);
+            }
+        }
+    }
+
+    /**
+     * チェックサムが確定したか否かを返す。
+     *
+     * @return 確定した場合は{@code true}
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * チェックサムを取得する。
+     *
+     * @param algorithm アルゴリズム
+     * @return チェックサム({@link #CRC32}の場合はビッグエンディアンの4バイト)
+     * @throws IllegalArgumentException 算出対象でないアルゴリズムの場合
+     * @throws IllegalStateException チェックサムが確定していない場合
+     */
+    public byte[] getValue(final String algorithm) {
+        verifyAlgorithm(algorithm);
+        if (!completed) {
+            throw new IllegalStateException("checksum is not completed. algorithm = [" + algorithm + ']');
+        }
+        return values.get(algorithm).clone();
+    }
+
+    /**
+     * チェックサムを16進数表記(小文字)で取得する。
+     *
+     * @param algorithm アルゴリズム
+     * @return チェックサムの16進数表記
+     * @throws IllegalArgumentException 算出対象でないアルゴリズムの場合
+     * @throws IllegalStateException チェックサムが確定していない場合
+     */
+    public String getHexValue(final String algorithm) {
+        final byte[] value = getValue(algorithm);
+        final char[] hex = new char[value.length * 2];
+        for (int i = 0; i < value.length; i++) {
+            hex[i * 2] = HEX[(value[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX[value[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * 算出対象のアルゴリズムであることを検証する。
+     *
+     * @param algorithm アルゴリズム
+     */
+    private void verifyAlgorithm(final String algorithm) {
+        if (!accumulators.containsKey(algorithm)) {
+            throw new IllegalArgumentException("algorithm is not computed. algorithm = [" + algorithm + ']');
+        }
+    }
+
+    /**
+     * 読み書きしたバイト数を取得する。
+     *
+     * @return バイト数
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * 読み書きしたレコード数を取得する。
+     * <p/>
+     * ヘッダ行(タイトル行)は含まない。
+     *
+     * @return レコード数
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamChecksum{algorithms=" + accumulators.keySet()
+                + ", bytes=" + byteCount
+                + ", records=" + recordCount
+                + ", completed=" + completed
+                + '}';
+    }
+}
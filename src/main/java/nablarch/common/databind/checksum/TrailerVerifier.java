@@ -0,0 +1,42 @@
+package nablarch.common.databind.checksum;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 読み込んだレコード数をトレーラレコードに記載された件数と照合するためのインタフェース。
+ * <p/>
+ * {@link StreamChecksum#attach(nablarch.common.databind.ObjectMapper, TrailerVerifier)}に指定して使用する。
+ *
+ * @param <T> レコードの型
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public interface TrailerVerifier<T> {
+
+    /**
+     * レコードがトレーラレコードか否かを判定する。
+     *
+     * @param record レコード
+     * @return トレーラレコードの場合は{@code true}
+     */
+    boolean isTrailer(T record);
+
+    /**
+     * レコードが件数に含まれるか否かを判定する。
+     * <p/>
+     * ヘッダレコードを件数に含めない場合などは、{@code false}を返すこと。
+     * トレーラレコードに対しては呼び出されない。
+     *
+     * @param record レコード
+     * @return 件数に含まれる場合は{@code true}
+     */
+    boolean isCounted(T record);
+
+    /**
+     * トレーラレコードに記載された件数を取得する。
+     *
+     * @param trailer トレーラレコード
+     * @return 件数
+     */
+    long getRecordCount(T trailer);
+}
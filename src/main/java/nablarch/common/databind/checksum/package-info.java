@@ -0,0 +1,4 @@
+/**
+ * 入出力のバイト列のチェックサムとレコード数を、読み書きと同時に算出する機能を提供する。
+ */
+package nablarch.common.databind.checksum;
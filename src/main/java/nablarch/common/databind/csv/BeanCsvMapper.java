@@ -37,8 +37,31 @@ public class BeanCsvMapper<T> extends ObjectCsvMapperSupport<T> {
      * @param writer 出力リソース
      */
     public BeanCsvMapper(final Class<T> clazz, final CsvDataBindConfig config, final Writer writer) {
-        super(config, writer, DataBindUtil.findCsvProperties(clazz));
-        properties = DataBindUtil.findCsvProperties(clazz);
+        this(config, writer, DataBindUtil.findCsvProperties(clazz));
+    }
+
+    /**
+     * Beanのマッピング情報を使用するコンストラクタ。
+     *
+     * @param metadata Beanのマッピング情報
+     * @param writer 出力リソース
+     */
+    public BeanCsvMapper(final CsvMappingMetadata metadata, final Writer writer) {
+        this(metadata.getConfig(), writer, metadata.getPropertyNames());
+    }
+
+    /**
+     * 解析済みのプロパティ情報を使用するコンストラクタ。
+     * <p/>
+     * Beanのアノテーションを参照せずに{@code BeanCsvMapper}を生成する場合に使用する。
+     *
+     * @param config フォーマット定義
+     * @param writer 出力リソース
+     * @param properties プロパティ名リスト
+     */
+    protected BeanCsvMapper(final CsvDataBindConfig config, final Writer writer, final String[] properties) {
+        super(config, writer, properties);
+        this.properties = properties;
         writeHeader();
     }
 
@@ -0,0 +1,151 @@
+package nablarch.common.databind.csv;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * デコード済みの文字が、エンコードされていた状態で何バイトであったかを数えるクラス。
+ * <p/>
+ * UTF-8と1バイト文字コードは文字コードの値から算出し、それ以外の文字コードはエンコーダで変換したバイト数を数える。
+ * 入力がその文字コードとして正しいバイト列である場合にのみ、元のバイト数と一致する。
+ * <p/>
+ * 状態を持つ文字コードに対応するため、文字は読み込んだ順に1度だけ渡すこと。
+ *
+ * @author Hisaaki Shioiri
+ */
+abstract class CharByteCounter {
+
+    /**
+     * 文字コードに応じた{@code CharByteCounter}を生成する。
+     *
+     * @param charset 文字コード
+     * @return {@code CharByteCounter}
+     */
+    static CharByteCounter create(final Charset charset) {
+        final String name = charset.name();
+        if ("UTF-8".equals(name)) {
+            return new Utf8Counter();
+        }
+        final CharsetEncoder encoder = charset.newEncoder();
+        if (encoder.maxBytesPerChar() == 1.0f) {
+            return new SingleByteCounter();
+        }
+        return new EncodingCounter(encoder);
+    }
+
+    /**
+     * 文字のバイト数を数える。
+     *
+     * @param chars 文字の配列
+     * @param off 開始位置
+     * @param len 文字数
+     * @return バイト数
+     */
+    abstract long count(char[] chars, int off, int len);
+
+    /**
+     * UTF-8のバイト数を数える。
+     * <p/>
+     * サロゲートペアは4バイトとなるため、上位・下位のサロゲートをそれぞれ2バイトとして数える。
+     */
+    private static final class Utf8Counter extends CharByteCounter {
+
+        @Override
+        long count(final char[] chars, final int off, final int len) {
+            long bytes = 0;
+            for (int i = off, end = off + len; i < end; i++) {
+                final char c = chars[i];
+                if (c < 0x80) {
+                    bytes++;
+                } else if (c < 0x800 || (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE)) {
+                    bytes += 2;
+                } else {
+                    bytes += 3;
+                }
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * 1バイト文字コードのバイト数を数える。
+     */
+    private static final class SingleByteCounter extends CharByteCounter {
+
+        @Override
+        long count(final char[] chars, final int off, final int len) {
+            return len;
+        }
+    }
+
+    /**
+     * エンコーダで変換したバイト数を数える。
+     * <p/>
+     * 変換結果は破棄し、バイト数のみを集計する。
+     * サロゲートペアの途中で区切られた場合は、上位のサロゲートを次の呼び出しまで持ち越す。
+     */
+    private static final class EncodingCounter extends CharByteCounter {
+
+        /** エンコーダ */
+        private final CharsetEncoder encoder;
+
+        /** 変換結果の出力先 */
+        private final ByteBuffer scratch = ByteBuffer.allocate(1024);
+
+        /** 持ち越した上位のサロゲート(持ち越していない場合は{@code null}) */
+        private char[] pending;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param encoder エンコーダ
+         */
+        EncodingCounter(final CharsetEncoder encoder) {
+            this.encoder = encoder.onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        @Override
+        long count(final char[] chars, final int off, final int len) {
+            if (len == 0) {
+                return 0L;
+            }
+            long bytes = 0;
+            int start = off;
+            if (pending != null) {
+                pending[1] = chars[off];
+                bytes += encode(CharBuffer.wrap(pending));
+                pending = null;
+                start++;
+            }
+            final CharBuffer in = CharBuffer.wrap(chars, start, off + len - start);
+            bytes += encode(in);
+            if (in.hasRemaining()) {
+                pending = new char[] {in.get(), 0};
+            }
+            return bytes;
+        }
+
+        /**
+         * 文字を変換し、バイト数を返す。
+         *
+         * @param in 変換する文字
+         * @return バイト数
+         */
+        private long encode(final CharBuffer in) {
+            long bytes = 0;
+            while (true) {
+                scratch.clear();
+                final CoderResult result = encoder.encode(in, scratch, false);
+                bytes += scratch.position();
+                if (!result.isOverflow()) {
+                    return bytes;
+                }
+            }
+        }
+    }
+}
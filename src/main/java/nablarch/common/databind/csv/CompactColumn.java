@@ -0,0 +1,202 @@
+package nablarch.common.databind.csv;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * 1列分の文字列を、オブジェクトを生成せずに配列で保持するクラス。
+ * <p/>
+ * 全ての値が{@code long}の正規の文字列表現(先頭の{@code 0}や{@code +}を含まない)である間は{@code long}の配列に保持する。
+ * それ以外の値が現れた時点で、全ての値をUTF-8のバイト列として1つのバイト配列(アリーナ)に連結して保持する形式に切り替える。
+ * {@code null}はビット集合で管理する。
+ *
+ * @author Hisaaki Shioiri
+ */
+final class CompactColumn {
+
+    /** 文字コード(UTF-8) */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** 初期の要素数 */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** 数値として保持する値(文字列として保持する場合は{@code null}) */
+    private long[] longs = new long[INITIAL_CAPACITY];
+
+    /** 文字列として保持する値のバイト列を連結したアリーナ */
+    private byte[] bytes;
+
+    /** 各値のアリーナ内の終端位置 */
+    private int[] ends;
+
+    /** アリーナの使用済みのバイト数 */
+    private int byteCount;
+
+    /** {@code null}の値 */
+    private final BitSet nulls = new BitSet();
+
+    /** 値の数 */
+    private int size;
+
+    /**
+     * 値を追加する。
+     *
+     * @param value 値
+     */
+    void add(final String value) {
+        if (value == null) {
+            nulls.set(size);
+        }
+        if (longs != null) {
+            if (value == null || isCanonicalLong(value)) {
+                if (size == longs.length) {
+                    longs = Arrays.copyOf(longs, size * 2);
+                }
+                longs[size++] = value == null ? 0L : Long.parseLong(value);
+                return;
+            }
+            switchToText();
+        }
+        if (size == ends.length) {
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        if (value != null) {
+            append(value.getBytes(UTF_8));
+        }
+        ends[size++] = byteCount;
+    }
+
+    /**
+     * 数値として保持している値を、文字列として保持する形式に切り替える。
+     */
+    private void switchToText() {
+        bytes = new byte[Math.max(INITIAL_CAPACITY, size * 8)];
+        ends = new int[longs.length];
+        for (int i = 0; i < size; i++) {
+            if (!nulls.get(i)) {
+                append(Long.toString(longs[i]).getBytes(UTF_8));
+            }
+            ends[i] = byteCount;
+        }
+        longs = null;
+    }
+
+    /**
+     * アリーナにバイト列を追加する。
+     *
+     * @param value バイト列
+     */
+    private void append(final byte[] value) {
+        if (byteCount + value.length > bytes.length) {
+            final long required = (long) byteCount + value.length;
+            if (required > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("column size exceeds limit. size = [" + required + ']');
+            }
+            bytes = Arrays.copyOf(bytes, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(required, bytes.length * 2L)));
+        }
+        System.arraycopy(value, 0, bytes, byteCount, value.length);
+        byteCount += value.length;
+    }
+
+    /**
+     * 値を取得する。
+     *
+     * @param index 値の位置
+     * @return 値
+     */
+    String get(final int index) {
+        if (nulls.get(index)) {
+            return null;
+        }
+        if (longs != null) {
+            return Long.toString(longs[index]);
+        }
+        final int start = index == 0 ? 0 : ends[index - 1];
+        return new String(bytes, start, ends[index] - start, UTF_8);
+    }
+
+    /**
+     * 数値として保持している値を取得する。
+     *
+     * @param index 値の位置
+     * @return 値
+     */
+    long getLong(final int index) {
+        return longs[index];
+    }
+
+    /**
+     * 数値として保持しているか否かを返す。
+     *
+     * @return 数値として保持している場合は{@code true}
+     */
+    boolean isNumeric() {
+        return longs != null;
+    }
+
+    /**
+     * 値の数を返す。
+     *
+     * @return 値の数
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * 未使用の領域を解放する。
+     * <p/>
+     * 全ての値を追加した後に呼び出す。
+     */
+    void trim() {
+        if (longs != null) {
+            longs = Arrays.copyOf(longs, size);
+        } else {
+            ends = Arrays.copyOf(ends, size);
+            bytes = Arrays.copyOf(bytes, byteCount);
+        }
+    }
+
+    /**
+     * 保持している配列のおおよそのバイト数を返す。
+     *
+     * @return バイト数
+     */
+    long getMemoryBytes() {
+        final long nullBytes = nulls.size() / 8;
+        if (longs != null) {
+            return longs.length * 8L + nullBytes;
+        }
+        return bytes.length + ends.length * 4L + nullBytes;
+    }
+
+    /**
+     * 文字列が{@code long}の正規の文字列表現であるか否かを判定する。
+     * <p/>
+     * {@link Long#toString(long)}で元の文字列に戻せる場合のみ{@code true}を返す。
+     *
+     * @param value 文字列
+     * @return 正規の文字列表現の場合は{@code true}
+     */
+    static boolean isCanonicalLong(final String value) {
+        final int length = value.length();
+        final int start = length > 0 && value.charAt(0) == '-' ? 1 : 0;
+        final int digits = length - start;
+        if (digits == 0 || digits > 19 || (value.charAt(start) == '0' && (digits > 1 || start == 1))) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        if (digits < 19) {
+            return true;
+        }
+        // 19桁の場合は範囲を超える可能性があるため、文字列で比較する
+        final String limit = start == 1 ? "9223372036854775808" : "9223372036854775807";
+        return value.substring(start).compareTo(limit) <= 0;
+    }
+}
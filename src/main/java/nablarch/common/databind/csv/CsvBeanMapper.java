@@ -44,10 +44,38 @@ public class CsvBeanMapper<T> extends CsvObjectMapperSupport<T> {
      * @param reader リーダー
      */
     public CsvBeanMapper(final Class<T> clazz, final CsvDataBindConfig config, final Reader reader) {
+        this(clazz, config, reader,
+                DataBindUtil.findCsvProperties(clazz), DataBindUtil.findLineNumberProperty(clazz));
+    }
+
+    /**
+     * Beanのマッピング情報を使用するコンストラクタ。
+     *
+     * @param clazz Beanの{@link Class}
+     * @param metadata Beanのマッピング情報
+     * @param reader リーダー
+     */
+    public CsvBeanMapper(final Class<T> clazz, final CsvMappingMetadata metadata, final Reader reader) {
+        this(clazz, metadata.getConfig(), reader, metadata.getPropertyNames(), metadata.getLineNumberPropertyName());
+    }
+
+    /**
+     * 解析済みのプロパティ情報を使用するコンストラクタ。
+     * <p/>
+     * Beanのアノテーションを参照せずに{@code CsvBeanMapper}を生成する場合に使用する。
+     *
+     * @param clazz Beanの{@link Class}
+     * @param config CSV用の設定情報
+     * @param reader リーダー
+     * @param propertyNames プロパティ名の配列
+     * @param lineNumberPropertyName 行番号を格納するプロパティ名(存在しない場合は{@code null})
+     */
+    protected CsvBeanMapper(final Class<T> clazz, final CsvDataBindConfig config, final Reader reader,
+            final String[] propertyNames, final String lineNumberPropertyName) {
         super(config, reader);
         this.clazz = clazz;
-        propertyNames = DataBindUtil.findCsvProperties(clazz);
-        lineNumberPropertyName = DataBindUtil.findLineNumberProperty(clazz);
+        this.propertyNames = propertyNames;
+        this.lineNumberPropertyName = lineNumberPropertyName;
         readInitialize();
     }
 
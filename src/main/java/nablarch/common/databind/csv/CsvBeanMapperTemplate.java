@@ -0,0 +1,93 @@
+package nablarch.common.databind.csv;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+
+import nablarch.common.databind.MapperTemplate;
+import nablarch.common.databind.ObjectMapper;
+
+/**
+ * CSVとBeanをマッピングする{@link MapperTemplate}の実装クラス。
+ * <p/>
+ * Beanに対応する{@link CsvMapperProvider}が生成されている場合は、そのプロバイダを使用して{@link ObjectMapper}を生成する。
+ * 生成されていない場合は、{@link CsvMappingMetadata}を使用してリフレクションベースの{@link ObjectMapper}を生成する。
+ *
+ * @param <T> マッピング対象のクラス
+ * @author Hisaaki Shioiri
+ */
+public class CsvBeanMapperTemplate<T> implements MapperTemplate<T> {
+
+    /** マッピング対象のクラス */
+    private final Class<T> clazz;
+
+    /** マッピング情報 */
+    private final CsvMappingMetadata metadata;
+
+    /** コンパイル時に生成されたプロバイダ */
+    private final CsvMapperProvider<T> provider;
+
+    /** CSV用の設定情報 */
+    private final CsvDataBindConfig config;
+
+    /**
+     * マッピング情報を使用する{@code CsvBeanMapperTemplate}を生成する。
+     *
+     * @param clazz マッピング対象のクラス
+     * @param metadata マッピング情報
+     */
+    public CsvBeanMapperTemplate(final Class<T> clazz, final CsvMappingMetadata metadata) {
+        this.clazz = clazz;
+        this.metadata = metadata;
+        this.provider = null;
+        this.config = metadata.getConfig();
+    }
+
+    /**
+     * コンパイル時に生成されたプロバイダを使用する{@code CsvBeanMapperTemplate}を生成する。
+     *
+     * @param clazz マッピング対象のクラス
+     * @param provider プロバイダ
+     */
+    public CsvBeanMapperTemplate(final Class<T> clazz, final CsvMapperProvider<T> provider) {
+        this.clazz = clazz;
+        this.metadata = null;
+        this.provider = provider;
+        this.config = provider.getConfig();
+    }
+
+    @Override
+    public ObjectMapper<T> create(final InputStream stream) {
+        return create(new InputStreamReader(stream, config.getCharset()));
+    }
+
+    @Override
+    public ObjectMapper<T> create(final Reader reader) {
+        if (provider != null) {
+            return provider.createReader(reader);
+        }
+        return new CsvBeanMapper<T>(clazz, metadata, reader);
+    }
+
+    @Override
+    public ObjectMapper<T> create(final String input) {
+        return create(new StringReader(input));
+    }
+
+    @Override
+    public ObjectMapper<T> create(final OutputStream stream) {
+        return create(new OutputStreamWriter(stream, config.getCharset()));
+    }
+
+    @Override
+    public ObjectMapper<T> create(final Writer writer) {
+        if (provider != null) {
+            return provider.createWriter(writer);
+        }
+        return new BeanCsvMapper<T>(metadata, writer);
+    }
+}
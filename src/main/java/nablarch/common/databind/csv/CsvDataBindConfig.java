@@ -463,6 +463,34 @@ public class CsvDataBindConfig implements DataBindConfig {
                 Arrays.asList(fieldNames));
     }
 
+    @Override
+    public String toString() {
+        return "CsvDataBindConfig{fieldSeparator=" + escape(String.valueOf(fieldSeparator))
+                + ", lineSeparator=" + escape(lineSeparator)
+                + ", quote=" + quote
+                + ", ignoreEmptyLine=" + ignoreEmptyLine
+                + ", requiredHeader=" + requiredHeader
+                + ", headerTitles=" + (headerTitles == null ? "null" : Arrays.asList(headerTitles).toString())
+                + ", charset=" + charset
+                + ", emptyToNull=" + emptyToNull
+                + ", quoteMode=" + quoteMode
+                + ", quotedColumnNames=" + quotedColumnNames
+                + '}';
+    }
+
+    /**
+     * 制御文字をエスケープ表記に変換する。
+     *
+     * @param value 文字列
+     * @return エスケープ表記に変換した文字列
+     */
+    private static String escape(final String value) {
+        if (value == null) {
+            return "null";
+        }
+        return value.replace("\r", "\\r").replace("\n", "\\n").replace("\t", "\\t");
+    }
+
     /**
      * 出力時にフィールド囲み文字で囲むフィールドを指定するモードの定義。
      */
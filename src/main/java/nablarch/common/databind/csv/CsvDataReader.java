@@ -2,10 +2,17 @@ package nablarch.common.databind.csv;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import nablarch.common.databind.DataReader;
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ReadPosition;
+import nablarch.common.databind.metrics.MapperMetrics;
+import nablarch.common.databind.metrics.ReadProgress;
+import nablarch.core.util.StringUtil;
 
 /**
  * CSVの解析を行うクラス。
@@ -17,8 +24,14 @@ public class CsvDataReader implements DataReader<String[]> {
     /** CSVの要素を分解して扱う{@link CsvTokenizer} */
     private final CsvTokenizer tokenizer;
 
-    /** 入力リソース */
-    private final BufferedReader reader;
+    /** マルチレイアウトファイルで、レコード種別の列までの要素を一時的に保持する配列 */
+    private String[] leadingFields;
+
+    /** マルチレイアウトファイルで、最後に読み込んだレコードのレイアウトの位置(特定できなかった場合は{@code -1}) */
+    private int layoutIndex = -1;
+
+    /** 読み込みを開始した位置(読み込み位置を追跡しない場合は{@code null}) */
+    private final ReadPosition start;
 
     /**
      * コンストラクタ
@@ -36,8 +49,28 @@ public class CsvDataReader implements DataReader<String[]> {
      * @param format CSVのフォーマットを定義した{@link CsvDataBindConfig}
      */
     public CsvDataReader(final BufferedReader bufferedReader, final CsvDataBindConfig format) {
-        reader = bufferedReader;
-        this.tokenizer = new CsvTokenizer(bufferedReader, format);
+        this((Reader) bufferedReader, format);
+    }
+
+    /**
+     * コンストラクタ
+     * <p/>
+     * {@code reader}は内部でバッファリングするため、{@link BufferedReader}でラップする必要はない。
+     * <p/>
+     * {@code reader}が{@link PositionedReader}の場合は、指定された位置から読み込みを開始し、読み込み位置を追跡する。
+     *
+     * @param reader 解析を行うCSVの{@link Reader}
+     * @param format CSVのフォーマットを定義した{@link CsvDataBindConfig}
+     */
+    public CsvDataReader(final Reader reader, final CsvDataBindConfig format) {
+        this.tokenizer = new CsvTokenizer(reader, format);
+        if (reader instanceof PositionedReader) {
+            final PositionedReader positioned = (PositionedReader) reader;
+            start = positioned.getPosition();
+            tokenizer.startAt(start, CharByteCounter.create(positioned.getCharset()));
+        } else {
+            start = null;
+        }
     }
 
 
@@ -63,6 +96,96 @@ public class CsvDataReader implements DataReader<String[]> {
         }
     }
 
+    /**
+     * マルチレイアウトファイルの1レコードを解析し、レイアウトに応じた要素数の{@link String}の配列を生成する。
+     * <p/>
+     * レコード種別の列までを読み込んだ時点でレイアウトを特定し、以降の要素は特定したレイアウトの要素数の配列に直接格納する。
+     * レコード種別の列が存在しない行(空行など)は、読み込んだ要素のみを格納した配列を返す。
+     * レコード種別が先頭の列の場合も、空行は空行の判定ができるよう要素のみを格納した配列を返す。
+     * 特定したレイアウトの位置は{@link #getLayoutIndex()}で取得できる。
+     * <p/>
+     * ファイルの終端に達した場合には、{@code null}を返す。
+     *
+     * @param layouts マルチレイアウトファイルのマッピング情報
+     * @return 1レコード分のデータを格納した{@link String}の配列
+     * @throws InvalidDataFormatException 未定義のレコード種別の場合、要素数がレイアウトと一致しない場合
+     */
+    String[] read(final CsvLayoutMetadata layouts) {
+        try {
+            if (tokenizer.isEndOfFile()) {
+                return null;
+            }
+            tokenizer.reset();
+            final int recordTypeIndex = layouts.getRecordTypeIndex();
+            if (leadingFields == null) {
+                leadingFields = new String[recordTypeIndex + 1];
+            }
+            int count = 0;
+            while (count <= recordTypeIndex && !tokenizer.isEndOfLine()) {
+                leadingFields[count++] = tokenizer.next();
+            }
+            layoutIndex = -1;
+            if (count <= recordTypeIndex || isEmptyLine(count)) {
+                return Arrays.copyOf(leadingFields, count);
+            }
+            final String recordType = leadingFields[recordTypeIndex];
+            layoutIndex = layouts.indexOf(recordType);
+            if (layoutIndex == -1) {
+                skipLine();
+                throw new InvalidDataFormatException(
+                        "unknown record type. record type = [" + recordType + "].", tokenizer.getLineNumber());
+            }
+            final String[] record = new String[layouts.getLayout(layoutIndex).getPropertyNames().length];
+            System.arraycopy(leadingFields, 0, record, 0, Math.min(count, record.length));
+            while (!tokenizer.isEndOfLine()) {
+                final String field = tokenizer.next();
+                if (count < record.length) {
+                    record[count] = field;
+                }
+                count++;
+            }
+            if (count != record.length) {
+                throw new InvalidDataFormatException(
+                        "property size does not match. expected field count = [" + record.length + "],"
+                                + " actual field count = [" + count + "]. record type = [" + recordType + "].",
+                        tokenizer.getLineNumber());
+            }
+            return record;
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        }
+    }
+
+    /**
+     * マルチレイアウトファイルで、最後に読み込んだレコードのレイアウトの位置を返す。
+     *
+     * @return レイアウトの位置(レコード種別の列が存在せず、レイアウトを特定できなかった場合は{@code -1})
+     */
+    int getLayoutIndex() {
+        return layoutIndex;
+    }
+
+    /**
+     * 読み込んだ要素が空行のものか否かを返す。
+     *
+     * @param count 読み込んだ要素数
+     * @return 空行の場合は{@code true}
+     */
+    private boolean isEmptyLine(final int count) {
+        return count == 1 && tokenizer.isEndOfLine() && StringUtil.isNullOrEmpty(leadingFields[0]);
+    }
+
+    /**
+     * 現在のレコードの残りの要素を読み飛ばす。
+     *
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    private void skipLine() throws IOException {
+        while (!tokenizer.isEndOfLine()) {
+            tokenizer.next();
+        }
+    }
+
     /**
      * 1レコード分のデータを読み込む。
      *
@@ -78,6 +201,51 @@ public class CsvDataReader implements DataReader<String[]> {
         return record;
     }
 
+    /**
+     * メトリクスの収集先を設定する。
+     *
+     * @param metrics メトリクスの収集先
+     */
+    public void setMetrics(final MapperMetrics metrics) {
+        tokenizer.setMetrics(metrics);
+    }
+
+    /**
+     * 進捗の通知先を設定する。
+     *
+     * @param progress 進捗の通知先
+     */
+    public void setProgress(final ReadProgress progress) {
+        tokenizer.setProgress(progress);
+    }
+
+    /**
+     * ファイルの途中から読み込みを再開したか否かを返す。
+     * <p/>
+     * 再開した場合、ヘッダ行は読み込み済みのため読み込まない。
+     *
+     * @return ファイルの途中から再開した場合は{@code true}
+     */
+    boolean isResumed() {
+        return start != null && !start.isStart();
+    }
+
+    /**
+     * 現在の読み込み位置を返す。
+     *
+     * @param recordCount 本インスタンスで読み込んだレコード数
+     * @return 読み込み位置
+     * @throws IllegalStateException 読み込み位置を追跡していない場合
+     */
+    ReadPosition getPosition(final long recordCount) {
+        if (start == null) {
+            throw new IllegalStateException(
+                    "position is not tracked. use ObjectMapperFactory#createResumable to create mapper.");
+        }
+        return new ReadPosition(tokenizer.getByteOffset(), tokenizer.getNextLineNumber(),
+                start.getRecordCount() + recordCount);
+    }
+
     /**
      * 現在のレコード番号を返す。
      *
@@ -89,6 +257,6 @@ public class CsvDataReader implements DataReader<String[]> {
 
     @Override
     public void close() throws IOException {
-        reader.close();
+        tokenizer.close();
     }
 }
@@ -2,9 +2,11 @@ package nablarch.common.databind.csv;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.Writer;
 
 import nablarch.common.databind.DataWriter;
 import nablarch.common.databind.csv.CsvDataBindConfig.QuoteMode;
+import nablarch.common.databind.metrics.MapperMetrics;
 import nablarch.core.util.StringUtil;
 
 /**
@@ -18,11 +20,14 @@ public class CsvDataWriter implements DataWriter<Object[]> {
     private final CsvDataBindConfig config;
 
     /** 出力先のリソース */
-    private final BufferedWriter writer;
+    private final Writer writer;
 
     /** プロパティ名リスト */
     private final String[] properties;
 
+    /** メトリクスの収集先(収集しない場合は{@code null}) */
+    private MapperMetrics metrics;
+
 
     /**
      * 指定されたフォーマット定義を持つ{@code CsvLineFormatter}を生成する。
@@ -32,11 +37,40 @@ public class CsvDataWriter implements DataWriter<Object[]> {
      * @param properties プロパティ名リスト
      */
     public CsvDataWriter(final BufferedWriter writer, final CsvDataBindConfig config, final String[] properties) {
+        this((Writer) writer, config, properties);
+    }
+
+    /**
+     * 指定されたフォーマット定義を持つ{@code CsvLineFormatter}を生成する。
+     * <p/>
+     * {@code writer}が{@link BufferedWriter}でない場合は、{@link nablarch.common.databind.CharBufferPool}
+     * から借り受けたバッファでバッファリングする。バッファは{@link #close()}で返却する。
+     *
+     * @param writer 出力リソース
+     * @param config フォーマット定義
+     * @param properties プロパティ名リスト
+     */
+    public CsvDataWriter(final Writer writer, final CsvDataBindConfig config, final String[] properties) {
         this.config = config;
-        this.writer = writer;
+        this.writer = writer instanceof BufferedWriter ? writer : new PooledBufferedWriter(writer);
         this.properties = properties;
     }
 
+    /**
+     * メトリクスの収集先を設定する。
+     * <p/>
+     * {@link nablarch.common.databind.CharBufferPool}のバッファで出力している場合は、
+     * 処理時間の計測中にバッファを書き出した時間をI/Oの処理時間として加算する。
+     *
+     * @param metrics メトリクスの収集先
+     */
+    public void setMetrics(final MapperMetrics metrics) {
+        this.metrics = metrics;
+        if (writer instanceof PooledBufferedWriter) {
+            ((PooledBufferedWriter) writer).setMetrics(metrics);
+        }
+    }
+
     /**
      * nullを空文字列に変換する。
      *
@@ -56,6 +90,9 @@ public class CsvDataWriter implements DataWriter<Object[]> {
      */
     private void writeField(final String fieldName, final Object fieldValue) throws IOException {
         final String fieldStr = StringUtil.toString(fieldValue);
+        if (metrics != null) {
+            metrics.addField(fieldStr.length());
+        }
 
         final char quote = config.getQuote();
         final boolean quotedField = isQuotedField(fieldName, fieldValue);
@@ -0,0 +1,679 @@
+package nablarch.common.databind.csv;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 同じデータの2つの時点のCSVファイルを比較し、キーの列ごとの追加・更新・削除を出力するクラス。
+ * <p/>
+ * どちらのファイルもメモリに読み込まずに比較するため、以下の処理を行う。
+ * <ol>
+ * <li>両方のファイルのレコードを、キーの列のハッシュ値で分割した一時ファイル(パーティション)に書き出す。</li>
+ * <li>パーティションごとに、旧ファイルのキーとレコード全体のハッシュ値(フィンガープリント)をメモリに保持する。</li>
+ * <li>新ファイルのレコードのキーとフィンガープリントを照合し、追加と更新を出力する。</li>
+ * <li>旧ファイルのパーティションを再度読み込み、新ファイルに存在しないキーのレコードを削除として出力する。</li>
+ * </ol>
+ * パーティションの数は、入力ファイルのバイト数の合計をメモリの上限({@link #withMemoryLimit(long)})で割った数
+ * (2のべき乗、最大{@value #MAX_PARTITIONS})とする。
+ * パーティションの数が上限に達した場合や、キーが偏っている場合など、
+ * 新旧のパーティションのバイト数の合計がメモリの上限を超える場合は、ハッシュ値の続くビットで再分割してから比較する。
+ * 再分割はハッシュ値の64ビットを使い切るまで繰り返すため、同じハッシュ値のキーが集中している場合を除き、
+ * 1つのパーティションで使用するメモリはおおよそ上限以下となる。
+ * 再分割の間は、分割前のパーティションと再分割したパーティションの一時ファイルが同時に存在する。
+ * <pre>
+ * {@code
+ * CsvDiff diff = new CsvDiff(CsvDataBindConfig.DEFAULT, 0)
+ *         .withMemoryLimit(256L * 1024 * 1024);
+ * CsvDiff.Result result = diff.diff(new File("customer_yesterday.csv"), new File("customer_today.csv"),
+ *         new File("customer_changes.csv"));
+ * }
+ * </pre>
+ * 出力するレコードは、先頭の列に変更の種類({@link ChangeType#getCode()})を加えたものである。
+ * 追加と更新は新ファイルのレコードを、削除は旧ファイルのレコードを出力する。
+ * ヘッダ行が必須の設定の場合は、{@value #CHANGE_TYPE_TITLE}と新ファイルのヘッダ行を出力する。
+ * <p/>
+ * 出力の順序はパーティションごとであり、パーティション内では追加と更新を新ファイルの順に出力した後に、
+ * 削除を旧ファイルの順に出力する。
+ * <p/>
+ * キーの比較では、空文字列の要素と{@code null}の要素を同じ値として扱う。
+ * 一方、フィンガープリントでは区別するため、{@link CsvDataBindConfig#isEmptyToNull()}が{@code true}の場合に
+ * クォートされていない空の要素がクォートされた空文字列({@code ""})に変わったレコードは更新となる。
+ * <p/>
+ * 更新の有無はフィンガープリントで判定するため、異なるレコードのフィンガープリントが衝突した場合は更新を検出できない。
+ * ただし、64ビットのハッシュ値であるため、その確率は無視できる程度である。
+ * <p/>
+ * 本クラスは不変であり、スレッドセーフである。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class CsvDiff {
+
+    /** 変更の種類を出力する列のヘッダのタイトル */
+    public static final String CHANGE_TYPE_TITLE = "changeType";
+
+    /** メモリの上限のデフォルト値(64MB) */
+    private static final long DEFAULT_MEMORY_LIMIT = 64L * 1024 * 1024;
+
+    /** パーティションの数の上限 */
+    private static final int MAX_PARTITIONS = 256;
+
+    /**
+     * 変更の種類。
+     */
+    public enum ChangeType {
+        /** 追加 */
+        INSERT("I"),
+        /** 更新 */
+        UPDATE("U"),
+        /** 削除 */
+        DELETE("D");
+
+        /** 出力する値 */
+        private final String code;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param code 出力する値
+         */
+        ChangeType(final String code) {
+            this.code = code;
+        }
+
+        /**
+         * 出力する値を返す。
+         *
+         * @return 出力する値
+         */
+        public String getCode() {
+            return code;
+        }
+    }
+
+    /** CSVの設定 */
+    private final CsvDataBindConfig config;
+
+    /** キーの列の位置(0始まり) */
+    private final int[] keyColumns;
+
+    /** 1つのパーティションで使用するおおよそのバイト数の上限 */
+    private final long memoryLimit;
+
+    /** 一時ファイルを作成するディレクトリ({@code null}の場合はシステムの一時ディレクトリ) */
+    private final File tempDirectory;
+
+    /**
+     * キーの列を指定して{@code CsvDiff}を生成する。
+     *
+     * @param config CSVの設定
+     * @param keyColumns キーの列の位置(0始まり)
+     */
+    public CsvDiff(final CsvDataBindConfig config, final int... keyColumns) {
+        this(config, keyColumns, DEFAULT_MEMORY_LIMIT, null);
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param config CSVの設定
+     * @param keyColumns キーの列の位置
+     * @param memoryLimit メモリの上限
+     * @param tempDirectory 一時ファイルを作成するディレクトリ
+     */
+    private CsvDiff(final CsvDataBindConfig config, final int[] keyColumns,
+            final long memoryLimit, final File tempDirectory) {
+        if (config == null) {
+            throw new IllegalArgumentException("config must not be null.");
+        }
+        if (keyColumns == null || keyColumns.length == 0) {
+            throw new IllegalArgumentException("key columns must not be empty.");
+        }
+        for (int column : keyColumns) {
+            if (column < 0) {
+                throw new IllegalArgumentException(
+                        "key column must not be negative. key column = [" + column + ']');
+            }
+        }
+        if (memoryLimit <= 0) {
+            throw new IllegalArgumentException(
+                    "memory limit must be greater than 0. memory limit = [" + memoryLimit + ']');
+        }
+        this.config = config;
+        this.keyColumns = keyColumns.clone();
+        this.memoryLimit = memoryLimit;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * 1つのパーティションで使用するおおよそのバイト数の上限を設定する。
+     * <p/>
+     * デフォルトは64MB。
+     *
+     * @param memoryLimit バイト数の上限
+     * @return 設定後の{@code CsvDiff}
+     */
+    public CsvDiff withMemoryLimit(final long memoryLimit) {
+        return new CsvDiff(config, keyColumns, memoryLimit, tempDirectory);
+    }
+
+    /**
+     * パーティションの一時ファイルを作成するディレクトリを設定する。
+     * <p/>
+     * 指定しない場合は、システムの一時ディレクトリを使用する。
+     *
+     * @param tempDirectory ディレクトリ
+     * @return 設定後の{@code CsvDiff}
+     */
+    public CsvDiff withTempDirectory(final File tempDirectory) {
+        return new CsvDiff(config, keyColumns, memoryLimit, tempDirectory);
+    }
+
+    /**
+     * 2つのCSVファイルを比較し、変更のあったレコードを出力する。
+     *
+     * @param oldFile 旧ファイル
+     * @param newFile 新ファイル
+     * @param output 出力ファイル
+     * @return 比較結果の件数
+     * @throws IllegalArgumentException 出力ファイルが入力ファイルのいずれかと同じ場合
+     * @throws InvalidDataFormatException CSVの形式が不正な場合、または同じファイル内でキーが重複する場合
+     */
+    public Result diff(final File oldFile, final File newFile, final File output) {
+        if (output.getAbsoluteFile().equals(oldFile.getAbsoluteFile())
+                || output.getAbsoluteFile().equals(newFile.getAbsoluteFile())) {
+            throw new IllegalArgumentException("output file must be different from input files. file = [" + output + ']');
+        }
+        final int partitionCount = partitionCountOf(oldFile.length() + newFile.length(), Long.SIZE);
+        final Partitioned oldSide = new Partitioned("old", partitionCount, 0);
+        final Partitioned newSide = new Partitioned("new", partitionCount, 0);
+        try {
+            oldSide.write(oldFile);
+            newSide.write(newFile);
+            final CsvDataWriter writer = createWriter(output, newSide.header,
+                    Math.max(oldSide.maxFieldCount, newSide.maxFieldCount));
+            try {
+                final Result result = new Result();
+                compare(oldSide, newSide, writer, result);
+                return result;
+            } finally {
+                closeQuietly(writer);
+            }
+        } finally {
+            oldSide.cleanUp();
+            newSide.cleanUp();
+        }
+    }
+
+    /**
+     * パーティションのバイト数の合計から、パーティションの数を求める。
+     *
+     * @param totalBytes バイト数の合計
+     * @param remainingBits 分割に使用できるハッシュ値のビット数
+     * @return パーティションの数(2のべき乗)
+     */
+    private int partitionCountOf(final long totalBytes, final int remainingBits) {
+        final int maxCount = remainingBits < Integer.numberOfTrailingZeros(MAX_PARTITIONS)
+                ? 1 << remainingBits : MAX_PARTITIONS;
+        int count = 1;
+        while (count < maxCount && (long) count * memoryLimit < totalBytes) {
+            count <<= 1;
+        }
+        return count;
+    }
+
+    /**
+     * 新旧のパーティションを順に比較し、比較したパーティションは削除する。
+     *
+     * @param oldSide 旧ファイルのパーティション
+     * @param newSide 新ファイルのパーティション
+     * @param writer 出力先
+     * @param result 比較結果の件数
+     */
+    private void compare(final Partitioned oldSide, final Partitioned newSide,
+            final CsvDataWriter writer, final Result result) {
+        final int usedBits = oldSide.usedBits + Integer.numberOfTrailingZeros(oldSide.partitions.length);
+        for (int i = 0; i < oldSide.partitions.length; i++) {
+            final SortedRun oldPartition = oldSide.partitions[i];
+            final SortedRun newPartition = newSide.partitions[i];
+            final long bytes = oldPartition.length() + newPartition.length();
+            if (bytes > memoryLimit && usedBits < Long.SIZE) {
+                // メモリの上限を超えるため、ハッシュ値の続くビットで再分割する
+                final int partitionCount = partitionCountOf(bytes, Long.SIZE - usedBits);
+                final Partitioned oldSplit = new Partitioned("old", partitionCount, usedBits);
+                final Partitioned newSplit = new Partitioned("new", partitionCount, usedBits);
+                try {
+                    oldSplit.write(oldPartition);
+                    oldPartition.delete();
+                    newSplit.write(newPartition);
+                    newPartition.delete();
+                    compare(oldSplit, newSplit, writer, result);
+                } finally {
+                    oldSplit.cleanUp();
+                    newSplit.cleanUp();
+                }
+            } else {
+                compare(oldPartition, newPartition, writer, result);
+                oldPartition.delete();
+                newPartition.delete();
+            }
+        }
+    }
+
+    /**
+     * 1つのパーティションを比較する。
+     *
+     * @param oldPartition 旧ファイルのパーティション
+     * @param newPartition 新ファイルのパーティション
+     * @param writer 出力先
+     * @param result 比較結果の件数
+     */
+    private void compare(final SortedRun oldPartition, final SortedRun newPartition,
+            final CsvDataWriter writer, final Result result) {
+        final Map<List<String>, Row> rows = new HashMap<List<String>, Row>();
+        SortedRun.Reader reader = oldPartition.open();
+        try {
+            String[] record;
+            while ((record = reader.read()) != null) {
+                final String[] fields = fieldsOf(record);
+                final Row previous = rows.put(keyOf(fields), new Row(RecordHash.ofRecord(fields), false));
+                if (previous != null) {
+                    throw duplicateKey("old", fields, record);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        final int oldCount = rows.size();
+        int matchedCount = 0;
+        reader = newPartition.open();
+        try {
+            String[] record;
+            while ((record = reader.read()) != null) {
+                final String[] fields = fieldsOf(record);
+                final List<String> key = keyOf(fields);
+                final Row row = rows.get(key);
+                if (row == null) {
+                    // 新ファイル内の重複を検出するため、追加したキーも保持する
+                    rows.put(key, Row.INSERTED);
+                    write(writer, ChangeType.INSERT, fields);
+                    result.insertCount++;
+                } else if (row.matched) {
+                    throw duplicateKey("new", fields, record);
+                } else {
+                    row.matched = true;
+                    matchedCount++;
+                    if (row.fingerprint == RecordHash.ofRecord(fields)) {
+                        result.unchangedCount++;
+                    } else {
+                        write(writer, ChangeType.UPDATE, fields);
+                        result.updateCount++;
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        if (matchedCount == oldCount) {
+            return;
+        }
+        reader = oldPartition.open();
+        try {
+            String[] record;
+            while ((record = reader.read()) != null) {
+                final String[] fields = fieldsOf(record);
+                if (!rows.get(keyOf(fields)).matched) {
+                    write(writer, ChangeType.DELETE, fields);
+                    result.deleteCount++;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * パーティションのレコードから、末尾の行番号を除いた要素を取り出す。
+     *
+     * @param record パーティションのレコード
+     * @return 要素
+     */
+    private static String[] fieldsOf(final String[] record) {
+        return Arrays.copyOf(record, record.length - 1);
+    }
+
+    /**
+     * キーの列の値を取り出す。値が空の列は{@code null}とする。
+     *
+     * @param fields 要素
+     * @return キーの列の値
+     */
+    private List<String> keyOf(final String[] fields) {
+        final String[] key = new String[keyColumns.length];
+        for (int i = 0; i < keyColumns.length; i++) {
+            final int column = keyColumns[i];
+            if (column < fields.length && fields[column] != null && fields[column].length() != 0) {
+                key[i] = fields[column];
+            }
+        }
+        return Arrays.asList(key);
+    }
+
+    /**
+     * キーの重複を表す例外を生成する。
+     *
+     * @param side 新旧の別
+     * @param fields 要素
+     * @param record パーティションのレコード(末尾が行番号)
+     * @return 例外
+     */
+    private InvalidDataFormatException duplicateKey(final String side, final String[] fields, final String[] record) {
+        return new InvalidDataFormatException(side + " file has duplicate key. key = " + keyOf(fields) + '.',
+                Long.parseLong(record[record.length - 1]));
+    }
+
+    /**
+     * 出力に使用する{@link CsvDataWriter}を生成し、ヘッダ行を出力する。
+     *
+     * @param output 出力ファイル
+     * @param header 新ファイルのヘッダ行(ヘッダ行が存在しない場合は{@code null})
+     * @param maxFieldCount レコードの要素数の最大値
+     * @return {@link CsvDataWriter}
+     */
+    private CsvDataWriter createWriter(final File output, final String[] header, final int maxFieldCount) {
+        final OutputStream out;
+        try {
+            out = new FileOutputStream(output);
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("failed to open file. file = [" + output + ']', e);
+        }
+        // フィールド囲み文字の要否をフィールド名で判定する設定があるため、ヘッダ行をフィールド名とする
+        final String[] names = new String[Math.max(maxFieldCount, header == null ? 0 : header.length) + 1];
+        names[0] = CHANGE_TYPE_TITLE;
+        for (int i = 1; i < names.length; i++) {
+            names[i] = header != null && i <= header.length ? header[i - 1] : "";
+        }
+        final CsvDataWriter writer = new CsvDataWriter(new OutputStreamWriter(out, config.getCharset()), config, names);
+        if (header != null) {
+            try {
+                writer.write(Arrays.copyOf(names, header.length + 1));
+            } catch (IOException e) {
+                closeQuietly(writer);
+                throw new RuntimeException("failed to write csv.", e);
+            }
+        }
+        return writer;
+    }
+
+    /**
+     * 変更の種類を先頭に加えたレコードを書き込む。
+     *
+     * @param writer {@link CsvDataWriter}
+     * @param type 変更の種類
+     * @param fields 要素
+     */
+    private static void write(final CsvDataWriter writer, final ChangeType type, final String[] fields) {
+        final String[] record = new String[fields.length + 1];
+        record[0] = type.code;
+        System.arraycopy(fields, 0, record, 1, fields.length);
+        try {
+            writer.write(record);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write csv.", e);
+        }
+    }
+
+    /**
+     * 例外を送出せずにリソースを閉じる。
+     *
+     * @param closeable リソース
+     */
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // 処理結果には影響しないため無視する
+        }
+    }
+
+    /**
+     * 一方のファイルを、キーの列のハッシュ値で分割したパーティション。
+     */
+    private final class Partitioned {
+
+        /** 新旧の別(メッセージに使用する) */
+        private final String side;
+
+        /** 上位の分割で使用済みのハッシュ値の上位ビット数 */
+        private final int usedBits;
+
+        /** パーティション(書き出し中は{@code null}) */
+        private final SortedRun[] partitions;
+
+        /** 書き出し中のパーティション */
+        private final SortedRun.Writer[] writers;
+
+        /** ヘッダ行(ヘッダ行を読み込んでいない場合は{@code null}) */
+        private String[] header;
+
+        /** レコードの要素数の最大値 */
+        private int maxFieldCount;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param side 新旧の別
+         * @param partitionCount パーティションの数
+         * @param usedBits 上位の分割で使用済みのハッシュ値の上位ビット数
+         */
+        private Partitioned(final String side, final int partitionCount, final int usedBits) {
+            this.side = side;
+            this.usedBits = usedBits;
+            partitions = new SortedRun[partitionCount];
+            writers = new SortedRun.Writer[partitionCount];
+        }
+
+        /**
+         * ファイルを読み込み、レコードに行番号を加えてパーティションに書き出す。
+         *
+         * @param file 入力ファイル
+         */
+        private void write(final File file) {
+            final FileInputStream in;
+            try {
+                in = new FileInputStream(file);
+            } catch (FileNotFoundException e) {
+                throw new RuntimeException("failed to open " + side + " file. file = [" + file + ']', e);
+            }
+            final CsvRecordScanner scanner = new CsvRecordScanner(config, new InputStreamReader(in, config.getCharset()));
+            try {
+                header = scanner.getHeader();
+                createWriters();
+                String[] record;
+                while ((record = scanner.read()) != null) {
+                    maxFieldCount = Math.max(maxFieldCount, record.length);
+                    final String[] withLineNumber = Arrays.copyOf(record, record.length + 1);
+                    withLineNumber[record.length] = String.valueOf(scanner.getLineNumber());
+                    writers[indexOf(record)].write(withLineNumber);
+                }
+                finishWriters();
+            } finally {
+                closeQuietly(scanner);
+            }
+        }
+
+        /**
+         * 上位のパーティションを読み込み、ハッシュ値の続くビットで再分割する。
+         *
+         * @param source 上位のパーティション
+         */
+        private void write(final SortedRun source) {
+            final SortedRun.Reader reader = source.open();
+            try {
+                createWriters();
+                String[] record;
+                while ((record = reader.read()) != null) {
+                    writers[indexOf(fieldsOf(record))].write(record);
+                }
+                finishWriters();
+            } finally {
+                reader.close();
+            }
+        }
+
+        /**
+         * レコードを書き出すパーティションを、キーの列のハッシュ値の使用済みのビットに続く上位ビットで選ぶ。
+         *
+         * @param fields 要素(行番号を含まない)
+         * @return パーティションの位置
+         */
+        private int indexOf(final String[] fields) {
+            if (writers.length == 1) {
+                return 0;
+            }
+            final int shift = Long.SIZE - Integer.numberOfTrailingZeros(writers.length);
+            return (int) ((RecordHash.ofColumns(fields, keyColumns) << usedBits) >>> shift);
+        }
+
+        /**
+         * 全てのパーティションの一時ファイルを作成する。
+         */
+        private void createWriters() {
+            for (int i = 0; i < writers.length; i++) {
+                writers[i] = SortedRun.create(tempDirectory);
+            }
+        }
+
+        /**
+         * 全てのパーティションの書き出しを終える。
+         */
+        private void finishWriters() {
+            for (int i = 0; i < writers.length; i++) {
+                partitions[i] = writers[i].finish();
+                writers[i] = null;
+            }
+        }
+
+        /**
+         * 全てのパーティションを削除する。
+         */
+        private void cleanUp() {
+            for (int i = 0; i < partitions.length; i++) {
+                if (writers[i] != null) {
+                    writers[i].close();
+                }
+                if (partitions[i] != null) {
+                    partitions[i].delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * 旧ファイルのレコードのフィンガープリントと、新ファイルに存在したか否か。
+     */
+    private static final class Row {
+
+        /** 新ファイルにのみ存在するキーを表す値 */
+        private static final Row INSERTED = new Row(0L, true);
+
+        /** フィンガープリント */
+        private final long fingerprint;
+
+        /** 新ファイルに存在したか否か */
+        private boolean matched;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param fingerprint フィンガープリント
+         * @param matched 新ファイルに存在したか否か
+         */
+        private Row(final long fingerprint, final boolean matched) {
+            this.fingerprint = fingerprint;
+            this.matched = matched;
+        }
+    }
+
+    /**
+     * 比較結果の件数。
+     */
+    public static final class Result {
+
+        /** 追加したレコード数 */
+        private long insertCount;
+
+        /** 更新したレコード数 */
+        private long updateCount;
+
+        /** 削除したレコード数 */
+        private long deleteCount;
+
+        /** 変更のないレコード数 */
+        private long unchangedCount;
+
+        /**
+         * コンストラクタ。
+         */
+        private Result() {
+        }
+
+        /**
+         * 新ファイルにのみ存在するレコード数を返す。
+         *
+         * @return レコード数
+         */
+        public long getInsertCount() {
+            return insertCount;
+        }
+
+        /**
+         * 両方に存在し、内容が異なるレコード数を返す。
+         *
+         * @return レコード数
+         */
+        public long getUpdateCount() {
+            return updateCount;
+        }
+
+        /**
+         * 旧ファイルにのみ存在するレコード数を返す。
+         *
+         * @return レコード数
+         */
+        public long getDeleteCount() {
+            return deleteCount;
+        }
+
+        /**
+         * 両方に存在し、内容が同じレコード数を返す。
+         *
+         * @return レコード数
+         */
+        public long getUnchangedCount() {
+            return unchangedCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{insertCount=" + insertCount + ", updateCount=" + updateCount
+                    + ", deleteCount=" + deleteCount + ", unchangedCount=" + unchangedCount + '}';
+        }
+    }
+}
@@ -0,0 +1,672 @@
+package nablarch.common.databind.csv;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * CSVファイルから、キーの列が重複するレコードを検出するクラス。
+ * <p/>
+ * キーの文字列を保持せずに重複を検出するため、ファイルを以下の2回読み込む。
+ * <ol>
+ * <li>各レコードのキーの列を64ビットのハッシュ値に変換し、{@code long}の集合で重複したハッシュ値を求める。</li>
+ * <li>重複したハッシュ値を持つレコードのみ、キーの文字列を比較して実際に重複しているかを確認し、行番号を集める。</li>
+ * </ol>
+ * ハッシュ値の衝突は2回目の読み込みで取り除くため、誤って重複と報告することはない。
+ * <p/>
+ * ハッシュ値の集合がメモリの上限({@link #withMemoryLimit(long)})を超える場合は、
+ * ハッシュ値の上位ビットで分割した一時ファイル(パーティション)に書き出し、パーティションごとに重複を求める。
+ * パーティションもメモリの上限を超える場合は、次のビットでさらに分割する。
+ * <pre>
+ * {@code
+ * CsvDuplicateDetector detector = new CsvDuplicateDetector(CsvDataBindConfig.DEFAULT, 0, 2)
+ *         .withMemoryLimit(256L * 1024 * 1024);
+ * CsvDuplicateReport report = detector.detect(new File("customer.csv"));
+ * for (CsvDuplicateReport.Duplicate duplicate : report.getDuplicates()) {
+ *     // duplicate.getLineNumbers()の2件目以降が重複したレコード
+ * }
+ * }
+ * </pre>
+ * メモリの上限の対象はハッシュ値の集合のみである。
+ * 重複したハッシュ値と、重複したレコードの行番号は、重複の件数に比例したメモリを使用する。
+ * <p/>
+ * 本クラスは不変であり、スレッドセーフである。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class CsvDuplicateDetector {
+
+    /** メモリの上限のデフォルト値(64MB) */
+    private static final long DEFAULT_MEMORY_LIMIT = 64L * 1024 * 1024;
+
+    /** 1回に分割するパーティションの数を表すビット数 */
+    private static final int PARTITION_BITS = 4;
+
+    /** CSVの設定 */
+    private final CsvDataBindConfig config;
+
+    /** キーの列の位置(0始まり) */
+    private final int[] keyColumns;
+
+    /** ハッシュ値の集合のバイト数の上限 */
+    private final long memoryLimit;
+
+    /** 一時ファイルを作成するディレクトリ({@code null}の場合はシステムの一時ディレクトリ) */
+    private final File tempDirectory;
+
+    /**
+     * キーの列を指定して{@code CsvDuplicateDetector}を生成する。
+     *
+     * @param config CSVの設定
+     * @param keyColumns キーの列の位置(0始まり)
+     */
+    public CsvDuplicateDetector(final CsvDataBindConfig config, final int... keyColumns) {
+        this(config, keyColumns, DEFAULT_MEMORY_LIMIT, null);
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param config CSVの設定
+     * @param keyColumns キーの列の位置
+     * @param memoryLimit メモリの上限
+     * @param tempDirectory 一時ファイルを作成するディレクトリ
+     */
+    private CsvDuplicateDetector(final CsvDataBindConfig config, final int[] keyColumns,
+            final long memoryLimit, final File tempDirectory) {
+        if (config == null) {
+            throw new IllegalArgumentException("config must not be null.");
+        }
+        if (keyColumns == null || keyColumns.length == 0) {
+            throw new IllegalArgumentException("key columns must not be empty.");
+        }
+        for (int column : keyColumns) {
+            if (column < 0) {
+                throw new IllegalArgumentException(
+                        "key column must not be negative. key column = [" + column + ']');
+            }
+        }
+        if (memoryLimit <= 0) {
+            throw new IllegalArgumentException(
+                    "memory limit must be greater than 0. memory limit = [" + memoryLimit + ']');
+        }
+        this.config = config;
+        this.keyColumns = keyColumns.clone();
+        this.memoryLimit = memoryLimit;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * ハッシュ値の集合のバイト数の上限を設定する。
+     * <p/>
+     * デフォルトは64MB。ハッシュ値1件あたり、おおよそ14〜27バイトを使用する。
+     *
+     * @param memoryLimit バイト数の上限
+     * @return 設定後の{@code CsvDuplicateDetector}
+     */
+    public CsvDuplicateDetector withMemoryLimit(final long memoryLimit) {
+        return new CsvDuplicateDetector(config, keyColumns, memoryLimit, tempDirectory);
+    }
+
+    /**
+     * パーティションの一時ファイルを作成するディレクトリを設定する。
+     * <p/>
+     * 指定しない場合は、システムの一時ディレクトリを使用する。
+     *
+     * @param tempDirectory ディレクトリ
+     * @return 設定後の{@code CsvDuplicateDetector}
+     */
+    public CsvDuplicateDetector withTempDirectory(final File tempDirectory) {
+        return new CsvDuplicateDetector(config, keyColumns, memoryLimit, tempDirectory);
+    }
+
+    /**
+     * CSVファイルから、キーが重複するレコードを検出する。
+     *
+     * @param input 入力ファイル
+     * @return 検出結果
+     * @throws InvalidDataFormatException CSVの形式が不正な場合
+     */
+    public CsvDuplicateReport detect(final File input) {
+        return execute(input, null);
+    }
+
+    /**
+     * CSVファイルから、キーが重複するレコードを検出し、重複を除いたレコードを別のファイルに出力する。
+     * <p/>
+     * キーごとに最初に出現したレコードを、入力の順序で出力する。
+     * ヘッダ行が必須の設定の場合は、ヘッダ行も出力する。
+     *
+     * @param input 入力ファイル
+     * @param output 出力ファイル
+     * @return 検出結果
+     * @throws IllegalArgumentException 入力ファイルと出力ファイルが同じ場合
+     * @throws InvalidDataFormatException CSVの形式が不正な場合
+     */
+    public CsvDuplicateReport dedup(final File input, final File output) {
+        if (output == null) {
+            throw new IllegalArgumentException("output file must not be null.");
+        }
+        if (input.getAbsoluteFile().equals(output.getAbsoluteFile())) {
+            throw new IllegalArgumentException("output file must be different from input file. file = [" + input + ']');
+        }
+        return execute(input, output);
+    }
+
+    /**
+     * 重複を検出する。
+     *
+     * @param input 入力ファイル
+     * @param output 出力ファイル(出力しない場合は{@code null})
+     * @return 検出結果
+     */
+    private CsvDuplicateReport execute(final File input, final File output) {
+        final HashCollector collector = new HashCollector();
+        try {
+            final CsvRecordScanner scanner = open(input);
+            try {
+                String[] record;
+                while ((record = scanner.read()) != null) {
+                    collector.add(hash(record), record.length);
+                }
+            } finally {
+                closeQuietly(scanner);
+            }
+            collector.finish();
+        } finally {
+            collector.cleanUp();
+        }
+        if (collector.duplicates.size() == 0 && output == null) {
+            return new CsvDuplicateReport(collector.recordCount, new ArrayList<CsvDuplicateReport.Duplicate>());
+        }
+        return collect(input, output, collector);
+    }
+
+    /**
+     * 重複したハッシュ値を持つレコードのキーを比較し、重複したキーごとに行番号を集める。
+     *
+     * @param input 入力ファイル
+     * @param output 出力ファイル(出力しない場合は{@code null})
+     * @param collector ハッシュ値を集めた{@link HashCollector}
+     * @return 検出結果
+     */
+    private CsvDuplicateReport collect(final File input, final File output, final HashCollector collector) {
+        final Map<List<String>, LineNumbers> candidates = new LinkedHashMap<List<String>, LineNumbers>();
+        final CsvRecordScanner scanner = open(input);
+        CsvDataWriter writer = null;
+        try {
+            if (output != null) {
+                writer = createWriter(output, scanner.getHeader(), collector.maxFieldCount);
+            }
+            String[] record;
+            while ((record = scanner.read()) != null) {
+                boolean first = true;
+                if (collector.duplicates.contains(hash(record))) {
+                    final List<String> key = Arrays.asList(extractKey(record));
+                    final LineNumbers lineNumbers = candidates.get(key);
+                    if (lineNumbers == null) {
+                        candidates.put(key, new LineNumbers(scanner.getLineNumber()));
+                    } else {
+                        lineNumbers.add(scanner.getLineNumber());
+                        first = false;
+                    }
+                }
+                if (writer != null && first) {
+                    write(writer, record);
+                }
+            }
+        } finally {
+            closeQuietly(scanner);
+            if (writer != null) {
+                closeQuietly(writer);
+            }
+        }
+        final List<CsvDuplicateReport.Duplicate> duplicates = new ArrayList<CsvDuplicateReport.Duplicate>();
+        for (Map.Entry<List<String>, LineNumbers> entry : candidates.entrySet()) {
+            final LineNumbers lineNumbers = entry.getValue();
+            // ハッシュ値が衝突しただけのキーは、1件しか存在しない
+            if (lineNumbers.size > 1) {
+                duplicates.add(new CsvDuplicateReport.Duplicate(
+                        entry.getKey().toArray(new String[keyColumns.length]), lineNumbers.toArray()));
+            }
+        }
+        return new CsvDuplicateReport(collector.recordCount, duplicates);
+    }
+
+    /**
+     * レコードからキーの列の値を取り出す。値が空の列は{@code null}とする。
+     *
+     * @param record レコード
+     * @return キーの列の値
+     */
+    private String[] extractKey(final String[] record) {
+        final String[] key = new String[keyColumns.length];
+        for (int i = 0; i < keyColumns.length; i++) {
+            final int column = keyColumns[i];
+            if (column < record.length && record[column] != null && record[column].length() != 0) {
+                key[i] = record[column];
+            }
+        }
+        return key;
+    }
+
+    /**
+     * レコードのキーの列から64ビットのハッシュ値を求める。
+     *
+     * @param record レコード
+     * @return ハッシュ値
+     */
+    private long hash(final String[] record) {
+        return RecordHash.ofColumns(record, keyColumns);
+    }
+
+    /**
+     * 入力ファイルを開く。
+     *
+     * @param input 入力ファイル
+     * @return {@link CsvRecordScanner}
+     */
+    private CsvRecordScanner open(final File input) {
+        final FileInputStream in;
+        try {
+            in = new FileInputStream(input);
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("failed to open file. file = [" + input + ']', e);
+        }
+        return new CsvRecordScanner(config, new InputStreamReader(in, config.getCharset()));
+    }
+
+    /**
+     * 出力に使用する{@link CsvDataWriter}を生成し、ヘッダ行を出力する。
+     *
+     * @param output 出力ファイル
+     * @param header ヘッダ行(ヘッダ行が存在しない場合は{@code null})
+     * @param maxFieldCount レコードの要素数の最大値
+     * @return {@link CsvDataWriter}
+     */
+    private CsvDataWriter createWriter(final File output, final String[] header, final int maxFieldCount) {
+        final OutputStream out;
+        try {
+            out = new FileOutputStream(output);
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("failed to open file. file = [" + output + ']', e);
+        }
+        // フィールド囲み文字の要否をフィールド名で判定する設定があるため、ヘッダ行をフィールド名とする
+        final String[] names = new String[Math.max(maxFieldCount, header == null ? 0 : header.length)];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = header != null && i < header.length ? header[i] : "";
+        }
+        final CsvDataWriter writer = new CsvDataWriter(new OutputStreamWriter(out, config.getCharset()), config, names);
+        if (header != null) {
+            write(writer, header);
+        }
+        return writer;
+    }
+
+    /**
+     * {@link CsvDataWriter}にレコードを書き込む。
+     *
+     * @param writer {@link CsvDataWriter}
+     * @param record レコード
+     */
+    private static void write(final CsvDataWriter writer, final String[] record) {
+        try {
+            writer.write(record);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write csv.", e);
+        }
+    }
+
+    /**
+     * 例外を送出せずにリソースを閉じる。
+     *
+     * @param closeable リソース
+     */
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // 処理結果には影響しないため無視する
+        }
+    }
+
+    /**
+     * ハッシュ値を集め、重複したハッシュ値を求めるクラス。
+     * <p/>
+     * ハッシュ値の集合がメモリの上限を超えた時点で、保持しているハッシュ値と以降のハッシュ値をパーティションに書き出し、
+     * 全てのハッシュ値を集めた後にパーティションごとに重複を求める。
+     */
+    private final class HashCollector {
+
+        /** 重複したハッシュ値 */
+        private final LongHashSet duplicates = new LongHashSet(0);
+
+        /** 作成した全てのパーティション(削除に使用する) */
+        private final List<Partitions> created = new ArrayList<Partitions>();
+
+        /** 出現したハッシュ値({@link #partitions}に書き出した後は{@code null}) */
+        private LongHashSet seen = new LongHashSet(0);
+
+        /** ハッシュ値を書き出すパーティション(メモリの上限を超えていない場合は{@code null}) */
+        private Partitions partitions;
+
+        /** 読み込んだレコード数 */
+        private long recordCount;
+
+        /** レコードの要素数の最大値 */
+        private int maxFieldCount;
+
+        /**
+         * レコードのハッシュ値を追加する。
+         *
+         * @param hash ハッシュ値
+         * @param fieldCount レコードの要素数
+         */
+        private void add(final long hash, final int fieldCount) {
+            recordCount++;
+            maxFieldCount = Math.max(maxFieldCount, fieldCount);
+            if (partitions != null) {
+                partitions.write(hash);
+                return;
+            }
+            if (seen.isFull() && seen.getGrownMemoryBytes() > memoryLimit && !seen.contains(hash)) {
+                partitions = createPartitions(0);
+                spill(seen, partitions);
+                seen = null;
+                partitions.write(hash);
+                return;
+            }
+            if (!seen.add(hash)) {
+                duplicates.add(hash);
+            }
+        }
+
+        /**
+         * 全てのハッシュ値を追加した後に、パーティションごとに重複を求める。
+         */
+        private void finish() {
+            // 2回目の読み込みでは重複したハッシュ値のみを使用するため、集合を解放する
+            seen = null;
+            if (partitions == null) {
+                return;
+            }
+            partitions.close();
+            final List<Partitions> pending = new ArrayList<Partitions>();
+            pending.add(partitions);
+            while (!pending.isEmpty()) {
+                final Partitions current = pending.remove(pending.size() - 1);
+                for (File file : current.files) {
+                    final Partitions split = process(file, current.level);
+                    if (split != null) {
+                        pending.add(split);
+                    }
+                }
+                current.delete();
+            }
+        }
+
+        /**
+         * パーティションの重複したハッシュ値を求める。
+         * <p/>
+         * ハッシュ値の集合がメモリの上限を超える場合は、次のビットで分割したパーティションを返す。
+         *
+         * @param file パーティションのファイル
+         * @param level パーティションの階層
+         * @return 分割したパーティション(分割しなかった場合は{@code null})
+         */
+        private Partitions process(final File file, final int level) {
+            final long count = file.length() / 8;
+            final DataInputStream in = openPartition(file);
+            try {
+                final LongHashSet set = new LongHashSet((int) Math.min(count, capacityOf(memoryLimit)));
+                // 全てのビットを分割に使用した後は、同じハッシュ値しか残らないため分割しない
+                final boolean splittable = (level + 1) * PARTITION_BITS < Long.SIZE;
+                for (long i = 0; i < count; i++) {
+                    final long hash = in.readLong();
+                    if (splittable && set.isFull() && set.getGrownMemoryBytes() > memoryLimit && !set.contains(hash)) {
+                        final Partitions split = createPartitions(level + 1);
+                        spill(set, split);
+                        split.write(hash);
+                        for (long j = i + 1; j < count; j++) {
+                            split.write(in.readLong());
+                        }
+                        split.close();
+                        return split;
+                    }
+                    if (!set.add(hash)) {
+                        duplicates.add(hash);
+                    }
+                }
+                return null;
+            } catch (IOException e) {
+                throw new RuntimeException("failed to read temporary file. file = [" + file + ']', e);
+            } finally {
+                closeQuietly(in);
+            }
+        }
+
+        /**
+         * パーティションを作成する。
+         *
+         * @param level パーティションの階層
+         * @return パーティション
+         */
+        private Partitions createPartitions(final int level) {
+            final Partitions created = new Partitions(level);
+            this.created.add(created);
+            created.open();
+            return created;
+        }
+
+        /**
+         * 集合のハッシュ値をパーティションに書き出す。
+         *
+         * @param set ハッシュ値の集合
+         * @param partitions パーティション
+         */
+        private void spill(final LongHashSet set, final Partitions partitions) {
+            for (long hash : set.toArray()) {
+                partitions.write(hash);
+            }
+        }
+
+        /**
+         * 作成した全てのパーティションを削除する。
+         */
+        private void cleanUp() {
+            for (Partitions partitions : created) {
+                partitions.discard();
+            }
+        }
+    }
+
+    /**
+     * 指定されたバイト数に収まる、集合の要素数の見込みを求める。
+     *
+     * @param bytes バイト数
+     * @return 要素数の見込み
+     */
+    private static int capacityOf(final long bytes) {
+        long slots = 16;
+        while (slots * 2 * 8 <= bytes && slots < (1 << 29)) {
+            slots <<= 1;
+        }
+        return (int) (slots * 0.6);
+    }
+
+    /**
+     * パーティションのファイルを開く。
+     *
+     * @param file ファイル
+     * @return 入力ストリーム
+     */
+    private static DataInputStream openPartition(final File file) {
+        try {
+            return new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("failed to open temporary file. file = [" + file + ']', e);
+        }
+    }
+
+    /**
+     * ハッシュ値をビットごとに振り分ける、同じ階層のパーティションのファイル群。
+     * <p/>
+     * 階層が1つ深くなるごとに、ハッシュ値の上位から次の{@value #PARTITION_BITS}ビットで振り分ける。
+     */
+    private final class Partitions {
+
+        /** 階層(0始まり) */
+        private final int level;
+
+        /** ファイル */
+        private final File[] files = new File[1 << PARTITION_BITS];
+
+        /** 出力ストリーム */
+        private final DataOutputStream[] outs = new DataOutputStream[1 << PARTITION_BITS];
+
+        /**
+         * コンストラクタ。
+         *
+         * @param level 階層
+         */
+        private Partitions(final int level) {
+            this.level = level;
+        }
+
+        /**
+         * 全てのファイルを作成する。
+         */
+        private void open() {
+            for (int i = 0; i < files.length; i++) {
+                try {
+                    files[i] = File.createTempFile("csv-dedup", ".part", tempDirectory);
+                } catch (IOException e) {
+                    throw new RuntimeException(
+                            "failed to create temporary file. directory = [" + tempDirectory + ']', e);
+                }
+                try {
+                    outs[i] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(files[i])));
+                } catch (FileNotFoundException e) {
+                    throw new RuntimeException("failed to open temporary file. file = [" + files[i] + ']', e);
+                }
+            }
+        }
+
+        /**
+         * ハッシュ値を振り分けて書き込む。
+         *
+         * @param hash ハッシュ値
+         */
+        private void write(final long hash) {
+            final int shift = Long.SIZE - PARTITION_BITS * (level + 1);
+            final int index = (int) (hash >>> shift) & (files.length - 1);
+            try {
+                outs[index].writeLong(hash);
+            } catch (IOException e) {
+                throw new RuntimeException("failed to write temporary file. file = [" + files[index] + ']', e);
+            }
+        }
+
+        /**
+         * 全てのファイルを閉じる。
+         */
+        private void close() {
+            for (int i = 0; i < outs.length; i++) {
+                if (outs[i] != null) {
+                    try {
+                        outs[i].close();
+                    } catch (IOException e) {
+                        throw new RuntimeException("failed to write temporary file. file = [" + files[i] + ']', e);
+                    } finally {
+                        outs[i] = null;
+                    }
+                }
+            }
+        }
+
+        /**
+         * 例外を送出せずに全てのファイルを閉じて削除する。
+         */
+        private void discard() {
+            for (int i = 0; i < outs.length; i++) {
+                if (outs[i] != null) {
+                    closeQuietly(outs[i]);
+                    outs[i] = null;
+                }
+            }
+            delete();
+        }
+
+        /**
+         * 全てのファイルを削除する。
+         */
+        private void delete() {
+            for (File file : files) {
+                if (file != null) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * 行番号のリスト。
+     */
+    private static final class LineNumbers {
+
+        /** 行番号 */
+        private long[] values = new long[2];
+
+        /** 要素数 */
+        private int size;
+
+        /**
+         * 最初の行番号を指定してリストを生成する。
+         *
+         * @param lineNumber 行番号
+         */
+        private LineNumbers(final long lineNumber) {
+            add(lineNumber);
+        }
+
+        /**
+         * 行番号を追加する。
+         *
+         * @param lineNumber 行番号
+         */
+        private void add(final long lineNumber) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = lineNumber;
+        }
+
+        /**
+         * 行番号の配列を返す。
+         *
+         * @return 行番号の配列
+         */
+        private long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
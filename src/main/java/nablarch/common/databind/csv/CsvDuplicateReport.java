@@ -0,0 +1,129 @@
+package nablarch.common.databind.csv;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link CsvDuplicateDetector}で検出した、キーが重複するレコードの一覧。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class CsvDuplicateReport {
+
+    /** 読み込んだレコード数 */
+    private final long recordCount;
+
+    /** 重複したキーごとの行番号(キーが最初に出現した順) */
+    private final List<Duplicate> duplicates;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param recordCount 読み込んだレコード数
+     * @param duplicates 重複したキーごとの行番号
+     */
+    CsvDuplicateReport(final long recordCount, final List<Duplicate> duplicates) {
+        this.recordCount = recordCount;
+        this.duplicates = Collections.unmodifiableList(duplicates);
+    }
+
+    /**
+     * 読み込んだレコード数を返す。
+     *
+     * @return レコード数
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * キーが重複するレコードが存在するか否かを返す。
+     *
+     * @return 存在する場合は{@code true}
+     */
+    public boolean hasDuplicates() {
+        return !duplicates.isEmpty();
+    }
+
+    /**
+     * 重複したキーごとの行番号を、キーが最初に出現した順に返す。
+     *
+     * @return 重複したキーごとの行番号(変更不可)
+     */
+    public List<Duplicate> getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * 重複により除外されるレコード数(各キーの2件目以降のレコード数の合計)を返す。
+     *
+     * @return レコード数
+     */
+    public long getDuplicateRecordCount() {
+        long count = 0;
+        for (Duplicate duplicate : duplicates) {
+            count += duplicate.lineNumbers.length - 1;
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "CsvDuplicateReport{recordCount=" + recordCount + ", duplicates=" + duplicates + '}';
+    }
+
+    /**
+     * 重複したキーと、そのキーを持つレコードの行番号。
+     */
+    public static final class Duplicate {
+
+        /** キーの列の値 */
+        private final String[] key;
+
+        /** 行番号(昇順) */
+        private final long[] lineNumbers;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param key キーの列の値
+         * @param lineNumbers 行番号(昇順)
+         */
+        Duplicate(final String[] key, final long[] lineNumbers) {
+            this.key = key;
+            this.lineNumbers = lineNumbers;
+        }
+
+        /**
+         * キーの列の値を返す。
+         * <p/>
+         * 値が空の列は{@code null}となる。
+         *
+         * @return キーの列の値(キーの列の指定順)
+         */
+        public String[] getKey() {
+            return key.clone();
+        }
+
+        /**
+         * キーを持つレコードの行番号を昇順に返す。
+         * <p/>
+         * 先頭の行番号が最初に出現したレコードであり、2件目以降が重複したレコードである。
+         * 行番号は、データ不正の場合に{@link nablarch.common.databind.InvalidDataFormatException}が示す行番号と同じ数え方である。
+         *
+         * @return 行番号(2件以上)
+         */
+        public long[] getLineNumbers() {
+            return lineNumbers.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "Duplicate{key=" + Arrays.toString(key) + ", lineNumbers=" + Arrays.toString(lineNumbers) + '}';
+        }
+    }
+}
@@ -0,0 +1,516 @@
+package nablarch.common.databind.csv;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.common.databind.ObjectMapper;
+import nablarch.core.beans.BeanUtil;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 大きなCSVのレコードを、小さなCSVから構築したハッシュ表と結合するクラス。
+ * <p/>
+ * 小さい側(ビルド側)は{@link CsvMasterTable}としてメモリに読み込み、
+ * 大きい側(プローブ側)は{@link ObjectMapper}で1件ずつ読み込みながら、キーが一致するビルド側のBeanと組み合わせて出力する。
+ * <pre>
+ * {@code
+ * CsvMasterTable<Customer> customers = CsvHashJoin.buildTable(Customer.class, customerStream, "customerId", true);
+ * CsvHashJoin<Transaction, Customer, Enriched> join = new CsvHashJoin<Transaction, Customer, Enriched>(
+ *         customers, new CsvHashJoin.Combiner<Transaction, Customer, Enriched>() {
+ *             public Enriched combine(Transaction transaction, Customer customer) {
+ *                 return customer == null ? null : new Enriched(transaction, customer);
+ *             }
+ *         }).withParallelism(4);
+ * join.join(ObjectMapperFactory.create(Transaction.class, transactionStream), "customerId",
+ *         ObjectMapperFactory.create(Enriched.class, outputStream));
+ * }
+ * </pre>
+ * ビルド側のキーが全て整数の場合は、キーをボクシングしない{@code long}のハッシュ表に保持する。
+ * {@link CsvTableCache}で保持している{@link CsvMasterTable}を、ビルド側として使用することもできる。
+ * <p/>
+ * CSVは改行を含む要素があるため、先頭から順に解析しなければレコードの区切りが分からない。
+ * このため、並列化は以下のように解析とそれ以外の処理を分けて行う。
+ * <ul>
+ * <li>ビルド側:1つのスレッドでCSVを解析し、読み込みを指示したスレッドで列の値の格納とハッシュ表への追加を行う。</li>
+ * <li>プローブ側:読み込みを指示したスレッドでBeanの読み込みと出力を行い、
+ * {@link #withParallelism(int) 並列度}のスレッドでレコードの塊ごとに検索と組み合わせを行う。
+ * 出力の順序は、プローブ側の入力の順序と同じになる。</li>
+ * </ul>
+ * <p/>
+ * 本クラスは不変である。{@link Combiner}が複数のスレッドから呼び出されてよい場合は、スレッドセーフである。
+ *
+ * @param <P> プローブ側のレコードの型
+ * @param <B> ビルド側のBeanの型
+ * @param <O> 出力するレコードの型
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class CsvHashJoin<P, B, O> {
+
+    /** 1つのスレッドで処理するレコード数のデフォルト値 */
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /** ビルド側の解析で、受け渡し待ちにできるレコードの塊の数 */
+    private static final int BUILD_QUEUE_SIZE = 4;
+
+    /**
+     * プローブ側のレコードとビルド側のBeanを組み合わせ、出力するレコードを生成するインタフェース。
+     * <p/>
+     * 並列度が2以上の場合は、複数のスレッドから呼び出される。
+     *
+     * @param <P> プローブ側のレコードの型
+     * @param <B> ビルド側のBeanの型
+     * @param <O> 出力するレコードの型
+     */
+    public interface Combiner<P, B, O> {
+
+        /**
+         * 出力するレコードを生成する。
+         *
+         * @param probe プローブ側のレコード
+         * @param build キーが一致するビルド側のBean(一致するレコードが存在しない場合は{@code null})
+         * @return 出力するレコード(出力しない場合は{@code null})
+         */
+        O combine(P probe, B build);
+    }
+
+    /** ビルド側のテーブル */
+    private final CsvMasterTable<B> table;
+
+    /** 出力するレコードを生成する{@link Combiner} */
+    private final Combiner<P, B, O> combiner;
+
+    /** 並列度 */
+    private final int parallelism;
+
+    /** 1つのスレッドで処理するレコード数 */
+    private final int batchSize;
+
+    /**
+     * ビルド側のテーブルを指定して{@code CsvHashJoin}を生成する。
+     *
+     * @param table ビルド側のテーブル
+     * @param combiner 出力するレコードを生成する{@link Combiner}
+     */
+    public CsvHashJoin(final CsvMasterTable<B> table, final Combiner<P, B, O> combiner) {
+        this(table, combiner, 1, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param table ビルド側のテーブル
+     * @param combiner 出力するレコードを生成する{@link Combiner}
+     * @param parallelism 並列度
+     * @param batchSize 1つのスレッドで処理するレコード数
+     */
+    private CsvHashJoin(final CsvMasterTable<B> table, final Combiner<P, B, O> combiner, final int parallelism,
+            final int batchSize) {
+        if (table == null) {
+            throw new IllegalArgumentException("table must not be null.");
+        }
+        if (combiner == null) {
+            throw new IllegalArgumentException("combiner must not be null.");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "parallelism must be greater than 0. parallelism = [" + parallelism + ']');
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be greater than 0. batch size = [" + batchSize + ']');
+        }
+        this.table = table;
+        this.combiner = combiner;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * プローブ側の検索と組み合わせを行うスレッド数を設定する。
+     * <p/>
+     * デフォルトは1(読み込みと同じスレッドで行う)。
+     *
+     * @param parallelism スレッド数
+     * @return 設定後の{@code CsvHashJoin}
+     */
+    public CsvHashJoin<P, B, O> withParallelism(final int parallelism) {
+        return new CsvHashJoin<P, B, O>(table, combiner, parallelism, batchSize);
+    }
+
+    /**
+     * 1つのスレッドでまとめて処理するレコード数を設定する。
+     * <p/>
+     * デフォルトは1024。
+     *
+     * @param batchSize レコード数
+     * @return 設定後の{@code CsvHashJoin}
+     */
+    public CsvHashJoin<P, B, O> withBatchSize(final int batchSize) {
+        return new CsvHashJoin<P, B, O>(table, combiner, parallelism, batchSize);
+    }
+
+    /**
+     * ビルド側のCSVを読み込み、テーブルを構築する。
+     * <p/>
+     * {@link CsvMasterTable#load(Class, InputStream, String)}と異なり、整数でないキーも許容する。
+     * 整数でないキーが現れた時点で、文字列のキーのハッシュ表に切り替える。
+     * {@code stream}は読み込み後に閉じる。
+     *
+     * @param clazz Beanのクラス
+     * @param stream 入力ストリーム
+     * @param keyProperty キーとするプロパティ名
+     * @param parallel CSVの解析を別のスレッドで行う場合は{@code true}
+     * @param <B> Beanの型
+     * @return テーブル
+     * @throws IllegalArgumentException キーとするプロパティが存在しない場合
+     * @throws nablarch.common.databind.InvalidDataFormatException キーが空の場合、キーが重複する場合、
+     *                                                               要素数がプロパティ数と一致しない場合
+     */
+    public static <B> CsvMasterTable<B> buildTable(final Class<B> clazz, final InputStream stream,
+            final String keyProperty, final boolean parallel) {
+        final CsvMasterTable.Builder<B> builder = new CsvMasterTable.Builder<B>(clazz, keyProperty, true);
+        final CsvDataBindConfig config = builder.getConfig();
+        final CsvRecordScanner scanner =
+                new CsvRecordScanner(config, new InputStreamReader(stream, config.getCharset()));
+        if (!parallel) {
+            try {
+                String[] record;
+                while ((record = scanner.read()) != null) {
+                    builder.add(record, scanner.getLineNumber());
+                }
+                return builder.build();
+            } finally {
+                scanner.close();
+            }
+        }
+        return new PipelinedBuild<B>(builder, scanner).run();
+    }
+
+    /**
+     * プローブ側のレコードを全て読み込み、結合したレコードを出力する。
+     * <p/>
+     * {@link ObjectMapper}は閉じない。
+     *
+     * @param probe プローブ側の{@link ObjectMapper}
+     * @param probeKey プローブ側のキーのプロパティ名
+     * @param output 出力先の{@link ObjectMapper}
+     * @return 出力したレコード数
+     */
+    public long join(final ObjectMapper<P> probe, final String probeKey, final ObjectMapper<O> output) {
+        if (probeKey == null) {
+            throw new IllegalArgumentException("probe key must not be null.");
+        }
+        if (parallelism == 1) {
+            long count = 0L;
+            P record;
+            while ((record = probe.read()) != null) {
+                final O combined = combine(record, probeKey);
+                if (combined != null) {
+                    output.write(combined);
+                    count++;
+                }
+            }
+            return count;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "csv-hash-join");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        final LinkedList<Future<List<O>>> pending = new LinkedList<Future<List<O>>>();
+        try {
+            long count = 0L;
+            List<P> batch = new ArrayList<P>(batchSize);
+            P record;
+            while ((record = probe.read()) != null) {
+                batch.add(record);
+                if (batch.size() == batchSize) {
+                    pending.add(executor.submit(new CombineTask(batch, probeKey)));
+                    batch = new ArrayList<P>(batchSize);
+                    // 読み込みが先行しすぎないよう、処理中の塊が並列度の2倍に達したら最も古い塊を出力する
+                    if (pending.size() >= parallelism * 2) {
+                        count += write(await(pending.removeFirst()), output);
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                pending.add(executor.submit(new CombineTask(batch, probeKey)));
+            }
+            while (!pending.isEmpty()) {
+                count += write(await(pending.removeFirst()), output);
+            }
+            return count;
+        } finally {
+            for (Future<List<O>> future : pending) {
+                future.cancel(true);
+            }
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * プローブ側のレコードに一致するビルド側のBeanを検索し、出力するレコードを生成する。
+     *
+     * @param record プローブ側のレコード
+     * @param probeKey プローブ側のキーのプロパティ名
+     * @return 出力するレコード(出力しない場合は{@code null})
+     */
+    private O combine(final P record, final String probeKey) {
+        final Object key = record instanceof Map
+                ? ((Map<?, ?>) record).get(probeKey)
+                : BeanUtil.getProperty(record, probeKey);
+        final int row;
+        if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            row = table.findRow(((Number) key).longValue());
+        } else {
+            row = table.findRow(key == null ? null : key.toString());
+        }
+        return combiner.combine(record, table.getRow(row));
+    }
+
+    /**
+     * 出力するレコードを書き込む。
+     *
+     * @param records 出力するレコード
+     * @param output 出力先の{@link ObjectMapper}
+     * @return 書き込んだレコード数
+     */
+    private long write(final List<O> records, final ObjectMapper<O> output) {
+        for (O record : records) {
+            output.write(record);
+        }
+        return records.size();
+    }
+
+    /**
+     * 処理の完了を待ち、処理で送出された例外はそのまま送出する。
+     *
+     * @param future 処理
+     * @param <V> 処理結果の型
+     * @return 処理結果
+     */
+    private static <V> V await(final Future<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while waiting for joining.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * プローブ側のレコードの塊を結合する処理。
+     */
+    private final class CombineTask implements Callable<List<O>> {
+
+        /** プローブ側のレコードの塊 */
+        private final List<P> batch;
+
+        /** プローブ側のキーのプロパティ名 */
+        private final String probeKey;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param batch プローブ側のレコードの塊
+         * @param probeKey プローブ側のキーのプロパティ名
+         */
+        private CombineTask(final List<P> batch, final String probeKey) {
+            this.batch = batch;
+            this.probeKey = probeKey;
+        }
+
+        @Override
+        public List<O> call() {
+            final List<O> result = new ArrayList<O>(batch.size());
+            for (P record : batch) {
+                final O combined = combine(record, probeKey);
+                if (combined != null) {
+                    result.add(combined);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * ビルド側のCSVの解析を別のスレッドで行い、解析したレコードを受け取ってテーブルを構築する処理。
+     *
+     * @param <B> Beanの型
+     */
+    private static final class PipelinedBuild<B> {
+
+        /** テーブルの構築 */
+        private final CsvMasterTable.Builder<B> builder;
+
+        /** ビルド側のCSVの解析 */
+        private final CsvRecordScanner scanner;
+
+        /** 解析したレコードの塊の受け渡し */
+        private final BlockingQueue<Chunk> queue = new ArrayBlockingQueue<Chunk>(BUILD_QUEUE_SIZE);
+
+        /** 構築が中断されたか否か */
+        private volatile boolean cancelled;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param builder テーブルの構築
+         * @param scanner ビルド側のCSVの解析
+         */
+        private PipelinedBuild(final CsvMasterTable.Builder<B> builder, final CsvRecordScanner scanner) {
+            this.builder = builder;
+            this.scanner = scanner;
+        }
+
+        /**
+         * 解析と構築を行う。
+         *
+         * @return テーブル
+         */
+        private CsvMasterTable<B> run() {
+            final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "csv-hash-join-build");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            final Future<?> parser = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    parse();
+                }
+            });
+            try {
+                while (true) {
+                    final Chunk chunk = take();
+                    if (chunk.records == null) {
+                        break;
+                    }
+                    for (int i = 0; i < chunk.size; i++) {
+                        builder.add(chunk.records[i], chunk.lineNumbers[i]);
+                    }
+                }
+                await(parser);
+                return builder.build();
+            } finally {
+                cancelled = true;
+                queue.clear();
+                executor.shutdown();
+            }
+        }
+
+        /**
+         * 解析したレコードの塊を受け取る。解析に失敗した場合は、解析で送出された例外を送出する。
+         *
+         * @return レコードの塊
+         */
+        private Chunk take() {
+            while (true) {
+                try {
+                    final Chunk chunk = queue.poll(100L, TimeUnit.MILLISECONDS);
+                    if (chunk != null) {
+                        return chunk;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("interrupted while building table.", e);
+                }
+            }
+        }
+
+        /**
+         * CSVを解析し、レコードの塊を受け渡す。
+         * <p/>
+         * 解析に失敗した場合も、受け取る側が待ち続けないよう終端の塊を受け渡す。
+         */
+        private void parse() {
+            try {
+                Chunk chunk = new Chunk(DEFAULT_BATCH_SIZE);
+                String[] record;
+                while (!cancelled && (record = scanner.read()) != null) {
+                    chunk.records[chunk.size] = record;
+                    chunk.lineNumbers[chunk.size] = scanner.getLineNumber();
+                    chunk.size++;
+                    if (chunk.size == DEFAULT_BATCH_SIZE) {
+                        put(chunk);
+                        chunk = new Chunk(DEFAULT_BATCH_SIZE);
+                    }
+                }
+                if (chunk.size > 0) {
+                    put(chunk);
+                }
+            } finally {
+                scanner.close();
+                put(new Chunk(0));
+            }
+        }
+
+        /**
+         * レコードの塊を受け渡す。構築が中断された場合は受け渡さない。
+         *
+         * @param chunk レコードの塊
+         */
+        private void put(final Chunk chunk) {
+            try {
+                while (!cancelled && !queue.offer(chunk, 100L, TimeUnit.MILLISECONDS)) {
+                    // 受け取る側が処理するまで待つ
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 解析したレコードの塊。
+     */
+    private static final class Chunk {
+
+        /** レコード(終端を表す場合は{@code null}) */
+        private final String[][] records;
+
+        /** 行番号 */
+        private final long[] lineNumbers;
+
+        /** レコード数 */
+        private int size;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param capacity レコード数の上限({@code 0}の場合は終端を表す)
+         */
+        private Chunk(final int capacity) {
+            records = capacity == 0 ? null : new String[capacity][];
+            lineNumbers = new long[capacity];
+        }
+    }
+}
@@ -0,0 +1,565 @@
+package nablarch.common.databind.csv;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import nablarch.common.databind.DataBindUtil;
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ReadPosition;
+import nablarch.core.util.FileUtil;
+import nablarch.core.util.StringUtil;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * CSVファイルの1つの列をキーとして、レコードを検索する索引。
+ * <p/>
+ * キーのハッシュ値とレコードの位置をオープンアドレス法のハッシュ表に格納し、索引ファイルに保存する。
+ * 索引ファイルはメモリマップして参照するため、レコード数に関わらずヒープはほとんど使用せず、
+ * 再起動後も索引ファイルを開くだけで検索できる。
+ * <pre>
+ * {@code
+ * CsvKeyIndex index = CsvKeyIndex.openOrBuild(file, config, 0);
+ * Item item = index.get(Item.class, "A001");
+ * }
+ * </pre>
+ * 検索ではハッシュ表からレコードの位置を求め、そのレコードのみを読み込んで解析する。
+ * ハッシュ値が衝突した場合に備え、読み込んだレコードのキーが一致することを確認する。
+ * キーが重複する場合は、ファイルの先頭に近いレコードを返す。キーが空のレコードは索引に含めない。
+ * <p/>
+ * 索引ファイルは、CSVファイルのサイズまたは最終更新日時が変わった場合に無効となる。
+ * 索引ファイルの再構築は一時ファイルに行ってから名前を変更して置き換えるため、
+ * 置き換え前の索引ファイルを開いているインスタンスは、置き換え後も元の索引で検索できる。
+ * キーの列、または{@link CsvRecordIndex}と同じくレコードの解析結果に影響する設定が
+ * 索引の構築時と異なる場合も無効となる。
+ * <p/>
+ * 検索はスレッドセーフである。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class CsvKeyIndex implements Closeable {
+
+    /** 索引ファイルの識別子 */
+    private static final int MAGIC = 0x43534b49;
+
+    /** 索引ファイルの形式のバージョン */
+    private static final int VERSION = 2;
+
+    /** 索引ファイルのヘッダのバイト数 */
+    private static final int HEADER_SIZE = 64;
+
+    /** ハッシュ表の1要素のバイト数(ハッシュ値、バイト位置、行番号) */
+    private static final int SLOT_SIZE = 24;
+
+    /** ハッシュ表の最大の要素数(1つのメモリマップで扱える範囲) */
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    /** ハッシュ表の最大の使用率 */
+    private static final double LOAD_FACTOR = 0.7;
+
+    /** CSVファイル */
+    private final File file;
+
+    /** CSVの設定 */
+    private final CsvDataBindConfig config;
+
+    /** キーの列の位置(0始まり) */
+    private final int keyColumn;
+
+    /** キーの数 */
+    private final long size;
+
+    /** ハッシュ表の要素数(2のべき乗) */
+    private final int capacity;
+
+    /** メモリマップした索引ファイル(閉じた場合は{@code null}) */
+    private volatile ByteBuffer table;
+
+    /** 索引を作成した時点のCSVファイルのサイズ */
+    private final long fileLength;
+
+    /** 索引を作成した時点のCSVファイルの最終更新日時 */
+    private final long lastModified;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param file CSVファイル
+     * @param config CSVの設定
+     * @param table メモリマップした索引ファイル
+     */
+    private CsvKeyIndex(final File file, final CsvDataBindConfig config, final ByteBuffer table) {
+        this.file = file;
+        this.config = config;
+        this.table = table;
+        fileLength = table.getLong(8);
+        lastModified = table.getLong(16);
+        keyColumn = table.getInt(24);
+        capacity = table.getInt(28);
+        size = table.getLong(32);
+    }
+
+    /**
+     * CSVファイルを解析して索引を構築し、索引ファイルに保存する。
+     * <p/>
+     * レコード数を数えるための走査と、索引に登録するための走査の2回CSVファイルを読み込む。
+     *
+     * @param file CSVファイル
+     * @param config CSVの設定
+     * @param keyColumn キーの列の位置(0始まり)
+     * @param indexFile 索引ファイル
+     * @return 索引
+     * @throws IllegalArgumentException キーの列の位置が負の場合、レコード数が索引の上限を超える場合
+     * @throws IllegalStateException 索引の構築中にCSVファイルが更新された場合
+     */
+    public static CsvKeyIndex build(final File file, final CsvDataBindConfig config, final int keyColumn,
+            final File indexFile) {
+        if (keyColumn < 0) {
+            throw new IllegalArgumentException("key column must not be negative. key column = [" + keyColumn + ']');
+        }
+        final long fileLength = file.length();
+        final long lastModified = file.lastModified();
+        final int capacity = toCapacity(countRecords(file, config));
+
+        // 開いている索引ファイルを切り詰めたり書き換えたりしないよう、一時ファイルに構築してから置き換える
+        final File tempFile = IndexFiles.createTempFile(indexFile);
+        try {
+            final MappedByteBuffer table;
+            final RandomAccessFile raf = openIndexFile(tempFile, "rw");
+            try {
+                table = raf.getChannel().map(
+                        FileChannel.MapMode.READ_WRITE, 0L, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+                final long size = fill(table, capacity, file, config, keyColumn);
+                table.putLong(8, fileLength);
+                table.putLong(16, lastModified);
+                table.putInt(24, keyColumn);
+                table.putInt(28, capacity);
+                table.putLong(32, size);
+                table.putLong(40, digest(config, keyColumn));
+                table.putInt(4, VERSION);
+                table.putInt(0, MAGIC);
+                table.force();
+            } catch (IOException e) {
+                throw new RuntimeException("failed to write index file. file = [" + tempFile + ']', e);
+            } finally {
+                FileUtil.closeQuietly(raf);
+            }
+            if (file.length() != fileLength || file.lastModified() != lastModified) {
+                throw new IllegalStateException(
+                        "csv file has been modified while building index. file = [" + file + ']');
+            }
+            IndexFiles.replace(tempFile, indexFile);
+            // 置き換え後の索引ファイルは、構築に使用したメモリマップでそのまま参照する
+            return new CsvKeyIndex(file, config, table.asReadOnlyBuffer());
+        } finally {
+            // 置き換えた場合は既に存在しない
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * 索引ファイルを開く。
+     *
+     * @param file CSVファイル
+     * @param config CSVの設定
+     * @param keyColumn キーの列の位置(0始まり)
+     * @param indexFile 索引ファイル
+     * @return 索引(索引ファイルが存在しない、形式、設定またはキーの列が異なる、
+     *          またはCSVファイルが更新されている場合は{@code null})
+     */
+    public static CsvKeyIndex open(final File file, final CsvDataBindConfig config, final int keyColumn,
+            final File indexFile) {
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        final RandomAccessFile raf = openIndexFile(indexFile, "r");
+        try {
+            // 無効な索引ファイルをメモリマップしないよう、ヘッダはメモリマップせずに読み込んで検証する
+            final long length = raf.length();
+            if (length < HEADER_SIZE || raf.readInt() != MAGIC || raf.readInt() != VERSION) {
+                return null;
+            }
+            final long fileLength = raf.readLong();
+            final long lastModified = raf.readLong();
+            raf.readInt();
+            final int capacity = raf.readInt();
+            raf.readLong();
+            if (raf.readLong() != digest(config, keyColumn)
+                    || capacity <= 0 || length != HEADER_SIZE + (long) capacity * SLOT_SIZE
+                    || file.length() != fileLength || file.lastModified() != lastModified) {
+                return null;
+            }
+            final MappedByteBuffer table = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0L, length);
+            return new CsvKeyIndex(file, config, table);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read index file. file = [" + indexFile + ']', e);
+        } finally {
+            // メモリマップはチャネルを閉じた後も有効
+            FileUtil.closeQuietly(raf);
+        }
+    }
+
+    /**
+     * 索引ファイルを開く。
+     * <p/>
+     * 索引が無効な場合は、索引を構築して索引ファイルに保存する。
+     * 索引ファイルはCSVファイル名に{@code .key<列の位置>.idx}を付与したファイルとなる。
+     *
+     * @param file CSVファイル
+     * @param config CSVの設定
+     * @param keyColumn キーの列の位置(0始まり)
+     * @return 索引
+     */
+    public static CsvKeyIndex openOrBuild(final File file, final CsvDataBindConfig config, final int keyColumn) {
+        final File indexFile = new File(file.getPath() + ".key" + keyColumn + CsvRecordIndex.SIDECAR_SUFFIX);
+        final CsvKeyIndex opened = open(file, config, keyColumn, indexFile);
+        if (opened != null) {
+            return opened;
+        }
+        return build(file, config, keyColumn, indexFile);
+    }
+
+    /**
+     * レコードの解析結果に影響する設定とキーの列のダイジェストを求める。
+     *
+     * @param config CSVの設定
+     * @param keyColumn キーの列の位置
+     * @return ダイジェスト
+     */
+    private static long digest(final CsvDataBindConfig config, final int keyColumn) {
+        return RecordHash.ofRecord(new String[] {
+                String.valueOf(CsvRecordScanner.digest(config)), String.valueOf(keyColumn)
+        });
+    }
+
+    /**
+     * レコード数を数える。
+     *
+     * @param file CSVファイル
+     * @param config CSVの設定
+     * @return レコード数
+     */
+    private static long countRecords(final File file, final CsvDataBindConfig config) {
+        final CsvRecordScanner scanner = openScanner(file, config, ReadPosition.START);
+        try {
+            long count = 0;
+            while (scanner.read() != null) {
+                count++;
+            }
+            return count;
+        } finally {
+            scanner.close();
+        }
+    }
+
+    /**
+     * レコード数からハッシュ表の要素数を求める。
+     *
+     * @param records レコード数
+     * @return 要素数
+     */
+    private static int toCapacity(final long records) {
+        final double required = records / LOAD_FACTOR;
+        if (required > MAX_CAPACITY) {
+            throw new IllegalArgumentException("too many records for key index."
+                    + " record count = [" + records + "], max record count = [" + (long) (MAX_CAPACITY * LOAD_FACTOR) + ']');
+        }
+        int capacity = 16;
+        while (capacity < required) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * CSVファイルを読み込み、キーをハッシュ表に登録する。
+     *
+     * @param table ハッシュ表
+     * @param capacity ハッシュ表の要素数
+     * @param file CSVファイル
+     * @param config CSVの設定
+     * @param keyColumn キーの列の位置
+     * @return 登録したキーの数
+     */
+    private static long fill(final ByteBuffer table, final int capacity, final File file,
+            final CsvDataBindConfig config, final int keyColumn) {
+        final CsvRecordScanner scanner = openScanner(file, config, ReadPosition.START);
+        try {
+            long size = 0;
+            while (true) {
+                final ReadPosition position = scanner.getPosition();
+                final String[] record = scanner.read();
+                if (record == null) {
+                    return size;
+                }
+                if (keyColumn >= record.length || StringUtil.isNullOrEmpty(record[keyColumn])) {
+                    continue;
+                }
+                final long hash = hash(record[keyColumn]);
+                int slot = indexOf(hash, capacity);
+                // 線形探索で空きを探すため、同じキーはファイル内の順序で並ぶ
+                while (table.getLong(offsetOf(slot)) != 0L) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                final int offset = offsetOf(slot);
+                table.putLong(offset, hash);
+                table.putLong(offset + 8, position.getByteOffset());
+                table.putLong(offset + 16, position.getLineNumber());
+                size++;
+            }
+        } finally {
+            scanner.close();
+        }
+    }
+
+    /**
+     * キーに一致するレコードを取得する。
+     *
+     * @param key キー
+     * @return レコードの要素の配列(存在しない場合は{@code null})
+     * @throws IllegalStateException CSVファイルが索引の作成後に更新されている場合、索引を閉じた場合
+     */
+    public String[] getRecord(final String key) {
+        if (!isValid()) {
+            throw new IllegalStateException("csv file has been modified after index was built. file = [" + file + ']');
+        }
+        final Found found = find(key);
+        return found == null ? null : found.record;
+    }
+
+    /**
+     * キーに一致するレコードをBeanとして取得する。
+     *
+     * @param clazz Beanのクラス({@link Csv}アノテーションのプロパティの並びがCSVの列と一致すること)
+     * @param key キー
+     * @param <T> Beanの型
+     * @return Bean(存在しない場合は{@code null})
+     * @throws IllegalStateException CSVファイルが索引の作成後に更新されている場合、索引を閉じた場合
+     * @throws InvalidDataFormatException レコードの要素数がBeanのプロパティ数と一致しない場合
+     */
+    public <T> T get(final Class<T> clazz, final String key) {
+        if (!isValid()) {
+            throw new IllegalStateException("csv file has been modified after index was built. file = [" + file + ']');
+        }
+        final Found found = find(key);
+        if (found == null) {
+            return null;
+        }
+        final CsvMappingMetadata metadata = DataBindUtil.findCsvMappingMetadata(clazz);
+        final String[] propertyNames = metadata.getPropertyNames();
+        if (propertyNames.length != found.record.length) {
+            throw new InvalidDataFormatException(
+                    "property size does not match. expected field count = [" + propertyNames.length + "],"
+                            + " actual field count = [" + found.record.length + "].", found.lineNumber);
+        }
+        final String lineNumberPropertyName = metadata.getLineNumberPropertyName();
+        if (StringUtil.isNullOrEmpty(lineNumberPropertyName)) {
+            return DataBindUtil.getInstance(clazz, propertyNames, found.record);
+        }
+        return DataBindUtil.getInstanceWithLineNumber(
+                clazz, propertyNames, found.record, lineNumberPropertyName, found.lineNumber);
+    }
+
+    /**
+     * キーに一致するレコードを探す。
+     *
+     * @param key キー
+     * @return 見つかったレコード(存在しない場合は{@code null})
+     */
+    private Found find(final String key) {
+        if (StringUtil.isNullOrEmpty(key)) {
+            return null;
+        }
+        final ByteBuffer table = this.table;
+        if (table == null) {
+            throw new IllegalStateException("index is closed. file = [" + file + ']');
+        }
+        final long hash = hash(key);
+        int slot = indexOf(hash, capacity);
+        while (true) {
+            final int offset = offsetOf(slot);
+            final long slotHash = table.getLong(offset);
+            if (slotHash == 0L) {
+                return null;
+            }
+            if (slotHash == hash) {
+                final Found found = readRecord(
+                        new ReadPosition(table.getLong(offset + 8), table.getLong(offset + 16), 0L));
+                if (key.equals(found.record[keyColumn])) {
+                    return found;
+                }
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    /**
+     * 指定された位置のレコードを1件読み込む。
+     *
+     * @param position レコードの先頭の位置
+     * @return 読み込んだレコード
+     */
+    private Found readRecord(final ReadPosition position) {
+        final CsvRecordScanner scanner = openScanner(file, config, position);
+        try {
+            final String[] record = scanner.read();
+            if (record == null || keyColumn >= record.length) {
+                throw new IllegalStateException("index does not match csv file. file = [" + file + ']');
+            }
+            return new Found(record, scanner.getLineNumber());
+        } finally {
+            scanner.close();
+        }
+    }
+
+    /**
+     * CSVファイルが索引の作成後に更新されていないか否かを返す。
+     *
+     * @return サイズと最終更新日時が索引の作成時と一致する場合は{@code true}
+     */
+    public boolean isValid() {
+        return file.length() == fileLength && file.lastModified() == lastModified;
+    }
+
+    /**
+     * 索引に登録したキーの数を取得する。
+     *
+     * @return キーの数
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * キーの列の位置を取得する。
+     *
+     * @return キーの列の位置(0始まり)
+     */
+    public int getKeyColumn() {
+        return keyColumn;
+    }
+
+    /**
+     * 索引を閉じる。
+     * <p/>
+     * メモリマップへの参照を破棄する。メモリマップの解放はガベージコレクションに委ねる。
+     * 閉じた後に検索した場合は例外が送出される。
+     */
+    @Override
+    public void close() {
+        table = null;
+    }
+
+    /**
+     * キーのハッシュ値を求める。
+     * <p/>
+     * FNV-1aで求めた値を攪拌する。{@code 0}は空き要素を表すため、{@code 0}となった場合は{@code 1}とする。
+     *
+     * @param key キー
+     * @return ハッシュ値
+     */
+    static long hash(final String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h == 0L ? 1L : h;
+    }
+
+    /**
+     * ハッシュ値から探索を開始する要素の位置を求める。
+     *
+     * @param hash ハッシュ値
+     * @param capacity ハッシュ表の要素数
+     * @return 要素の位置
+     */
+    private static int indexOf(final long hash, final int capacity) {
+        return (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+    }
+
+    /**
+     * 要素の位置から索引ファイル内のバイト位置を求める。
+     *
+     * @param slot 要素の位置
+     * @return バイト位置
+     */
+    private static int offsetOf(final int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * 指定された位置からCSVファイルを読み込む{@link CsvRecordScanner}を生成する。
+     *
+     * @param file CSVファイル
+     * @param config CSVの設定
+     * @param position 読み込みを開始する位置
+     * @return {@link CsvRecordScanner}
+     */
+    private static CsvRecordScanner openScanner(final File file, final CsvDataBindConfig config,
+            final ReadPosition position) {
+        try {
+            return new CsvRecordScanner(config,
+                    new PositionedReader(new FileInputStream(file), config.getCharset(), position));
+        } catch (FileNotFoundException e) {
+            throw new IllegalArgumentException("csv file not found. file = [" + file + ']', e);
+        }
+    }
+
+    /**
+     * 索引ファイルを開く。
+     *
+     * @param indexFile 索引ファイル
+     * @param mode モード
+     * @return {@link RandomAccessFile}
+     */
+    private static RandomAccessFile openIndexFile(final File indexFile, final String mode) {
+        try {
+            return new RandomAccessFile(indexFile, mode);
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("failed to open index file. file = [" + indexFile + ']', e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CsvKeyIndex{file=" + file
+                + ", keyColumn=" + keyColumn
+                + ", size=" + size
+                + ", capacity=" + capacity
+                + '}';
+    }
+
+    /**
+     * 検索で見つかったレコード。
+     */
+    private static final class Found {
+
+        /** レコードの要素の配列 */
+        private final String[] record;
+
+        /** 行番号 */
+        private final long lineNumber;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param record レコードの要素の配列
+         * @param lineNumber 行番号
+         */
+        Found(final String[] record, final long lineNumber) {
+            this.record = record;
+            this.lineNumber = lineNumber;
+        }
+    }
+}
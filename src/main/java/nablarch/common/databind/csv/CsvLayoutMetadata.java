@@ -0,0 +1,105 @@
+package nablarch.common.databind.csv;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * マルチレイアウトファイルのマッピング情報を保持するクラス。
+ * <p/>
+ * {@link CsvLayouts}に列挙したレイアウトごとに、{@link RecordType}の値と{@link CsvMappingMetadata}を保持する。
+ * レイアウトは{@link CsvLayouts#value()}に列挙した順の位置で識別する。
+ * 共通の型ごとに一度だけ構築され、{@link nablarch.common.databind.DataBindUtil#findCsvLayoutMetadata(Class)}
+ * によってキャッシュされる。
+ * <p/>
+ * キャッシュがBeanのクラスローダを保持し続けないよう、本クラスはBeanの{@link Class}を保持しない。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class CsvLayoutMetadata {
+
+    /** CSV用の設定情報(全レイアウト共通) */
+    private final CsvDataBindConfig config;
+
+    /** レコード種別を表す列の位置(0始まり) */
+    private final int recordTypeIndex;
+
+    /** レイアウトごとのマッピング情報 */
+    private final CsvMappingMetadata[] layouts;
+
+    /** レコード種別とレイアウトの位置とのマッピング */
+    private final Map<String, Integer> layoutIndexes = new HashMap<String, Integer>();
+
+    /**
+     * コンストラクタ。
+     *
+     * @param config CSV用の設定情報
+     * @param recordTypeIndex レコード種別を表す列の位置(0始まり)
+     * @param recordTypes レイアウトごとのレコード種別
+     * @param layouts レイアウトごとのマッピング情報
+     */
+    public CsvLayoutMetadata(final CsvDataBindConfig config, final int recordTypeIndex,
+            final String[] recordTypes, final CsvMappingMetadata[] layouts) {
+        if (recordTypes.length != layouts.length) {
+            throw new IllegalArgumentException("record types and layouts size does not match.");
+        }
+        this.config = config;
+        this.recordTypeIndex = recordTypeIndex;
+        this.layouts = layouts.clone();
+        for (int i = 0; i < recordTypes.length; i++) {
+            if (layoutIndexes.put(recordTypes[i], i) != null) {
+                throw new IllegalArgumentException("duplicate record type. record type = [" + recordTypes[i] + ']');
+            }
+        }
+    }
+
+    /**
+     * CSV用の設定情報を取得する。
+     *
+     * @return CSV用の設定情報
+     */
+    public CsvDataBindConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * レコード種別を表す列の位置を取得する。
+     *
+     * @return レコード種別を表す列の位置(0始まり)
+     */
+    public int getRecordTypeIndex() {
+        return recordTypeIndex;
+    }
+
+    /**
+     * レコード種別に対応したレイアウトの位置を取得する。
+     *
+     * @param recordType レコード種別
+     * @return レイアウトの位置(未定義のレコード種別の場合は{@code -1})
+     */
+    public int indexOf(final String recordType) {
+        final Integer index = layoutIndexes.get(recordType);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * レイアウトのマッピング情報を取得する。
+     *
+     * @param index レイアウトの位置
+     * @return マッピング情報
+     */
+    public CsvMappingMetadata getLayout(final int index) {
+        return layouts[index];
+    }
+
+    /**
+     * レイアウトの数を取得する。
+     *
+     * @return レイアウトの数
+     */
+    public int getLayoutCount() {
+        return layouts.length;
+    }
+}
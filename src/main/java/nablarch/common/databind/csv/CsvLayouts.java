@@ -0,0 +1,42 @@
+package nablarch.common.databind.csv;
+
+import nablarch.core.util.annotation.Published;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * ヘッダレコード、データレコード、トレーラレコードのように、
+ * レコードごとにレイアウトが異なるCSVファイル(マルチレイアウトファイル)を定義するアノテーション。
+ * <p/>
+ * 各レイアウトに共通する型(インタフェース等)に本アノテーションを付与し、{@link #value()}にレイアウトごとのBeanを列挙する。
+ * レイアウトごとのBeanには、{@link Csv}と{@link RecordType}を付与すること。
+ * <pre>
+ * {@code
+ * @CsvLayouts({BankHeader.class, BankDetail.class, BankTrailer.class})
+ * public interface BankRecord {
+ * }
+ *
+ * @Csv(type = Csv.CsvType.DEFAULT, properties = {"recordType", "bankCode", "bankName"})
+ * @RecordType("1")
+ * public class BankHeader implements BankRecord {
+ *     // 省略
+ * }
+ * }
+ * </pre>
+ * 全てのレイアウトのCSVフォーマット(文字コード、区切り文字等)は同じでなければならない。
+ * また、ヘッダ行(タイトル行)を必須とすることはできない。
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Published
+public @interface CsvLayouts {
+
+    /** レイアウトごとのBean(本アノテーションを付与した型のサブタイプであること) */
+    Class<?>[] value();
+
+    /** レコード種別を表す列の位置(0始まり) */
+    int recordTypeIndex() default 0;
+}
@@ -36,7 +36,10 @@ public class CsvMapMapper extends CsvObjectMapperSupport<Map<String, ?>> {
         checkRequiredHeader();
 
         // 先頭はヘッダのため読み飛ばす
-        read();
+        final String[] header = readHeader();
+        if (header != null) {
+            verifyFieldCount(header);
+        }
     }
 
     @Override
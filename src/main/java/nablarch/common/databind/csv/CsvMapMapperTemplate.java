@@ -0,0 +1,56 @@
+package nablarch.common.databind.csv;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Map;
+
+import nablarch.common.databind.MapperTemplate;
+import nablarch.common.databind.ObjectMapper;
+
+/**
+ * CSVと{@link Map}をマッピングする{@link MapperTemplate}の実装クラス。
+ *
+ * @author Hisaaki Shioiri
+ */
+public class CsvMapMapperTemplate implements MapperTemplate<Map<String, ?>> {
+
+    /** CSV用の設定情報 */
+    private final CsvDataBindConfig config;
+
+    /**
+     * {@code CsvMapMapperTemplate}を生成する。
+     *
+     * @param config CSV用の設定情報
+     */
+    public CsvMapMapperTemplate(final CsvDataBindConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public ObjectMapper<Map<String, ?>> create(final InputStream stream) {
+        return new CsvMapMapper(config, stream);
+    }
+
+    @Override
+    public ObjectMapper<Map<String, ?>> create(final Reader reader) {
+        return new CsvMapMapper(config, reader);
+    }
+
+    @Override
+    public ObjectMapper<Map<String, ?>> create(final String input) {
+        return create(new StringReader(input));
+    }
+
+    @Override
+    public ObjectMapper<Map<String, ?>> create(final OutputStream stream) {
+        return new MapCsvMapper(config, stream);
+    }
+
+    @Override
+    public ObjectMapper<Map<String, ?>> create(final Writer writer) {
+        return new MapCsvMapper(config, writer);
+    }
+}
@@ -0,0 +1,54 @@
+package nablarch.common.databind.csv;
+
+import java.io.Reader;
+import java.io.Writer;
+
+import nablarch.common.databind.ObjectMapper;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 特定のBeanクラス専用の{@link ObjectMapper}を提供するインタフェース。
+ * <p/>
+ * 本インタフェースの実装は、{@link nablarch.common.databind.csv.processor.CsvMapperProcessor}が
+ * {@link Csv}アノテーションの付与されたBeanごとにコンパイル時に生成する。
+ * 生成されたクラスはBeanと同じパッケージに、{@link #CLASS_NAME_SUFFIX}を付与した名前で配置される。
+ * <p/>
+ * 生成されたクラスがクラスパス上に存在する場合、{@link nablarch.common.databind.ObjectMapperFactory}は
+ * リフレクションを使用する{@link CsvBeanMapper}、{@link BeanCsvMapper}の代わりに本インタフェースが生成する
+ * {@link ObjectMapper}を使用する。
+ *
+ * @param <T> Beanの型
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public interface CsvMapperProvider<T> {
+
+    /** 生成されるクラスの名前に付与するサフィックス */
+    String CLASS_NAME_SUFFIX = "_CsvMapperProvider";
+
+    /** 生成されるクラスが持つ唯一のインスタンスを保持するフィールドの名前 */
+    String INSTANCE_FIELD_NAME = "INSTANCE";
+
+    /**
+     * Beanに定義されたCSVのフォーマット定義を返す。
+     *
+     * @return CSVのフォーマット定義
+     */
+    CsvDataBindConfig getConfig();
+
+    /**
+     * 入力用の{@link ObjectMapper}を生成する。
+     *
+     * @param reader リーダ
+     * @return 入力用の{@link ObjectMapper}
+     */
+    ObjectMapper<T> createReader(Reader reader);
+
+    /**
+     * 出力用の{@link ObjectMapper}を生成する。
+     *
+     * @param writer ライタ
+     * @return 出力用の{@link ObjectMapper}
+     */
+    ObjectMapper<T> createWriter(Writer writer);
+}
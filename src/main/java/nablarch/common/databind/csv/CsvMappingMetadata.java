@@ -0,0 +1,80 @@
+package nablarch.common.databind.csv;
+
+import java.util.List;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * Beanに定義されたCSVのマッピング情報を保持するクラス。
+ * <p/>
+ * {@link Csv}、{@link CsvFormat}、{@link Quoted}及び{@link nablarch.common.databind.LineNumber}
+ * から導出した情報を保持する。
+ * Beanのクラスごとに一度だけ構築され、{@link nablarch.common.databind.DataBindUtil#findCsvMappingMetadata(Class)}
+ * によってキャッシュされる。
+ * <p/>
+ * キャッシュがBeanのクラスローダを保持し続けないよう、本クラスはBeanの{@link Class}を保持しない。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class CsvMappingMetadata {
+
+    /** CSV用の設定情報 */
+    private final CsvDataBindConfig config;
+
+    /** プロパティ名の配列 */
+    private final String[] propertyNames;
+
+    /** 行番号を格納するプロパティ名 */
+    private final String lineNumberPropertyName;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param config CSV用の設定情報
+     * @param propertyNames プロパティ名の配列
+     * @param lineNumberPropertyName 行番号を格納するプロパティ名(存在しない場合は{@code null})
+     */
+    public CsvMappingMetadata(
+            final CsvDataBindConfig config, final String[] propertyNames, final String lineNumberPropertyName) {
+        this.config = config;
+        this.propertyNames = propertyNames;
+        this.lineNumberPropertyName = lineNumberPropertyName;
+    }
+
+    /**
+     * CSV用の設定情報を取得する。
+     *
+     * @return CSV用の設定情報
+     */
+    public CsvDataBindConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * CSVの項目に対応したプロパティ名の配列を取得する。
+     *
+     * @return プロパティ名の配列
+     */
+    public String[] getPropertyNames() {
+        return propertyNames;
+    }
+
+    /**
+     * 行番号を格納するプロパティ名を取得する。
+     *
+     * @return 行番号を格納するプロパティ名(存在しない場合は{@code null})
+     */
+    public String getLineNumberPropertyName() {
+        return lineNumberPropertyName;
+    }
+
+    /**
+     * 出力時にフィールド囲み文字で囲むフィールドのリストを取得する。
+     *
+     * @return フィールド囲み文字で囲むフィールドのリスト
+     */
+    public List<String> getQuotedColumnNames() {
+        return config.getQuotedColumnNames();
+    }
+}
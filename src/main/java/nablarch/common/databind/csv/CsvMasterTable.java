@@ -0,0 +1,425 @@
+package nablarch.common.databind.csv;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import nablarch.common.databind.DataBindUtil;
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.core.util.StringUtil;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * マスタのCSVを全てメモリに読み込み、整数のキーで検索するテーブル。
+ * <p/>
+ * {@code Map<String, Bean>}のようにレコードごとにBeanやキーのオブジェクトを保持せず、
+ * キーはボクシングしない{@code long}のハッシュ表に、値は列ごとに配列に保持する。
+ * 整数のみの列は{@code long}の配列、それ以外の列はUTF-8のバイト列を連結したバイト配列に格納する。
+ * Beanは{@link #get(long)}を呼び出した時点で生成する。
+ * <pre>
+ * {@code
+ * CsvMasterTable<Item> items = CsvMasterTable.load(Item.class, new FileInputStream(file), "itemCode");
+ * Item item = items.get(1001L);
+ * }
+ * </pre>
+ * CSVの形式とプロパティの並びは、Beanの{@link Csv}アノテーションの定義を使用する。
+ * キーの列は{@code long}の範囲の整数であること。
+ * <p/>
+ * 読み込み後のテーブルは変更できないため、スレッドセーフである。
+ *
+ * @param <T> Beanの型
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class CsvMasterTable<T> {
+
+    /** Beanのクラス */
+    private final Class<T> clazz;
+
+    /** プロパティ名の配列 */
+    private final String[] propertyNames;
+
+    /** 行番号を格納するプロパティ名(存在しない場合は{@code null}) */
+    private final String lineNumberPropertyName;
+
+    /** キーの列の位置 */
+    private final int keyColumn;
+
+    /** 整数のキーからレコードの位置へのハッシュ表(文字列のキーで保持する場合は{@code null}) */
+    private final LongIntHashMap index;
+
+    /** 文字列のキーからレコードの位置へのハッシュ表(整数のキーで保持する場合は{@code null}) */
+    private final Map<String, Integer> stringIndex;
+
+    /** 列ごとの値 */
+    private final CompactColumn[] columns;
+
+    /** レコードの行番号(行番号を格納するプロパティが存在しない場合は{@code null}) */
+    private final long[] lineNumbers;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param clazz Beanのクラス
+     * @param metadata Beanのマッピング情報
+     * @param keyColumn キーの列の位置
+     * @param index 整数のキーからレコードの位置へのハッシュ表
+     * @param stringIndex 文字列のキーからレコードの位置へのハッシュ表
+     * @param columns 列ごとの値
+     * @param lineNumbers レコードの行番号
+     */
+    private CsvMasterTable(final Class<T> clazz, final CsvMappingMetadata metadata, final int keyColumn,
+            final LongIntHashMap index, final Map<String, Integer> stringIndex, final CompactColumn[] columns,
+            final long[] lineNumbers) {
+        this.clazz = clazz;
+        this.propertyNames = metadata.getPropertyNames();
+        this.lineNumberPropertyName = metadata.getLineNumberPropertyName();
+        this.keyColumn = keyColumn;
+        this.index = index;
+        this.stringIndex = stringIndex;
+        this.columns = columns;
+        this.lineNumbers = lineNumbers;
+    }
+
+    /**
+     * CSVを読み込み、テーブルを構築する。
+     * <p/>
+     * {@code stream}は読み込み後に閉じる。
+     *
+     * @param clazz Beanのクラス
+     * @param stream 入力ストリーム
+     * @param keyProperty キーとするプロパティ名
+     * @param <T> Beanの型
+     * @return テーブル
+     * @throws IllegalArgumentException キーとするプロパティが存在しない場合
+     * @throws InvalidDataFormatException キーが整数でない場合、キーが重複する場合、要素数がプロパティ数と一致しない場合
+     */
+    public static <T> CsvMasterTable<T> load(final Class<T> clazz, final InputStream stream, final String keyProperty) {
+        final Builder<T> builder = new Builder<T>(clazz, keyProperty, false);
+        final CsvDataBindConfig config = builder.getConfig();
+        final CsvRecordScanner scanner =
+                new CsvRecordScanner(config, new InputStreamReader(stream, config.getCharset()));
+        try {
+            String[] record;
+            while ((record = scanner.read()) != null) {
+                builder.add(record, scanner.getLineNumber());
+            }
+            return builder.build();
+        } finally {
+            scanner.close();
+        }
+    }
+
+    /**
+     * キーに一致するレコードのBeanを生成する。
+     *
+     * @param key キー
+     * @return Bean(存在しない場合は{@code null})
+     */
+    public T get(final long key) {
+        return getRow(findRow(key));
+    }
+
+    /**
+     * キーに一致するレコードのBeanを生成する。
+     * <p/>
+     * 整数のキーで保持している場合、整数として解釈できないキーに一致するレコードは存在しない。
+     *
+     * @param key キー
+     * @return Bean(存在しない場合は{@code null})
+     */
+    public T get(final String key) {
+        return getRow(findRow(key));
+    }
+
+    /**
+     * 整数のキーに一致するレコードの位置を返す。
+     *
+     * @param key キー
+     * @return レコードの位置(存在しない場合は{@link LongIntHashMap#NO_VALUE})
+     */
+    int findRow(final long key) {
+        return index != null ? index.get(key) : findRow(Long.toString(key));
+    }
+
+    /**
+     * 文字列のキーに一致するレコードの位置を返す。
+     *
+     * @param key キー
+     * @return レコードの位置(存在しない場合は{@link LongIntHashMap#NO_VALUE})
+     */
+    int findRow(final String key) {
+        if (key == null) {
+            return LongIntHashMap.NO_VALUE;
+        }
+        if (stringIndex != null) {
+            final Integer row = stringIndex.get(key);
+            return row == null ? LongIntHashMap.NO_VALUE : row;
+        }
+        return CompactColumn.isCanonicalLong(key) ? index.get(Long.parseLong(key)) : LongIntHashMap.NO_VALUE;
+    }
+
+    /**
+     * レコードの位置のBeanを生成する。
+     *
+     * @param row レコードの位置
+     * @return Bean(位置が{@link LongIntHashMap#NO_VALUE}の場合は{@code null})
+     */
+    T getRow(final int row) {
+        if (row == LongIntHashMap.NO_VALUE) {
+            return null;
+        }
+        final String[] values = new String[columns.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = columns[i].get(row);
+        }
+        if (lineNumbers == null) {
+            return DataBindUtil.getInstance(clazz, propertyNames, values);
+        }
+        return DataBindUtil.getInstanceWithLineNumber(clazz, propertyNames, values, lineNumberPropertyName,
+                lineNumbers[row]);
+    }
+
+    /**
+     * キーに一致するレコードの、指定されたプロパティの値を取得する。
+     * <p/>
+     * Beanを生成せずに1つの値のみを参照する場合に使用する。
+     *
+     * @param key キー
+     * @param propertyName プロパティ名
+     * @return 値(レコードが存在しない場合、値が空の場合は{@code null})
+     * @throws IllegalArgumentException プロパティが存在しない場合
+     */
+    public String getValue(final long key, final String propertyName) {
+        final int column = Arrays.asList(propertyNames).indexOf(propertyName);
+        if (column == -1) {
+            throw new IllegalArgumentException("property not found. property = [" + propertyName + ']');
+        }
+        final int row = findRow(key);
+        return row == LongIntHashMap.NO_VALUE ? null : columns[column].get(row);
+    }
+
+    /**
+     * キーに一致するレコードが存在するか否かを返す。
+     *
+     * @param key キー
+     * @return 存在する場合は{@code true}
+     */
+    public boolean containsKey(final long key) {
+        return findRow(key) != LongIntHashMap.NO_VALUE;
+    }
+
+    /**
+     * レコード数を取得する。
+     *
+     * @return レコード数
+     */
+    public int size() {
+        return index != null ? index.size() : stringIndex.size();
+    }
+
+    /**
+     * キーのプロパティ名を取得する。
+     *
+     * @return キーのプロパティ名
+     */
+    public String getKeyProperty() {
+        return propertyNames[keyColumn];
+    }
+
+    /**
+     * 列の値を保持している配列のおおよそのバイト数を取得する。
+     * <p/>
+     * キーのハッシュ表は含まない。
+     *
+     * @return バイト数
+     */
+    public long getColumnMemoryBytes() {
+        long bytes = lineNumbers == null ? 0L : lineNumbers.length * 8L;
+        for (CompactColumn column : columns) {
+            bytes += column.getMemoryBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * テーブルが保持している配列のおおよそのバイト数を取得する。
+     * <p/>
+     * 列の値とキーのハッシュ表を含む。
+     * 文字列のキーで保持している場合、ハッシュ表のバイト数は見積もりとなる。
+     *
+     * @return バイト数
+     */
+    public long getMemoryBytes() {
+        if (index != null) {
+            return getColumnMemoryBytes() + index.getMemoryBytes();
+        }
+        // HashMapのエントリ、ボクシングした値及びキーの文字列のおおよそのバイト数
+        long bytes = getColumnMemoryBytes() + stringIndex.size() * 88L;
+        for (String key : stringIndex.keySet()) {
+            bytes += key.length() * 2L;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "CsvMasterTable{class=" + clazz.getName()
+                + ", key=" + getKeyProperty()
+                + ", size=" + size()
+                + ", columnMemoryBytes=" + getColumnMemoryBytes()
+                + '}';
+    }
+
+    /**
+     * レコードを1件ずつ追加してテーブルを構築するクラス。
+     *
+     * @param <T> Beanの型
+     */
+    static final class Builder<T> {
+
+        /** Beanのクラス */
+        private final Class<T> clazz;
+
+        /** Beanのマッピング情報 */
+        private final CsvMappingMetadata metadata;
+
+        /** プロパティの数 */
+        private final int propertyCount;
+
+        /** キーの列の位置 */
+        private final int keyColumn;
+
+        /** 整数でないキーを許容するか否か */
+        private final boolean allowStringKey;
+
+        /** 列ごとの値 */
+        private final CompactColumn[] columns;
+
+        /** 行番号を保持するか否か */
+        private final boolean hasLineNumber;
+
+        /** レコードの行番号 */
+        private long[] lineNumbers;
+
+        /** 整数のキーからレコードの位置へのハッシュ表(文字列のキーに切り替えた場合は{@code null}) */
+        private LongIntHashMap index = new LongIntHashMap(64);
+
+        /** 文字列のキーからレコードの位置へのハッシュ表(整数のキーで保持している場合は{@code null}) */
+        private Map<String, Integer> stringIndex;
+
+        /** 追加したレコード数 */
+        private int rows;
+
+        /**
+         * コンストラクタ。
+         * <p/>
+         * {@code allowStringKey}が{@code true}の場合は、整数でないキーが現れた時点で文字列のキーのハッシュ表に切り替える。
+         *
+         * @param clazz Beanのクラス
+         * @param keyProperty キーとするプロパティ名
+         * @param allowStringKey 整数でないキーを許容するか否か
+         * @throws IllegalArgumentException キーとするプロパティが存在しない場合
+         */
+        Builder(final Class<T> clazz, final String keyProperty, final boolean allowStringKey) {
+            this.clazz = clazz;
+            this.allowStringKey = allowStringKey;
+            metadata = DataBindUtil.findCsvMappingMetadata(clazz);
+            final String[] propertyNames = metadata.getPropertyNames();
+            propertyCount = propertyNames.length;
+            keyColumn = Arrays.asList(propertyNames).indexOf(keyProperty);
+            if (keyColumn == -1) {
+                throw new IllegalArgumentException("key property not found."
+                        + " key property = [" + keyProperty + "], class = [" + clazz.getName() + ']');
+            }
+            columns = new CompactColumn[propertyCount];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = new CompactColumn();
+            }
+            hasLineNumber = !StringUtil.isNullOrEmpty(metadata.getLineNumberPropertyName());
+            lineNumbers = hasLineNumber ? new long[64] : null;
+        }
+
+        /**
+         * CSVの設定を取得する。
+         *
+         * @return CSVの設定
+         */
+        CsvDataBindConfig getConfig() {
+            return metadata.getConfig();
+        }
+
+        /**
+         * レコードを追加する。
+         *
+         * @param record レコード
+         * @param lineNumber 行番号
+         * @throws InvalidDataFormatException キーが空の場合、キーが整数でない場合(許容しない場合のみ)、
+         *                                    キーが重複する場合、要素数がプロパティ数と一致しない場合
+         */
+        void add(final String[] record, final long lineNumber) {
+            if (record.length != propertyCount) {
+                throw new InvalidDataFormatException(
+                        "property size does not match. expected field count = [" + propertyCount + "],"
+                                + " actual field count = [" + record.length + "].", lineNumber);
+            }
+            final String key = record[keyColumn];
+            if (key != null && index != null && !CompactColumn.isCanonicalLong(key) && allowStringKey) {
+                switchToStringIndex();
+            }
+            final boolean duplicate;
+            if (index != null) {
+                if (key == null || !CompactColumn.isCanonicalLong(key)) {
+                    throw new InvalidDataFormatException("key must be integer. key = [" + key + "].", lineNumber);
+                }
+                duplicate = index.putIfAbsent(Long.parseLong(key), rows) != LongIntHashMap.NO_VALUE;
+            } else {
+                if (key == null) {
+                    throw new InvalidDataFormatException("key must not be empty.", lineNumber);
+                }
+                duplicate = stringIndex.put(key, rows) != null;
+            }
+            if (duplicate) {
+                throw new InvalidDataFormatException("duplicate key. key = [" + key + "].", lineNumber);
+            }
+            for (int i = 0; i < columns.length; i++) {
+                columns[i].add(record[i]);
+            }
+            if (hasLineNumber) {
+                if (rows == lineNumbers.length) {
+                    lineNumbers = Arrays.copyOf(lineNumbers, rows * 2);
+                }
+                lineNumbers[rows] = lineNumber;
+            }
+            rows++;
+        }
+
+        /**
+         * 追加済みのキーを文字列のキーのハッシュ表に移し替える。
+         * <p/>
+         * 追加済みのキーは正規の整数表記のため、列に保持している文字列がそのままキーとなる。
+         */
+        private void switchToStringIndex() {
+            stringIndex = new HashMap<String, Integer>(Math.max(16, rows * 2));
+            for (int row = 0; row < rows; row++) {
+                stringIndex.put(columns[keyColumn].get(row), row);
+            }
+            index = null;
+        }
+
+        /**
+         * テーブルを構築する。
+         *
+         * @return テーブル
+         */
+        CsvMasterTable<T> build() {
+            for (CompactColumn column : columns) {
+                column.trim();
+            }
+            return new CsvMasterTable<T>(clazz, metadata, keyColumn, index, stringIndex, columns,
+                    hasLineNumber ? Arrays.copyOf(lineNumbers, rows) : null);
+        }
+    }
+}
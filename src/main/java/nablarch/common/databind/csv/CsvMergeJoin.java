@@ -0,0 +1,405 @@
+package nablarch.common.databind.csv;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.core.beans.BeanUtil;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * キーでソート済みの2つのCSVファイルを、先頭から1回ずつ読み込んで結合するクラス。
+ * <p/>
+ * それぞれのファイルは{@link ObjectMapper}で読み込み、キーはBean(または{@link Map})のプロパティから取得する。
+ * {@link #read()}は結合したレコードの組を1件ずつ返し、結合の種類({@link JoinType})に応じて、
+ * 相手が存在しないレコードは相手側を{@code null}とした組で返す。
+ * <pre>
+ * {@code
+ * CsvMergeJoin<Ours, Bank> join = new CsvMergeJoin<Ours, Bank>(
+ *         ObjectMapperFactory.create(Ours.class, oursStream), "accountNo",
+ *         ObjectMapperFactory.create(Bank.class, bankStream), "accountNo",
+ *         CsvMergeJoin.JoinType.FULL_OUTER);
+ * try {
+ *     CsvMergeJoin.Joined<Ours, Bank> joined;
+ *     while ((joined = join.read()) != null) {
+ *         if (joined.getLeft() == null || joined.getRight() == null) {
+ *             // 片方にのみ存在するレコード
+ *         }
+ *     }
+ * } finally {
+ *     join.close();
+ * }
+ * }
+ * </pre>
+ * 両方のファイルは、同じ順序(キーの{@link Comparator}、指定しない場合はキーの自然順序。{@code null}は先頭)
+ * でソートされていること。
+ * 読み込みながら直前のレコードとキーを比較し、順序が逆転している場合は{@link InvalidDataFormatException}を送出する。
+ * <p/>
+ * 保持するレコードは、各ファイルの現在のレコードと、右側のファイルのキーが等しいレコードのみである。
+ * このため、キーが重複しない場合のメモリ使用量はファイルサイズによらず一定となる。
+ * キーが両側で重複する場合は、全ての組み合わせを返す。
+ * キーが{@code null}のレコードは、どのレコードとも結合しない。
+ * <p/>
+ * 本クラスはスレッドセーフではない。
+ *
+ * @param <L> 左側のレコードの型
+ * @param <R> 右側のレコードの型
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class CsvMergeJoin<L, R> implements Closeable {
+
+    /**
+     * 結合の種類。
+     */
+    public enum JoinType {
+        /** 両方に存在するレコードのみ */
+        INNER(false, false),
+        /** 左側の全てのレコード */
+        LEFT_OUTER(true, false),
+        /** 右側の全てのレコード */
+        RIGHT_OUTER(false, true),
+        /** 両方の全てのレコード */
+        FULL_OUTER(true, true);
+
+        /** 右側に存在しない左側のレコードを返すか否か */
+        private final boolean leftUnmatched;
+
+        /** 左側に存在しない右側のレコードを返すか否か */
+        private final boolean rightUnmatched;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param leftUnmatched 右側に存在しない左側のレコードを返すか否か
+         * @param rightUnmatched 左側に存在しない右側のレコードを返すか否か
+         */
+        JoinType(final boolean leftUnmatched, final boolean rightUnmatched) {
+            this.leftUnmatched = leftUnmatched;
+            this.rightUnmatched = rightUnmatched;
+        }
+    }
+
+    /** 左側の読み込み位置 */
+    private final Cursor<L> left;
+
+    /** 右側の読み込み位置 */
+    private final Cursor<R> right;
+
+    /** 結合の種類 */
+    private final JoinType type;
+
+    /** キーの{@link Comparator} */
+    private final Comparator<Object> keyComparator;
+
+    /** 左側の現在のレコードと結合中の、右側のキーが等しいレコード */
+    private final List<R> group = new ArrayList<R>();
+
+    /** {@link #group}のキー */
+    private Object groupKey;
+
+    /** {@link #group}の次に結合する位置({@link #group}が空の場合は使用しない) */
+    private int groupIndex;
+
+    /** 読み込みを開始したか否か */
+    private boolean started;
+
+    /**
+     * キーの自然順序で結合する{@code CsvMergeJoin}を生成する。
+     * <p/>
+     * キーの値は{@link Comparable}であること。
+     *
+     * @param left 左側の{@link ObjectMapper}
+     * @param leftKey 左側のキーのプロパティ名
+     * @param right 右側の{@link ObjectMapper}
+     * @param rightKey 右側のキーのプロパティ名
+     * @param type 結合の種類
+     */
+    public CsvMergeJoin(final ObjectMapper<L> left, final String leftKey,
+            final ObjectMapper<R> right, final String rightKey, final JoinType type) {
+        this(left, leftKey, right, rightKey, type, NaturalOrder.INSTANCE);
+    }
+
+    /**
+     * キーの{@link Comparator}を指定して{@code CsvMergeJoin}を生成する。
+     * <p/>
+     * {@link Comparator}には{@code null}は渡されない。
+     *
+     * @param left 左側の{@link ObjectMapper}
+     * @param leftKey 左側のキーのプロパティ名
+     * @param right 右側の{@link ObjectMapper}
+     * @param rightKey 右側のキーのプロパティ名
+     * @param type 結合の種類
+     * @param keyComparator キーの{@link Comparator}
+     */
+    public CsvMergeJoin(final ObjectMapper<L> left, final String leftKey,
+            final ObjectMapper<R> right, final String rightKey, final JoinType type,
+            final Comparator<Object> keyComparator) {
+        if (type == null) {
+            throw new IllegalArgumentException("join type must not be null.");
+        }
+        if (keyComparator == null) {
+            throw new IllegalArgumentException("key comparator must not be null.");
+        }
+        this.keyComparator = keyComparator;
+        this.left = new Cursor<L>("left", left, leftKey);
+        this.right = new Cursor<R>("right", right, rightKey);
+        this.type = type;
+    }
+
+    /**
+     * 結合したレコードの組を1件読み込む。
+     *
+     * @return 結合したレコードの組(全て読み込んだ場合は{@code null})
+     * @throws InvalidDataFormatException いずれかのファイルがキーでソートされていない場合
+     */
+    public Joined<L, R> read() {
+        if (!started) {
+            started = true;
+            left.next();
+            right.next();
+        }
+        while (true) {
+            if (!group.isEmpty()) {
+                if (groupIndex < group.size()) {
+                    return new Joined<L, R>(left.current, group.get(groupIndex++));
+                }
+                // 左側の次のレコードのキーが等しい場合は、同じレコードと結合する
+                left.next();
+                if (!left.isEnd() && compare(left.key, groupKey) == 0) {
+                    groupIndex = 0;
+                    continue;
+                }
+                group.clear();
+                groupKey = null;
+            }
+            if (left.isEnd() && right.isEnd()) {
+                return null;
+            }
+            final int result;
+            if (left.isEnd()) {
+                result = 1;
+            } else if (right.isEnd()) {
+                result = -1;
+            } else {
+                // キーがnullのレコードは結合しないため、左側を先に返す
+                result = left.key == null && right.key == null ? -1 : compare(left.key, right.key);
+            }
+            if (result < 0) {
+                final L unmatched = left.current;
+                left.next();
+                if (type.leftUnmatched) {
+                    return new Joined<L, R>(unmatched, null);
+                }
+            } else if (result > 0) {
+                final R unmatched = right.current;
+                right.next();
+                if (type.rightUnmatched) {
+                    return new Joined<L, R>(null, unmatched);
+                }
+            } else {
+                groupKey = right.key;
+                do {
+                    group.add(right.current);
+                    right.next();
+                } while (!right.isEnd() && compare(right.key, groupKey) == 0);
+                groupIndex = 0;
+            }
+        }
+    }
+
+    /**
+     * キーを比較する。{@code null}は先頭とする。
+     *
+     * @param key1 キー
+     * @param key2 キー
+     * @return 比較結果
+     */
+    private int compare(final Object key1, final Object key2) {
+        if (key1 == null || key2 == null) {
+            return key1 == null ? (key2 == null ? 0 : -1) : 1;
+        }
+        return keyComparator.compare(key1, key2);
+    }
+
+    /**
+     * 両方の{@link ObjectMapper}を閉じる。
+     */
+    @Override
+    public void close() {
+        try {
+            left.mapper.close();
+        } finally {
+            right.mapper.close();
+        }
+    }
+
+    /**
+     * 片側のファイルの読み込み位置。
+     *
+     * @param <T> レコードの型
+     */
+    private final class Cursor<T> {
+
+        /** 左右の別(メッセージに使用する) */
+        private final String side;
+
+        /** {@link ObjectMapper} */
+        private final ObjectMapper<T> mapper;
+
+        /** キーのプロパティ名 */
+        private final String keyProperty;
+
+        /** 現在のレコード(終端に達した場合は{@code null}) */
+        private T current;
+
+        /** 現在のレコードのキー */
+        private Object key;
+
+        /** 読み込んだレコード数 */
+        private long recordCount;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param side 左右の別
+         * @param mapper {@link ObjectMapper}
+         * @param keyProperty キーのプロパティ名
+         */
+        private Cursor(final String side, final ObjectMapper<T> mapper, final String keyProperty) {
+            if (mapper == null) {
+                throw new IllegalArgumentException(side + " mapper must not be null.");
+            }
+            if (keyProperty == null) {
+                throw new IllegalArgumentException(side + " key must not be null.");
+            }
+            this.side = side;
+            this.mapper = mapper;
+            this.keyProperty = keyProperty;
+        }
+
+        /**
+         * 次のレコードに進み、直前のレコードとキーの順序を検証する。
+         */
+        private void next() {
+            final Object previousKey = key;
+            final boolean first = recordCount == 0;
+            current = mapper.read();
+            if (current == null) {
+                key = null;
+                return;
+            }
+            recordCount++;
+            key = getKey(current);
+            if (!first && compare(previousKey, key) > 0) {
+                throw new InvalidDataFormatException(side + " input is not sorted by key."
+                        + " key property = [" + keyProperty + "],"
+                        + " previous key = [" + previousKey + "], key = [" + key + "].", getLineNumber());
+            }
+        }
+
+        /**
+         * レコードからキーを取得する。
+         *
+         * @param record レコード
+         * @return キー
+         */
+        private Object getKey(final T record) {
+            if (record instanceof Map) {
+                return ((Map<?, ?>) record).get(keyProperty);
+            }
+            return BeanUtil.getProperty(record, keyProperty);
+        }
+
+        /**
+         * 現在のレコードの行番号を取得する。
+         * <p/>
+         * CSVの{@link ObjectMapper}でない場合は、レコードの番号を返す。
+         *
+         * @return 行番号
+         */
+        private long getLineNumber() {
+            if (mapper instanceof CsvObjectMapperSupport) {
+                return ((CsvObjectMapperSupport<?>) mapper).reader.getLineNumber();
+            }
+            return recordCount;
+        }
+
+        /**
+         * 終端に達したか否かを返す。
+         *
+         * @return 終端に達した場合は{@code true}
+         */
+        private boolean isEnd() {
+            return current == null;
+        }
+    }
+
+    /**
+     * 結合したレコードの組。
+     *
+     * @param <L> 左側のレコードの型
+     * @param <R> 右側のレコードの型
+     */
+    public static final class Joined<L, R> {
+
+        /** 左側のレコード */
+        private final L left;
+
+        /** 右側のレコード */
+        private final R right;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param left 左側のレコード
+         * @param right 右側のレコード
+         */
+        private Joined(final L left, final R right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        /**
+         * 左側のレコードを取得する。
+         *
+         * @return 左側のレコード(右側にのみ存在する場合は{@code null})
+         */
+        public L getLeft() {
+            return left;
+        }
+
+        /**
+         * 右側のレコードを取得する。
+         *
+         * @return 右側のレコード(左側にのみ存在する場合は{@code null})
+         */
+        public R getRight() {
+            return right;
+        }
+
+        @Override
+        public String toString() {
+            return "Joined{left=" + left + ", right=" + right + '}';
+        }
+    }
+
+    /**
+     * キーの自然順序で比較する{@link Comparator}。
+     */
+    private static final class NaturalOrder implements Comparator<Object> {
+
+        /** インスタンス */
+        private static final NaturalOrder INSTANCE = new NaturalOrder();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public int compare(final Object o1, final Object o2) {
+            return ((Comparable<Object>) o1).compareTo(o2);
+        }
+    }
+}
@@ -3,7 +3,13 @@ package nablarch.common.databind.csv;
 import java.io.BufferedReader;
 import java.io.Reader;
 
-import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ReadPosition;
+import nablarch.common.databind.ResumableObjectMapper;
+import nablarch.common.databind.metrics.MapperMetrics;
+import nablarch.common.databind.metrics.MetricsAware;
+import nablarch.common.databind.metrics.ProgressAware;
+import nablarch.common.databind.metrics.ReadProgress;
 import nablarch.core.util.FileUtil;
 import nablarch.core.util.StringUtil;
 
@@ -13,7 +19,7 @@ import nablarch.core.util.StringUtil;
  * @param <T> マッピング対象のクラス
  * @author Naoki Yamamoto
  */
-public abstract class CsvObjectMapperSupport<T> implements ObjectMapper<T> {
+public abstract class CsvObjectMapperSupport<T> implements ResumableObjectMapper<T>, MetricsAware, ProgressAware {
 
     /** CSV用の設定情報 */
     protected final CsvDataBindConfig config;
@@ -21,6 +27,15 @@ public abstract class CsvObjectMapperSupport<T> implements ObjectMapper<T> {
     /** CSVのリーダ */
     protected final CsvDataReader reader;
 
+    /** メトリクスの収集先(収集しない場合は{@code null}) */
+    private MapperMetrics metrics;
+
+    /** 進捗の通知先(通知しない場合は{@code null}) */
+    private ReadProgress progress;
+
+    /** 読み込んだレコード数 */
+    private long recordCount;
+
     /**
      * CSV定義と入力リソースを持つ{@code AbstractCsvMapper}を生成する。
      *
@@ -29,7 +44,7 @@ public abstract class CsvObjectMapperSupport<T> implements ObjectMapper<T> {
      */
     public CsvObjectMapperSupport(final CsvDataBindConfig config, final Reader reader) {
         this.config = config;
-        this.reader = new CsvDataReader(toBufferedReader(reader), config);
+        this.reader = new CsvDataReader(reader, config);
     }
 
     /**
@@ -37,7 +52,10 @@ public abstract class CsvObjectMapperSupport<T> implements ObjectMapper<T> {
      *
      * @param reader リーダ
      * @return {@link BufferedReader}
+     * @deprecated {@link CsvDataReader}が内部でバッファリングを行うため、本クラスでは使用しない。
+     *             互換性のために残しており、将来のバージョンで削除する。
      */
+    @Deprecated
     public BufferedReader toBufferedReader(final Reader reader) {
         return reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
     }
@@ -47,8 +65,47 @@ public abstract class CsvObjectMapperSupport<T> implements ObjectMapper<T> {
         throw new UnsupportedOperationException("unsupported write method.");
     }
 
+    @Override
+    public void setMetrics(final MapperMetrics metrics) {
+        this.metrics = metrics;
+        reader.setMetrics(metrics);
+        metrics.open(config);
+    }
+
+    @Override
+    public void setProgress(final ReadProgress progress) {
+        this.progress = progress;
+        reader.setProgress(progress);
+    }
+
     @Override
     public T read() {
+        final T object;
+        if (metrics != null) {
+            try {
+                object = readWithMetrics();
+            } catch (InvalidDataFormatException e) {
+                metrics.error(e);
+                throw e;
+            }
+        } else {
+            object = readObject();
+        }
+        if (object != null) {
+            recordCount++;
+            if (progress != null) {
+                progress.addRecord();
+            }
+        }
+        return object;
+    }
+
+    /**
+     * 1レコード読み込む。
+     *
+     * @return 読み込んだオブジェクト
+     */
+    private T readObject() {
         final String[] record = readLine();
         if (record == null) {
             return null;
@@ -56,12 +113,77 @@ public abstract class CsvObjectMapperSupport<T> implements ObjectMapper<T> {
         return createObject(record);
     }
 
+    /**
+     * メトリクスを収集しながら1レコード読み込む。
+     *
+     * @return 読み込んだオブジェクト
+     */
+    private T readWithMetrics() {
+        if (!metrics.nextSample()) {
+            final String[] record = readLine();
+            if (record == null) {
+                return null;
+            }
+            addRecord(record);
+            return createObject(record);
+        }
+        final long start = metrics.startTiming();
+        String[] record = null;
+        try {
+            record = readLine();
+            if (record == null) {
+                return null;
+            }
+            final long tokenized = System.nanoTime();
+            final T object = createObject(record);
+            metrics.addTiming(start, tokenized, System.nanoTime());
+            return object;
+        } finally {
+            // レコードの集計とチャンクの通知は、バインドの処理時間に含めないよう計測の終了後に行う。
+            metrics.stopTiming();
+            if (record != null) {
+                addRecord(record);
+            }
+        }
+    }
+
+    /**
+     * レコードをメトリクスに集計する。
+     *
+     * @param record レコード
+     */
+    private void addRecord(final String[] record) {
+        metrics.addRecord();
+        for (String field : record) {
+            metrics.addField(field == null ? 0 : field.length());
+        }
+    }
+
+    /**
+     * 現在の読み込み位置を取得する。
+     * <p/>
+     * {@link nablarch.common.databind.ObjectMapperFactory#createResumable(Class, java.io.InputStream, ReadPosition)}
+     * で生成した場合のみ使用できる。{@link #close()}を呼び出す前に取得すること。
+     *
+     * @return 読み込み位置
+     * @throws IllegalStateException 読み込み位置を追跡していない場合
+     */
+    @Override
+    public ReadPosition getPosition() {
+        return reader.getPosition(recordCount);
+    }
+
     /**
      * ヘッダー行を読み込む。
+     * <p/>
+     * ファイルの途中から読み込みを再開した場合は、ヘッダー行は読み込み済みのため読み込まない。
      *
-     * @return ヘッダー行
+     * @return ヘッダー行(読み込まなかった場合は{@code null})
      */
     protected String[] readHeader() {
+        if (reader.isResumed()) {
+            return null;
+        }
         return readLine();
     }
 
@@ -79,19 +201,36 @@ public abstract class CsvObjectMapperSupport<T> implements ObjectMapper<T> {
      * @return 1行の情報
      */
     protected String[] readLine() {
-        String[] record = reader.read();
+        String[] record = readRecord();
         while (config.isIgnoreEmptyLine() && isEmptyLine(record)) {
-            record = reader.read();
+            record = readRecord();
         }
         return record;
     }
 
+    /**
+     * {@link CsvDataReader}から1レコード読み込む。
+     * <p/>
+     * 空行の読み飛ばしは{@link #readLine()}で行うため、本メソッドでは行わない。
+     *
+     * @return 1レコード分のデータ(ファイルの終端に達した場合は{@code null})
+     */
+    protected String[] readRecord() {
+        return reader.read();
+    }
+
     /**
      * ストリームを閉じてリソースを解放する。
      */
     @Override
     public void close() {
         FileUtil.closeQuietly(reader);
+        if (metrics != null) {
+            metrics.close();
+        }
+        if (progress != null) {
+            progress.complete();
+        }
     }
 
     /**
@@ -0,0 +1,449 @@
+package nablarch.common.databind.csv;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.common.databind.ReadPosition;
+import nablarch.common.databind.ResumableObjectMapper;
+import nablarch.core.util.FileUtil;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * CSVファイルのレコードの位置を保持する索引。
+ * <p/>
+ * 一定のレコード数({@code interval})ごとに、レコードの先頭の{@link ReadPosition}を保持する。
+ * 索引の構築時はクォートを考慮してCSVを解析するため、改行を含む要素があってもレコードの先頭を正しく記録する。
+ * 索引はサイドカーファイル(既定ではCSVファイル名に{@link #SIDECAR_SUFFIX}を付与したファイル)に保存でき、
+ * CSVファイルのサイズまたは最終更新日時が変わった場合は無効となる。
+ * 文字コード、区切り文字、クォート文字、改行コード、ヘッダ行の有無、空行の扱いのいずれかが
+ * 索引の構築時と異なる設定で読み込んだ場合も、レコードの位置が変わるため無効となる。
+ * <pre>
+ * {@code
+ * CsvRecordIndex index = CsvRecordIndex.loadOrBuild(file, config, 10000);
+ * ResumableObjectMapper<Person> mapper = index.open(Person.class, 5000000L);
+ * }
+ * </pre>
+ * 任意のレコードへの移動は、直前の索引の位置へのシークと、{@code interval}未満のレコードの読み飛ばしで行う。
+ * {@link #split(int)}で、並列処理のためにファイルをレコード数が均等になるよう分割することもできる。
+ * <p/>
+ * レコードの番号は0始まりとし、ヘッダ行は含まない。
+ * 空行を無視する設定の場合、空行はレコードとして数えない。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class CsvRecordIndex {
+
+    /** サイドカーファイルの拡張子 */
+    public static final String SIDECAR_SUFFIX = ".idx";
+
+    /** サイドカーファイルの識別子 */
+    private static final int MAGIC = 0x43535649;
+
+    /** サイドカーファイルの形式のバージョン */
+    private static final int VERSION = 2;
+
+    /** サイドカーファイルのヘッダのバイト数(識別子、バージョン、サイズ、最終更新日時、ダイジェスト、間隔、レコード数、索引の数) */
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 8 + 4;
+
+    /** CSVファイル */
+    private final File file;
+
+    /** CSVの設定 */
+    private final CsvDataBindConfig config;
+
+    /** 索引を作成した時点のCSVファイルのサイズ */
+    private final long fileLength;
+
+    /** 索引を作成した時点のCSVファイルの最終更新日時 */
+    private final long lastModified;
+
+    /** 索引の間隔(レコード数) */
+    private final int interval;
+
+    /** レコード数 */
+    private final long recordCount;
+
+    /** 索引のバイト位置({@code i}番目の要素は{@code i * interval}番目のレコードの先頭) */
+    private final long[] byteOffsets;
+
+    /** 索引の行番号({@code i}番目の要素は{@code i * interval}番目のレコードの先頭) */
+    private final long[] lineNumbers;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param file CSVファイル
+     * @param config CSVの設定
+     * @param fileLength CSVファイルのサイズ
+     * @param lastModified CSVファイルの最終更新日時
+     * @param interval 索引の間隔
+     * @param recordCount レコード数
+     * @param byteOffsets 索引のバイト位置
+     * @param lineNumbers 索引の行番号
+     */
+    private CsvRecordIndex(final File file, final CsvDataBindConfig config, final long fileLength,
+            final long lastModified, final int interval, final long recordCount,
+            final long[] byteOffsets, final long[] lineNumbers) {
+        this.file = file;
+        this.config = config;
+        this.fileLength = fileLength;
+        this.lastModified = lastModified;
+        this.interval = interval;
+        this.recordCount = recordCount;
+        this.byteOffsets = byteOffsets;
+        this.lineNumbers = lineNumbers;
+    }
+
+    /**
+     * CSVファイルを解析し、索引を構築する。
+     *
+     * @param file CSVファイル
+     * @param config CSVの設定
+     * @param interval 索引の間隔(レコード数)
+     * @return 索引
+     * @throws IllegalArgumentException 索引の間隔が1未満の場合
+     * @throws nablarch.common.databind.InvalidDataFormatException CSVの形式が不正な場合
+     */
+    public static CsvRecordIndex build(final File file, final CsvDataBindConfig config, final int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval must be greater than 0. interval = [" + interval + ']');
+        }
+        // 解析中に更新された場合に索引が有効とならないよう、解析前の状態を記録する
+        final long fileLength = file.length();
+        final long lastModified = file.lastModified();
+        long[] byteOffsets = new long[16];
+        long[] lineNumbers = new long[16];
+        int count = 0;
+        final CsvRecordScanner scanner = new CsvRecordScanner(config, openReader(file, config, ReadPosition.START));
+        try {
+            long record = 0;
+            while (true) {
+                if (record % interval == 0) {
+                    if (count == byteOffsets.length) {
+                        byteOffsets = Arrays.copyOf(byteOffsets, count * 2);
+                        lineNumbers = Arrays.copyOf(lineNumbers, count * 2);
+                    }
+                    final ReadPosition position = scanner.getPosition();
+                    byteOffsets[count] = position.getByteOffset();
+                    lineNumbers[count] = position.getLineNumber();
+                    count++;
+                }
+                if (scanner.read() == null) {
+                    break;
+                }
+                record++;
+            }
+            return new CsvRecordIndex(file, config, fileLength, lastModified, interval, record,
+                    Arrays.copyOf(byteOffsets, count), Arrays.copyOf(lineNumbers, count));
+        } finally {
+            scanner.close();
+        }
+    }
+
+    /**
+     * サイドカーファイルから索引を読み込む。
+     *
+     * @param file CSVファイル
+     * @param config CSVの設定
+     * @param indexFile サイドカーファイル
+     * @return 索引(サイドカーファイルが存在しない、形式または設定が異なる、またはCSVファイルが更新されている場合は{@code null})
+     */
+    public static CsvRecordIndex load(final File file, final CsvDataBindConfig config, final File indexFile) {
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        final DataInputStream in;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            final long fileLength = in.readLong();
+            final long lastModified = in.readLong();
+            if (in.readLong() != CsvRecordScanner.digest(config)) {
+                return null;
+            }
+            final int interval = in.readInt();
+            final long recordCount = in.readLong();
+            final int count = in.readInt();
+            // 壊れたサイドカーファイルで過大な配列を確保しないよう、残りのバイト数と照合する
+            if (interval < 1 || count < 0 || (long) count * 16 != indexFile.length() - HEADER_SIZE) {
+                return null;
+            }
+            final long[] byteOffsets = new long[count];
+            final long[] lineNumbers = new long[count];
+            for (int i = 0; i < count; i++) {
+                byteOffsets[i] = in.readLong();
+                lineNumbers[i] = in.readLong();
+            }
+            final CsvRecordIndex index = new CsvRecordIndex(
+                    file, config, fileLength, lastModified, interval, recordCount, byteOffsets, lineNumbers);
+            return index.isValid() ? index : null;
+        } catch (IOException e) {
+            // 途中で切れているサイドカーファイルは、存在しない場合と同様に扱う
+            return null;
+        } finally {
+            FileUtil.closeQuietly(in);
+        }
+    }
+
+    /**
+     * サイドカーファイルから索引を読み込む。
+     * <p/>
+     * 索引が無効な場合は、索引を構築してサイドカーファイルに保存する。
+     * サイドカーファイルはCSVファイル名に{@link #SIDECAR_SUFFIX}を付与したファイルとなる。
+     *
+     * @param file CSVファイル
+     * @param config CSVの設定
+     * @param interval 索引を構築する場合の索引の間隔(レコード数)
+     * @return 索引
+     */
+    public static CsvRecordIndex loadOrBuild(final File file, final CsvDataBindConfig config, final int interval) {
+        final File indexFile = new File(file.getPath() + SIDECAR_SUFFIX);
+        final CsvRecordIndex loaded = load(file, config, indexFile);
+        if (loaded != null) {
+            return loaded;
+        }
+        final CsvRecordIndex built = build(file, config, interval);
+        built.save(indexFile);
+        return built;
+    }
+
+    /**
+     * 索引をサイドカーファイルに保存する。
+     * <p/>
+     * 書き込みが途中で失敗したサイドカーファイルが残らないよう、一時ファイルに書き込んでから置き換える。
+     *
+     * @param indexFile サイドカーファイル
+     */
+    public void save(final File indexFile) {
+        final File tempFile = IndexFiles.createTempFile(indexFile);
+        try {
+            write(tempFile);
+            IndexFiles.replace(tempFile, indexFile);
+        } finally {
+            // 置き換えた場合は既に存在しない
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * 索引をファイルに書き込む。
+     *
+     * @param indexFile 書き込み先のファイル
+     */
+    private void write(final File indexFile) {
+        final FileOutputStream stream;
+        try {
+            stream = new FileOutputStream(indexFile);
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("failed to create index file. file = [" + indexFile + ']', e);
+        }
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fileLength);
+            out.writeLong(lastModified);
+            out.writeLong(CsvRecordScanner.digest(config));
+            out.writeInt(interval);
+            out.writeLong(recordCount);
+            out.writeInt(byteOffsets.length);
+            for (int i = 0; i < byteOffsets.length; i++) {
+                out.writeLong(byteOffsets[i]);
+                out.writeLong(lineNumbers[i]);
+            }
+            out.flush();
+            // 置き換える前に、書き込んだ内容をディスクに反映する
+            stream.getFD().sync();
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write index file. file = [" + indexFile + ']', e);
+        } finally {
+            FileUtil.closeQuietly(out);
+        }
+    }
+
+    /**
+     * CSVファイルが索引の作成後に更新されていないか否かを返す。
+     *
+     * @return サイズと最終更新日時が索引の作成時と一致する場合は{@code true}
+     */
+    public boolean isValid() {
+        return file.length() == fileLength && file.lastModified() == lastModified;
+    }
+
+    /**
+     * 指定されたレコードの先頭の位置を取得する。
+     * <p/>
+     * 直前の索引の位置からCSVを読み込み、{@code interval}未満のレコードを読み飛ばして位置を求める。
+     *
+     * @param recordIndex レコードの番号(0始まり)
+     * @return レコードの先頭の位置({@code recordIndex}がレコード数と等しい場合はファイルの終端)
+     * @throws IllegalArgumentException レコードの番号が範囲外の場合
+     * @throws IllegalStateException CSVファイルが索引の作成後に更新されている場合
+     */
+    public ReadPosition locate(final long recordIndex) {
+        final ReadPosition nearest = getNearestPosition(recordIndex);
+        if (nearest.getRecordCount() == recordIndex) {
+            return nearest;
+        }
+        final CsvRecordScanner scanner = new CsvRecordScanner(config, openReader(file, config, nearest));
+        try {
+            for (long i = nearest.getRecordCount(); i < recordIndex; i++) {
+                scanner.read();
+            }
+            return scanner.getPosition();
+        } finally {
+            scanner.close();
+        }
+    }
+
+    /**
+     * 指定されたレコードの直前の索引の位置を取得する。
+     * <p/>
+     * CSVファイルは読み込まない。
+     *
+     * @param recordIndex レコードの番号(0始まり)
+     * @return 直前の索引の位置
+     * @throws IllegalArgumentException レコードの番号が範囲外の場合
+     * @throws IllegalStateException CSVファイルが索引の作成後に更新されている場合
+     */
+    public ReadPosition getNearestPosition(final long recordIndex) {
+        if (recordIndex < 0 || recordIndex > recordCount) {
+            throw new IllegalArgumentException("record index is out of range."
+                    + " record index = [" + recordIndex + "], record count = [" + recordCount + ']');
+        }
+        if (!isValid()) {
+            throw new IllegalStateException("csv file has been modified after index was built. file = [" + file + ']');
+        }
+        final int entry = (int) (recordIndex / interval);
+        return new ReadPosition(byteOffsets[entry], lineNumbers[entry], (long) entry * interval);
+    }
+
+    /**
+     * 指定されたレコードから読み込む{@link ResumableObjectMapper}を生成する。
+     *
+     * @param clazz バインディング対象のJavaのクラス
+     * @param recordIndex 読み込みを開始するレコードの番号(0始まり)
+     * @param <T> バインディング対象のJavaのクラス
+     * @return データとJava ObjectのMapper
+     */
+    public <T> ResumableObjectMapper<T> open(final Class<T> clazz, final long recordIndex) {
+        return ObjectMapperFactory.createResumable(clazz, openStream(file), locate(recordIndex));
+    }
+
+    /**
+     * 指定されたレコードから読み込む{@link ResumableObjectMapper}を、索引の構築に使用した設定で生成する。
+     * <p/>
+     * {@link java.util.Map}にマッピングする場合に使用する。
+     *
+     * @param clazz バインディング対象のJavaのクラス
+     * @param recordIndex 読み込みを開始するレコードの番号(0始まり)
+     * @param <T> バインディング対象のJavaのクラス
+     * @return データとJava ObjectのMapper
+     */
+    public <T> ResumableObjectMapper<T> openWithConfig(final Class<T> clazz, final long recordIndex) {
+        return ObjectMapperFactory.createResumable(clazz, openStream(file), config, locate(recordIndex));
+    }
+
+    /**
+     * レコード数が均等になるよう、ファイルを分割する。
+     * <p/>
+     * 分割位置は索引の位置に揃えるため、CSVファイルは読み込まない。
+     * {@code i}番目の分割は、{@code i}番目の位置から{@code i + 1}番目の位置の
+     * {@link ReadPosition#getRecordCount()}に達するまで(最後の分割はファイルの終端まで)となる。
+     * レコード数が少ない場合は、{@code parts}より少ない数に分割する。
+     *
+     * @param parts 分割数
+     * @return 各分割の開始位置
+     * @throws IllegalArgumentException 分割数が1未満の場合
+     */
+    public List<ReadPosition> split(final int parts) {
+        if (parts < 1) {
+            throw new IllegalArgumentException("parts must be greater than 0. parts = [" + parts + ']');
+        }
+        final List<ReadPosition> positions = new ArrayList<ReadPosition>(parts);
+        int previous = -1;
+        for (int i = 0; i < parts; i++) {
+            // 均等な分割位置に最も近い索引の位置を使用する
+            final long target = recordCount * i / parts;
+            final int entry = (int) Math.min((target + interval / 2) / interval, byteOffsets.length - 1);
+            if (entry > previous && (i == 0 || (long) entry * interval < recordCount)) {
+                positions.add(new ReadPosition(byteOffsets[entry], lineNumbers[entry], (long) entry * interval));
+                previous = entry;
+            }
+        }
+        return Collections.unmodifiableList(positions);
+    }
+
+    /**
+     * レコード数を取得する。
+     *
+     * @return レコード数(ヘッダ行を除く)
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * 索引の間隔を取得する。
+     *
+     * @return 索引の間隔(レコード数)
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * 指定された位置からCSVファイルを読み込む{@link Reader}を生成する。
+     *
+     * @param file CSVファイル
+     * @param config CSVの設定
+     * @param position 読み込みを開始する位置
+     * @return {@link Reader}
+     */
+    private static Reader openReader(final File file, final CsvDataBindConfig config, final ReadPosition position) {
+        return new PositionedReader(openStream(file), config.getCharset(), position);
+    }
+
+    /**
+     * CSVファイルを開く。
+     *
+     * @param file CSVファイル
+     * @return 入力ストリーム
+     */
+    private static FileInputStream openStream(final File file) {
+        try {
+            return new FileInputStream(file);
+        } catch (FileNotFoundException e) {
+            throw new IllegalArgumentException("csv file not found. file = [" + file + ']', e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CsvRecordIndex{file=" + file
+                + ", interval=" + interval
+                + ", records=" + recordCount
+                + ", entries=" + byteOffsets.length
+                + '}';
+    }
+}
@@ -0,0 +1,72 @@
+package nablarch.common.databind.csv;
+
+import java.io.Reader;
+
+/**
+ * レコードをオブジェクトに変換せず、要素の配列のまま読み込むクラス。
+ * <p/>
+ * 索引の構築や索引を使用した読み込みで使用する。
+ * ヘッダ行と空行の扱いを{@link CsvObjectMapperSupport}と揃えるため、同クラスを継承する。
+ *
+ * @author Hisaaki Shioiri
+ */
+class CsvRecordScanner extends CsvObjectMapperSupport<String[]> {
+
+    /** ヘッダ行(ヘッダ行を読み込んでいない場合は{@code null}) */
+    private final String[] header;
+
+    /**
+     * コンストラクタ。
+     * <p/>
+     * ヘッダ行が必須の場合は、ファイルの先頭から読み込む場合のみヘッダ行を読み飛ばす。
+     *
+     * @param config CSVの設定
+     * @param reader 読み込み位置を追跡する{@link PositionedReader}
+     */
+    CsvRecordScanner(final CsvDataBindConfig config, final Reader reader) {
+        super(config, reader);
+        header = config.isRequiredHeader() ? readHeader() : null;
+    }
+
+    @Override
+    protected String[] createObject(final String[] record) {
+        return record;
+    }
+
+    /**
+     * レコードの解析結果に影響する設定のダイジェストを求める。
+     * <p/>
+     * 索引ファイルが、同じ設定で解析して構築されたものか否かの判定に使用する。
+     *
+     * @param config CSVの設定
+     * @return ダイジェスト
+     */
+    static long digest(final CsvDataBindConfig config) {
+        return RecordHash.ofRecord(new String[] {
+                config.getCharset().name(),
+                String.valueOf(config.getFieldSeparator()),
+                String.valueOf(config.getQuote()),
+                config.getLineSeparator(),
+                String.valueOf(config.isRequiredHeader()),
+                String.valueOf(config.isIgnoreEmptyLine())
+        });
+    }
+
+    /**
+     * 読み込んだヘッダ行を返す。
+     *
+     * @return ヘッダ行(ヘッダ行を読み込んでいない場合は{@code null})
+     */
+    String[] getHeader() {
+        return header;
+    }
+
+    /**
+     * 最後に読み込んだレコードの行番号を返す。
+     *
+     * @return 行番号
+     */
+    long getLineNumber() {
+        return reader.getLineNumber();
+    }
+}
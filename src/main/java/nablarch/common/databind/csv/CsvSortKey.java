@@ -0,0 +1,195 @@
+package nablarch.common.databind.csv;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link CsvSorter}で使用する、ソートキーの列と比較方法の定義。
+ * <p/>
+ * 列の値は、レコードをメモリに読み込んだ時点で型に応じた値に変換し、比較のたびには変換しない。
+ * ランに書き出したレコードはマージで読み込む際に再度変換するため、
+ * ランを作成する場合の変換は1レコードにつきマージの段数+1回となる。
+ * 値が{@code null}(空の要素または要素が存在しない)の場合は、昇順では先頭、降順では末尾となる。
+ * <pre>
+ * {@code
+ * CsvSortKey.ofLong(0);                // 1列目を整数として昇順
+ * CsvSortKey.ofDecimal(2).descending(); // 3列目を10進数として降順
+ * }
+ * </pre>
+ * 本クラスは不変である。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class CsvSortKey {
+
+    /**
+     * 値の型。
+     */
+    private enum Type {
+        /** 文字列 */
+        STRING,
+        /** 整数({@code long}) */
+        LONG,
+        /** 10進数 */
+        DECIMAL,
+        /** 任意の{@link Comparator}で比較する文字列 */
+        CUSTOM
+    }
+
+    /** 列の位置(0始まり) */
+    private final int column;
+
+    /** 値の型 */
+    private final Type type;
+
+    /** {@link Type#CUSTOM}の場合に使用する{@link Comparator} */
+    private final Comparator<? super String> comparator;
+
+    /** 降順か否か */
+    private final boolean descending;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param column 列の位置(0始まり)
+     * @param type 値の型
+     * @param comparator {@link Type#CUSTOM}の場合に使用する{@link Comparator}
+     * @param descending 降順か否か
+     */
+    private CsvSortKey(final int column, final Type type, final Comparator<? super String> comparator,
+            final boolean descending) {
+        if (column < 0) {
+            throw new IllegalArgumentException("column must not be negative. column = [" + column + ']');
+        }
+        this.column = column;
+        this.type = type;
+        this.comparator = comparator;
+        this.descending = descending;
+    }
+
+    /**
+     * 列の値を文字列として比較するキーを生成する。
+     *
+     * @param column 列の位置(0始まり)
+     * @return ソートキー(昇順)
+     */
+    public static CsvSortKey ofString(final int column) {
+        return new CsvSortKey(column, Type.STRING, null, false);
+    }
+
+    /**
+     * 列の値を整数({@code long})として比較するキーを生成する。
+     *
+     * @param column 列の位置(0始まり)
+     * @return ソートキー(昇順)
+     */
+    public static CsvSortKey ofLong(final int column) {
+        return new CsvSortKey(column, Type.LONG, null, false);
+    }
+
+    /**
+     * 列の値を10進数({@link BigDecimal})として比較するキーを生成する。
+     *
+     * @param column 列の位置(0始まり)
+     * @return ソートキー(昇順)
+     */
+    public static CsvSortKey ofDecimal(final int column) {
+        return new CsvSortKey(column, Type.DECIMAL, null, false);
+    }
+
+    /**
+     * 列の値を任意の{@link Comparator}で比較するキーを生成する。
+     * <p/>
+     * {@link Comparator}には{@code null}は渡されない。
+     *
+     * @param column 列の位置(0始まり)
+     * @param comparator 文字列の{@link Comparator}
+     * @return ソートキー(昇順)
+     */
+    public static CsvSortKey of(final int column, final Comparator<? super String> comparator) {
+        if (comparator == null) {
+            throw new IllegalArgumentException("comparator must not be null.");
+        }
+        return new CsvSortKey(column, Type.CUSTOM, comparator, false);
+    }
+
+    /**
+     * 降順のキーを生成する。
+     *
+     * @return 降順のソートキー
+     */
+    public CsvSortKey descending() {
+        return new CsvSortKey(column, type, comparator, true);
+    }
+
+    /**
+     * 列の位置を取得する。
+     *
+     * @return 列の位置(0始まり)
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * 降順か否かを返す。
+     *
+     * @return 降順の場合は{@code true}
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * レコードから比較に使用する値を取り出す。
+     *
+     * @param record レコード
+     * @return 比較に使用する値(空の要素または要素が存在しない場合は{@code null})
+     * @throws NumberFormatException 数値の型で、値が数値として解釈できない場合
+     */
+    Object extract(final String[] record) {
+        if (column >= record.length || record[column] == null || record[column].length() == 0) {
+            return null;
+        }
+        final String value = record[column];
+        switch (type) {
+            case LONG:
+                return Long.parseLong(value);
+            case DECIMAL:
+                return new BigDecimal(value);
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * {@link #extract(String[])}で取り出した値を比較する。
+     *
+     * @param o1 値
+     * @param o2 値
+     * @return 比較結果(降順の場合は反転したもの)
+     */
+    @SuppressWarnings("unchecked")
+    int compare(final Object o1, final Object o2) {
+        final int result;
+        if (o1 == null || o2 == null) {
+            result = o1 == null ? (o2 == null ? 0 : -1) : 1;
+        } else if (type == Type.CUSTOM) {
+            result = comparator.compare((String) o1, (String) o2);
+        } else {
+            result = ((Comparable<Object>) o1).compareTo(o2);
+        }
+        return descending ? -result : result;
+    }
+
+    @Override
+    public String toString() {
+        return "CsvSortKey{column=" + column
+                + ", type=" + type
+                + ", descending=" + descending
+                + '}';
+    }
+}
@@ -0,0 +1,756 @@
+package nablarch.common.databind.csv;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * CSVファイルをキーの列でソートするクラス。
+ * <p/>
+ * メモリに収まらないファイルをソートするため、以下の外部マージソートを行う。
+ * <ol>
+ * <li>レコードをメモリの上限({@link #withMemoryLimit(long)})に達するまで読み込み、メモリ上でソートする。</li>
+ * <li>ソートしたレコードをバイナリ形式の一時ファイル(ラン)に書き出す。</li>
+ * <li>全てのランを先頭から同時に読み込み、ヒープで最小のレコードを選びながら出力する(k-wayマージ)。</li>
+ * </ol>
+ * 全てのレコードがメモリの上限に収まる場合は、一時ファイルを使用せずに出力する。
+ * ランの数がマージの幅({@link #withMergeWidth(int)})を超える場合は、幅ごとにマージしたランを作成してから出力する。
+ * <pre>
+ * {@code
+ * CsvSorter sorter = new CsvSorter(CsvDataBindConfig.DEFAULT,
+ *         CsvSortKey.ofLong(0), CsvSortKey.ofString(3).descending())
+ *         .withMemoryLimit(256L * 1024 * 1024)
+ *         .withParallelism(4);
+ * sorter.sort(new File("customer.csv"), new File("customer_sorted.csv"));
+ * }
+ * </pre>
+ * 並列度({@link #withParallelism(int)})を2以上とした場合は、読み込みと並行して複数のスレッドでランのソートと書き出しを行う。
+ * この場合、メモリの上限は読み込み中のレコードとソート中のレコードで分け合う。
+ * <p/>
+ * ランにはレコードのみを書き出し、ソートキーの値はマージでランから読み込む際に{@link CsvSortKey}で再度変換する。
+ * <p/>
+ * ソートは安定であり、キーが等しいレコードは入力の順序を保つ。
+ * ヘッダ行が必須の設定の場合、ヘッダ行はソートせずに先頭に出力する。
+ * <p/>
+ * 本クラスは不変であり、スレッドセーフである。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class CsvSorter {
+
+    /** メモリの上限のデフォルト値(64MB) */
+    private static final long DEFAULT_MEMORY_LIMIT = 64L * 1024 * 1024;
+
+    /** マージの幅のデフォルト値 */
+    private static final int DEFAULT_MERGE_WIDTH = 64;
+
+    /** CSVの設定 */
+    private final CsvDataBindConfig config;
+
+    /** ソートキー(優先順) */
+    private final CsvSortKey[] keys;
+
+    /** メモリ上でソートするレコードのおおよそのバイト数の上限 */
+    private final long memoryLimit;
+
+    /** ランを作成するスレッド数 */
+    private final int parallelism;
+
+    /** 1回のマージで同時に読み込むランの数 */
+    private final int mergeWidth;
+
+    /** 一時ファイルを作成するディレクトリ({@code null}の場合はシステムの一時ディレクトリ) */
+    private final File tempDirectory;
+
+    /**
+     * ソートキーを指定して{@code CsvSorter}を生成する。
+     *
+     * @param config CSVの設定
+     * @param keys ソートキー(優先順)
+     */
+    public CsvSorter(final CsvDataBindConfig config, final CsvSortKey... keys) {
+        this(config, keys, DEFAULT_MEMORY_LIMIT, 1, DEFAULT_MERGE_WIDTH, null);
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param config CSVの設定
+     * @param keys ソートキー(優先順)
+     * @param memoryLimit メモリの上限
+     * @param parallelism 並列度
+     * @param mergeWidth マージの幅
+     * @param tempDirectory 一時ファイルを作成するディレクトリ
+     */
+    private CsvSorter(final CsvDataBindConfig config, final CsvSortKey[] keys, final long memoryLimit,
+            final int parallelism, final int mergeWidth, final File tempDirectory) {
+        if (config == null) {
+            throw new IllegalArgumentException("config must not be null.");
+        }
+        if (keys == null || keys.length == 0) {
+            throw new IllegalArgumentException("keys must not be empty.");
+        }
+        if (memoryLimit <= 0) {
+            throw new IllegalArgumentException(
+                    "memory limit must be greater than 0. memory limit = [" + memoryLimit + ']');
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "parallelism must be greater than 0. parallelism = [" + parallelism + ']');
+        }
+        if (mergeWidth < 2) {
+            throw new IllegalArgumentException(
+                    "merge width must be greater than 1. merge width = [" + mergeWidth + ']');
+        }
+        this.config = config;
+        this.keys = keys.clone();
+        this.memoryLimit = memoryLimit;
+        this.parallelism = parallelism;
+        this.mergeWidth = mergeWidth;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * メモリ上でソートするレコードのおおよそのバイト数の上限を設定する。
+     * <p/>
+     * デフォルトは64MB。
+     *
+     * @param memoryLimit バイト数の上限
+     * @return 設定後の{@code CsvSorter}
+     */
+    public CsvSorter withMemoryLimit(final long memoryLimit) {
+        return new CsvSorter(config, keys, memoryLimit, parallelism, mergeWidth, tempDirectory);
+    }
+
+    /**
+     * ランのソートと書き出しを行うスレッド数を設定する。
+     * <p/>
+     * デフォルトは1(読み込みと同じスレッドで行う)。
+     *
+     * @param parallelism スレッド数
+     * @return 設定後の{@code CsvSorter}
+     */
+    public CsvSorter withParallelism(final int parallelism) {
+        return new CsvSorter(config, keys, memoryLimit, parallelism, mergeWidth, tempDirectory);
+    }
+
+    /**
+     * 1回のマージで同時に読み込むランの数を設定する。
+     * <p/>
+     * デフォルトは64。同時に開くファイルの数の上限となる。
+     *
+     * @param mergeWidth ランの数
+     * @return 設定後の{@code CsvSorter}
+     */
+    public CsvSorter withMergeWidth(final int mergeWidth) {
+        return new CsvSorter(config, keys, memoryLimit, parallelism, mergeWidth, tempDirectory);
+    }
+
+    /**
+     * 一時ファイルを作成するディレクトリを設定する。
+     * <p/>
+     * デフォルトはシステムの一時ディレクトリ。
+     *
+     * @param tempDirectory ディレクトリ
+     * @return 設定後の{@code CsvSorter}
+     */
+    public CsvSorter withTempDirectory(final File tempDirectory) {
+        return new CsvSorter(config, keys, memoryLimit, parallelism, mergeWidth, tempDirectory);
+    }
+
+    /**
+     * CSVファイルをソートし、別のファイルに出力する。
+     *
+     * @param input 入力ファイル
+     * @param output 出力ファイル
+     * @return ソートしたレコード数
+     * @throws IllegalArgumentException 入力ファイルと出力ファイルが同じ場合
+     * @throws InvalidDataFormatException 数値のキーが数値として解釈できない場合
+     */
+    public long sort(final File input, final File output) {
+        if (input.getAbsoluteFile().equals(output.getAbsoluteFile())) {
+            throw new IllegalArgumentException("output file must be different from input file. file = [" + input + ']');
+        }
+        final InputStream in;
+        try {
+            in = new FileInputStream(input);
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("failed to open file. file = [" + input + ']', e);
+        }
+        final OutputStream out;
+        try {
+            out = new FileOutputStream(output);
+        } catch (FileNotFoundException e) {
+            closeQuietly(in);
+            throw new RuntimeException("failed to open file. file = [" + output + ']', e);
+        }
+        return sort(in, out);
+    }
+
+    /**
+     * 入力ストリームのCSVをソートし、出力ストリームに出力する。
+     * <p/>
+     * 入力ストリームと出力ストリームは、ソート後に閉じる。
+     *
+     * @param in 入力ストリーム
+     * @param out 出力ストリーム
+     * @return ソートしたレコード数
+     * @throws InvalidDataFormatException 数値のキーが数値として解釈できない場合
+     */
+    public long sort(final InputStream in, final OutputStream out) {
+        final RunGenerator generator = new RunGenerator();
+        final List<SortedRun> merging = new ArrayList<SortedRun>();
+        try {
+            final CsvRecordScanner scanner =
+                    new CsvRecordScanner(config, new InputStreamReader(in, config.getCharset()));
+            try {
+                generator.read(scanner);
+            } finally {
+                scanner.close();
+            }
+            final CsvDataWriter writer = createWriter(out, generator.header, generator.maxFieldCount);
+            try {
+                if (generator.chunk != null) {
+                    // 全てのレコードがメモリに収まったため、一時ファイルを使用せずに出力する
+                    for (SortEntry entry : generator.chunk) {
+                        write(writer, entry.record);
+                    }
+                } else {
+                    merging.addAll(generator.awaitRuns());
+                    merge(merging, new WriterSink(writer));
+                }
+            } finally {
+                closeQuietly(writer);
+            }
+            return generator.recordCount;
+        } finally {
+            closeQuietly(out);
+            generator.cleanUp();
+            for (SortedRun run : merging) {
+                run.delete();
+            }
+        }
+    }
+
+    /**
+     * 出力に使用する{@link CsvDataWriter}を生成し、ヘッダ行を出力する。
+     *
+     * @param out 出力ストリーム
+     * @param header ヘッダ行(ヘッダ行が存在しない場合は{@code null})
+     * @param maxFieldCount レコードの要素数の最大値
+     * @return {@link CsvDataWriter}
+     */
+    private CsvDataWriter createWriter(final OutputStream out, final String[] header, final int maxFieldCount) {
+        // フィールド囲み文字の要否をフィールド名で判定する設定があるため、ヘッダ行をフィールド名とする
+        final String[] names = new String[Math.max(maxFieldCount, header == null ? 0 : header.length)];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = header != null && i < header.length ? header[i] : "";
+        }
+        final CsvDataWriter writer = new CsvDataWriter(new OutputStreamWriter(out, config.getCharset()), config, names);
+        if (header != null) {
+            write(writer, header);
+        }
+        return writer;
+    }
+
+    /**
+     * ランをマージして出力する。
+     * <p/>
+     * ランの数がマージの幅を超える場合は、隣り合うランを幅ごとにマージしたランを作成することを繰り返す。
+     * 隣り合うランをマージするため、キーが等しいレコードの順序は保たれる。
+     *
+     * @param runs ラン(入力の順。マージ後のランに置き換える)
+     * @param sink 出力先
+     */
+    private void merge(final List<SortedRun> runs, final RecordSink sink) {
+        while (runs.size() > mergeWidth) {
+            final List<SortedRun> next = new ArrayList<SortedRun>();
+            try {
+                for (int i = 0; i < runs.size(); i += mergeWidth) {
+                    final List<SortedRun> group = runs.subList(i, Math.min(i + mergeWidth, runs.size()));
+                    if (group.size() == 1) {
+                        next.add(group.get(0));
+                        continue;
+                    }
+                    final SortedRun.Writer writer = SortedRun.create(tempDirectory);
+                    try {
+                        mergeOnce(group, new RunSink(writer));
+                    } catch (RuntimeException e) {
+                        writer.close();
+                        throw e;
+                    }
+                    next.add(writer.finish());
+                }
+            } catch (RuntimeException e) {
+                for (SortedRun run : next) {
+                    run.delete();
+                }
+                throw e;
+            }
+            for (SortedRun run : runs) {
+                if (!next.contains(run)) {
+                    run.delete();
+                }
+            }
+            runs.clear();
+            runs.addAll(next);
+        }
+        mergeOnce(runs, sink);
+    }
+
+    /**
+     * ランをヒープでマージする。
+     *
+     * @param runs ラン(入力の順)
+     * @param sink 出力先
+     */
+    private void mergeOnce(final List<SortedRun> runs, final RecordSink sink) {
+        final PriorityQueue<RunCursor> heap = new PriorityQueue<RunCursor>(runs.size(), new Comparator<RunCursor>() {
+            @Override
+            public int compare(final RunCursor o1, final RunCursor o2) {
+                final int result = compareKeys(o1.keys, o2.keys);
+                return result != 0 ? result : o1.order - o2.order;
+            }
+        });
+        final List<SortedRun.Reader> readers = new ArrayList<SortedRun.Reader>(runs.size());
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                final SortedRun.Reader reader = runs.get(i).open();
+                readers.add(reader);
+                final RunCursor cursor = new RunCursor(reader, i);
+                if (cursor.next()) {
+                    heap.add(cursor);
+                }
+            }
+            while (!heap.isEmpty()) {
+                final RunCursor cursor = heap.poll();
+                sink.write(cursor.record);
+                if (cursor.next()) {
+                    heap.add(cursor);
+                }
+            }
+        } finally {
+            for (SortedRun.Reader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * レコードからソートキーの値を取り出す。
+     *
+     * @param record レコード
+     * @param lineNumber 行番号
+     * @return ソートキーの値
+     * @throws InvalidDataFormatException 数値のキーが数値として解釈できない場合
+     */
+    private Object[] extractKeys(final String[] record, final long lineNumber) {
+        final Object[] values = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            try {
+                values[i] = keys[i].extract(record);
+            } catch (NumberFormatException e) {
+                throw new InvalidDataFormatException("sort key must be number. column = [" + keys[i].getColumn() + "],"
+                        + " value = [" + record[keys[i].getColumn()] + "].", lineNumber);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * ソートキーの値を優先順に比較する。
+     *
+     * @param o1 ソートキーの値
+     * @param o2 ソートキーの値
+     * @return 比較結果
+     */
+    private int compareKeys(final Object[] o1, final Object[] o2) {
+        for (int i = 0; i < keys.length; i++) {
+            final int result = keys[i].compare(o1[i], o2[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * レコードのメモリ上のおおよそのバイト数を見積もる。
+     *
+     * @param record レコード
+     * @return バイト数
+     */
+    private long estimateSize(final String[] record) {
+        // エントリ、配列及びキーの値のオブジェクトのヘッダと参照
+        long size = 32L + 16L + record.length * 4L + 16L + keys.length * 28L;
+        for (String field : record) {
+            if (field != null) {
+                // Stringとchar配列のヘッダ及び文字
+                size += 40L + field.length() * 2L;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * {@link CsvDataWriter}にレコードを書き込む。
+     *
+     * @param writer {@link CsvDataWriter}
+     * @param record レコード
+     */
+    private static void write(final CsvDataWriter writer, final String[] record) {
+        try {
+            writer.write(record);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write csv.", e);
+        }
+    }
+
+    /**
+     * 例外を送出せずにリソースを閉じる。
+     *
+     * @param closeable リソース
+     */
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // 処理結果には影響しないため無視する
+        }
+    }
+
+    /**
+     * レコードの読み込みと、ランの作成を行うクラス。
+     */
+    private final class RunGenerator {
+
+        /** ヘッダ行 */
+        private String[] header;
+
+        /** 読み込んだレコード数 */
+        private long recordCount;
+
+        /** レコードの要素数の最大値 */
+        private int maxFieldCount;
+
+        /** 全てのレコードがメモリに収まった場合の、ソート済みのレコード(ランを作成した場合は{@code null}) */
+        private List<SortEntry> chunk;
+
+        /** 作成中または作成済みのラン(入力の順) */
+        private final List<Future<SortedRun>> runs = new ArrayList<Future<SortedRun>>();
+
+        /** ランを作成するスレッド(並列度が1の場合は{@code null}) */
+        private ExecutorService executor;
+
+        /**
+         * レコードを全て読み込み、メモリの上限ごとにソートしたランを作成する。
+         *
+         * @param scanner レコードを読み込む{@link CsvRecordScanner}
+         */
+        private void read(final CsvRecordScanner scanner) {
+            header = scanner.getHeader();
+            // 読み込み中の1チャンクと、各スレッドがソート中のチャンクで上限を分け合う
+            final long chunkLimit = memoryLimit / (parallelism == 1 ? 1 : parallelism + 1);
+            List<SortEntry> entries = new ArrayList<SortEntry>();
+            long bytes = 0L;
+            String[] record;
+            while ((record = scanner.read()) != null) {
+                entries.add(new SortEntry(record, extractKeys(record, scanner.getLineNumber())));
+                recordCount++;
+                maxFieldCount = Math.max(maxFieldCount, record.length);
+                bytes += estimateSize(record);
+                if (bytes >= chunkLimit) {
+                    submit(entries);
+                    entries = new ArrayList<SortEntry>();
+                    bytes = 0L;
+                }
+            }
+            if (runs.isEmpty()) {
+                sortEntries(entries);
+                chunk = entries;
+            } else if (!entries.isEmpty()) {
+                submit(entries);
+            }
+        }
+
+        /**
+         * チャンクをソートしてランに書き出す。
+         * <p/>
+         * 並列度が2以上の場合は、作成中のランが並列度に達している場合のみ、最も古いランの作成を待つ。
+         *
+         * @param entries チャンク
+         */
+        private void submit(final List<SortEntry> entries) {
+            final Callable<SortedRun> task = new Callable<SortedRun>() {
+                @Override
+                public SortedRun call() {
+                    sortEntries(entries);
+                    final SortedRun.Writer writer = SortedRun.create(tempDirectory);
+                    try {
+                        for (SortEntry entry : entries) {
+                            writer.write(entry.record);
+                        }
+                    } catch (RuntimeException e) {
+                        writer.close();
+                        throw e;
+                    }
+                    return writer.finish();
+                }
+            };
+            if (parallelism == 1) {
+                final FutureTask<SortedRun> run = new FutureTask<SortedRun>(task);
+                runs.add(run);
+                run.run();
+                await(run);
+                return;
+            }
+            if (executor == null) {
+                executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "csv-sorter");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+            int running = 0;
+            for (Future<SortedRun> run : runs) {
+                if (!run.isDone()) {
+                    running++;
+                }
+            }
+            if (running >= parallelism) {
+                for (Future<SortedRun> run : runs) {
+                    if (!run.isDone()) {
+                        await(run);
+                        break;
+                    }
+                }
+            }
+            runs.add(executor.submit(task));
+        }
+
+        /**
+         * 全てのランの作成を待つ。
+         *
+         * @return ラン(入力の順)
+         */
+        private List<SortedRun> awaitRuns() {
+            final List<SortedRun> result = new ArrayList<SortedRun>(runs.size());
+            for (Future<SortedRun> run : runs) {
+                result.add(await(run));
+            }
+            return result;
+        }
+
+        /**
+         * 一時ファイルを削除し、スレッドを終了する。
+         * <p/>
+         * 作成中のランは、作成の完了を待ってから削除する。
+         */
+        private void cleanUp() {
+            for (Future<SortedRun> run : runs) {
+                try {
+                    await(run).delete();
+                } catch (RuntimeException ignored) {
+                    // 作成に失敗したランの一時ファイルは削除済み
+                }
+            }
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * チャンクをソートキーでソートする。
+     * <p/>
+     * {@link Collections#sort(List, Comparator)}は安定であるため、キーが等しいレコードは入力の順序を保つ。
+     *
+     * @param entries チャンク
+     */
+    private void sortEntries(final List<SortEntry> entries) {
+        Collections.sort(entries, new Comparator<SortEntry>() {
+            @Override
+            public int compare(final SortEntry o1, final SortEntry o2) {
+                return compareKeys(o1.keys, o2.keys);
+            }
+        });
+    }
+
+    /**
+     * 処理の完了を待ち、処理で送出された例外はそのまま送出する。
+     *
+     * @param future 処理
+     * @param <V> 処理結果の型
+     * @return 処理結果
+     */
+    private static <V> V await(final Future<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while waiting for sorting.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * レコードとソートキーの値。
+     */
+    private static final class SortEntry {
+
+        /** レコード */
+        private final String[] record;
+
+        /** ソートキーの値 */
+        private final Object[] keys;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param record レコード
+         * @param keys ソートキーの値
+         */
+        private SortEntry(final String[] record, final Object[] keys) {
+            this.record = record;
+            this.keys = keys;
+        }
+    }
+
+    /**
+     * マージ中のランの読み込み位置。
+     */
+    private final class RunCursor {
+
+        /** ランを読み込む{@link SortedRun.Reader} */
+        private final SortedRun.Reader reader;
+
+        /** ランの順序(キーが等しい場合に入力の順序を保つために使用する) */
+        private final int order;
+
+        /** 現在のレコード */
+        private String[] record;
+
+        /** 現在のレコードのソートキーの値 */
+        private Object[] keys;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param reader ランを読み込む{@link SortedRun.Reader}
+         * @param order ランの順序
+         */
+        private RunCursor(final SortedRun.Reader reader, final int order) {
+            this.reader = reader;
+            this.order = order;
+        }
+
+        /**
+         * 次のレコードに進む。
+         *
+         * @return 次のレコードが存在する場合は{@code true}
+         */
+        private boolean next() {
+            record = reader.read();
+            if (record == null) {
+                return false;
+            }
+            // ランにはソートキーの値を書き出していないため再度変換する。
+            // ランに書き出す前に検証済みのため、行番号は使用されない
+            keys = extractKeys(record, 0L);
+            return true;
+        }
+    }
+
+    /**
+     * マージしたレコードの出力先。
+     */
+    private interface RecordSink {
+
+        /**
+         * レコードを出力する。
+         *
+         * @param record レコード
+         */
+        void write(String[] record);
+    }
+
+    /**
+     * {@link CsvDataWriter}に出力する{@link RecordSink}。
+     */
+    private static final class WriterSink implements RecordSink {
+
+        /** 出力先 */
+        private final CsvDataWriter writer;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param writer 出力先
+         */
+        private WriterSink(final CsvDataWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(final String[] record) {
+            CsvSorter.write(writer, record);
+        }
+    }
+
+    /**
+     * ランに出力する{@link RecordSink}。
+     */
+    private static final class RunSink implements RecordSink {
+
+        /** 出力先 */
+        private final SortedRun.Writer writer;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param writer 出力先
+         */
+        private RunSink(final SortedRun.Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(final String[] record) {
+            writer.write(record);
+        }
+    }
+}
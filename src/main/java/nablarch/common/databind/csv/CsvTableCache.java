@@ -0,0 +1,517 @@
+package nablarch.common.databind.csv;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * CSVファイルから構築したテーブルを、ファイルごとにキャッシュするクラス。
+ * <p/>
+ * テーブルは{@link CsvTableLoader}で構築し、ファイルの絶対パスと{@link CsvTableLoader}の組をキーとして保持する。
+ * {@link CsvMasterTable}を使用する場合は、{@link #getMasterTable(File, Class, String)}を使用する。
+ * <pre>
+ * {@code
+ * CsvMasterTable<Item> items = cache.getMasterTable(new File("item.csv"), Item.class, "itemCode");
+ * Item item = items.get(1001L);
+ * }
+ * </pre>
+ * 取得時に、前回の確認から{@link #setCheckIntervalMillis(long) 確認間隔}が経過している場合は、
+ * ファイルのサイズと最終更新日時を確認する。
+ * 変更されている場合は、テーブルの再構築をバックグラウンドで行い、構築が完了した時点で参照を差し替える。
+ * 再構築中の取得では差し替え前のテーブルを返すため、取得処理が再構築を待つことはない。
+ * 再構築に失敗した場合は、ワーニングログを出力し、差し替え前のテーブルを使用し続ける。
+ * 初回の取得のみ、構築が完了するまで待つ。
+ * <p/>
+ * 保持しているテーブルの合計バイト数が{@link #setMaxBytes(long) 上限}を超えた場合は、
+ * 最後に取得された日時が古いテーブルから破棄する。破棄したテーブルは、次の取得時に再度構築する。
+ * <p/>
+ * 本クラスはスレッドセーフである。取得したテーブルは変更しないこと。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class CsvTableCache {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(CsvTableCache.class);
+
+    /** ファイルとローダの組ごとのエントリ */
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<Key, Entry>();
+
+    /** 保持しているテーブルの合計バイト数(更新時は{@code this}で同期する) */
+    private volatile long totalBytes;
+
+    /** 保持するテーブルの合計バイト数の上限 */
+    private long maxBytes = 256L * 1024 * 1024;
+
+    /** ファイルの変更を確認する間隔(ミリ秒) */
+    private long checkIntervalMillis = 1000L;
+
+    /** 再構築を行う{@link Executor} */
+    private Executor executor;
+
+    /**
+     * 保持するテーブルの合計バイト数の上限を設定する。
+     * <p/>
+     * デフォルトは256MB。
+     *
+     * @param maxBytes 合計バイト数の上限
+     */
+    public void setMaxBytes(final long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("max bytes must be greater than 0. max bytes = [" + maxBytes + ']');
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * ファイルの変更を確認する間隔(ミリ秒)を設定する。
+     * <p/>
+     * デフォルトは1000ミリ秒。{@code 0}を設定した場合は、取得のたびに確認する。
+     *
+     * @param checkIntervalMillis 確認する間隔(ミリ秒)
+     */
+    public void setCheckIntervalMillis(final long checkIntervalMillis) {
+        if (checkIntervalMillis < 0) {
+            throw new IllegalArgumentException("check interval must not be negative."
+                    + " check interval = [" + checkIntervalMillis + ']');
+        }
+        this.checkIntervalMillis = checkIntervalMillis;
+    }
+
+    /**
+     * 再構築を行う{@link Executor}を設定する。
+     * <p/>
+     * 設定しない場合は、デーモンスレッド1つで再構築を行う。
+     *
+     * @param executor 再構築を行う{@link Executor}
+     */
+    public void setExecutor(final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 再構築を行う{@link Executor}を取得する。
+     *
+     * @return 再構築を行う{@link Executor}
+     */
+    private synchronized Executor getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "csv-table-cache-reloader");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * CSVファイルを{@link CsvMasterTable}として読み込んだテーブルを取得する。
+     *
+     * @param file CSVファイル
+     * @param clazz Beanのクラス
+     * @param keyProperty キーとするプロパティ名
+     * @param <T> Beanの型
+     * @return テーブル
+     * @see CsvMasterTable#load(Class, java.io.InputStream, String)
+     */
+    public <T> CsvMasterTable<T> getMasterTable(final File file, final Class<T> clazz, final String keyProperty) {
+        return get(file, new MasterTableLoader<T>(clazz, keyProperty));
+    }
+
+    /**
+     * CSVファイルから構築したテーブルを取得する。
+     * <p/>
+     * 保持していない場合は、{@link CsvTableLoader#load(File)}で構築する。
+     * 保持している場合は、保持しているテーブルを返す。ファイルが変更されている場合は、バックグラウンドで再構築を開始する。
+     *
+     * @param file CSVファイル
+     * @param loader テーブルを構築する{@link CsvTableLoader}
+     * @param <V> テーブルの型
+     * @return テーブル
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(final File file, final CsvTableLoader<V> loader) {
+        final Key key = new Key(file.getAbsoluteFile(), loader);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            final Entry created = new Entry(key);
+            entry = entries.putIfAbsent(key, created);
+            if (entry == null) {
+                entry = created;
+            }
+        }
+        Loaded loaded = entry.current.get();
+        if (loaded == null) {
+            loaded = loadInitial(entry);
+        } else {
+            reloadIfModified(entry, loaded);
+        }
+        entry.lastAccess = System.nanoTime();
+        return (V) loaded.table;
+    }
+
+    /**
+     * 初回のテーブルを構築する。
+     * <p/>
+     * 同じエントリに対する構築は1回のみ行い、他のスレッドは構築の完了を待つ。
+     *
+     * @param entry エントリ
+     * @return 構築したテーブル
+     */
+    private Loaded loadInitial(final Entry entry) {
+        synchronized (entry) {
+            Loaded loaded = entry.current.get();
+            if (loaded == null) {
+                loaded = load(entry.key);
+                entry.lastChecked = System.currentTimeMillis();
+                publish(entry, loaded);
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * ファイルが変更されている場合は、バックグラウンドで再構築を開始する。
+     * <p/>
+     * 確認間隔が経過していない場合、既に再構築中の場合は何もしない。
+     *
+     * @param entry エントリ
+     * @param loaded 保持しているテーブル
+     */
+    private void reloadIfModified(final Entry entry, final Loaded loaded) {
+        final long now = System.currentTimeMillis();
+        if (now - entry.lastChecked < checkIntervalMillis) {
+            return;
+        }
+        entry.lastChecked = now;
+        final File file = entry.key.file;
+        if (file.length() == loaded.length && file.lastModified() == loaded.lastModified) {
+            return;
+        }
+        if (!entry.reloading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        publish(entry, load(entry.key));
+                    } catch (RuntimeException e) {
+                        LOGGER.logWarn("failed to reload csv table. file = [" + file + ']', e);
+                    } finally {
+                        entry.reloading.set(false);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            entry.reloading.set(false);
+            LOGGER.logWarn("failed to start reloading csv table. file = [" + file + ']', e);
+        }
+    }
+
+    /**
+     * テーブルを構築する。
+     * <p/>
+     * 構築中にファイルが変更された場合に次回の確認で再構築されるよう、サイズと最終更新日時は構築前に取得する。
+     *
+     * @param key キー
+     * @return 構築したテーブル
+     */
+    @SuppressWarnings("unchecked")
+    private static Loaded load(final Key key) {
+        final long length = key.file.length();
+        final long lastModified = key.file.lastModified();
+        final CsvTableLoader<Object> loader = (CsvTableLoader<Object>) key.loader;
+        final Object table = loader.load(key.file);
+        return new Loaded(table, length, lastModified, loader.sizeOf(table));
+    }
+
+    /**
+     * 構築したテーブルに参照を差し替え、上限を超えた場合はテーブルを破棄する。
+     * <p/>
+     * 構築中にエントリが破棄された場合は、差し替えない。
+     *
+     * @param entry エントリ
+     * @param loaded 構築したテーブル
+     */
+    private synchronized void publish(final Entry entry, final Loaded loaded) {
+        if (entries.get(entry.key) != entry) {
+            return;
+        }
+        final Loaded old = entry.current.getAndSet(loaded);
+        totalBytes += loaded.bytes - (old == null ? 0L : old.bytes);
+        evict(entry);
+    }
+
+    /**
+     * 合計バイト数が上限以下となるまで、最後に取得された日時が古いテーブルから破棄する。
+     *
+     * @param keep 破棄しないエントリ
+     */
+    private void evict(final Entry keep) {
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+        final List<Entry> candidates = new ArrayList<Entry>(entries.values());
+        Collections.sort(candidates, new Comparator<Entry>() {
+            @Override
+            public int compare(final Entry o1, final Entry o2) {
+                final long diff = o1.lastAccess - o2.lastAccess;
+                return diff < 0 ? -1 : diff == 0 ? 0 : 1;
+            }
+        });
+        for (Entry candidate : candidates) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            if (candidate != keep) {
+                remove(candidate);
+            }
+        }
+    }
+
+    /**
+     * エントリを破棄する。
+     *
+     * @param entry エントリ
+     */
+    private void remove(final Entry entry) {
+        if (entries.remove(entry.key, entry)) {
+            final Loaded loaded = entry.current.get();
+            if (loaded != null) {
+                totalBytes -= loaded.bytes;
+            }
+        }
+    }
+
+    /**
+     * CSVファイルから構築したテーブルを全て破棄する。
+     *
+     * @param file CSVファイル
+     */
+    public synchronized void invalidate(final File file) {
+        final File absoluteFile = file.getAbsoluteFile();
+        for (Entry entry : entries.values()) {
+            if (entry.key.file.equals(absoluteFile)) {
+                remove(entry);
+            }
+        }
+    }
+
+    /**
+     * 全てのテーブルを破棄する。
+     */
+    public synchronized void clear() {
+        for (Entry entry : entries.values()) {
+            remove(entry);
+        }
+    }
+
+    /**
+     * 保持しているテーブルの数を取得する。
+     *
+     * @return テーブルの数
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 保持しているテーブルの合計バイト数を取得する。
+     *
+     * @return 合計バイト数
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "CsvTableCache{size=" + size()
+                + ", totalBytes=" + totalBytes
+                + ", maxBytes=" + maxBytes
+                + ", checkIntervalMillis=" + checkIntervalMillis
+                + '}';
+    }
+
+    /**
+     * ファイルとローダの組。
+     */
+    private static final class Key {
+
+        /** ファイル(絶対パス) */
+        private final File file;
+
+        /** ローダ */
+        private final CsvTableLoader<?> loader;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param file ファイル(絶対パス)
+         * @param loader ローダ
+         */
+        private Key(final File file, final CsvTableLoader<?> loader) {
+            this.file = file;
+            this.loader = loader;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return file.equals(other.file) && loader.equals(other.loader);
+        }
+
+        @Override
+        public int hashCode() {
+            return file.hashCode() * 31 + loader.hashCode();
+        }
+    }
+
+    /**
+     * キャッシュのエントリ。
+     */
+    private static final class Entry {
+
+        /** キー */
+        private final Key key;
+
+        /** 公開しているテーブル */
+        private final AtomicReference<Loaded> current = new AtomicReference<Loaded>();
+
+        /** 再構築中か否か */
+        private final AtomicBoolean reloading = new AtomicBoolean();
+
+        /** 最後に取得された日時({@link System#nanoTime()}) */
+        private volatile long lastAccess;
+
+        /** 最後にファイルの変更を確認した日時(ミリ秒) */
+        private volatile long lastChecked;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param key キー
+         */
+        private Entry(final Key key) {
+            this.key = key;
+            lastAccess = System.nanoTime();
+        }
+    }
+
+    /**
+     * 構築したテーブルと、構築時のファイルの状態。
+     */
+    private static final class Loaded {
+
+        /** テーブル */
+        private final Object table;
+
+        /** 構築時のファイルのサイズ */
+        private final long length;
+
+        /** 構築時のファイルの最終更新日時 */
+        private final long lastModified;
+
+        /** テーブルのバイト数 */
+        private final long bytes;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param table テーブル
+         * @param length ファイルのサイズ
+         * @param lastModified ファイルの最終更新日時
+         * @param bytes テーブルのバイト数
+         */
+        private Loaded(final Object table, final long length, final long lastModified, final long bytes) {
+            this.table = table;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * {@link CsvMasterTable}を構築する{@link CsvTableLoader}。
+     *
+     * @param <T> Beanの型
+     */
+    private static final class MasterTableLoader<T> implements CsvTableLoader<CsvMasterTable<T>> {
+
+        /** Beanのクラス */
+        private final Class<T> clazz;
+
+        /** キーとするプロパティ名 */
+        private final String keyProperty;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param clazz Beanのクラス
+         * @param keyProperty キーとするプロパティ名
+         */
+        private MasterTableLoader(final Class<T> clazz, final String keyProperty) {
+            this.clazz = clazz;
+            this.keyProperty = keyProperty;
+        }
+
+        @Override
+        public CsvMasterTable<T> load(final File file) {
+            try {
+                return CsvMasterTable.load(clazz, new FileInputStream(file), keyProperty);
+            } catch (FileNotFoundException e) {
+                throw new RuntimeException("failed to open file. file = [" + file + ']', e);
+            }
+        }
+
+        @Override
+        public long sizeOf(final CsvMasterTable<T> table) {
+            return table.getMemoryBytes();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MasterTableLoader)) {
+                return false;
+            }
+            final MasterTableLoader<?> other = (MasterTableLoader<?>) o;
+            return clazz.equals(other.clazz) && keyProperty.equals(other.keyProperty);
+        }
+
+        @Override
+        public int hashCode() {
+            return clazz.hashCode() * 31 + keyProperty.hashCode();
+        }
+    }
+}
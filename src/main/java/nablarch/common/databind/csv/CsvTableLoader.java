@@ -0,0 +1,35 @@
+package nablarch.common.databind.csv;
+
+import java.io.File;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link CsvTableCache}に格納するテーブルを、CSVファイルから構築するインタフェース。
+ * <p/>
+ * {@link CsvTableCache}は、ファイルと本インタフェースの組をキーとしてテーブルを保持する。
+ * このため、実装クラスは構築するテーブルが同じになる場合に等しくなるよう、
+ * {@link Object#equals(Object)}と{@link Object#hashCode()}を実装すること。
+ *
+ * @param <V> テーブルの型
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public interface CsvTableLoader<V> {
+
+    /**
+     * CSVファイルからテーブルを構築する。
+     *
+     * @param file CSVファイル
+     * @return テーブル
+     */
+    V load(File file);
+
+    /**
+     * テーブルが使用するメモリのおおよそのバイト数を返す。
+     *
+     * @param table テーブル
+     * @return バイト数
+     */
+    long sizeOf(V table);
+}
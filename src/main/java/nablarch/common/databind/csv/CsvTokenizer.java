@@ -5,7 +5,11 @@ import java.io.IOException;
 import java.io.Reader;
 import java.nio.CharBuffer;
 
+import nablarch.common.databind.CharBufferPool;
 import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ReadPosition;
+import nablarch.common.databind.metrics.MapperMetrics;
+import nablarch.common.databind.metrics.ReadProgress;
 
 /**
  * CSVの各要素を分解するクラス
@@ -40,11 +44,13 @@ class CsvTokenizer {
 
     /**
      * コンストラクタ。
+     * <p/>
+     * {@code reader}は内部でバッファリングするため、{@link BufferedReader}でラップする必要はない。
      *
-     * @param reader 解析対象CSVの{@link BufferedReader}
+     * @param reader 解析対象CSVの{@link Reader}
      * @param format CSVの形式を表す{@link CsvDataBindConfig}
      */
-    public CsvTokenizer(final BufferedReader reader, final CsvDataBindConfig format) {
+    public CsvTokenizer(final Reader reader, final CsvDataBindConfig format) {
         this.reader = new ExtendedReader(reader);
         this.format = format;
     }
@@ -241,6 +247,75 @@ class CsvTokenizer {
         return reader.getLineNumber();
     }
 
+    /**
+     * メトリクスの収集先を設定する。
+     * <p/>
+     * 設定した場合、処理時間の計測中はバッファへの読み込み時間をI/Oの処理時間として加算する。
+     *
+     * @param metrics メトリクスの収集先
+     */
+    void setMetrics(final MapperMetrics metrics) {
+        reader.metrics = metrics;
+    }
+
+    /**
+     * 進捗の通知先を設定する。
+     * <p/>
+     * 読み込んだ文字数は、バッファへの補充ごとに加算する。
+     * 設定前(ヘッダーの読み込み時など)に補充した文字数は、設定時にまとめて加算する。
+     *
+     * @param progress 進捗の通知先
+     */
+    void setProgress(final ReadProgress progress) {
+        reader.progress = progress;
+        progress.addChars(reader.filledChars);
+    }
+
+    /**
+     * 指定された位置から読み込みを開始し、以降の読み込み位置をバイト単位で追跡する。
+     * <p/>
+     * 読み込みを開始する前に呼び出すこと。
+     *
+     * @param position 読み込みを開始する位置
+     * @param counter 読み込んだ文字のバイト数を数える{@link CharByteCounter}
+     */
+    void startAt(final ReadPosition position, final CharByteCounter counter) {
+        reader.lineNumber = position.getLineNumber();
+        reader.byteOffset = position.getByteOffset();
+        reader.byteCounter = counter;
+    }
+
+    /**
+     * 読み込み済みの文字の終端のバイト位置を返す。
+     * <p/>
+     * {@link #startAt(ReadPosition, CharByteCounter)}で追跡を開始している場合のみ使用できる。
+     *
+     * @return ファイルの先頭からのバイト位置
+     */
+    long getByteOffset() {
+        return reader.getByteOffset();
+    }
+
+    /**
+     * 次に読み込む行の行番号を返す。
+     *
+     * @return 行番号
+     */
+    long getNextLineNumber() {
+        return reader.lineNumber;
+    }
+
+    /**
+     * 解析対象のCSVを閉じる。
+     * <p/>
+     * 内部で使用していたバッファはプールに返却する。
+     *
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    public void close() throws IOException {
+        reader.close();
+    }
+
     /**
      * ファイル内のレコード番号を管理するための{@link BufferedReader}拡張クラス。
      * <p/>
@@ -248,6 +323,9 @@ class CsvTokenizer {
      * このクラスは改行文字を全てLF(\n)に変換してしまう。
      * このため、本クラスにて改行コードを変換せずにレコード番号を管理できる機能を実現する。
      * <p/>
+     * 読み込みには{@link CharBufferPool}から借り受けたバッファを使用し、{@link #close()}で返却する。
+     * このため、{@link BufferedReader}としてのバッファは使用しない。
+     * <p/>
      * 本機能は、以下のメソッドはサポートしない。
      * <ul>
      * <li>{@link #readLine()}</li>
@@ -255,23 +333,58 @@ class CsvTokenizer {
      * <li>{@link #read(char[])}</li>
      * <li>{@link #read(CharBuffer)}</li>
      * <li>{@link #skip(long)}</li>
+     * <li>{@link #mark(int)}</li>
+     * <li>{@link #reset()}</li>
      * </ul>
      */
     private static class ExtendedReader extends BufferedReader {
 
+        /** 読み込み元の{@link Reader} */
+        private final Reader source;
+
+        /** プールから借り受けたバッファ(閉じられている場合は{@code null}) */
+        private char[] buffer;
+
+        /** バッファ内の次に読み込む位置 */
+        private int position;
+
+        /** バッファ内の有効な文字数 */
+        private int limit;
+
         /** レコード番号 */
         private long lineNumber = 1L;
 
         /** 最後に読み取った文字 */
         private int lastChar = -1;
 
+        /** メトリクスの収集先(収集しない場合は{@code null}) */
+        private MapperMetrics metrics;
+
+        /** 進捗の通知先(通知しない場合は{@code null}) */
+        private ReadProgress progress;
+
+        /** バッファに補充した文字数の合計 */
+        private long filledChars;
+
+        /** 読み込んだ文字のバイト数を数える{@link CharByteCounter}(追跡しない場合は{@code null}) */
+        private CharByteCounter byteCounter;
+
+        /** バイト数を数え終えた文字の終端のバイト位置 */
+        private long byteOffset;
+
+        /** バッファ内のバイト数を数え終えた位置 */
+        private int countedPosition;
+
         /**
          * レコード番号付きリーダを生成する。
          *
          * @param in {@link Reader}
          */
         public ExtendedReader(final Reader in) {
-            super(in);
+            // 親クラスのバッファは使用しないため、最小のサイズを指定する
+            super(in, 1);
+            source = in;
+            buffer = CharBufferPool.getDefault().borrow();
         }
 
         /**
@@ -281,7 +394,10 @@ class CsvTokenizer {
          */
         @Override
         public int read() throws IOException {
-            final int read = super.read();
+            final int read = readNextCharAndReset();
+            if (read != -1) {
+                position++;
+            }
             if (isLineSeparator(read)) {
                 lineNumber++;
             }
@@ -347,6 +463,33 @@ class CsvTokenizer {
             throw new UnsupportedOperationException("unsupported.");
         }
 
+        /**
+         * サポートしません。
+         */
+        @Override
+        public void mark(int readAheadLimit) throws IOException {
+            throw new UnsupportedOperationException("unsupported.");
+        }
+
+        /**
+         * サポートしません。
+         */
+        @Override
+        public void reset() throws IOException {
+            throw new UnsupportedOperationException("unsupported.");
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public boolean ready() throws IOException {
+            ensureOpen();
+            return position < limit || source.ready();
+        }
+
         /**
          * カレントポジションを移動せずに次の一文字をリードする。
          *
@@ -354,10 +497,89 @@ class CsvTokenizer {
          * @throws IOException ファイルアクセスに失敗した場合
          */
         private int readNextCharAndReset() throws IOException {
-            mark(1);
-            final int c = super.read();
-            reset();
-            return c;
+            if (position >= limit && !fill()) {
+                return -1;
+            }
+            return buffer[position];
+        }
+
+        /**
+         * バッファに次の文字列を読み込む。
+         *
+         * @return 読み込めた場合は{@code true}、ファイルの終端に達した場合は{@code false}
+         * @throws IOException ファイルアクセスに失敗した場合
+         */
+        private boolean fill() throws IOException {
+            ensureOpen();
+            if (byteCounter != null) {
+                // バッファを上書きする前に、未集計の文字のバイト数を数える
+                byteOffset += byteCounter.count(buffer, countedPosition, limit - countedPosition);
+                countedPosition = limit;
+            }
+            final boolean timing = metrics != null && metrics.isTiming();
+            final long start = timing ? System.nanoTime() : 0L;
+            int read;
+            do {
+                read = source.read(buffer, 0, buffer.length);
+            } while (read == 0);
+            if (timing) {
+                metrics.addIoNanos(System.nanoTime() - start);
+            }
+            if (read == -1) {
+                return false;
+            }
+            filledChars += read;
+            if (progress != null) {
+                progress.addChars(read);
+            }
+            position = 0;
+            limit = read;
+            countedPosition = 0;
+            return true;
+        }
+
+        /**
+         * 読み込み済みの文字の終端のバイト位置を返す。
+         *
+         * @return ファイルの先頭からのバイト位置
+         */
+        private long getByteOffset() {
+            byteOffset += byteCounter.count(buffer, countedPosition, position - countedPosition);
+            countedPosition = position;
+            return byteOffset;
+        }
+
+        /**
+         * リーダが閉じられていないことを確認する。
+         *
+         * @throws IOException 閉じられている場合
+         */
+        private void ensureOpen() throws IOException {
+            if (buffer == null) {
+                throw new IOException("Stream closed");
+            }
+        }
+
+        /**
+         * リーダを閉じ、バッファをプールに返却する。
+         * <p/>
+         * 既に閉じられている場合は何もしない。
+         */
+        @Override
+        public void close() throws IOException {
+            final char[] released = buffer;
+            if (released == null) {
+                return;
+            }
+            buffer = null;
+            position = 0;
+            limit = 0;
+            countedPosition = 0;
+            try {
+                source.close();
+            } finally {
+                CharBufferPool.getDefault().release(released);
+            }
         }
 
         /**
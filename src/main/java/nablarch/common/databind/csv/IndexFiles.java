@@ -0,0 +1,54 @@
+package nablarch.common.databind.csv;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 索引ファイルの作成と置き換えを行うユーティリティ。
+ * <p/>
+ * 索引ファイルは、同じディレクトリの一時ファイルに書き出してから名前を変更して置き換える。
+ * 置き換え前の索引ファイルを読み込んでいる他のインスタンスやプロセスは、置き換え後も元の内容を参照し続ける。
+ *
+ * @author Hisaaki Shioiri
+ */
+final class IndexFiles {
+
+    /**
+     * 隠蔽コンストラクタ。
+     */
+    private IndexFiles() {
+    }
+
+    /**
+     * 索引ファイルと同じディレクトリに一時ファイルを作成する。
+     *
+     * @param indexFile 索引ファイル
+     * @return 一時ファイル
+     */
+    static File createTempFile(final File indexFile) {
+        final File directory = indexFile.getAbsoluteFile().getParentFile();
+        try {
+            return File.createTempFile(indexFile.getName(), ".tmp", directory);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to create temporary file. directory = [" + directory + ']', e);
+        }
+    }
+
+    /**
+     * 一時ファイルの名前を変更して、索引ファイルを置き換える。
+     * <p/>
+     * 名前の変更で既存のファイルを置き換えられない環境では、既存の索引ファイルを削除してから名前を変更する。
+     *
+     * @param tempFile 一時ファイル
+     * @param indexFile 索引ファイル
+     */
+    static void replace(final File tempFile, final File indexFile) {
+        if (tempFile.renameTo(indexFile)) {
+            return;
+        }
+        if (indexFile.delete() && tempFile.renameTo(indexFile)) {
+            return;
+        }
+        throw new RuntimeException("failed to replace index file. file = [" + indexFile + ']');
+    }
+}
@@ -0,0 +1,184 @@
+package nablarch.common.databind.csv;
+
+/**
+ * {@code long}の値を、ボクシングせずに保持する集合。
+ * <p/>
+ * オープンアドレス法(線形探索)で実装し、値は{@code long}の配列に格納する。
+ * 配列の未使用の要素は{@code 0}で表すため、値{@code 0}は配列とは別に保持する。要素の削除はサポートしない。
+ *
+ * @author Hisaaki Shioiri
+ */
+final class LongHashSet {
+
+    /** 使用率の上限 */
+    private static final double LOAD_FACTOR = 0.6;
+
+    /** 値({@code 0}は未使用) */
+    private long[] values;
+
+    /** 値{@code 0}を保持しているか否か */
+    private boolean containsZero;
+
+    /** 登録済みの要素数 */
+    private int size;
+
+    /** 拡張する要素数 */
+    private int threshold;
+
+    /**
+     * 指定された要素数を拡張せずに格納できる集合を生成する。
+     *
+     * @param expectedSize 格納する要素数の見込み
+     */
+    LongHashSet(final int expectedSize) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * 配列を確保する。
+     *
+     * @param capacity 要素数(2のべき乗)
+     */
+    private void allocate(final int capacity) {
+        values = new long[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * 値を追加する。
+     *
+     * @param value 値
+     * @return 追加した場合は{@code true}(既に保持していた場合は{@code false})
+     */
+    boolean add(final long value) {
+        if (value == 0L) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int slot = slotOf(value);
+        while (values[slot] != 0L) {
+            if (values[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & (values.length - 1);
+        }
+        values[slot] = value;
+        if (++size > threshold) {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * 値を保持しているか否かを返す。
+     *
+     * @param value 値
+     * @return 保持している場合は{@code true}
+     */
+    boolean contains(final long value) {
+        if (value == 0L) {
+            return containsZero;
+        }
+        int slot = slotOf(value);
+        while (values[slot] != 0L) {
+            if (values[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & (values.length - 1);
+        }
+        return false;
+    }
+
+    /**
+     * 登録済みの要素数を返す。
+     *
+     * @return 要素数
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * 次に要素を追加した場合に、配列を拡張するか否かを返す。
+     *
+     * @return 拡張する場合は{@code true}
+     */
+    boolean isFull() {
+        return size == threshold;
+    }
+
+    /**
+     * 保持している配列のバイト数を返す。
+     *
+     * @return バイト数
+     */
+    long getMemoryBytes() {
+        return values.length * 8L;
+    }
+
+    /**
+     * 拡張した後の配列のバイト数を返す。
+     *
+     * @return バイト数
+     */
+    long getGrownMemoryBytes() {
+        return values.length * 16L;
+    }
+
+    /**
+     * 保持している値を全て取り出す。順序は不定。
+     *
+     * @return 値の配列
+     */
+    long[] toArray() {
+        final long[] result = new long[size];
+        int index = 0;
+        if (containsZero) {
+            result[index++] = 0L;
+        }
+        for (long value : values) {
+            if (value != 0L) {
+                result[index++] = value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 配列の要素数を2倍にして、全ての要素を登録し直す。
+     */
+    private void rehash() {
+        final long[] oldValues = values;
+        allocate(oldValues.length << 1);
+        for (long value : oldValues) {
+            if (value != 0L) {
+                int slot = slotOf(value);
+                while (values[slot] != 0L) {
+                    slot = (slot + 1) & (values.length - 1);
+                }
+                values[slot] = value;
+            }
+        }
+    }
+
+    /**
+     * 値から探索を開始する要素の位置を求める。
+     * <p/>
+     * 連番の値が隣接する要素に集中しないよう、黄金比に基づく乗数で攪拌する。
+     *
+     * @param value 値
+     * @return 要素の位置
+     */
+    private int slotOf(final long value) {
+        final long h = value * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32)) & (values.length - 1);
+    }
+}
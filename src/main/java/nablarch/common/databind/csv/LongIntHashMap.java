@@ -0,0 +1,149 @@
+package nablarch.common.databind.csv;
+
+import java.util.Arrays;
+
+/**
+ * {@code long}のキーと{@code int}の値を、ボクシングせずに保持するハッシュ表。
+ * <p/>
+ * オープンアドレス法(線形探索)で実装し、キーと値はそれぞれ{@code long}、{@code int}の配列に格納する。
+ * 値は0以上であること(負の値は未登録を表す)。要素の削除はサポートしない。
+ *
+ * @author Hisaaki Shioiri
+ */
+final class LongIntHashMap {
+
+    /** 未登録を表す値 */
+    static final int NO_VALUE = -1;
+
+    /** 使用率の上限 */
+    private static final double LOAD_FACTOR = 0.6;
+
+    /** キー */
+    private long[] keys;
+
+    /** 値(未使用の要素は{@link #NO_VALUE}) */
+    private int[] values;
+
+    /** 登録済みの要素数 */
+    private int size;
+
+    /** 拡張する要素数 */
+    private int threshold;
+
+    /**
+     * 指定された要素数を拡張せずに格納できるハッシュ表を生成する。
+     *
+     * @param expectedSize 格納する要素数の見込み
+     */
+    LongIntHashMap(final int expectedSize) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * 配列を確保する。
+     *
+     * @param capacity 要素数(2のべき乗)
+     */
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NO_VALUE);
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * キーに値を登録する。
+     * <p/>
+     * 既に登録されている場合は、値を置き換えずに登録済みの値を返す。
+     *
+     * @param key キー
+     * @param value 値(0以上)
+     * @return 登録済みの値(未登録だった場合は{@link #NO_VALUE})
+     */
+    int putIfAbsent(final long key, final int value) {
+        int slot = slotOf(key);
+        while (values[slot] != NO_VALUE) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            rehash();
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * キーに対応する値を取得する。
+     *
+     * @param key キー
+     * @return 値(未登録の場合は{@link #NO_VALUE})
+     */
+    int get(final long key) {
+        int slot = slotOf(key);
+        while (values[slot] != NO_VALUE) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * 登録済みの要素数を返す。
+     *
+     * @return 要素数
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * 保持している配列のおおよそのバイト数を返す。
+     *
+     * @return バイト数
+     */
+    long getMemoryBytes() {
+        return keys.length * 12L;
+    }
+
+    /**
+     * 配列の要素数を2倍にして、全ての要素を登録し直す。
+     */
+    private void rehash() {
+        final long[] oldKeys = keys;
+        final int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != NO_VALUE) {
+                int slot = slotOf(oldKeys[i]);
+                while (values[slot] != NO_VALUE) {
+                    slot = (slot + 1) & (keys.length - 1);
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * キーから探索を開始する要素の位置を求める。
+     * <p/>
+     * 連番のキーが隣接する要素に集中しないよう、黄金比に基づく乗数で攪拌する。
+     *
+     * @param key キー
+     * @return 要素の位置
+     */
+    private int slotOf(final long key) {
+        final long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32)) & (keys.length - 1);
+    }
+}
@@ -0,0 +1,64 @@
+package nablarch.common.databind.csv;
+
+import java.io.Reader;
+
+import nablarch.common.databind.DataBindUtil;
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.core.util.StringUtil;
+
+/**
+ * マルチレイアウトファイルをレコード種別ごとのJava Beanにマッピングするクラス。
+ * <p/>
+ * レコード種別の列までを読み込んだ時点でレイアウトを特定し、レイアウトに対応したBeanに変換する。
+ * レイアウトごとのプロパティ名等は、{@link CsvLayoutMetadata}に事前に解析したものを使用する。
+ *
+ * @param <T> レイアウトに共通する型
+ * @author Hisaaki Shioiri
+ */
+public class MultiLayoutCsvMapper<T> extends CsvObjectMapperSupport<T> {
+
+    /** マルチレイアウトファイルのマッピング情報 */
+    private final CsvLayoutMetadata layouts;
+
+    /** レイアウトごとのBeanのクラス({@link CsvLayoutMetadata}のレイアウトの位置に対応) */
+    private final Class<? extends T>[] layoutClasses;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param clazz レイアウトに共通する型
+     * @param layouts マルチレイアウトファイルのマッピング情報
+     * @param reader リーダー
+     */
+    @SuppressWarnings("unchecked")
+    public MultiLayoutCsvMapper(final Class<T> clazz, final CsvLayoutMetadata layouts, final Reader reader) {
+        super(layouts.getConfig(), reader);
+        this.layouts = layouts;
+        layoutClasses = (Class<? extends T>[]) clazz.getAnnotation(CsvLayouts.class).value();
+    }
+
+    @Override
+    protected String[] readRecord() {
+        return reader.read(layouts);
+    }
+
+    @Override
+    protected T createObject(final String[] record) {
+        // レコード種別からのレイアウトの特定は、読み込み時に済んでいる
+        final int index = reader.getLayoutIndex();
+        if (index == -1) {
+            // 空行を無視しない設定の空行など、レコード種別の列が存在しない行
+            final int recordTypeIndex = layouts.getRecordTypeIndex();
+            final String recordType = record.length > recordTypeIndex ? record[recordTypeIndex] : null;
+            throw new InvalidDataFormatException(
+                    "unknown record type. record type = [" + recordType + "].", reader.getLineNumber());
+        }
+        final CsvMappingMetadata layout = layouts.getLayout(index);
+        final String lineNumberPropertyName = layout.getLineNumberPropertyName();
+        if (StringUtil.isNullOrEmpty(lineNumberPropertyName)) {
+            return DataBindUtil.getInstance(layoutClasses[index], layout.getPropertyNames(), record);
+        }
+        return DataBindUtil.getInstanceWithLineNumber(layoutClasses[index], layout.getPropertyNames(), record,
+                lineNumberPropertyName, reader.getLineNumber());
+    }
+}
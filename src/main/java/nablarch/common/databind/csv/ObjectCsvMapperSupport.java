@@ -1,10 +1,11 @@
 package nablarch.common.databind.csv;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.Writer;
 
 import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.metrics.MapperMetrics;
+import nablarch.common.databind.metrics.MetricsAware;
 import nablarch.core.util.FileUtil;
 
 /**
@@ -13,7 +14,7 @@ import nablarch.core.util.FileUtil;
  * @param <T> マッピング対象のクラス
  * @author Naoki Yamamoto
  */
-public abstract class ObjectCsvMapperSupport<T> implements ObjectMapper<T> {
+public abstract class ObjectCsvMapperSupport<T> implements ObjectMapper<T>, MetricsAware {
 
     /** CSV用の設定情報 */
     protected final CsvDataBindConfig config;
@@ -21,6 +22,9 @@ public abstract class ObjectCsvMapperSupport<T> implements ObjectMapper<T> {
     /** 1レコードずつ書き込むライター */
     private final CsvDataWriter writer;
 
+    /** メトリクスの収集先(収集しない場合は{@code null}) */
+    private MapperMetrics metrics;
+
     /**
      * コンストラクタ。
      *
@@ -30,7 +34,7 @@ public abstract class ObjectCsvMapperSupport<T> implements ObjectMapper<T> {
      */
     public ObjectCsvMapperSupport(final CsvDataBindConfig config, final Writer writer, final String[] properties) {
         this.config = config;
-        this.writer = new CsvDataWriter(toBufferedWriter(writer), config, properties);
+        this.writer = new CsvDataWriter(writer, config, properties);
     }
 
     /**
@@ -47,30 +51,54 @@ public abstract class ObjectCsvMapperSupport<T> implements ObjectMapper<T> {
         }
     }
 
-    /**
-     * {@link BufferedWriter}を生成する。
-     *
-     * @param writer {@link Writer}
-     * @return {@link BufferedWriter}
-     */
-    private static BufferedWriter toBufferedWriter(final Writer writer) {
-        return writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
-    }
-
     @Override
     public T read() {
         throw new UnsupportedOperationException("unsupported read method.");
     }
 
+    @Override
+    public void setMetrics(final MapperMetrics metrics) {
+        this.metrics = metrics;
+        writer.setMetrics(metrics);
+        metrics.open(config);
+    }
+
     @Override
     public void write(T object) {
         try {
-            writer.write(convertValues(object));
+            if (metrics != null) {
+                writeWithMetrics(object);
+            } else {
+                writer.write(convertValues(object));
+            }
         } catch (IOException e) {
             throw new RuntimeException("failed to write.", e);
         }
     }
 
+    /**
+     * メトリクスを収集しながら1レコード書き込む。
+     *
+     * @param object Javaオブジェクト
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private void writeWithMetrics(final T object) throws IOException {
+        metrics.addRecord();
+        if (!metrics.nextSample()) {
+            writer.write(convertValues(object));
+            return;
+        }
+        final long start = metrics.startTiming();
+        try {
+            final Object[] values = convertValues(object);
+            final long converted = System.nanoTime();
+            writer.write(values);
+            metrics.addTiming(start, converted, System.nanoTime());
+        } finally {
+            metrics.stopTiming();
+        }
+    }
+
     /**
      * JavaオブジェクトをCSVに出力するための{@link Object}配列に変換する。
      * <p/>
@@ -87,6 +115,9 @@ public abstract class ObjectCsvMapperSupport<T> implements ObjectMapper<T> {
     @Override
     public void close() {
         FileUtil.closeQuietly(writer);
+        if (metrics != null) {
+            metrics.close();
+        }
     }
 }
 
@@ -0,0 +1,168 @@
+package nablarch.common.databind.csv;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import nablarch.common.databind.CharBufferPool;
+import nablarch.common.databind.metrics.MapperMetrics;
+
+/**
+ * {@link CharBufferPool}から借り受けたバッファを使用する{@link java.io.BufferedWriter}相当のクラス。
+ * <p/>
+ * バッファは{@link #close()}でプールに返却する。
+ * 本クラスはスレッドセーフではない。
+ *
+ * @author Hisaaki Shioiri
+ */
+class PooledBufferedWriter extends Writer {
+
+    /** 出力先の{@link Writer} */
+    private final Writer out;
+
+    /** バッファを借り受けたプール */
+    private final CharBufferPool pool;
+
+    /** プールから借り受けたバッファ(閉じられている場合は{@code null}) */
+    private char[] buffer;
+
+    /** バッファ内の有効な文字数 */
+    private int count;
+
+    /** メトリクスの収集先(収集しない場合は{@code null}) */
+    private MapperMetrics metrics;
+
+    /**
+     * デフォルトのプールを使用する{@code PooledBufferedWriter}を生成する。
+     *
+     * @param out 出力先の{@link Writer}
+     */
+    PooledBufferedWriter(final Writer out) {
+        this(out, CharBufferPool.getDefault());
+    }
+
+    /**
+     * 指定したプールを使用する{@code PooledBufferedWriter}を生成する。
+     *
+     * @param out 出力先の{@link Writer}
+     * @param pool バッファを借り受けるプール
+     */
+    PooledBufferedWriter(final Writer out, final CharBufferPool pool) {
+        super(out);
+        this.out = out;
+        this.pool = pool;
+        buffer = pool.borrow();
+    }
+
+    /**
+     * メトリクスの収集先を設定する。
+     * <p/>
+     * 設定した場合、処理時間の計測中はバッファの書き出し時間をI/Oの処理時間として加算する。
+     *
+     * @param metrics メトリクスの収集先
+     */
+    void setMetrics(final MapperMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void write(final int c) throws IOException {
+        ensureOpen();
+        if (count >= buffer.length) {
+            flushBuffer();
+        }
+        buffer[count++] = (char) c;
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        ensureOpen();
+        if (len >= buffer.length) {
+            // バッファより大きい場合はバッファを経由せずに出力する
+            flushBuffer();
+            out.write(cbuf, off, len);
+            return;
+        }
+        if (len > buffer.length - count) {
+            flushBuffer();
+        }
+        System.arraycopy(cbuf, off, buffer, count, len);
+        count += len;
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        ensureOpen();
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final int size = Math.min(buffer.length - count, remaining);
+            str.getChars(offset, offset + size, buffer, count);
+            count += size;
+            offset += size;
+            remaining -= size;
+            if (count >= buffer.length) {
+                flushBuffer();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * バッファの内容を出力先に書き込む。
+     *
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private void flushBuffer() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        final boolean timing = metrics != null && metrics.isTiming();
+        final long start = timing ? System.nanoTime() : 0L;
+        out.write(buffer, 0, count);
+        count = 0;
+        if (timing) {
+            metrics.addIoNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * ライタが閉じられていないことを確認する。
+     *
+     * @throws IOException 閉じられている場合
+     */
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * バッファの内容を出力してライタを閉じ、バッファをプールに返却する。
+     * <p/>
+     * 既に閉じられている場合は何もしない。
+     */
+    @Override
+    public void close() throws IOException {
+        final char[] released = buffer;
+        if (released == null) {
+            return;
+        }
+        try {
+            flushBuffer();
+        } finally {
+            buffer = null;
+            count = 0;
+            try {
+                out.close();
+            } finally {
+                pool.release(released);
+            }
+        }
+    }
+}
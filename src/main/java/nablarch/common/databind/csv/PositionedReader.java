@@ -0,0 +1,102 @@
+package nablarch.common.databind.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+import nablarch.common.databind.ReadPosition;
+
+/**
+ * 指定された位置から入力ストリームを読み込む{@link Reader}。
+ * <p/>
+ * 生成時に入力ストリームを{@link ReadPosition#getByteOffset()}まで読み飛ばす。
+ * {@link java.io.FileInputStream}の読み飛ばしはファイルのシークとなるため、読み飛ばした範囲は読み込まない。
+ * <p/>
+ * 本クラスから生成した{@link CsvDataReader}は、読み込んだ文字をバイト数に換算して読み込み位置を追跡する。
+ *
+ * @author Hisaaki Shioiri
+ */
+public class PositionedReader extends Reader {
+
+    /** 読み込み元のリーダ */
+    private final Reader reader;
+
+    /** 文字コード */
+    private final Charset charset;
+
+    /** 読み込みを開始した位置 */
+    private final ReadPosition position;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param stream 入力ストリーム(ファイルの先頭を指していること)
+     * @param charset 文字コード
+     * @param position 読み込みを開始する位置
+     * @throws IllegalArgumentException 読み飛ばしの途中で入力ストリームの終端に達した場合
+     */
+    public PositionedReader(final InputStream stream, final Charset charset, final ReadPosition position) {
+        if (position == null) {
+            throw new IllegalArgumentException("position must not be null.");
+        }
+        skipFully(stream, position.getByteOffset());
+        this.reader = new InputStreamReader(stream, charset);
+        this.charset = charset;
+        this.position = position;
+    }
+
+    /**
+     * 入力ストリームを指定されたバイト数だけ読み飛ばす。
+     *
+     * @param stream 入力ストリーム
+     * @param bytes バイト数
+     */
+    private static void skipFully(final InputStream stream, final long bytes) {
+        long remaining = bytes;
+        try {
+            while (remaining > 0) {
+                final long skipped = stream.skip(remaining);
+                if (skipped > 0) {
+                    remaining -= skipped;
+                } else if (stream.read() == -1) {
+                    throw new IllegalArgumentException("byte offset exceeds stream length."
+                            + " byte offset = [" + bytes + "], stream length = [" + (bytes - remaining) + ']');
+                } else {
+                    remaining--;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("failed to skip stream.", e);
+        }
+    }
+
+    /**
+     * 文字コードを取得する。
+     *
+     * @return 文字コード
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * 読み込みを開始した位置を取得する。
+     *
+     * @return 読み込みを開始した位置
+     */
+    public ReadPosition getPosition() {
+        return position;
+    }
+
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        return reader.read(cbuf, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
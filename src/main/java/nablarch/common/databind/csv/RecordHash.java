@@ -0,0 +1,106 @@
+package nablarch.common.databind.csv;
+
+/**
+ * レコードの要素から64ビットのハッシュ値を求めるクラス。
+ * <p/>
+ * 要素の文字をFNV-1aで混ぜ合わせ、要素の境界と空の要素には文字の範囲外の値を混ぜる。
+ * ハッシュ値の上位ビットでパーティションに分割できるよう、最後に全てのビットを攪拌する。
+ * キーの比較に使用する{@link #ofColumns(String[], int[])}では、空文字列の要素と{@code null}の要素を同じ値として扱う。
+ * 内容の比較に使用する{@link #ofRecord(String[])}では、異なる値として扱う。
+ *
+ * @author Hisaaki Shioiri
+ */
+final class RecordHash {
+
+    /** FNV-1aの初期値 */
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /** FNV-1aの乗数 */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** 値が{@code null}の要素を表す値(文字の範囲外) */
+    private static final int NULL_MARKER = 0x10000;
+
+    /** 要素の区切りを表す値(文字の範囲外) */
+    private static final int FIELD_SEPARATOR = 0x10001;
+
+    /** 値が空文字列の要素を表す値(文字の範囲外) */
+    private static final int EMPTY_MARKER = 0x10002;
+
+    /**
+     * 隠蔽コンストラクタ。
+     */
+    private RecordHash() {
+    }
+
+    /**
+     * 指定された列の値からハッシュ値を求める。
+     * <p/>
+     * レコードの要素数を超える列は、空の要素として扱う。
+     *
+     * @param record レコード
+     * @param columns 列の位置(0始まり)
+     * @return ハッシュ値
+     */
+    static long ofColumns(final String[] record, final int[] columns) {
+        long h = FNV_OFFSET_BASIS;
+        for (int column : columns) {
+            final String value = column < record.length ? record[column] : null;
+            h = mix(h, value == null || value.length() == 0 ? null : value);
+        }
+        return finish(h);
+    }
+
+    /**
+     * レコードの全ての要素からハッシュ値(フィンガープリント)を求める。
+     * <p/>
+     * 空文字列の要素と{@code null}の要素は異なる値として扱う。
+     *
+     * @param record レコード
+     * @return ハッシュ値
+     */
+    static long ofRecord(final String[] record) {
+        long h = FNV_OFFSET_BASIS;
+        for (String field : record) {
+            h = mix(h, field);
+        }
+        return finish(h);
+    }
+
+    /**
+     * 要素の値と区切りを混ぜ合わせる。
+     *
+     * @param hash これまでのハッシュ値
+     * @param value 要素の値
+     * @return 混ぜ合わせたハッシュ値
+     */
+    private static long mix(final long hash, final String value) {
+        long h = hash;
+        if (value == null) {
+            h = (h ^ NULL_MARKER) * FNV_PRIME;
+        } else if (value.length() == 0) {
+            h = (h ^ EMPTY_MARKER) * FNV_PRIME;
+        } else {
+            for (int i = 0; i < value.length(); i++) {
+                h = (h ^ value.charAt(i)) * FNV_PRIME;
+            }
+        }
+        return (h ^ FIELD_SEPARATOR) * FNV_PRIME;
+    }
+
+    /**
+     * 全てのビットを攪拌する。
+     *
+     * @param hash ハッシュ値
+     * @return 攪拌したハッシュ値
+     */
+    private static long finish(final long hash) {
+        long h = hash;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,25 @@
+package nablarch.common.databind.csv;
+
+import nablarch.core.util.annotation.Published;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * マルチレイアウトファイルにおいて、Beanに対応するレコード種別を定義するアノテーション。
+ * <p/>
+ * {@link CsvLayouts#recordTypeIndex()}の列の値が本アノテーションの値と一致するレコードを、
+ * 本アノテーションを付与したBeanにマッピングする。
+ *
+ * @see CsvLayouts
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Published
+public @interface RecordType {
+
+    /** レコード種別 */
+    String value();
+}
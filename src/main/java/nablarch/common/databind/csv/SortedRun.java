@@ -0,0 +1,241 @@
+package nablarch.common.databind.csv;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * {@link CsvSorter}がソート済みのレコードを一時ファイルに書き出した、ソート済みの列(ラン)。
+ * {@link CsvDiff}では、キーのハッシュ値で分割したパーティションの書き出しにも使用する。
+ * <p/>
+ * マージ時にCSVを再度解析しないよう、レコードはクォートや区切り文字を含まない以下のバイナリ形式で書き出す。
+ * <pre>
+ * レコード: 要素数(int) 要素 ...
+ * 要素    : バイト数(int、nullの場合は-1) UTF-8のバイト列
+ * 終端    : -1(int)
+ * </pre>
+ *
+ * @author Hisaaki Shioiri
+ */
+final class SortedRun {
+
+    /** 要素の文字コード */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /** 入出力のバッファサイズ */
+    private static final int BUFFER_SIZE = 65536;
+
+    /** 一時ファイル */
+    private final File file;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param file 一時ファイル
+     */
+    SortedRun(final File file) {
+        this.file = file;
+    }
+
+    /**
+     * 一時ファイルを作成し、レコードを書き出す。
+     *
+     * @param directory 一時ファイルを作成するディレクトリ({@code null}の場合はシステムの一時ディレクトリ)
+     * @return 書き出し用の{@link Writer}
+     */
+    static Writer create(final File directory) {
+        final File file;
+        try {
+            file = File.createTempFile("csv-sort", ".run", directory);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to create temporary file. directory = [" + directory + ']', e);
+        }
+        try {
+            return new Writer(new SortedRun(file));
+        } catch (IOException e) {
+            file.delete();
+            throw new RuntimeException("failed to open temporary file. file = [" + file + ']', e);
+        }
+    }
+
+    /**
+     * レコードを先頭から読み込む。
+     *
+     * @return 読み込み用の{@link Reader}
+     */
+    Reader open() {
+        try {
+            return new Reader(file);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to open temporary file. file = [" + file + ']', e);
+        }
+    }
+
+    /**
+     * 一時ファイルのバイト数を返す。
+     *
+     * @return バイト数
+     */
+    long length() {
+        return file.length();
+    }
+
+    /**
+     * 一時ファイルを削除する。
+     */
+    void delete() {
+        file.delete();
+    }
+
+    @Override
+    public String toString() {
+        return "SortedRun{file=" + file + '}';
+    }
+
+    /**
+     * ランにレコードを書き出すクラス。
+     */
+    static final class Writer implements Closeable {
+
+        /** 書き出し先のラン */
+        private final SortedRun run;
+
+        /** 出力ストリーム */
+        private final DataOutputStream out;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param run 書き出し先のラン
+         * @throws IOException 一時ファイルを開けなかった場合
+         */
+        private Writer(final SortedRun run) throws IOException {
+            this.run = run;
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run.file), BUFFER_SIZE));
+        }
+
+        /**
+         * レコードを書き出す。
+         *
+         * @param record レコード
+         */
+        void write(final String[] record) {
+            try {
+                out.writeInt(record.length);
+                for (String field : record) {
+                    if (field == null) {
+                        out.writeInt(-1);
+                    } else {
+                        final byte[] bytes = field.getBytes(UTF8);
+                        out.writeInt(bytes.length);
+                        out.write(bytes);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("failed to write temporary file. file = [" + run.file + ']', e);
+            }
+        }
+
+        /**
+         * 終端を書き出して閉じる。
+         *
+         * @return 書き出したラン
+         */
+        SortedRun finish() {
+            try {
+                out.writeInt(-1);
+                out.close();
+            } catch (IOException e) {
+                throw new RuntimeException("failed to write temporary file. file = [" + run.file + ']', e);
+            }
+            return run;
+        }
+
+        /**
+         * 書き出しを中断して一時ファイルを削除する。
+         */
+        @Override
+        public void close() {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // 削除するため無視する
+            }
+            run.delete();
+        }
+    }
+
+    /**
+     * ランからレコードを読み込むクラス。
+     */
+    static final class Reader implements Closeable {
+
+        /** 一時ファイル */
+        private final File file;
+
+        /** 入力ストリーム */
+        private final DataInputStream in;
+
+        /** 要素の読み込みに使用するバッファ */
+        private byte[] buffer = new byte[256];
+
+        /**
+         * コンストラクタ。
+         *
+         * @param file 一時ファイル
+         * @throws IOException 一時ファイルを開けなかった場合
+         */
+        private Reader(final File file) throws IOException {
+            this.file = file;
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+        }
+
+        /**
+         * レコードを読み込む。
+         *
+         * @return レコード(終端に達した場合は{@code null})
+         */
+        String[] read() {
+            try {
+                final int count = in.readInt();
+                if (count == -1) {
+                    return null;
+                }
+                final String[] record = new String[count];
+                for (int i = 0; i < count; i++) {
+                    final int length = in.readInt();
+                    if (length == -1) {
+                        continue;
+                    }
+                    if (length > buffer.length) {
+                        buffer = new byte[Math.max(length, buffer.length * 2)];
+                    }
+                    in.readFully(buffer, 0, length);
+                    record[i] = new String(buffer, 0, length, UTF8);
+                }
+                return record;
+            } catch (EOFException e) {
+                throw new IllegalStateException("temporary file is truncated. file = [" + file + ']', e);
+            } catch (IOException e) {
+                throw new RuntimeException("failed to read temporary file. file = [" + file + ']', e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                // 一時ファイルのため無視する
+            }
+        }
+    }
+}
@@ -0,0 +1,735 @@
+package nablarch.common.databind.csv.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+import nablarch.common.databind.DataBindUtil;
+import nablarch.common.databind.LineNumber;
+import nablarch.common.databind.csv.Csv;
+import nablarch.common.databind.csv.CsvDataBindConfig;
+import nablarch.common.databind.csv.CsvFormat;
+import nablarch.common.databind.csv.CsvMapperProvider;
+import nablarch.common.databind.csv.Quoted;
+
+/**
+ * {@link Csv}アノテーションが付与されたBeanごとに{@link CsvMapperProvider}の実装クラスを生成する注釈プロセッサ。
+ * <p/>
+ * 生成されるクラスは、Beanのアクセサを直接呼び出す{@link nablarch.common.databind.csv.CsvBeanMapper}及び
+ * {@link nablarch.common.databind.csv.BeanCsvMapper}のサブクラスと、
+ * コンパイル時に確定した{@link CsvDataBindConfig}の定数を持つ。
+ * このため、実行時にアノテーションやプロパティ情報をリフレクションで解析する必要がない。
+ * <p/>
+ * 本プロセッサは任意で使用するものであり、自動では登録されない。
+ * 使用する場合は、コンパイル時に以下のように明示的に指定すること。
+ * <pre>
+ * javac -processor nablarch.common.databind.csv.processor.CsvMapperProcessor ...
+ * </pre>
+ * <p/>
+ * 以下の条件を満たさないBeanはクラスの生成対象外とし、警告を出力する。
+ * 生成対象外のBeanは、従来どおりリフレクションを使用してバインディングされる。
+ * <ul>
+ *     <li>privateでない、static(トップレベルを含む)かつ具象の非ジェネリッククラスであること</li>
+ *     <li>privateでない引数なしのコンストラクタを持つこと</li>
+ *     <li>{@link Csv#properties()}に指定した全てのプロパティにpublicなgetterとsetterが存在すること</li>
+ *     <li>{@link Csv}及び{@link CsvFormat}の設定が正しいこと</li>
+ * </ul>
+ *
+ * @author Hisaaki Shioiri
+ */
+@SupportedAnnotationTypes("nablarch.common.databind.csv.Csv")
+public class CsvMapperProcessor extends AbstractProcessor {
+
+    /** 生成済みのクラス名 */
+    private final Set<String> generatedClassNames = new HashSet<String>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Csv.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            final TypeElement type = (TypeElement) element;
+            final BeanModel model = analyze(type);
+            if (model == null || !generatedClassNames.add(model.providerQualifiedName())) {
+                continue;
+            }
+            try {
+                generate(model, type);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "failed to generate csv mapper. cause = [" + e.getMessage() + ']', type);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Beanを解析し、クラス生成に必要な情報を構築する。
+     *
+     * @param type Beanの型
+     * @return 解析結果(生成対象外の場合は{@code null})
+     */
+    private BeanModel analyze(final TypeElement type) {
+        final String unsupported = verifyType(type);
+        if (unsupported != null) {
+            return skip(type, unsupported);
+        }
+
+        final Csv csv = type.getAnnotation(Csv.class);
+        final CsvFormat csvFormat = type.getAnnotation(CsvFormat.class);
+        if (csv.type() == Csv.CsvType.CUSTOM && csvFormat == null) {
+            return skip(type, "CsvFormat annotation is required because CsvType is CUSTOM.");
+        }
+
+        final List<ExecutableElement> methods = ElementFilter.methodsIn(
+                processingEnv.getElementUtils().getAllMembers(type));
+
+        final BeanModel model = new BeanModel(type);
+        for (String property : csv.properties()) {
+            final ExecutableElement getter = findGetter(methods, property);
+            final ExecutableElement setter = findSetter(methods, property, getter);
+            if (getter == null || setter == null) {
+                return skip(type, "accessor not found. property = [" + property + ']');
+            }
+            final TypeMirror propertyType = setter.getParameters().get(0).asType();
+            if (!isSupportedType(propertyType)) {
+                return skip(type, "unsupported property type. property = [" + property + ']');
+            }
+            model.properties.add(new PropertyModel(property, getter, setter, propertyType));
+        }
+
+        final List<ExecutableElement> lineNumberGetters = findAnnotatedGetters(methods, LineNumber.class);
+        if (lineNumberGetters.size() > 1) {
+            return skip(type, "line number column should be defined only one.");
+        }
+        if (!lineNumberGetters.isEmpty()) {
+            final ExecutableElement getter = lineNumberGetters.get(0);
+            final String property = toPropertyName(getter);
+            final ExecutableElement setter = findSetter(methods, property, getter);
+            if (setter == null) {
+                return skip(type, "accessor not found. property = [" + property + ']');
+            }
+            model.lineNumber = new PropertyModel(property, getter, setter, setter.getParameters().get(0).asType());
+        }
+
+        try {
+            model.config = createConfig(type, csv, csvFormat, methods);
+        } catch (IllegalArgumentException e) {
+            return skip(type, e.getMessage());
+        } catch (IllegalStateException e) {
+            return skip(type, e.getMessage());
+        }
+        return model;
+    }
+
+    /**
+     * クラスが生成対象としてサポートされる形式かを検証する。
+     *
+     * @param type Beanの型
+     * @return サポートされない理由(サポートされる場合は{@code null})
+     */
+    private String verifyType(final TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return "abstract class is not supported.";
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            return "generic class is not supported.";
+        }
+        Element current = type;
+        while (current.getKind() == ElementKind.CLASS) {
+            final TypeElement currentType = (TypeElement) current;
+            if (currentType.getModifiers().contains(Modifier.PRIVATE)) {
+                return "private class is not supported.";
+            }
+            if (currentType.getNestingKind() == NestingKind.MEMBER
+                    && !currentType.getModifiers().contains(Modifier.STATIC)) {
+                return "inner class is not supported.";
+            }
+            if (currentType.getNestingKind() == NestingKind.LOCAL
+                    || currentType.getNestingKind() == NestingKind.ANONYMOUS) {
+                return "local class is not supported.";
+            }
+            current = current.getEnclosingElement();
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return null;
+            }
+        }
+        return "default constructor not found.";
+    }
+
+    /**
+     * クラスの生成対象外であることを警告として出力する。
+     *
+     * @param type Beanの型
+     * @param reason 生成対象外とする理由
+     * @return {@code null}
+     */
+    private BeanModel skip(final TypeElement type, final String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                "csv mapper is not generated, reflection is used instead. reason = [" + reason + ']', type);
+        return null;
+    }
+
+    /**
+     * アノテーションの定義から{@link CsvDataBindConfig}を構築する。
+     * <p/>
+     * 実行時と同じ設定となるよう、{@link DataBindUtil#createCsvDataBindConfig(String, Csv, CsvFormat)}で構築する。
+     *
+     * @param type Beanの型
+     * @param csv CSV設定
+     * @param csvFormat CSVフォーマット
+     * @param methods Beanのメソッド
+     * @return フォーマット定義
+     */
+    private CsvDataBindConfig createConfig(final TypeElement type,
+            final Csv csv, final CsvFormat csvFormat, final List<ExecutableElement> methods) {
+        final CsvDataBindConfig config = DataBindUtil.createCsvDataBindConfig(
+                processingEnv.getElementUtils().getBinaryName(type).toString(), csv, csvFormat);
+        if (config.getQuoteMode() != CsvDataBindConfig.QuoteMode.CUSTOM) {
+            return config;
+        }
+        final List<String> quotedColumnNames = new ArrayList<String>();
+        for (ExecutableElement getter : findAnnotatedGetters(methods, Quoted.class)) {
+            quotedColumnNames.add(toPropertyName(getter));
+        }
+        return config.withQuotedColumnNames(quotedColumnNames.toArray(new String[quotedColumnNames.size()]));
+    }
+
+    /**
+     * getterを検索する。
+     *
+     * @param methods Beanのメソッド
+     * @param property プロパティ名
+     * @return getter(存在しない場合は{@code null})
+     */
+    private static ExecutableElement findGetter(final List<ExecutableElement> methods, final String property) {
+        final String suffix = capitalize(property);
+        for (ExecutableElement method : methods) {
+            if (!isPublicInstanceMethod(method) || !method.getParameters().isEmpty()) {
+                continue;
+            }
+            final String name = method.getSimpleName().toString();
+            final TypeKind returnType = method.getReturnType().getKind();
+            if (name.equals("get" + suffix) && returnType != TypeKind.VOID) {
+                return method;
+            }
+            if (name.equals("is" + suffix) && returnType == TypeKind.BOOLEAN) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * setterを検索する。
+     * <p/>
+     * 同名のsetterが複数存在する場合は、getterの戻り値の型と引数の型が一致するものを優先する。
+     *
+     * @param methods Beanのメソッド
+     * @param property プロパティ名
+     * @param getter getter
+     * @return setter(存在しない場合は{@code null})
+     */
+    private ExecutableElement findSetter(
+            final List<ExecutableElement> methods, final String property, final ExecutableElement getter) {
+        final String name = "set" + capitalize(property);
+        ExecutableElement found = null;
+        for (ExecutableElement method : methods) {
+            if (!isPublicInstanceMethod(method)
+                    || method.getParameters().size() != 1
+                    || !method.getSimpleName().toString().equals(name)) {
+                continue;
+            }
+            if (getter != null && processingEnv.getTypeUtils().isSameType(
+                    getter.getReturnType(), method.getParameters().get(0).asType())) {
+                return method;
+            }
+            if (found == null) {
+                found = method;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 指定されたアノテーションが付与されたgetterを検索する。
+     *
+     * @param methods Beanのメソッド
+     * @param annotation アノテーション
+     * @return アノテーションが付与されたgetter
+     */
+    private static List<ExecutableElement> findAnnotatedGetters(
+            final List<ExecutableElement> methods, final Class<? extends java.lang.annotation.Annotation> annotation) {
+        final List<ExecutableElement> result = new ArrayList<ExecutableElement>();
+        for (ExecutableElement method : methods) {
+            if (method.getAnnotation(annotation) != null && toPropertyName(method) != null) {
+                result.add(method);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * getterの名前からプロパティ名を取得する。
+     *
+     * @param getter getter
+     * @return プロパティ名(getterでない場合は{@code null})
+     */
+    private static String toPropertyName(final ExecutableElement getter) {
+        final String name = getter.getSimpleName().toString();
+        final String suffix;
+        if (name.startsWith("get") && name.length() > 3) {
+            suffix = name.substring(3);
+        } else if (name.startsWith("is") && name.length() > 2) {
+            suffix = name.substring(2);
+        } else {
+            return null;
+        }
+        return java.beans.Introspector.decapitalize(suffix);
+    }
+
+    /**
+     * メソッドがpublicなインスタンスメソッドであるか否か。
+     *
+     * @param method メソッド
+     * @return publicなインスタンスメソッドの場合{@code true}
+     */
+    private static boolean isPublicInstanceMethod(final ExecutableElement method) {
+        return method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC);
+    }
+
+    /**
+     * プロパティの型が生成対象としてサポートされるか否か。
+     *
+     * @param type プロパティの型
+     * @return サポートされる場合{@code true}
+     */
+    private static boolean isSupportedType(final TypeMirror type) {
+        final TypeKind kind = type.getKind();
+        return kind.isPrimitive() || kind == TypeKind.DECLARED || kind == TypeKind.ARRAY;
+    }
+
+    /**
+     * プロパティ名の先頭を大文字にする。
+     *
+     * @param property プロパティ名
+     * @return 先頭を大文字にした文字列
+     */
+    private static String capitalize(final String property) {
+        if (property.length() == 0) {
+            return property;
+        }
+        return Character.toUpperCase(property.charAt(0)) + property.substring(1);
+    }
+
+    /**
+     * {@link CsvMapperProvider}の実装クラスのソースを生成する。
+     *
+     * @param model 解析結果
+     * @param type Beanの型
+     * @throws IOException ソースの出力に失敗した場合
+     */
+    private void generate(final BeanModel model, final TypeElement type) throws IOException {
+        final JavaFileObject file = processingEnv.getFiler().createSourceFile(model.providerQualifiedName(), type);
+        final PrintWriter out = new PrintWriter(file.openWriter());
+        try {
+            new SourceWriter(out, model).write();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Beanの解析結果。
+     */
+    private final class BeanModel {
+
+        /** パッケージ名 */
+        private final String packageName;
+
+        /** Beanの正規名 */
+        private final String beanName;
+
+        /** 生成するクラスの単純名 */
+        private final String providerSimpleName;
+
+        /** CSVの項目に対応したプロパティ */
+        private final List<PropertyModel> properties = new ArrayList<PropertyModel>();
+
+        /** 行番号を保持するプロパティ */
+        private PropertyModel lineNumber;
+
+        /** フォーマット定義 */
+        private CsvDataBindConfig config;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param type Beanの型
+         */
+        private BeanModel(final TypeElement type) {
+            final PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+            packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+            beanName = type.getQualifiedName().toString();
+            final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+            final String simpleBinaryName = packageName.length() == 0
+                    ? binaryName : binaryName.substring(packageName.length() + 1);
+            providerSimpleName = simpleBinaryName.replace('$', '_') + CsvMapperProvider.CLASS_NAME_SUFFIX;
+        }
+
+        /**
+         * 生成するクラスの完全修飾名を返す。
+         *
+         * @return 完全修飾名
+         */
+        private String providerQualifiedName() {
+            return packageName.length() == 0 ? providerSimpleName : packageName + '.' + providerSimpleName;
+        }
+    }
+
+    /**
+     * プロパティの解析結果。
+     */
+    private static final class PropertyModel {
+
+        /** プロパティ名 */
+        private final String name;
+
+        /** getter */
+        private final ExecutableElement getter;
+
+        /** setter */
+        private final ExecutableElement setter;
+
+        /** setterの引数の型 */
+        private final TypeMirror type;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param name プロパティ名
+         * @param getter getter
+         * @param setter setter
+         * @param type setterの引数の型
+         */
+        private PropertyModel(final String name, final ExecutableElement getter,
+                final ExecutableElement setter, final TypeMirror type) {
+            this.name = name;
+            this.getter = getter;
+            this.setter = setter;
+            this.type = type;
+        }
+    }
+
+    /**
+     * 生成するクラスのソースを出力するクラス。
+     */
+    private final class SourceWriter {
+
+        /** 出力先 */
+        private final PrintWriter out;
+
+        /** 解析結果 */
+        private final BeanModel model;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param out 出力先
+         * @param model 解析結果
+         */
+        private SourceWriter(final PrintWriter out, final BeanModel model) {
+            this.out = out;
+            this.model = model;
+        }
+
+        /**
+         * ソースを出力する。
+         */
+        private void write() {
+            final String bean = model.beanName;
+            if (model.packageName.length() != 0) {
+                out.println("package " + model.packageName + ';');
+                out.println();
+            }
+            out.println("/**");
+            out.println(" * {@link " + bean + "}用の{@link nablarch.common.databind.csv.CsvMapperProvider}。");
+            out.println(" * <p/>");
+            out.println(" * 本クラスは{@link " + CsvMapperProcessor.class.getName() + "}によって生成されたものである。");
+            out.println(" */");
+            out.println("public final class " + model.providerSimpleName
+                    + " implements nablarch.common.databind.csv.CsvMapperProvider<" + bean + "> {");
+            out.println();
+            out.println("    /** 唯一のインスタンス */");
+            out.println("    public static final " + model.providerSimpleName + ' ' + CsvMapperProvider.INSTANCE_FIELD_NAME
+                    + " = new " + model.providerSimpleName + "();");
+            out.println();
+            out.println("    /** プロパティ名の配列 */");
+            out.println("    private static final String[] PROPERTIES = " + stringArray(propertyNames()) + ';');
+            out.println();
+            out.println("    /** フォーマット定義 */");
+            out.println("    private static final nablarch.common.databind.csv.CsvDataBindConfig CONFIG = "
+                    + configLiteral(model.config) + ';');
+            out.println();
+            out.println("    /** 隠蔽コンストラクタ */");
+            out.println("    private " + model.providerSimpleName + "() {");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public nablarch.common.databind.csv.CsvDataBindConfig getConfig() {");
+            out.println("        return CONFIG;");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public nablarch.common.databind.ObjectMapper<" + bean + "> createReader(final java.io.Reader reader) {");
+            out.println("        return new BeanReader(reader);");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public nablarch.common.databind.ObjectMapper<" + bean + "> createWriter(final java.io.Writer writer) {");
+            out.println("        return new BeanWriter(writer);");
+            out.println("    }");
+            out.println();
+            writeReader();
+            out.println();
+            writeWriter();
+            out.println("}");
+        }
+
+        /**
+         * 入力用のMapperを出力する。
+         */
+        private void writeReader() {
+            final String bean = model.beanName;
+            final int fieldCount = model.properties.size();
+            out.println("    /**");
+            out.println("     * {@link " + bean + "}専用の入力用Mapper。");
+            out.println("     */");
+            out.println("    private static final class BeanReader extends nablarch.common.databind.csv.CsvBeanMapper<" + bean + "> {");
+            out.println();
+            out.println("        private BeanReader(final java.io.Reader reader) {");
+            out.println("            super(" + bean + ".class, CONFIG, reader, PROPERTIES, "
+                    + (model.lineNumber == null ? "null" : stringLiteral(model.lineNumber.name)) + ");");
+            out.println("        }");
+            out.println();
+            out.println("        @Override");
+            out.println("        protected " + bean + " createObject(final String[] record) {");
+            out.println("            if (record.length != " + fieldCount + ") {");
+            out.println("                throw new nablarch.common.databind.InvalidDataFormatException(");
+            out.println("                        \"property size does not match. expected field count = [" + fieldCount + "],\"");
+            out.println("                                + \" actual field count = [\" + record.length + \"].\", reader.getLineNumber());");
+            out.println("            }");
+            out.println("            try {");
+            out.println("                final " + bean + " bean = new " + bean + "();");
+            for (int i = 0; i < fieldCount; i++) {
+                final PropertyModel property = model.properties.get(i);
+                out.println("                bean." + property.setter.getSimpleName() + '('
+                        + convertExpression(property.type, "record[" + i + ']', true) + ");");
+            }
+            if (model.lineNumber != null) {
+                out.println("                bean." + model.lineNumber.setter.getSimpleName() + '('
+                        + convertExpression(model.lineNumber.type, "reader.getLineNumber()", false) + ");");
+            }
+            out.println("                return bean;");
+            out.println("            } catch (RuntimeException e) {");
+            out.println("                throw new nablarch.core.beans.BeansException(e);");
+            out.println("            }");
+            out.println("        }");
+            out.println("    }");
+        }
+
+        /**
+         * 出力用のMapperを出力する。
+         */
+        private void writeWriter() {
+            final String bean = model.beanName;
+            out.println("    /**");
+            out.println("     * {@link " + bean + "}専用の出力用Mapper。");
+            out.println("     */");
+            out.println("    private static final class BeanWriter extends nablarch.common.databind.csv.BeanCsvMapper<" + bean + "> {");
+            out.println();
+            out.println("        private BeanWriter(final java.io.Writer writer) {");
+            out.println("            super(CONFIG, writer, PROPERTIES);");
+            out.println("        }");
+            out.println();
+            out.println("        @Override");
+            out.println("        public Object[] convertValues(final " + bean + " object) {");
+            out.println("            return new Object[] {");
+            for (int i = 0; i < model.properties.size(); i++) {
+                out.println("                    object." + model.properties.get(i).getter.getSimpleName() + "()"
+                        + (i == model.properties.size() - 1 ? "" : ","));
+            }
+            out.println("            };");
+            out.println("        }");
+            out.println("    }");
+        }
+
+        /**
+         * プロパティ名のリストを返す。
+         *
+         * @return プロパティ名のリスト
+         */
+        private List<String> propertyNames() {
+            final List<String> names = new ArrayList<String>();
+            for (PropertyModel property : model.properties) {
+                names.add(property.name);
+            }
+            return names;
+        }
+
+        /**
+         * 値をプロパティの型に変換する式を返す。
+         *
+         * @param type プロパティの型
+         * @param value 変換する値の式
+         * @param stringValue 値が{@link String}の場合{@code true}
+         * @return 変換式
+         */
+        private String convertExpression(final TypeMirror type, final String value, final boolean stringValue) {
+            if (stringValue && type.toString().equals(String.class.getName())) {
+                return value;
+            }
+            if (!stringValue && (type.getKind() == TypeKind.LONG || type.toString().equals(Long.class.getName()))) {
+                return value;
+            }
+            final String className;
+            if (type.getKind().isPrimitive()) {
+                className = processingEnv.getTypeUtils().boxedClass(
+                        processingEnv.getTypeUtils().getPrimitiveType(type.getKind())).getQualifiedName().toString();
+            } else {
+                className = processingEnv.getTypeUtils().erasure(type).toString();
+            }
+            return "nablarch.core.beans.ConversionUtil.convert(" + className + ".class, " + value + ')';
+        }
+
+        /**
+         * {@link CsvDataBindConfig}を生成する式を返す。
+         *
+         * @param config フォーマット定義
+         * @return 生成式
+         */
+        private String configLiteral(final CsvDataBindConfig config) {
+            final String indent = "\n            ";
+            return "new nablarch.common.databind.csv.CsvDataBindConfig("
+                    + indent + charLiteral(config.getFieldSeparator()) + ','
+                    + indent + stringLiteral(config.getLineSeparator()) + ','
+                    + indent + charLiteral(config.getQuote()) + ','
+                    + indent + config.isIgnoreEmptyLine() + ','
+                    + indent + config.isRequiredHeader() + ','
+                    + indent + stringArray(java.util.Arrays.asList(config.getHeaderTitles())) + ','
+                    + indent + "java.nio.charset.Charset.forName(" + stringLiteral(config.getCharset().name()) + "),"
+                    + indent + config.isEmptyToNull() + ','
+                    + indent + "nablarch.common.databind.csv.CsvDataBindConfig.QuoteMode." + config.getQuoteMode().name() + ','
+                    + indent + stringList(config.getQuotedColumnNames()) + ')';
+        }
+
+        /**
+         * 文字列配列を生成する式を返す。
+         *
+         * @param values 値
+         * @return 生成式
+         */
+        private String stringArray(final List<String> values) {
+            final StringBuilder sb = new StringBuilder("new String[] {");
+            for (int i = 0; i < values.size(); i++) {
+                sb.append(i == 0 ? "" : ", ").append(stringLiteral(values.get(i)));
+            }
+            return sb.append('}').toString();
+        }
+
+        /**
+         * 文字列リストを生成する式を返す。
+         *
+         * @param values 値
+         * @return 生成式
+         */
+        private String stringList(final List<String> values) {
+            if (values.isEmpty()) {
+                return "java.util.Collections.<String>emptyList()";
+            }
+            return "java.util.Arrays.asList(" + stringArray(values) + ')';
+        }
+    }
+
+    /**
+     * 文字列リテラルを返す。
+     *
+     * @param value 値
+     * @return 文字列リテラル
+     */
+    private static String stringLiteral(final String value) {
+        final StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            sb.append(escape(value.charAt(i), '"'));
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * 文字リテラルを返す。
+     *
+     * @param value 値
+     * @return 文字リテラル
+     */
+    private static String charLiteral(final char value) {
+        return "'" + escape(value, '\'') + "'";
+    }
+
+    /**
+     * リテラル内に出力できるように文字をエスケープする。
+     * <p/>
+     * ソースファイルの文字コードに依存しないよう、ASCII以外の文字はUnicodeエスケープする。
+     *
+     * @param c 文字
+     * @param quote リテラルの囲み文字
+     * @return エスケープした文字列
+     */
+    private static String escape(final char c, final char quote) {
+        switch (c) {
+            case '\r':
+                return "\\r";
+            case '\n':
+                return "\\n";
+            case '\t':
+                return "\\t";
+            case '\\':
+                return "\\\\";
+            default:
+                if (c == quote) {
+                    return "\\" + c;
+                }
+                if (c < 0x20 || c > 0x7e) {
+                    return String.format("\\u%04x", (int) c);
+                }
+                return String.valueOf(c);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * CSVとBeanのバインディングをコンパイル時に生成する注釈プロセッサを提供する。
+ */
+package nablarch.common.databind.csv.processor;
@@ -0,0 +1,37 @@
+package nablarch.common.databind.fixedlength;
+
+import java.io.OutputStream;
+
+import nablarch.core.beans.BeanUtil;
+
+/**
+ * Java Beansオブジェクトを固定長ファイルにマッピングするクラス。
+ *
+ * @param <T> Java Beansクラス
+ * @author Hisaaki Shioiri
+ */
+public class BeanFixedLengthMapper<T> extends ObjectFixedLengthMapperSupport<T> {
+
+    /** プロパティ名リスト */
+    private final String[] properties;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param metadata Beanのマッピング情報
+     * @param stream 出力ストリーム
+     */
+    public BeanFixedLengthMapper(final FixedLengthMappingMetadata metadata, final OutputStream stream) {
+        super(metadata.getConfig(), stream);
+        properties = metadata.getPropertyNames();
+    }
+
+    @Override
+    protected Object[] convertValues(final T object) {
+        final Object[] fieldValues = new Object[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            fieldValues[i] = BeanUtil.getProperty(object, properties[i]);
+        }
+        return fieldValues;
+    }
+}
@@ -0,0 +1,35 @@
+package nablarch.common.databind.fixedlength;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 固定長ファイルのフィールドを定義するアノテーション。
+ * <p/>
+ * 対象のプロパティのgetterに本アノテーションを付与すること。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Published
+public @interface Field {
+
+    /** レコードの先頭からのバイト位置(1始まり) */
+    int offset();
+
+    /** バイト数 */
+    int length();
+
+    /**
+     * 数値フィールドか否か。
+     * <p/>
+     * 数値フィールドは右詰めで、読み込み時は先頭の半角スペースを除去する。
+     * 文字列フィールドは左詰めで、読み込み時は末尾の埋め字を除去する。
+     */
+    boolean numeric() default false;
+}
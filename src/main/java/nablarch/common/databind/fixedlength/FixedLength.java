@@ -0,0 +1,42 @@
+package nablarch.common.databind.fixedlength;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * Beanに紐づく固定長ファイルのフォーマットを定義するアノテーション。
+ * <p/>
+ * 各フィールドの位置は、対象のプロパティのgetterに付与した{@link Field}で定義する。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Published
+public @interface FixedLength {
+
+    /** 1レコードのバイト数(レコード区切り文字を除く) */
+    int length();
+
+    /** 文字コード */
+    String charset();
+
+    /**
+     * レコード区切り文字。
+     * <p/>
+     * デフォルトは空文字列(レコード区切り文字なし)。
+     * 汎用機から受け取るファイルのように、レコードが区切り文字なしで連続する場合は指定しないこと。
+     */
+    String lineSeparator() default "";
+
+    /**
+     * 未使用領域及び文字列フィールドの埋め字。
+     * <p/>
+     * {@link #charset()}で1バイトとなる文字を指定すること。デフォルトは半角スペース。
+     */
+    char fillChar() default ' ';
+}
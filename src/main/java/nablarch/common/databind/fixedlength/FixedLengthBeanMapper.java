@@ -0,0 +1,47 @@
+package nablarch.common.databind.fixedlength;
+
+import java.io.InputStream;
+
+import nablarch.common.databind.DataBindUtil;
+
+/**
+ * 固定長ファイルをJava Beanにマッピングするクラス。
+ *
+ * @param <T> 読み取り対象のJava型
+ * @author Hisaaki Shioiri
+ */
+public class FixedLengthBeanMapper<T> extends FixedLengthObjectMapperSupport<T> {
+
+    /** Beanのクラス */
+    private final Class<T> clazz;
+
+    /** プロパティ名の配列 */
+    private final String[] propertyNames;
+
+    /** 行番号を格納するプロパティ名 */
+    private final String lineNumberPropertyName;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param clazz Beanの{@link Class}
+     * @param metadata Beanのマッピング情報
+     * @param stream 入力ストリーム
+     */
+    public FixedLengthBeanMapper(final Class<T> clazz, final FixedLengthMappingMetadata metadata,
+            final InputStream stream) {
+        super(metadata.getConfig(), stream);
+        this.clazz = clazz;
+        propertyNames = metadata.getPropertyNames();
+        lineNumberPropertyName = metadata.getLineNumberPropertyName();
+    }
+
+    @Override
+    protected T createObject(final String[] record) {
+        if (lineNumberPropertyName == null) {
+            return DataBindUtil.getInstance(clazz, propertyNames, record);
+        }
+        return DataBindUtil.getInstanceWithLineNumber(
+                clazz, propertyNames, record, lineNumberPropertyName, reader.getLineNumber());
+    }
+}
@@ -0,0 +1,236 @@
+package nablarch.common.databind.fixedlength;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import nablarch.common.databind.DataBindConfig;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 固定長ファイルの設定を保持するクラス。
+ * <p/>
+ * {@link java.util.Map}と固定長ファイルをマッピングする場合は、以下のように設定を構築する。
+ * <pre>
+ * {@code
+ * FixedLengthDataBindConfig config = new FixedLengthDataBindConfig(30, Charset.forName("Windows-31J"))
+ *         .withLineSeparator("\r\n")
+ *         .withField("name", 1, 20)
+ *         .withNumericField("age", 21, 10);
+ * }
+ * </pre>
+ * フィールドはバイト位置の昇順に保持する。フィールドの重複及びレコード長を超えるフィールドは定義できない。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public class FixedLengthDataBindConfig implements DataBindConfig {
+
+    /** 1レコードのバイト数(レコード区切り文字を除く) */
+    private final int recordLength;
+
+    /** 文字コード */
+    private final Charset charset;
+
+    /** レコード区切り文字 */
+    private final String lineSeparator;
+
+    /** 埋め字 */
+    private final char fillChar;
+
+    /** フィールドの定義(バイト位置の昇順) */
+    private final List<FixedLengthField> fields;
+
+    /**
+     * レコード区切り文字なし、埋め字が半角スペース、フィールドが未定義の設定を生成する。
+     *
+     * @param recordLength 1レコードのバイト数
+     * @param charset 文字コード
+     */
+    public FixedLengthDataBindConfig(final int recordLength, final Charset charset) {
+        this(recordLength, charset, "", ' ', Collections.<FixedLengthField>emptyList());
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param recordLength 1レコードのバイト数(レコード区切り文字を除く)
+     * @param charset 文字コード
+     * @param lineSeparator レコード区切り文字(区切り文字なしの場合は空文字列)
+     * @param fillChar 埋め字
+     * @param fields フィールドの定義
+     */
+    public FixedLengthDataBindConfig(final int recordLength, final Charset charset, final String lineSeparator,
+            final char fillChar, final List<FixedLengthField> fields) {
+        if (recordLength <= 0) {
+            throw new IllegalArgumentException(
+                    "record length must be greater than 0. record length = [" + recordLength + ']');
+        }
+        if (charset == null) {
+            throw new IllegalArgumentException("charset must not be null.");
+        }
+        if (lineSeparator == null) {
+            throw new IllegalArgumentException("line separator must not be null.");
+        }
+        this.recordLength = recordLength;
+        this.charset = charset;
+        this.lineSeparator = lineSeparator;
+        this.fillChar = fillChar;
+        this.fields = Collections.unmodifiableList(sortAndVerify(recordLength, fields));
+    }
+
+    /**
+     * フィールドをバイト位置の昇順に並べ替え、重複やレコード長の超過がないことを検証する。
+     *
+     * @param recordLength 1レコードのバイト数
+     * @param fields フィールドの定義
+     * @return 並べ替えたフィールドの定義
+     */
+    private static List<FixedLengthField> sortAndVerify(final int recordLength, final List<FixedLengthField> fields) {
+        final List<FixedLengthField> sorted = new ArrayList<FixedLengthField>(fields);
+        Collections.sort(sorted, new Comparator<FixedLengthField>() {
+            @Override
+            public int compare(final FixedLengthField o1, final FixedLengthField o2) {
+                return o1.getOffset() < o2.getOffset() ? -1 : o1.getOffset() == o2.getOffset() ? 0 : 1;
+            }
+        });
+        int end = 0;
+        for (FixedLengthField field : sorted) {
+            if (field.getOffset() <= end) {
+                throw new IllegalArgumentException("field overlaps with previous field. field = [" + field + ']');
+            }
+            end = field.getOffset() + field.getLength() - 1;
+            if (end > recordLength) {
+                throw new IllegalArgumentException("field exceeds record length. field = [" + field + "],"
+                        + " record length = [" + recordLength + ']');
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * 1レコードのバイト数(レコード区切り文字を除く)を取得する。
+     *
+     * @return 1レコードのバイト数
+     */
+    public int getRecordLength() {
+        return recordLength;
+    }
+
+    /**
+     * 文字コードを取得する。
+     *
+     * @return 文字コード
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * レコード区切り文字を取得する。
+     *
+     * @return レコード区切り文字(区切り文字なしの場合は空文字列)
+     */
+    public String getLineSeparator() {
+        return lineSeparator;
+    }
+
+    /**
+     * 埋め字を取得する。
+     *
+     * @return 埋め字
+     */
+    public char getFillChar() {
+        return fillChar;
+    }
+
+    /**
+     * フィールドの定義を取得する。
+     *
+     * @return フィールドの定義(バイト位置の昇順)
+     */
+    public List<FixedLengthField> getFields() {
+        return fields;
+    }
+
+    /**
+     * フィールド名の配列を取得する。
+     *
+     * @return フィールド名の配列(バイト位置の昇順)
+     */
+    public String[] getFieldNames() {
+        final String[] names = new String[fields.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = fields.get(i).getName();
+        }
+        return names;
+    }
+
+    /**
+     * レコード区切り文字を設定する。
+     *
+     * @param lineSeparator レコード区切り文字
+     * @return 設定後の{@code FixedLengthDataBindConfig}
+     */
+    public FixedLengthDataBindConfig withLineSeparator(final String lineSeparator) {
+        return new FixedLengthDataBindConfig(recordLength, charset, lineSeparator, fillChar, fields);
+    }
+
+    /**
+     * 埋め字を設定する。
+     *
+     * @param fillChar 埋め字
+     * @return 設定後の{@code FixedLengthDataBindConfig}
+     */
+    public FixedLengthDataBindConfig withFillChar(final char fillChar) {
+        return new FixedLengthDataBindConfig(recordLength, charset, lineSeparator, fillChar, fields);
+    }
+
+    /**
+     * 文字列フィールドを追加する。
+     *
+     * @param name フィールド名
+     * @param offset レコードの先頭からのバイト位置(1始まり)
+     * @param length バイト数
+     * @return 設定後の{@code FixedLengthDataBindConfig}
+     */
+    public FixedLengthDataBindConfig withField(final String name, final int offset, final int length) {
+        return withField(new FixedLengthField(name, offset, length, false));
+    }
+
+    /**
+     * 数値フィールドを追加する。
+     *
+     * @param name フィールド名
+     * @param offset レコードの先頭からのバイト位置(1始まり)
+     * @param length バイト数
+     * @return 設定後の{@code FixedLengthDataBindConfig}
+     */
+    public FixedLengthDataBindConfig withNumericField(final String name, final int offset, final int length) {
+        return withField(new FixedLengthField(name, offset, length, true));
+    }
+
+    /**
+     * フィールドを追加する。
+     *
+     * @param field フィールドの定義
+     * @return 設定後の{@code FixedLengthDataBindConfig}
+     */
+    public FixedLengthDataBindConfig withField(final FixedLengthField field) {
+        final List<FixedLengthField> added = new ArrayList<FixedLengthField>(fields);
+        added.add(field);
+        return new FixedLengthDataBindConfig(recordLength, charset, lineSeparator, fillChar, added);
+    }
+
+    @Override
+    public String toString() {
+        return "FixedLengthDataBindConfig{recordLength=" + recordLength
+                + ", charset=" + charset
+                + ", lineSeparator=" + lineSeparator.replace("\r", "\\r").replace("\n", "\\n")
+                + ", fillChar=" + fillChar
+                + ", fields=" + fields
+                + '}';
+    }
+}
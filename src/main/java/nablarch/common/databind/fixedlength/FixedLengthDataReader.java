@@ -0,0 +1,224 @@
+package nablarch.common.databind.fixedlength;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+import nablarch.common.databind.DataReader;
+import nablarch.common.databind.InvalidDataFormatException;
+
+/**
+ * 固定長ファイルを1レコードずつ読み込むクラス。
+ * <p/>
+ * 入力ストリームからバイト配列のバッファに読み込み、各フィールドをバッファ上のバイト位置から直接切り出して文字列に変換する。
+ * レコード長が固定のため、改行の検索やレコード単位のコピーは行わない。
+ * <p/>
+ * 文字列フィールドは末尾の埋め字を、数値フィールドは先頭の半角スペースを除去する。
+ * 除去は文字列に変換した後に文字単位で行うため、マルチバイト文字の一部のバイトが埋め字と同じ値であっても除去されない。
+ * 除去後に空となったフィールドは、CSVの読み込みと同様に空文字列とする。
+ *
+ * @author Hisaaki Shioiri
+ */
+public class FixedLengthDataReader implements DataReader<String[]> {
+
+    /** バッファの最小サイズ */
+    private static final int MIN_BUFFER_SIZE = 8192;
+
+    /** 入力ストリーム */
+    private final InputStream in;
+
+    /** 文字コード */
+    private final Charset charset;
+
+    /** 1レコードのバイト数(レコード区切り文字を除く) */
+    private final int recordLength;
+
+    /** レコード区切り文字のバイト表現 */
+    private final byte[] separator;
+
+    /** フィールドのレコード内の開始位置(0始まり) */
+    private final int[] starts;
+
+    /** フィールドのバイト数 */
+    private final int[] lengths;
+
+    /** 数値フィールドか否か */
+    private final boolean[] numerics;
+
+    /** 埋め字 */
+    private final char fillChar;
+
+    /** バッファ */
+    private final byte[] buffer;
+
+    /** バッファ内の次に読み込む位置 */
+    private int position;
+
+    /** バッファ内の有効なバイト数 */
+    private int limit;
+
+    /** 入力ストリームの終端に達したか否か */
+    private boolean eof;
+
+    /** 読み込んだレコード数 */
+    private long lineNumber;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param in 入力ストリーム
+     * @param config 固定長ファイルの設定
+     */
+    public FixedLengthDataReader(final InputStream in, final FixedLengthDataBindConfig config) {
+        this.in = in;
+        charset = config.getCharset();
+        recordLength = config.getRecordLength();
+        separator = config.getLineSeparator().getBytes(charset);
+        final List<FixedLengthField> fields = config.getFields();
+        starts = new int[fields.size()];
+        lengths = new int[fields.size()];
+        numerics = new boolean[fields.size()];
+        for (int i = 0; i < starts.length; i++) {
+            final FixedLengthField field = fields.get(i);
+            starts[i] = field.getOffset() - 1;
+            lengths[i] = field.getLength();
+            numerics[i] = field.isNumeric();
+        }
+        fillChar = config.getFillChar();
+        // 書き込みと同じく、埋め字は1バイトで表現できる文字に限る
+        toSingleByte(fillChar, charset);
+        buffer = new byte[Math.max(MIN_BUFFER_SIZE, (recordLength + separator.length) * 2)];
+    }
+
+    /**
+     * 文字を1バイトで表現したバイト値を返す。
+     *
+     * @param c 文字
+     * @param charset 文字コード
+     * @return バイト値
+     */
+    static byte toSingleByte(final char c, final Charset charset) {
+        final byte[] bytes = String.valueOf(c).getBytes(charset);
+        if (bytes.length != 1) {
+            throw new IllegalArgumentException("fill char must be single byte. fill char = [" + c + "],"
+                    + " charset = [" + charset.name() + "], bytes = " + Arrays.toString(bytes));
+        }
+        return bytes[0];
+    }
+
+    /**
+     * 1レコード読み込む。
+     *
+     * @return レコードのフィールドの配列(ファイルの終端に達した場合は{@code null})
+     * @throws InvalidDataFormatException レコード長またはレコード区切り文字が不正な場合
+     */
+    @Override
+    public String[] read() {
+        final int recordSize = recordLength + separator.length;
+        fill(recordSize);
+        final int available = limit - position;
+        if (available == 0) {
+            return null;
+        }
+        lineNumber++;
+        // 最終レコードのみ、レコード区切り文字の省略を許容する
+        final boolean lastWithoutSeparator = available == recordLength && eof;
+        if (available < recordSize && !lastWithoutSeparator) {
+            throw new InvalidDataFormatException("record length does not match."
+                    + " expected record length = [" + recordSize + "],"
+                    + " actual record length = [" + available + "].", lineNumber);
+        }
+        final String[] record = new String[starts.length];
+        for (int i = 0; i < record.length; i++) {
+            record[i] = decode(position + starts[i], lengths[i], numerics[i]);
+        }
+        if (!lastWithoutSeparator) {
+            verifySeparator(position + recordLength);
+        }
+        position += lastWithoutSeparator ? recordLength : recordSize;
+        return record;
+    }
+
+    /**
+     * バッファ上のフィールドを文字列に変換する。
+     *
+     * @param start 開始位置
+     * @param length バイト数
+     * @param numeric 数値フィールドか否か
+     * @return 文字列(除去後に空となった場合は空文字列)
+     */
+    private String decode(final int start, final int length, final boolean numeric) {
+        final String value = new String(buffer, start, length, charset);
+        int begin = 0;
+        int end = value.length();
+        if (numeric) {
+            while (begin < end && value.charAt(begin) == ' ') {
+                begin++;
+            }
+        } else {
+            while (end > begin && value.charAt(end - 1) == fillChar) {
+                end--;
+            }
+        }
+        return value.substring(begin, end);
+    }
+
+    /**
+     * レコード区切り文字が正しいことを検証する。
+     *
+     * @param start レコード区切り文字の開始位置
+     */
+    private void verifySeparator(final int start) {
+        for (int i = 0; i < separator.length; i++) {
+            if (buffer[start + i] != separator[i]) {
+                throw new InvalidDataFormatException("line separator does not match.", lineNumber);
+            }
+        }
+    }
+
+    /**
+     * バッファに指定したバイト数以上が読み込まれた状態にする。
+     * <p/>
+     * ファイルの終端に達した場合は、読み込めた分のみとなる。
+     *
+     * @param size バイト数
+     */
+    private void fill(final int size) {
+        if (limit - position >= size || eof) {
+            return;
+        }
+        if (position != 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        try {
+            while (limit < size) {
+                final int read = in.read(buffer, limit, buffer.length - limit);
+                if (read == -1) {
+                    eof = true;
+                    return;
+                }
+                limit += read;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        }
+    }
+
+    /**
+     * 読み込んだレコード数を取得する。
+     *
+     * @return レコード数
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
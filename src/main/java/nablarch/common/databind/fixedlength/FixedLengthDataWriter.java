@@ -0,0 +1,320 @@
+package nablarch.common.databind.fixedlength;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.List;
+
+import nablarch.common.databind.DataWriter;
+import nablarch.common.databind.metrics.MapperMetrics;
+
+/**
+ * 固定長ファイルに1レコードずつ書き込むクラス。
+ * <p/>
+ * 埋め字とレコード区切り文字を設定済みの1レコード分のバイト配列(テンプレート)を事前に構築しておき、
+ * レコードごとにテンプレートを出力バッファに複写した後、各フィールドの領域のみを上書きする。
+ * <p/>
+ * 文字列フィールドは左詰めで書き込み、残りは埋め字となる。
+ * 数値フィールドは右詰めで書き込み、残りは{@code 0}で埋める。
+ * 整数型({@link Integer}、{@link Long}、{@link Short}、{@link Byte}及び64ビットに収まる{@link BigInteger})の値は、
+ * 文字列に変換せず直接バイト列に変換する。
+ * それ以外の数値は文字列表現({@link BigDecimal}は{@link BigDecimal#toPlainString()})を使用し、
+ * 数字、小数点及び先頭の負符号のみを許容する。
+ * 値が{@code null}のフィールドは埋め字のままとなる。
+ *
+ * @author Hisaaki Shioiri
+ */
+public class FixedLengthDataWriter implements DataWriter<Object[]> {
+
+    /** バッファの最小サイズ */
+    private static final int MIN_BUFFER_SIZE = 8192;
+
+    /** 出力ストリーム */
+    private final OutputStream out;
+
+    /** フィールドの定義 */
+    private final FixedLengthField[] fields;
+
+    /** 埋め字とレコード区切り文字を設定済みの1レコード分のバイト配列 */
+    private final byte[] template;
+
+    /** 数字({@code 0}～{@code 9})のバイト表現 */
+    private final byte[] digits = new byte[10];
+
+    /** 負符号のバイト表現 */
+    private final byte minusByte;
+
+    /** 小数点のバイト表現 */
+    private final byte periodByte;
+
+    /** 文字列フィールドの変換に使用するエンコーダ */
+    private final CharsetEncoder encoder;
+
+    /** 出力バッファ */
+    private final byte[] buffer;
+
+    /** 出力バッファに書き込んだバイト数 */
+    private int position;
+
+    /** メトリクスの収集先(収集しない場合は{@code null}) */
+    private MapperMetrics metrics;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param out 出力ストリーム
+     * @param config 固定長ファイルの設定
+     */
+    public FixedLengthDataWriter(final OutputStream out, final FixedLengthDataBindConfig config) {
+        this.out = out;
+        final List<FixedLengthField> fieldList = config.getFields();
+        fields = fieldList.toArray(new FixedLengthField[fieldList.size()]);
+
+        final byte[] separator = config.getLineSeparator().getBytes(config.getCharset());
+        final int recordLength = config.getRecordLength();
+        template = new byte[recordLength + separator.length];
+        final byte fillByte = FixedLengthDataReader.toSingleByte(config.getFillChar(), config.getCharset());
+        for (int i = 0; i < recordLength; i++) {
+            template[i] = fillByte;
+        }
+        System.arraycopy(separator, 0, template, recordLength, separator.length);
+
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = FixedLengthDataReader.toSingleByte((char) ('0' + i), config.getCharset());
+        }
+        minusByte = FixedLengthDataReader.toSingleByte('-', config.getCharset());
+        periodByte = FixedLengthDataReader.toSingleByte('.', config.getCharset());
+        encoder = config.getCharset().newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        buffer = new byte[Math.max(MIN_BUFFER_SIZE, template.length)];
+    }
+
+    /**
+     * メトリクスの収集先を設定する。
+     *
+     * @param metrics メトリクスの収集先
+     */
+    public void setMetrics(final MapperMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 1レコード書き込む。
+     * <p/>
+     * 値はフィールドの定義順(バイト位置の昇順)に並べること。
+     *
+     * @param values フィールドの値
+     * @throws IOException 書き込みに失敗した場合
+     * @throws IllegalArgumentException 値の数がフィールドの数と一致しない場合、値がフィールドのバイト数を超える場合
+     */
+    @Override
+    public void write(final Object[] values) throws IOException {
+        if (values.length != fields.length) {
+            throw new IllegalArgumentException("value count does not match field count."
+                    + " field count = [" + fields.length + "], value count = [" + values.length + ']');
+        }
+        if (buffer.length - position < template.length) {
+            flushBuffer();
+        }
+        final int start = position;
+        System.arraycopy(template, 0, buffer, start, template.length);
+        for (int i = 0; i < fields.length; i++) {
+            final Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            final FixedLengthField field = fields[i];
+            final int offset = start + field.getOffset() - 1;
+            final int written;
+            if (field.isNumeric()) {
+                written = encodeNumber(field, offset, value);
+            } else {
+                written = encodeText(field, offset, value.toString());
+            }
+            if (metrics != null) {
+                metrics.addField(written);
+            }
+        }
+        // 途中で例外が送出された場合は位置を進めないため、書きかけのレコードは出力されない
+        position += template.length;
+    }
+
+    /**
+     * 数値フィールドを右詰めで書き込み、残りを{@code 0}で埋める。
+     *
+     * @param field フィールドの定義
+     * @param offset バッファ上のフィールドの開始位置
+     * @param value 値
+     * @return 値のバイト数(埋めた{@code 0}を除く)
+     */
+    private int encodeNumber(final FixedLengthField field, final int offset, final Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return encodeLong(field, offset, ((Number) value).longValue());
+        }
+        if (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64) {
+            return encodeLong(field, offset, ((BigInteger) value).longValue());
+        }
+        if (value instanceof BigDecimal) {
+            return encodeNumericText(field, offset, ((BigDecimal) value).toPlainString());
+        }
+        if ((value instanceof Double || value instanceof Float) && isFinite(((Number) value).doubleValue())) {
+            // 指数表記とならないよう、文字列表現をBigDecimalで通常の表記に変換する
+            return encodeNumericText(field, offset, new BigDecimal(value.toString()).toPlainString());
+        }
+        return encodeNumericText(field, offset, value.toString());
+    }
+
+    /**
+     * 浮動小数点数が有限の値か否かを返す。
+     *
+     * @param value 値
+     * @return 非数(NaN)と無限大以外の場合は{@code true}
+     */
+    private static boolean isFinite(final double value) {
+        return !Double.isNaN(value) && !Double.isInfinite(value);
+    }
+
+    /**
+     * 整数を文字列に変換せずにバイト列として書き込む。
+     *
+     * @param field フィールドの定義
+     * @param offset バッファ上のフィールドの開始位置
+     * @param value 値
+     * @return 値のバイト数(埋めた{@code 0}を除く)
+     */
+    private int encodeLong(final FixedLengthField field, final int offset, final long value) {
+        final boolean negative = value < 0;
+        final int end = offset + field.getLength();
+        int index = end;
+        long rest = value;
+        do {
+            if (index == offset) {
+                throw exceedsLength(field, value);
+            }
+            // Long.MIN_VALUEでも桁あふれしないよう、負数は負のまま剰余を求める
+            final int digit = (int) (rest % 10);
+            buffer[--index] = digits[negative ? -digit : digit];
+            rest /= 10;
+        } while (rest != 0);
+        if (negative) {
+            if (index == offset) {
+                throw exceedsLength(field, value);
+            }
+            buffer[offset] = minusByte;
+        }
+        final int count = end - index + (negative ? 1 : 0);
+        while (index > offset + (negative ? 1 : 0)) {
+            buffer[--index] = digits[0];
+        }
+        return count;
+    }
+
+    /**
+     * 整数以外の数値を右詰めで書き込み、残りを{@code 0}で埋める。
+     * <p/>
+     * 負符号は先頭に書き込み、負符号と数字の間を{@code 0}で埋める。
+     *
+     * @param field フィールドの定義
+     * @param offset バッファ上のフィールドの開始位置
+     * @param text 値の文字列表現
+     * @return 値のバイト数(埋めた{@code 0}を除く)
+     */
+    private int encodeNumericText(final FixedLengthField field, final int offset, final String text) {
+        final int charCount = text.length();
+        if (charCount > field.getLength()) {
+            throw exceedsLength(field, text);
+        }
+        final boolean negative = charCount > 0 && text.charAt(0) == '-';
+        int index = offset + field.getLength();
+        for (int i = charCount - 1; i >= (negative ? 1 : 0); i--) {
+            final char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                buffer[--index] = digits[c - '0'];
+            } else if (c == '.') {
+                buffer[--index] = periodByte;
+            } else {
+                throw new IllegalArgumentException(
+                        "numeric value must consist of digits. field = [" + field + "], value = [" + text + ']');
+            }
+        }
+        while (index > offset + (negative ? 1 : 0)) {
+            buffer[--index] = digits[0];
+        }
+        if (negative) {
+            buffer[offset] = minusByte;
+        }
+        return charCount;
+    }
+
+    /**
+     * 文字列フィールドを左詰めで書き込む。
+     * <p/>
+     * 出力バッファに直接エンコードするため、中間のバイト配列は生成しない。
+     *
+     * @param field フィールドの定義
+     * @param offset バッファ上のフィールドの開始位置
+     * @param text 値
+     * @return 値のバイト数
+     */
+    private int encodeText(final FixedLengthField field, final int offset, final String text) {
+        final ByteBuffer out = ByteBuffer.wrap(buffer, offset, field.getLength());
+        encoder.reset();
+        CoderResult result = encoder.encode(CharBuffer.wrap(text), out, true);
+        if (!result.isOverflow()) {
+            result = encoder.flush(out);
+        }
+        if (result.isOverflow()) {
+            throw exceedsLength(field, text);
+        }
+        return out.position() - offset;
+    }
+
+    /**
+     * 値がフィールドのバイト数を超えることを表す例外を生成する。
+     *
+     * @param field フィールドの定義
+     * @param value 値
+     * @return 例外
+     */
+    private static IllegalArgumentException exceedsLength(final FixedLengthField field, final Object value) {
+        return new IllegalArgumentException("value exceeds field length. field = [" + field + "], value = [" + value + ']');
+    }
+
+    /**
+     * 出力バッファの内容を出力ストリームに書き込む。
+     *
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    /**
+     * 出力バッファの内容を出力ストリームに書き込み、フラッシュする。
+     *
+     * @throws IOException 書き込みに失敗した場合
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+}
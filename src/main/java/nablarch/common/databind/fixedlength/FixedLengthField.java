@@ -0,0 +1,88 @@
+package nablarch.common.databind.fixedlength;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 固定長ファイルのフィールドの定義。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class FixedLengthField {
+
+    /** フィールド名 */
+    private final String name;
+
+    /** レコードの先頭からのバイト位置(1始まり) */
+    private final int offset;
+
+    /** バイト数 */
+    private final int length;
+
+    /** 数値フィールドか否か */
+    private final boolean numeric;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param name フィールド名
+     * @param offset レコードの先頭からのバイト位置(1始まり)
+     * @param length バイト数
+     * @param numeric 数値フィールドか否か
+     */
+    public FixedLengthField(final String name, final int offset, final int length, final boolean numeric) {
+        if (offset <= 0) {
+            throw new IllegalArgumentException(
+                    "offset must be greater than 0. field = [" + name + "], offset = [" + offset + ']');
+        }
+        if (length <= 0) {
+            throw new IllegalArgumentException(
+                    "length must be greater than 0. field = [" + name + "], length = [" + length + ']');
+        }
+        this.name = name;
+        this.offset = offset;
+        this.length = length;
+        this.numeric = numeric;
+    }
+
+    /**
+     * フィールド名を取得する。
+     *
+     * @return フィールド名
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * レコードの先頭からのバイト位置(1始まり)を取得する。
+     *
+     * @return バイト位置
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * バイト数を取得する。
+     *
+     * @return バイト数
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 数値フィールドか否か。
+     *
+     * @return 数値フィールドの場合は{@code true}
+     */
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    @Override
+    public String toString() {
+        return name + '(' + offset + ',' + length + (numeric ? ",numeric" : "") + ')';
+    }
+}
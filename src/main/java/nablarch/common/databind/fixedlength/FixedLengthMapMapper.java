@@ -0,0 +1,41 @@
+package nablarch.common.databind.fixedlength;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 固定長ファイルを{@link Map}にマッピングするクラス。
+ * <p/>
+ * {@link FixedLengthDataBindConfig}に定義したフィールド名をキーとする。
+ *
+ * @author Hisaaki Shioiri
+ */
+public class FixedLengthMapMapper extends FixedLengthObjectMapperSupport<Map<String, ?>> {
+
+    /** フィールド名の配列 */
+    private final String[] fieldNames;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param config 固定長ファイルの設定
+     * @param stream 入力ストリーム
+     */
+    public FixedLengthMapMapper(final FixedLengthDataBindConfig config, final InputStream stream) {
+        super(config, stream);
+        if (config.getFields().isEmpty()) {
+            throw new IllegalArgumentException("fields should not be empty.");
+        }
+        fieldNames = config.getFieldNames();
+    }
+
+    @Override
+    protected Map<String, ?> createObject(final String[] record) {
+        final Map<String, String> map = new HashMap<String, String>();
+        for (int i = 0; i < record.length; i++) {
+            map.put(fieldNames[i], record[i]);
+        }
+        return map;
+    }
+}
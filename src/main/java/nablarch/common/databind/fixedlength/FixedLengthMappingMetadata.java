@@ -0,0 +1,60 @@
+package nablarch.common.databind.fixedlength;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * Beanに定義された固定長ファイルのマッピング情報を保持するクラス。
+ * <p/>
+ * {@link FixedLength}、{@link Field}及び{@link nablarch.common.databind.LineNumber}から導出した情報を保持する。
+ * Beanのクラスごとに一度だけ構築され、
+ * {@link nablarch.common.databind.DataBindUtil#findFixedLengthMappingMetadata(Class)}によってキャッシュされる。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class FixedLengthMappingMetadata {
+
+    /** 固定長ファイルの設定 */
+    private final FixedLengthDataBindConfig config;
+
+    /** 行番号を格納するプロパティ名 */
+    private final String lineNumberPropertyName;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param config 固定長ファイルの設定(フィールド名はプロパティ名)
+     * @param lineNumberPropertyName 行番号を格納するプロパティ名(存在しない場合は{@code null})
+     */
+    public FixedLengthMappingMetadata(final FixedLengthDataBindConfig config, final String lineNumberPropertyName) {
+        this.config = config;
+        this.lineNumberPropertyName = lineNumberPropertyName;
+    }
+
+    /**
+     * 固定長ファイルの設定を取得する。
+     *
+     * @return 固定長ファイルの設定
+     */
+    public FixedLengthDataBindConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * フィールドに対応したプロパティ名の配列を取得する。
+     *
+     * @return プロパティ名の配列(バイト位置の昇順)
+     */
+    public String[] getPropertyNames() {
+        return config.getFieldNames();
+    }
+
+    /**
+     * 行番号を格納するプロパティ名を取得する。
+     *
+     * @return 行番号を格納するプロパティ名(存在しない場合は{@code null})
+     */
+    public String getLineNumberPropertyName() {
+        return lineNumberPropertyName;
+    }
+}
@@ -0,0 +1,91 @@
+package nablarch.common.databind.fixedlength;
+
+import java.io.InputStream;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.metrics.MapperMetrics;
+import nablarch.common.databind.metrics.MetricsAware;
+import nablarch.core.util.FileUtil;
+
+/**
+ * 固定長ファイルをオブジェクトにマッピングするのをサポートするクラス。
+ *
+ * @param <T> マッピング対象のクラス
+ * @author Hisaaki Shioiri
+ */
+public abstract class FixedLengthObjectMapperSupport<T> implements ObjectMapper<T>, MetricsAware {
+
+    /** 固定長ファイルの設定 */
+    protected final FixedLengthDataBindConfig config;
+
+    /** 固定長ファイルのリーダ */
+    protected final FixedLengthDataReader reader;
+
+    /** メトリクスの収集先(収集しない場合は{@code null}) */
+    private MapperMetrics metrics;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param config 固定長ファイルの設定
+     * @param stream 入力ストリーム
+     */
+    public FixedLengthObjectMapperSupport(final FixedLengthDataBindConfig config, final InputStream stream) {
+        this.config = config;
+        reader = new FixedLengthDataReader(stream, config);
+    }
+
+    @Override
+    public void setMetrics(final MapperMetrics metrics) {
+        this.metrics = metrics;
+        metrics.open(config);
+    }
+
+    @Override
+    public T read() {
+        final String[] record;
+        try {
+            record = reader.read();
+        } catch (InvalidDataFormatException e) {
+            if (metrics != null) {
+                metrics.error(e);
+            }
+            throw e;
+        }
+        if (record == null) {
+            return null;
+        }
+        if (metrics != null) {
+            metrics.addRecord();
+            for (String field : record) {
+                metrics.addField(field == null ? 0 : field.length());
+            }
+        }
+        return createObject(record);
+    }
+
+    /**
+     * レコードをJavaObjectに変換する。
+     *
+     * @param record レコード
+     * @return 変換したJavaObject
+     */
+    protected abstract T createObject(String[] record);
+
+    @Override
+    public void write(final T object) {
+        throw new UnsupportedOperationException("unsupported write method.");
+    }
+
+    /**
+     * ストリームを閉じてリソースを解放する。
+     */
+    @Override
+    public void close() {
+        FileUtil.closeQuietly(reader);
+        if (metrics != null) {
+            metrics.close();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package nablarch.common.databind.fixedlength;
+
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Mapを固定長ファイルにマッピングするクラス。
+ * <p/>
+ * {@link FixedLengthDataBindConfig}に定義したフィールド名をキーとして値を取得する。
+ *
+ * @author Hisaaki Shioiri
+ */
+public class MapFixedLengthMapper extends ObjectFixedLengthMapperSupport<Map<String, ?>> {
+
+    /** フィールド名の配列 */
+    private final String[] fieldNames;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param config 固定長ファイルの設定
+     * @param stream 出力ストリーム
+     */
+    public MapFixedLengthMapper(final FixedLengthDataBindConfig config, final OutputStream stream) {
+        super(config, stream);
+        fieldNames = config.getFieldNames();
+    }
+
+    @Override
+    protected Object[] convertValues(final Map<String, ?> object) {
+        final Object[] fieldValues = new Object[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            fieldValues[i] = object.get(fieldNames[i]);
+        }
+        return fieldValues;
+    }
+}
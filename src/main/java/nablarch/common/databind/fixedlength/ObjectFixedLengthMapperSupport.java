@@ -0,0 +1,86 @@
+package nablarch.common.databind.fixedlength;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.metrics.MapperMetrics;
+import nablarch.common.databind.metrics.MetricsAware;
+import nablarch.core.util.FileUtil;
+
+/**
+ * オブジェクトを固定長ファイルにマッピングするのをサポートするクラス。
+ *
+ * @param <T> マッピング対象のクラス
+ * @author Hisaaki Shioiri
+ */
+public abstract class ObjectFixedLengthMapperSupport<T> implements ObjectMapper<T>, MetricsAware {
+
+    /** 固定長ファイルの設定 */
+    protected final FixedLengthDataBindConfig config;
+
+    /** 1レコードずつ書き込むライター */
+    private final FixedLengthDataWriter writer;
+
+    /** メトリクスの収集先(収集しない場合は{@code null}) */
+    private MapperMetrics metrics;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param config 固定長ファイルの設定
+     * @param stream 出力ストリーム
+     */
+    public ObjectFixedLengthMapperSupport(final FixedLengthDataBindConfig config, final OutputStream stream) {
+        if (config.getFields().isEmpty()) {
+            throw new IllegalArgumentException("fields should not be empty.");
+        }
+        this.config = config;
+        writer = new FixedLengthDataWriter(stream, config);
+    }
+
+    @Override
+    public T read() {
+        throw new UnsupportedOperationException("unsupported read method.");
+    }
+
+    @Override
+    public void setMetrics(final MapperMetrics metrics) {
+        this.metrics = metrics;
+        writer.setMetrics(metrics);
+        metrics.open(config);
+    }
+
+    @Override
+    public void write(final T object) {
+        if (metrics != null) {
+            metrics.addRecord();
+        }
+        try {
+            writer.write(convertValues(object));
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write.", e);
+        }
+    }
+
+    /**
+     * Javaオブジェクトを固定長ファイルに出力するための{@link Object}配列に変換する。
+     * <p/>
+     * 変換するObject配列は、フィールドのバイト位置の昇順に並べる必要がある。
+     *
+     * @param object Javaオブジェクト
+     * @return 固定長ファイル出力用のObject配列
+     */
+    protected abstract Object[] convertValues(T object);
+
+    /**
+     * ストリームを閉じてリソースを解放する。
+     */
+    @Override
+    public void close() {
+        FileUtil.closeQuietly(writer);
+        if (metrics != null) {
+            metrics.close();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * 固定長ファイルとのデータバインドに関する機能を提供する
+ */
+package nablarch.common.databind.fixedlength;
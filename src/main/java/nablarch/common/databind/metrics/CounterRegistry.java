@@ -0,0 +1,33 @@
+package nablarch.common.databind.metrics;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 名前付きのカウンタを保持するレジストリ。
+ * <p/>
+ * {@link CounterRegistryMetricsListener}が{@link MapperMetrics}を書き込む先として使用する。
+ * 監視製品のメトリクスレジストリなどに委譲する実装を作成することで、収集したメトリクスを外部に公開できる。
+ * <p/>
+ * 実装クラスはスレッドセーフでなければならない。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public interface CounterRegistry {
+
+    /**
+     * カウンタに値を加算する。
+     *
+     * @param name カウンタ名
+     * @param delta 加算する値
+     */
+    void increment(String name, long delta);
+
+    /**
+     * カウンタの値が指定した値より小さい場合、指定した値に更新する。
+     *
+     * @param name カウンタ名
+     * @param value 値
+     */
+    void updateMax(String name, long value);
+}
@@ -0,0 +1,68 @@
+package nablarch.common.databind.metrics;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link MapperMetrics}を{@link CounterRegistry}のカウンタに加算する{@link MapperMetricsListener}の実装クラス。
+ * <p/>
+ * カウンタ名は「プレフィックス.方向.項目」の形式となる(例: {@code databind.read.records})。
+ * 方向は{@code read}または{@code write}、項目は以下の通り。
+ * <ul>
+ *     <li>{@code mappers}: 閉じられた{@link nablarch.common.databind.ObjectMapper}の数</li>
+ *     <li>{@code records}: レコード数</li>
+ *     <li>{@code fields}: フィールド数</li>
+ *     <li>{@code bytes}: バイト数(計測できた場合のみ)</li>
+ *     <li>{@code sampledRecords}: 処理時間を計測したレコード数</li>
+ *     <li>{@code ioNanos}: I/Oの処理時間</li>
+ *     <li>{@code tokenizeNanos}: 字句解析の処理時間</li>
+ *     <li>{@code bindNanos}: バインドの処理時間</li>
+ *     <li>{@code peakFieldLength}: 最大のフィールド長(最大値で更新)</li>
+ * </ul>
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public class CounterRegistryMetricsListener implements MapperMetricsListener {
+
+    /** カウンタのレジストリ */
+    private CounterRegistry counterRegistry;
+
+    /** カウンタ名のプレフィックス */
+    private String prefix = "databind";
+
+    @Override
+    public void onClose(final MapperMetrics metrics) {
+        final String base = prefix + '.' + (metrics.getDirection() == MapperMetrics.Direction.READ ? "read" : "write") + '.';
+        counterRegistry.increment(base + "mappers", 1L);
+        counterRegistry.increment(base + "records", metrics.getRecordCount());
+        counterRegistry.increment(base + "fields", metrics.getFieldCount());
+        if (metrics.getByteCount() >= 0) {
+            counterRegistry.increment(base + "bytes", metrics.getByteCount());
+        }
+        counterRegistry.increment(base + "sampledRecords", metrics.getSampledRecordCount());
+        counterRegistry.increment(base + "ioNanos", metrics.getIoNanos());
+        counterRegistry.increment(base + "tokenizeNanos", metrics.getTokenizeNanos());
+        counterRegistry.increment(base + "bindNanos", metrics.getBindNanos());
+        counterRegistry.updateMax(base + "peakFieldLength", metrics.getPeakFieldLength());
+    }
+
+    /**
+     * カウンタのレジストリを設定する。
+     *
+     * @param counterRegistry カウンタのレジストリ
+     */
+    public void setCounterRegistry(final CounterRegistry counterRegistry) {
+        this.counterRegistry = counterRegistry;
+    }
+
+    /**
+     * カウンタ名のプレフィックスを設定する。
+     * <p/>
+     * デフォルトは{@code databind}。
+     *
+     * @param prefix カウンタ名のプレフィックス
+     */
+    public void setPrefix(final String prefix) {
+        this.prefix = prefix;
+    }
+}
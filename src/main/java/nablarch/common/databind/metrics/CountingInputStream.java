@@ -0,0 +1,57 @@
+package nablarch.common.databind.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 読み込んだバイト数を{@link MapperMetrics}に加算する入力ストリーム。
+ *
+ * @author Hisaaki Shioiri
+ */
+class CountingInputStream extends FilterInputStream {
+
+    /** 加算先のメトリクス */
+    private final MapperMetrics metrics;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param in 入力ストリーム
+     * @param metrics 加算先のメトリクス
+     */
+    CountingInputStream(final InputStream in, final MapperMetrics metrics) {
+        super(in);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int read = super.read();
+        if (read != -1) {
+            metrics.addBytes(1);
+        }
+        return read;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final int read = super.read(b, off, len);
+        if (read > 0) {
+            metrics.addBytes(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        final long skipped = super.skip(n);
+        metrics.addBytes(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
@@ -0,0 +1,40 @@
+package nablarch.common.databind.metrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 書き込んだバイト数を{@link MapperMetrics}に加算する出力ストリーム。
+ *
+ * @author Hisaaki Shioiri
+ */
+class CountingOutputStream extends FilterOutputStream {
+
+    /** 加算先のメトリクス */
+    private final MapperMetrics metrics;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param out 出力ストリーム
+     * @param metrics 加算先のメトリクス
+     */
+    CountingOutputStream(final OutputStream out, final MapperMetrics metrics) {
+        super(out);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        out.write(b);
+        metrics.addBytes(1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        // FilterOutputStreamは1バイトずつ書き込むため、まとめて書き込む
+        out.write(b, off, len);
+        metrics.addBytes(len);
+    }
+}
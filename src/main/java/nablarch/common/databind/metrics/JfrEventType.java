@@ -0,0 +1,285 @@
+package nablarch.common.databind.metrics;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDK Flight Recorderのイベント型。
+ * <p/>
+ * 本モジュールはJava6でコンパイルするため、{@code jdk.jfr.Event}のサブクラスを定義できない。
+ * このため、{@code jdk.jfr.EventFactory}を使用してイベント型を実行時に定義し、リフレクションで値を設定する。
+ * {@code jdk.jfr}が存在しない実行環境では、{@link #isAvailable()}が{@code false}を返し、
+ * イベントは記録されない。
+ * <p/>
+ * イベントが無効化されている場合、{@link #commit(Object...)}は有効か否かの判定のみを行う。
+ *
+ * @author Hisaaki Shioiri
+ */
+final class JfrEventType {
+
+    /** イベントのカテゴリ */
+    private static final String[] CATEGORY = {"Nablarch", "Data Bind"};
+
+    /** {@code jdk.jfr}のAPI(存在しない場合は{@code null}) */
+    private static final Api API = Api.load();
+
+    /** {@code jdk.jfr.EventFactory}のインスタンス */
+    private final Object factory;
+
+    /** {@code jdk.jfr.EventType}のインスタンス */
+    private final Object eventType;
+
+    /** イベント名 */
+    private final String name;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param factory {@code jdk.jfr.EventFactory}のインスタンス
+     * @param eventType {@code jdk.jfr.EventType}のインスタンス
+     * @param name イベント名
+     */
+    private JfrEventType(final Object factory, final Object eventType, final String name) {
+        this.factory = factory;
+        this.eventType = eventType;
+        this.name = name;
+    }
+
+    /**
+     * {@code jdk.jfr}が使用できるか否か。
+     *
+     * @return 使用できる場合は{@code true}
+     */
+    static boolean isAvailable() {
+        return API != null;
+    }
+
+    /**
+     * イベント型を定義する。
+     * <p/>
+     * {@code jdk.jfr}が使用できない場合は{@code null}を返す。
+     *
+     * @param name イベント名
+     * @param label イベントのラベル
+     * @param fields フィールドの定義
+     * @return イベント型
+     */
+    static JfrEventType define(final String name, final String label, final Field... fields) {
+        if (API == null) {
+            return null;
+        }
+        try {
+            final List<Object> annotations = Arrays.asList(
+                    API.annotation("jdk.jfr.Name", name),
+                    API.annotation("jdk.jfr.Label", label),
+                    API.annotation("jdk.jfr.Category", CATEGORY),
+                    API.annotation("jdk.jfr.StackTrace", Boolean.FALSE));
+            final List<Object> descriptors = new ArrayList<Object>(fields.length);
+            for (Field field : fields) {
+                descriptors.add(API.descriptor(field));
+            }
+            final Object factory = API.create.invoke(null, annotations, descriptors);
+            return new JfrEventType(factory, API.getEventType.invoke(factory), name);
+        } catch (Exception e) {
+            throw new IllegalStateException("failed to define JFR event. event = [" + name + ']', e);
+        }
+    }
+
+    /**
+     * イベントが有効な場合、イベントを記録する。
+     *
+     * @param values フィールドの値(定義したフィールドの順)
+     */
+    void commit(final Object... values) {
+        try {
+            if (!(Boolean) API.isEnabled.invoke(eventType)) {
+                return;
+            }
+            final Object event = API.newEvent.invoke(factory);
+            for (int i = 0; i < values.length; i++) {
+                API.set.invoke(event, i, values[i]);
+            }
+            API.commit.invoke(event);
+        } catch (Exception e) {
+            throw new IllegalStateException("failed to commit JFR event. event = [" + name + ']', e);
+        }
+    }
+
+    /**
+     * イベントのフィールドの定義。
+     */
+    static final class Field {
+
+        /** 型 */
+        private final Class<?> type;
+
+        /** フィールド名 */
+        private final String name;
+
+        /** ラベル */
+        private final String label;
+
+        /** 単位を表すアノテーションのクラス名(単位がない場合は{@code null}) */
+        private final String unitAnnotation;
+
+        /** 単位 */
+        private final String unit;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param type 型
+         * @param name フィールド名
+         * @param label ラベル
+         * @param unitAnnotation 単位を表すアノテーションのクラス名(単位がない場合は{@code null})
+         * @param unit 単位
+         */
+        private Field(final Class<?> type, final String name, final String label,
+                final String unitAnnotation, final String unit) {
+            this.type = type;
+            this.name = name;
+            this.label = label;
+            this.unitAnnotation = unitAnnotation;
+            this.unit = unit;
+        }
+
+        /**
+         * 文字列のフィールドを定義する。
+         *
+         * @param name フィールド名
+         * @param label ラベル
+         * @return フィールドの定義
+         */
+        static Field string(final String name, final String label) {
+            return new Field(String.class, name, label, null, null);
+        }
+
+        /**
+         * 数値のフィールドを定義する。
+         *
+         * @param name フィールド名
+         * @param label ラベル
+         * @return フィールドの定義
+         */
+        static Field count(final String name, final String label) {
+            return new Field(long.class, name, label, null, null);
+        }
+
+        /**
+         * バイト数のフィールドを定義する。
+         *
+         * @param name フィールド名
+         * @param label ラベル
+         * @return フィールドの定義
+         */
+        static Field bytes(final String name, final String label) {
+            return new Field(long.class, name, label, "jdk.jfr.DataAmount", "BYTES");
+        }
+
+        /**
+         * 時間(ナノ秒)のフィールドを定義する。
+         *
+         * @param name フィールド名
+         * @param label ラベル
+         * @return フィールドの定義
+         */
+        static Field nanos(final String name, final String label) {
+            return new Field(long.class, name, label, "jdk.jfr.Timespan", "NANOSECONDS");
+        }
+    }
+
+    /**
+     * リフレクションで呼び出す{@code jdk.jfr}のAPI。
+     */
+    private static final class Api {
+
+        /** {@code AnnotationElement(Class, Object)} */
+        private final Constructor<?> annotationElement;
+
+        /** {@code ValueDescriptor(Class, String, List)} */
+        private final Constructor<?> valueDescriptor;
+
+        /** {@code EventFactory.create(List, List)} */
+        private final Method create;
+
+        /** {@code EventFactory#getEventType()} */
+        private final Method getEventType;
+
+        /** {@code EventFactory#newEvent()} */
+        private final Method newEvent;
+
+        /** {@code EventType#isEnabled()} */
+        private final Method isEnabled;
+
+        /** {@code Event#set(int, Object)} */
+        private final Method set;
+
+        /** {@code Event#commit()} */
+        private final Method commit;
+
+        /**
+         * コンストラクタ。
+         *
+         * @throws Exception {@code jdk.jfr}が存在しない場合
+         */
+        private Api() throws Exception {
+            final Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+            final Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+            final Class<?> eventClass = Class.forName("jdk.jfr.Event");
+            annotationElement = annotationElementClass.getConstructor(Class.class, Object.class);
+            valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor")
+                                   .getConstructor(Class.class, String.class, List.class);
+            create = factoryClass.getMethod("create", List.class, List.class);
+            getEventType = factoryClass.getMethod("getEventType");
+            newEvent = factoryClass.getMethod("newEvent");
+            isEnabled = Class.forName("jdk.jfr.EventType").getMethod("isEnabled");
+            set = eventClass.getMethod("set", int.class, Object.class);
+            commit = eventClass.getMethod("commit");
+        }
+
+        /**
+         * APIを読み込む。
+         *
+         * @return API({@code jdk.jfr}が存在しない場合は{@code null})
+         */
+        private static Api load() {
+            try {
+                return new Api();
+            } catch (Exception ignored) {
+                return null;
+            }
+        }
+
+        /**
+         * {@code AnnotationElement}を生成する。
+         *
+         * @param annotation アノテーションのクラス名
+         * @param value アノテーションの値
+         * @return {@code AnnotationElement}
+         * @throws Exception 生成に失敗した場合
+         */
+        private Object annotation(final String annotation, final Object value) throws Exception {
+            return annotationElement.newInstance(Class.forName(annotation), value);
+        }
+
+        /**
+         * {@code ValueDescriptor}を生成する。
+         *
+         * @param field フィールドの定義
+         * @return {@code ValueDescriptor}
+         * @throws Exception 生成に失敗した場合
+         */
+        private Object descriptor(final Field field) throws Exception {
+            final List<Object> annotations = new ArrayList<Object>();
+            annotations.add(annotation("jdk.jfr.Label", field.label));
+            if (field.unitAnnotation != null) {
+                annotations.add(annotation(field.unitAnnotation, field.unit));
+            }
+            return valueDescriptor.newInstance(field.type, field.name, Collections.unmodifiableList(annotations));
+        }
+    }
+}
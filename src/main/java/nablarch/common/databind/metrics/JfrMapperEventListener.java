@@ -0,0 +1,133 @@
+package nablarch.common.databind.metrics;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link nablarch.common.databind.ObjectMapper}のライフサイクルと処理状況を、
+ * JDK Flight Recorder(JFR)のイベントとして記録する{@link MapperEventListener}の実装クラス。
+ * <p/>
+ * 以下のイベントを記録する。イベントはJFRの設定で個別に有効化・無効化できる。
+ * <ul>
+ *     <li>{@code nablarch.databind.MapperOpen}: {@link nablarch.common.databind.ObjectMapper}の生成(入出力先と設定情報)</li>
+ *     <li>{@code nablarch.databind.MapperChunk}: {@link #setChunkSize(int)}件のレコードの処理</li>
+ *     <li>{@code nablarch.databind.MapperClose}: {@link nablarch.common.databind.ObjectMapper}のクローズ</li>
+ *     <li>{@code nablarch.databind.InvalidDataFormat}: {@link InvalidDataFormatException}の送出</li>
+ * </ul>
+ * JFRの記録と同じタイムライン上に出力されるため、GCやファイルI/Oのイベントと突き合わせて分析できる。
+ * オープンとクローズのイベントには、{@link MapperMetrics#getSource()}を入出力先として出力する。
+ * <p/>
+ * イベント型は実行時に定義するため、Java6でコンパイルしたモジュールのままで使用できる。
+ * JFRが存在しない実行環境では何も記録しない。
+ * JFRの記録を行っていない場合やイベントが無効な場合のコストは、チャンクごとの有効判定のみとなる。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public class JfrMapperEventListener implements MapperEventListener {
+
+    /** オープンのイベント */
+    private static final JfrEventType OPEN = JfrEventType.define(
+            "nablarch.databind.MapperOpen", "Mapper Open",
+            JfrEventType.Field.string("type", "Type"),
+            JfrEventType.Field.string("direction", "Direction"),
+            JfrEventType.Field.string("source", "Source"),
+            JfrEventType.Field.string("config", "Config"));
+
+    /** チャンクのイベント */
+    private static final JfrEventType CHUNK = JfrEventType.define(
+            "nablarch.databind.MapperChunk", "Mapper Chunk",
+            JfrEventType.Field.string("type", "Type"),
+            JfrEventType.Field.string("direction", "Direction"),
+            JfrEventType.Field.count("records", "Records"),
+            JfrEventType.Field.bytes("bytes", "Bytes"),
+            JfrEventType.Field.nanos("elapsed", "Elapsed"));
+
+    /** クローズのイベント */
+    private static final JfrEventType CLOSE = JfrEventType.define(
+            "nablarch.databind.MapperClose", "Mapper Close",
+            JfrEventType.Field.string("type", "Type"),
+            JfrEventType.Field.string("direction", "Direction"),
+            JfrEventType.Field.string("source", "Source"),
+            JfrEventType.Field.count("records", "Records"),
+            JfrEventType.Field.count("fields", "Fields"),
+            JfrEventType.Field.bytes("bytes", "Bytes"),
+            JfrEventType.Field.nanos("elapsed", "Elapsed"));
+
+    /** データの形式誤りのイベント */
+    private static final JfrEventType ERROR = JfrEventType.define(
+            "nablarch.databind.InvalidDataFormat", "Invalid Data Format",
+            JfrEventType.Field.string("type", "Type"),
+            JfrEventType.Field.string("direction", "Direction"),
+            JfrEventType.Field.count("lineNumber", "Line Number"),
+            JfrEventType.Field.string("message", "Message"));
+
+    /** 1チャンクのレコード数 */
+    private int chunkSize = 10000;
+
+    /**
+     * 実行環境でJFRが使用できるか否か。
+     *
+     * @return 使用できる場合は{@code true}
+     */
+    public static boolean isAvailable() {
+        return JfrEventType.isAvailable();
+    }
+
+    @Override
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * 1チャンクとして記録するレコード数を設定する。
+     * <p/>
+     * デフォルトは{@code 10000}。
+     *
+     * @param chunkSize 1チャンクのレコード数
+     */
+    public void setChunkSize(final int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void onOpen(final MapperMetrics metrics) {
+        if (OPEN != null) {
+            OPEN.commit(typeName(metrics), metrics.getDirection().name(), metrics.getSource(),
+                    String.valueOf(metrics.getConfig()));
+        }
+    }
+
+    @Override
+    public void onChunk(final MapperMetrics metrics, final long records, final long bytes, final long elapsedNanos) {
+        if (CHUNK != null) {
+            CHUNK.commit(typeName(metrics), metrics.getDirection().name(), records, bytes, elapsedNanos);
+        }
+    }
+
+    @Override
+    public void onClose(final MapperMetrics metrics) {
+        if (CLOSE != null) {
+            CLOSE.commit(typeName(metrics), metrics.getDirection().name(), metrics.getSource(),
+                    metrics.getRecordCount(),
+                    metrics.getFieldCount(), metrics.getByteCount(), metrics.getElapsedNanos());
+        }
+    }
+
+    @Override
+    public void onError(final MapperMetrics metrics, final InvalidDataFormatException e) {
+        if (ERROR != null) {
+            ERROR.commit(typeName(metrics), metrics.getDirection().name(), e.getLineNumber(), e.getMessage());
+        }
+    }
+
+    /**
+     * バインディング対象のクラス名を取得する。
+     *
+     * @param metrics メトリクス
+     * @return クラス名
+     */
+    private static String typeName(final MapperMetrics metrics) {
+        return metrics.getType() == null ? null : metrics.getType().getName();
+    }
+}
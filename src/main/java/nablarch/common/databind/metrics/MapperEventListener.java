@@ -0,0 +1,53 @@
+package nablarch.common.databind.metrics;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link nablarch.common.databind.ObjectMapper}のライフサイクルと処理状況を受け取るリスナ。
+ * <p/>
+ * {@link MapperMetricsListener#onClose(MapperMetrics)}に加えて、以下の契機で呼び出される。
+ * <ul>
+ *     <li>{@link nablarch.common.databind.ObjectMapper}の生成時</li>
+ *     <li>{@link #getChunkSize()}件のレコードを処理するごと(クローズ時には端数のレコードについても呼び出す)</li>
+ *     <li>{@link InvalidDataFormatException}の送出時</li>
+ * </ul>
+ * 複数のスレッドから同時に呼び出されるため、実装クラスはスレッドセーフでなければならない。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public interface MapperEventListener extends MapperMetricsListener {
+
+    /**
+     * 1チャンクとして通知するレコード数を取得する。
+     *
+     * @return 1チャンクのレコード数
+     */
+    int getChunkSize();
+
+    /**
+     * {@link nablarch.common.databind.ObjectMapper}が生成された際に呼び出される。
+     *
+     * @param metrics メトリクス
+     */
+    void onOpen(MapperMetrics metrics);
+
+    /**
+     * チャンクの処理が完了した際に呼び出される。
+     *
+     * @param metrics メトリクス
+     * @param records チャンク内のレコード数
+     * @param bytes チャンク内で入出力したバイト数(計測できない場合は-1)
+     * @param elapsedNanos チャンクの処理時間(ナノ秒)
+     */
+    void onChunk(MapperMetrics metrics, long records, long bytes, long elapsedNanos);
+
+    /**
+     * データの形式誤りを検出した際に呼び出される。
+     *
+     * @param metrics メトリクス
+     * @param e データの形式誤りを表す例外
+     */
+    void onError(MapperMetrics metrics, InvalidDataFormatException e);
+}
@@ -0,0 +1,495 @@
+package nablarch.common.databind.metrics;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import nablarch.common.databind.DataBindConfig;
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 1つの{@link nablarch.common.databind.ObjectMapper}で収集したメトリクス。
+ * <p/>
+ * 件数、文字数及びバイト数は全てのレコードを対象に集計する。
+ * 処理時間は{@link System#nanoTime()}の呼び出しを抑えるため、サンプリング間隔ごとに1レコードのみ計測する。
+ * 全体の処理時間を見積もる場合は、{@link #getSampledRecordCount()}と{@link #getRecordCount()}の比で補正すること。
+ * <p/>
+ * 処理時間は以下の3つに分けて計測する。
+ * <ul>
+ *     <li>I/O: 入力の場合はバッファへの読み込み(文字コードの変換を含む)、出力の場合はバッファの書き出し</li>
+ *     <li>字句解析: 入力の場合はCSVの要素への分解、出力の場合はCSV形式への整形</li>
+ *     <li>バインド: 入力の場合はレコードからオブジェクトへの変換、出力の場合はオブジェクトから値の配列への変換</li>
+ * </ul>
+ * <p/>
+ * リスナが{@link MapperEventListener}の場合は、クローズ時に加えて、オープン時、
+ * {@link MapperEventListener#getChunkSize()}件のレコードごと及びデータの形式誤り検出時にも通知する。
+ * <p/>
+ * 本クラスはスレッドセーフではない。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class MapperMetrics {
+
+    /**
+     * 処理の方向。
+     */
+    public enum Direction {
+        /** 入力 */
+        READ,
+        /** 出力 */
+        WRITE
+    }
+
+    /** バインディング対象のクラス */
+    private final Class<?> type;
+
+    /** 処理の方向 */
+    private final Direction direction;
+
+    /** 通知先のリスナ */
+    private final MapperMetricsListener listener;
+
+    /** サンプリング間隔 */
+    private final int samplingInterval;
+
+    /** サンプリングの判定に使用するカウンタ */
+    private long sampleCounter;
+
+    /** レコード数 */
+    private long recordCount;
+
+    /** フィールド数 */
+    private long fieldCount;
+
+    /** バイト数(計測できない場合は-1) */
+    private long byteCount = -1L;
+
+    /** 最大のフィールド長 */
+    private int peakFieldLength;
+
+    /** 処理時間を計測したレコード数 */
+    private long sampledRecordCount;
+
+    /** I/Oの処理時間(ナノ秒) */
+    private long ioNanos;
+
+    /** 字句解析の処理時間(ナノ秒) */
+    private long tokenizeNanos;
+
+    /** バインドの処理時間(ナノ秒) */
+    private long bindNanos;
+
+    /** 処理時間を計測中か否か */
+    private boolean timing;
+
+    /** 計測中のレコードのI/Oの処理時間(ナノ秒) */
+    private long recordIoNanos;
+
+    /** 閉じられたか否か */
+    private boolean closed;
+
+    /** イベントの通知先(通知しない場合は{@code null}) */
+    private final MapperEventListener eventListener;
+
+    /** チャンクのレコード数 */
+    private final int chunkSize;
+
+    /** 現在のチャンクの残りレコード数 */
+    private int chunkRemaining;
+
+    /** 現在のチャンクの開始時刻(ナノ秒) */
+    private long chunkStartNanos;
+
+    /** 現在のチャンクの開始時点のバイト数 */
+    private long chunkStartBytes;
+
+    /** オープンした時刻(ナノ秒) */
+    private long openNanos;
+
+    /** クローズした時刻(ナノ秒) */
+    private long closeNanos;
+
+    /** 設定情報 */
+    private DataBindConfig config;
+
+    /** 入出力先の説明 */
+    private String source;
+
+    /**
+     * {@code MapperMetrics}を生成する。
+     *
+     * @param type バインディング対象のクラス
+     * @param direction 処理の方向
+     * @param listener 通知先のリスナ
+     * @param samplingInterval 処理時間を計測する間隔(レコード数)
+     */
+    public MapperMetrics(final Class<?> type, final Direction direction,
+            final MapperMetricsListener listener, final int samplingInterval) {
+        if (samplingInterval <= 0) {
+            throw new IllegalArgumentException(
+                    "sampling interval must be greater than 0. sampling interval = [" + samplingInterval + ']');
+        }
+        this.type = type;
+        this.direction = direction;
+        this.listener = listener;
+        this.samplingInterval = samplingInterval;
+        if (listener instanceof MapperEventListener) {
+            eventListener = (MapperEventListener) listener;
+            chunkSize = eventListener.getChunkSize();
+            if (chunkSize <= 0) {
+                throw new IllegalArgumentException(
+                        "chunk size must be greater than 0. chunk size = [" + chunkSize + ']');
+            }
+        } else {
+            eventListener = null;
+            chunkSize = 0;
+        }
+        chunkRemaining = chunkSize;
+        openNanos = System.nanoTime();
+    }
+
+    /**
+     * メトリクスの収集を開始する。
+     * <p/>
+     * {@link MapperEventListener}にオープンを通知する。
+     *
+     * @param config 設定情報
+     */
+    public void open(final DataBindConfig config) {
+        this.config = config;
+        openNanos = System.nanoTime();
+        chunkStartNanos = openNanos;
+        chunkStartBytes = byteCount;
+        if (eventListener != null) {
+            eventListener.onOpen(this);
+        }
+    }
+
+    /**
+     * 入力ストリームから読み込んだバイト数を計測する。
+     *
+     * @param stream 入力ストリーム
+     * @return バイト数を計測する入力ストリーム
+     */
+    public InputStream countBytes(final InputStream stream) {
+        byteCount = 0L;
+        return new CountingInputStream(stream, this);
+    }
+
+    /**
+     * 出力ストリームに書き込んだバイト数を計測する。
+     *
+     * @param stream 出力ストリーム
+     * @return バイト数を計測する出力ストリーム
+     */
+    public OutputStream countBytes(final OutputStream stream) {
+        byteCount = 0L;
+        return new CountingOutputStream(stream, this);
+    }
+
+    /**
+     * 次のレコードの処理時間を計測するか否かを判定する。
+     *
+     * @return 計測する場合は{@code true}
+     */
+    public boolean nextSample() {
+        return sampleCounter++ % samplingInterval == 0;
+    }
+
+    /**
+     * レコードの処理時間の計測を開始する。
+     *
+     * @return 開始時刻(ナノ秒)
+     */
+    public long startTiming() {
+        timing = true;
+        recordIoNanos = 0L;
+        return System.nanoTime();
+    }
+
+    /**
+     * レコードの処理時間の計測を終了する。
+     */
+    public void stopTiming() {
+        timing = false;
+    }
+
+    /**
+     * レコードの処理時間を計測中か否か。
+     *
+     * @return 計測中の場合は{@code true}
+     */
+    public boolean isTiming() {
+        return timing;
+    }
+
+    /**
+     * 計測中のレコードのI/Oの処理時間を加算する。
+     *
+     * @param nanos 処理時間(ナノ秒)
+     */
+    public void addIoNanos(final long nanos) {
+        recordIoNanos += nanos;
+    }
+
+    /**
+     * レコードの処理時間を加算する。
+     * <p/>
+     * 入力の場合は{@code start}から{@code split}までを字句解析、{@code split}から{@code end}までをバインドとする。
+     * 出力の場合は{@code start}から{@code split}までをバインド、{@code split}から{@code end}までを字句解析とする。
+     * どちらの場合も、計測中に加算されたI/Oの処理時間は字句解析の処理時間から除く。
+     *
+     * @param start 開始時刻(ナノ秒)
+     * @param split 前半の処理の終了時刻(ナノ秒)
+     * @param end 終了時刻(ナノ秒)
+     */
+    public void addTiming(final long start, final long split, final long end) {
+        final long first = split - start;
+        final long second = end - split;
+        if (direction == Direction.READ) {
+            tokenizeNanos += first - recordIoNanos;
+            bindNanos += second;
+        } else {
+            bindNanos += first;
+            tokenizeNanos += second - recordIoNanos;
+        }
+        ioNanos += recordIoNanos;
+        recordIoNanos = 0L;
+        sampledRecordCount++;
+    }
+
+    /**
+     * レコード数を加算する。
+     */
+    public void addRecord() {
+        recordCount++;
+        if (eventListener != null && --chunkRemaining == 0) {
+            completeChunk();
+        }
+    }
+
+    /**
+     * 現在のチャンクを{@link MapperEventListener}に通知し、次のチャンクを開始する。
+     */
+    private void completeChunk() {
+        final long now = System.nanoTime();
+        final long records = chunkSize - chunkRemaining;
+        final long bytes = byteCount < 0 ? -1L : byteCount - chunkStartBytes;
+        chunkRemaining = chunkSize;
+        chunkStartBytes = byteCount;
+        final long start = chunkStartNanos;
+        chunkStartNanos = now;
+        eventListener.onChunk(this, records, bytes, now - start);
+    }
+
+    /**
+     * データの形式誤りを{@link MapperEventListener}に通知する。
+     *
+     * @param e データの形式誤りを表す例外
+     */
+    public void error(final InvalidDataFormatException e) {
+        if (eventListener != null) {
+            eventListener.onError(this, e);
+        }
+    }
+
+    /**
+     * フィールドを集計する。
+     *
+     * @param length フィールドの文字数
+     */
+    public void addField(final int length) {
+        fieldCount++;
+        if (length > peakFieldLength) {
+            peakFieldLength = length;
+        }
+    }
+
+    /**
+     * バイト数を加算する。
+     *
+     * @param bytes バイト数
+     */
+    void addBytes(final long bytes) {
+        byteCount += bytes;
+    }
+
+    /**
+     * メトリクスの収集を終了し、リスナに通知する。
+     * <p/>
+     * 既に終了している場合は何もしない。
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        timing = false;
+        if (eventListener != null && chunkRemaining != chunkSize) {
+            completeChunk();
+        }
+        closeNanos = System.nanoTime();
+        listener.onClose(this);
+    }
+
+    /**
+     * バインディング対象のクラスを取得する。
+     *
+     * @return バインディング対象のクラス
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * 処理の方向を取得する。
+     *
+     * @return 処理の方向
+     */
+    public Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * サンプリング間隔を取得する。
+     *
+     * @return サンプリング間隔
+     */
+    public int getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    /**
+     * レコード数を取得する。
+     * <p/>
+     * ヘッダ行は含まない。
+     *
+     * @return レコード数
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * フィールド数を取得する。
+     *
+     * @return フィールド数
+     */
+    public long getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * バイト数を取得する。
+     * <p/>
+     * ストリームではなく{@link java.io.Reader}や{@link java.io.Writer}を使用した場合は、
+     * バイト数を計測できないため{@code -1}を返す。
+     *
+     * @return バイト数
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * 最大のフィールド長(文字数)を取得する。
+     *
+     * @return 最大のフィールド長
+     */
+    public int getPeakFieldLength() {
+        return peakFieldLength;
+    }
+
+    /**
+     * 処理時間を計測したレコード数を取得する。
+     *
+     * @return 処理時間を計測したレコード数
+     */
+    public long getSampledRecordCount() {
+        return sampledRecordCount;
+    }
+
+    /**
+     * 計測したレコードのI/Oの処理時間の合計を取得する。
+     *
+     * @return 処理時間(ナノ秒)
+     */
+    public long getIoNanos() {
+        return ioNanos;
+    }
+
+    /**
+     * 計測したレコードの字句解析の処理時間の合計を取得する。
+     *
+     * @return 処理時間(ナノ秒)
+     */
+    public long getTokenizeNanos() {
+        return tokenizeNanos;
+    }
+
+    /**
+     * 計測したレコードのバインドの処理時間の合計を取得する。
+     *
+     * @return 処理時間(ナノ秒)
+     */
+    public long getBindNanos() {
+        return bindNanos;
+    }
+
+    /**
+     * 設定情報を取得する。
+     *
+     * @return 設定情報(オープンしていない場合は{@code null})
+     */
+    public DataBindConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 入出力先の説明を設定する。
+     * <p/>
+     * {@link #open(DataBindConfig)}より前に設定すること。
+     *
+     * @param source 入出力先の説明
+     */
+    public void setSource(final String source) {
+        this.source = source;
+    }
+
+    /**
+     * 入出力先の説明を取得する。
+     *
+     * @return 入出力先の説明(設定されていない場合は{@code null})
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * オープンからクローズまでの経過時間を取得する。
+     * <p/>
+     * クローズしていない場合は現在までの経過時間を返す。
+     *
+     * @return 経過時間(ナノ秒)
+     */
+    public long getElapsedNanos() {
+        return (closed ? closeNanos : System.nanoTime()) - openNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "MapperMetrics{type=" + (type == null ? "null" : type.getName())
+                + ", direction=" + direction
+                + ", source=" + source
+                + ", records=" + recordCount
+                + ", fields=" + fieldCount
+                + ", bytes=" + byteCount
+                + ", peakFieldLength=" + peakFieldLength
+                + ", sampledRecords=" + sampledRecordCount
+                + ", ioNanos=" + ioNanos
+                + ", tokenizeNanos=" + tokenizeNanos
+                + ", bindNanos=" + bindNanos
+                + '}';
+    }
+}
@@ -0,0 +1,25 @@
+package nablarch.common.databind.metrics;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link MapperMetrics}を受け取るリスナ。
+ * <p/>
+ * {@link nablarch.common.databind.ObjectMapperFactory#setMetricsListener(MapperMetricsListener)}で設定すると、
+ * ファクトリが生成した{@link nablarch.common.databind.ObjectMapper}のメトリクスが収集され、
+ * {@link nablarch.common.databind.ObjectMapper#close()}時に本リスナに通知される。
+ * <p/>
+ * 複数のスレッドから同時に呼び出されるため、実装クラスはスレッドセーフでなければならない。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public interface MapperMetricsListener {
+
+    /**
+     * {@link nablarch.common.databind.ObjectMapper}が閉じられた際に呼び出される。
+     *
+     * @param metrics 収集したメトリクス
+     */
+    void onClose(MapperMetrics metrics);
+}
@@ -0,0 +1,16 @@
+package nablarch.common.databind.metrics;
+
+/**
+ * {@link MapperMetrics}を収集できる{@link nablarch.common.databind.ObjectMapper}が実装するインタフェース。
+ *
+ * @author Hisaaki Shioiri
+ */
+public interface MetricsAware {
+
+    /**
+     * メトリクスの収集先を設定する。
+     *
+     * @param metrics メトリクスの収集先
+     */
+    void setMetrics(MapperMetrics metrics);
+}
@@ -0,0 +1,16 @@
+package nablarch.common.databind.metrics;
+
+/**
+ * {@link ReadProgress}に進捗を通知できる{@link nablarch.common.databind.ObjectMapper}が実装するインタフェース。
+ *
+ * @author Hisaaki Shioiri
+ */
+public interface ProgressAware {
+
+    /**
+     * 進捗の通知先を設定する。
+     *
+     * @param progress 進捗の通知先
+     */
+    void setProgress(ReadProgress progress);
+}
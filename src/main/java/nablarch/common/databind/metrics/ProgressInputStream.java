@@ -0,0 +1,59 @@
+package nablarch.common.databind.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 読み込んだバイト数を{@link ReadProgress}に加算する入力ストリーム。
+ * <p/>
+ * 加算はストリームからの読み込みごと(通常はデコーダのバッファの補充ごと)に行われる。
+ *
+ * @author Hisaaki Shioiri
+ */
+class ProgressInputStream extends FilterInputStream {
+
+    /** 加算先の進捗 */
+    private final ReadProgress progress;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param in 入力ストリーム
+     * @param progress 加算先の進捗
+     */
+    ProgressInputStream(final InputStream in, final ReadProgress progress) {
+        super(in);
+        this.progress = progress;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int read = super.read();
+        if (read != -1) {
+            progress.addBytes(1);
+        }
+        return read;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final int read = super.read(b, off, len);
+        if (read > 0) {
+            progress.addBytes(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        final long skipped = super.skip(n);
+        progress.addBytes(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
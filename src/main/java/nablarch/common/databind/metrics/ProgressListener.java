@@ -0,0 +1,23 @@
+package nablarch.common.databind.metrics;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 読み込みの進捗を受け取るリスナ。
+ * <p/>
+ * {@link ReadProgress}に設定した間隔(レコード数またはバイト数)ごと、及び
+ * {@link nablarch.common.databind.ObjectMapper#close()}時に呼び出される。
+ * 呼び出しは読み込みを行うスレッドで行われるため、重い処理を行うと読み込みが遅くなる点に注意すること。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public interface ProgressListener {
+
+    /**
+     * 進捗が更新された際に呼び出される。
+     *
+     * @param progress 読み込みの進捗
+     */
+    void onProgress(ReadProgress progress);
+}
@@ -0,0 +1,308 @@
+package nablarch.common.databind.metrics;
+
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.common.databind.ObjectMapper;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link ObjectMapper}による読み込みの進捗を保持し、{@link ProgressListener}に通知するクラス。
+ * <p/>
+ * 以下のように、入力ストリームを{@link #track(InputStream)}で包んでから{@link ObjectMapper}を生成し、
+ * {@link #attach(ObjectMapper)}で{@link ObjectMapper}に設定して使用する。
+ * <pre>
+ * {@code
+ * ReadProgress progress = new ReadProgress(listener, file.length(), 10000, 64 * 1024 * 1024);
+ * ObjectMapper<Person> mapper = progress.attach(
+ *         ObjectMapperFactory.create(Person.class, progress.track(new FileInputStream(file))));
+ * }
+ * </pre>
+ * 読み込み位置は、入力ストリームを計測している場合は読み込んだバイト数、それ以外の場合は読み込んだ文字数となる。
+ * いずれもバッファへの補充時にまとめて加算するため、先読みしたバッファ分だけ実際の処理位置より先行する。
+ * <p/>
+ * レコード数と読み込み位置の判定はレコードの読み込みごとに1度だけ行い、文字単位の処理では行わない。
+ * <p/>
+ * 本クラスはスレッドセーフではない。1つの{@link ObjectMapper}に対して1つのインスタンスを使用すること。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public final class ReadProgress {
+
+    /** 通知先のリスナ */
+    private final ProgressListener listener;
+
+    /** 入力全体のサイズ(不明な場合は-1) */
+    private final long totalSize;
+
+    /** 通知するレコード数の間隔(通知しない場合は0) */
+    private final long recordInterval;
+
+    /** 通知する読み込み位置の間隔(通知しない場合は0) */
+    private final long positionInterval;
+
+    /** 次に通知するレコード数 */
+    private long nextRecordMark;
+
+    /** 次に通知する読み込み位置 */
+    private long nextPositionMark;
+
+    /** 入力ストリームを計測しているか否か */
+    private boolean trackingBytes;
+
+    /** 読み込んだバイト数 */
+    private long byteCount;
+
+    /** 読み込んだ文字数 */
+    private long charCount;
+
+    /** 読み込んだレコード数 */
+    private long recordCount;
+
+    /** 読み込みを開始した時刻(ナノ秒) */
+    private long startNanos;
+
+    /** 最後に通知した時刻(ナノ秒) */
+    private long lastNanos;
+
+    /** 読み込みが完了したか否か */
+    private boolean completed;
+
+    /**
+     * {@code ReadProgress}を生成する。
+     *
+     * @param listener 通知先のリスナ
+     * @param totalSize 入力全体のサイズ(バイト数または文字数。不明な場合は-1)
+     * @param recordInterval 通知するレコード数の間隔(レコード数で通知しない場合は0)
+     * @param positionInterval 通知する読み込み位置の間隔(読み込み位置で通知しない場合は0)
+     */
+    public ReadProgress(final ProgressListener listener, final long totalSize,
+            final long recordInterval, final long positionInterval) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null.");
+        }
+        if (recordInterval < 0) {
+            throw new IllegalArgumentException(
+                    "record interval must not be negative. record interval = [" + recordInterval + ']');
+        }
+        if (positionInterval < 0) {
+            throw new IllegalArgumentException(
+                    "position interval must not be negative. position interval = [" + positionInterval + ']');
+        }
+        this.listener = listener;
+        this.totalSize = totalSize;
+        this.recordInterval = recordInterval;
+        this.positionInterval = positionInterval;
+        nextRecordMark = recordInterval == 0 ? Long.MAX_VALUE : recordInterval;
+        nextPositionMark = positionInterval == 0 ? Long.MAX_VALUE : positionInterval;
+        startNanos = System.nanoTime();
+        lastNanos = startNanos;
+    }
+
+    /**
+     * 入力ストリームから読み込んだバイト数を計測する。
+     *
+     * @param stream 入力ストリーム
+     * @return バイト数を計測する入力ストリーム
+     */
+    public InputStream track(final InputStream stream) {
+        trackingBytes = true;
+        return new ProgressInputStream(stream, this);
+    }
+
+    /**
+     * {@link ObjectMapper}に本インスタンスを設定する。
+     * <p/>
+     * 経過時間は本メソッドの呼び出し時点から計測する。
+     *
+     * @param mapper 進捗を通知する{@link ObjectMapper}
+     * @param <T> バインディング対象のクラス
+     * @return {@code mapper}
+     * @throws IllegalArgumentException {@code mapper}が進捗の通知をサポートしていない場合
+     */
+    public <T> ObjectMapper<T> attach(final ObjectMapper<T> mapper) {
+        if (!(mapper instanceof ProgressAware)) {
+            throw new IllegalArgumentException(
+                    "progress is not supported. mapper = [" + mapper.getClass().getName() + ']');
+        }
+        startNanos = System.nanoTime();
+        lastNanos = startNanos;
+        ((ProgressAware) mapper).setProgress(this);
+        return mapper;
+    }
+
+    /**
+     * 読み込んだバイト数を加算する。
+     *
+     * @param bytes バイト数
+     */
+    void addBytes(final long bytes) {
+        byteCount += bytes;
+    }
+
+    /**
+     * バッファに補充した文字数を加算する。
+     *
+     * @param chars 文字数
+     */
+    public void addChars(final long chars) {
+        charCount += chars;
+    }
+
+    /**
+     * 1レコード読み込んだことを通知する。
+     * <p/>
+     * レコード数または読み込み位置が通知間隔に達した場合、リスナを呼び出す。
+     */
+    public void addRecord() {
+        recordCount++;
+        if (recordCount >= nextRecordMark || getPosition() >= nextPositionMark) {
+            advanceMarks();
+            notifyListener();
+        }
+    }
+
+    /**
+     * 読み込みが完了したことを通知する。
+     * <p/>
+     * 初回の呼び出し時のみリスナを呼び出す。
+     */
+    public void complete() {
+        if (completed) {
+            return;
+        }
+        completed = true;
+        notifyListener();
+    }
+
+    /**
+     * 次に通知するレコード数と読み込み位置を更新する。
+     */
+    private void advanceMarks() {
+        if (recordInterval != 0) {
+            nextRecordMark = (recordCount / recordInterval + 1) * recordInterval;
+        }
+        if (positionInterval != 0) {
+            nextPositionMark = (getPosition() / positionInterval + 1) * positionInterval;
+        }
+    }
+
+    /**
+     * リスナを呼び出す。
+     */
+    private void notifyListener() {
+        lastNanos = System.nanoTime();
+        listener.onProgress(this);
+    }
+
+    /**
+     * 読み込み位置を取得する。
+     * <p/>
+     * 入力ストリームを計測している場合はバイト数、それ以外の場合は文字数を返す。
+     *
+     * @return 読み込み位置
+     */
+    public long getPosition() {
+        return trackingBytes ? byteCount : charCount;
+    }
+
+    /**
+     * 読み込んだバイト数を取得する。
+     *
+     * @return 読み込んだバイト数(入力ストリームを計測していない場合は-1)
+     */
+    public long getByteOffset() {
+        return trackingBytes ? byteCount : -1L;
+    }
+
+    /**
+     * 読み込んだ文字数を取得する。
+     *
+     * @return 読み込んだ文字数
+     */
+    public long getCharOffset() {
+        return charCount;
+    }
+
+    /**
+     * 読み込んだレコード数を取得する。
+     *
+     * @return 読み込んだレコード数
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * 入力全体のサイズを取得する。
+     *
+     * @return 入力全体のサイズ(不明な場合は-1)
+     */
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    /**
+     * 読み込みが完了したか否かを取得する。
+     *
+     * @return 完了した場合は{@code true}
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * 進捗率を取得する。
+     *
+     * @return 進捗率(0.0～1.0。入力全体のサイズが不明な場合は-1)
+     */
+    public double getRatio() {
+        if (completed) {
+            return 1.0;
+        }
+        if (totalSize <= 0) {
+            return -1.0;
+        }
+        return Math.min(1.0, (double) getPosition() / totalSize);
+    }
+
+    /**
+     * 最後に通知した時点までの経過時間を取得する。
+     *
+     * @return 経過時間(ミリ秒)
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastNanos - startNanos);
+    }
+
+    /**
+     * 読み込み完了までの残り時間の見込みを取得する。
+     * <p/>
+     * 最後に通知した時点までの平均速度が継続すると仮定して算出する。
+     *
+     * @return 残り時間の見込み(ミリ秒。算出できない場合は-1)
+     */
+    public long getEstimatedRemainingMillis() {
+        if (completed) {
+            return 0L;
+        }
+        final long position = getPosition();
+        if (totalSize <= 0 || position <= 0) {
+            return -1L;
+        }
+        final long remaining = Math.max(0L, totalSize - position);
+        return (long) ((double) (lastNanos - startNanos) * remaining / position / 1000000L);
+    }
+
+    @Override
+    public String toString() {
+        return "ReadProgress{position=" + getPosition()
+                + ", totalSize=" + totalSize
+                + ", records=" + recordCount
+                + ", elapsedMillis=" + getElapsedMillis()
+                + ", estimatedRemainingMillis=" + getEstimatedRemainingMillis()
+                + ", completed=" + completed
+                + '}';
+    }
+}
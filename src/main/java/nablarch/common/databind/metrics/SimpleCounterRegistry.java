@@ -0,0 +1,82 @@
+package nablarch.common.databind.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * カウンタをメモリ上に保持する{@link CounterRegistry}の実装クラス。
+ *
+ * @author Hisaaki Shioiri
+ */
+@Published(tag = "architect")
+public class SimpleCounterRegistry implements CounterRegistry {
+
+    /** カウンタ */
+    private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<String, AtomicLong>();
+
+    @Override
+    public void increment(final String name, final long delta) {
+        counter(name).addAndGet(delta);
+    }
+
+    @Override
+    public void updateMax(final String name, final long value) {
+        final AtomicLong counter = counter(name);
+        long current = counter.get();
+        while (current < value && !counter.compareAndSet(current, value)) {
+            current = counter.get();
+        }
+    }
+
+    /**
+     * カウンタの値を取得する。
+     *
+     * @param name カウンタ名
+     * @return カウンタの値(存在しない場合は{@code 0})
+     */
+    public long get(final String name) {
+        final AtomicLong counter = counters.get(name);
+        return counter == null ? 0L : counter.get();
+    }
+
+    /**
+     * 全てのカウンタの値を取得する。
+     *
+     * @return カウンタ名の昇順に並べたカウンタの値
+     */
+    public Map<String, Long> getCounters() {
+        final Map<String, Long> snapshot = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().get());
+        }
+        return snapshot;
+    }
+
+    /**
+     * 全てのカウンタを削除する。
+     */
+    public void clear() {
+        counters.clear();
+    }
+
+    /**
+     * カウンタを取得する。存在しない場合は生成する。
+     *
+     * @param name カウンタ名
+     * @return カウンタ
+     */
+    private AtomicLong counter(final String name) {
+        final AtomicLong counter = counters.get(name);
+        if (counter != null) {
+            return counter;
+        }
+        final AtomicLong newCounter = new AtomicLong();
+        final AtomicLong previous = counters.putIfAbsent(name, newCounter);
+        return previous == null ? newCounter : previous;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * {@link nablarch.common.databind.ObjectMapper}の処理件数や処理時間などのメトリクスや読み込みの進捗を収集する機能を提供する。
+ */
+package nablarch.common.databind.metrics;
@@ -0,0 +1,286 @@
+package nablarch.common.databind;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import nablarch.common.databind.csv.Csv;
+import nablarch.common.databind.csv.CsvDataBindConfig;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * 1レコードあたりのメモリ割り当て量が予算内に収まっていることを検証するテストクラス。
+ * <p/>
+ * {@link ObjectMapperFactory}経由で読み込み及び書き込みを行い、
+ * その間にテストスレッドで割り当てられたバイト数を{@code com.sun.management.ThreadMXBean}で計測する。
+ * 予算は{@code allocation-budget.properties}に定義する。
+ * <p/>
+ * 本テストはビルドの{@code allocationBudgetTest}タスクで実行され、予算を超過した場合はビルドが失敗する。
+ * スレッドごとのメモリ割り当て量を計測できないJVMでは実行しない。
+ */
+public class AllocationBudgetTest {
+
+    /** 計測するレコード数 */
+    private static final int RECORDS = 10000;
+
+    /** 計測前にJITコンパイルを促すための繰り返し回数 */
+    private static final int WARMUP = 5;
+
+    /** ヘッダ */
+    private static final String HEADER = "氏名,住所,年齢,備考";
+
+    /** 予算 */
+    private static final Properties BUDGET = new Properties();
+
+    /** スレッドごとのメモリ割り当て量を計測するMXBean */
+    private static com.sun.management.ThreadMXBean threadMXBean;
+
+    /** 読み込みに使用するCSV */
+    private static byte[] input;
+
+    /** 書き込みに使用するBean */
+    private static Person[] persons;
+
+    /** 書き込みに使用するMap */
+    private static Map<String, ?>[] maps;
+
+    @BeforeClass
+    @SuppressWarnings("unchecked")
+    public static void setUpClass() throws Exception {
+        final InputStream stream = AllocationBudgetTest.class.getResourceAsStream("allocation-budget.properties");
+        try {
+            BUDGET.load(stream);
+        } finally {
+            stream.close();
+        }
+
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threadMXBean = (com.sun.management.ThreadMXBean) bean;
+            threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        }
+
+        final StringBuilder csv = new StringBuilder(HEADER).append("\r\n");
+        persons = new Person[RECORDS];
+        maps = new Map[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            final Person person = new Person("名前" + i, "東京都千代田区\"" + i + "\"番地", i % 100, "備考,その" + i);
+            csv.append(person.getName())
+                    .append(",\"")
+                    .append(person.getAddress().replace("\"", "\"\""))
+                    .append("\",")
+                    .append(person.getAge())
+                    .append(",\"")
+                    .append(person.getRemarks())
+                    .append("\"\r\n");
+            persons[i] = person;
+
+            final Map<String, Object> map = new HashMap<String, Object>();
+            map.put("氏名", person.getName());
+            map.put("住所", person.getAddress());
+            map.put("年齢", person.getAge());
+            map.put("備考", person.getRemarks());
+            maps[i] = map;
+        }
+        input = csv.toString().getBytes("utf-8");
+    }
+
+    /**
+     * CSVからBeanへの読み込みが予算内であること。
+     */
+    @Test
+    public void testReadBean() throws Exception {
+        verify("csv.bean.read", new Task() {
+            @Override
+            public void run() {
+                final ObjectMapper<Person> mapper = ObjectMapperFactory.create(
+                        Person.class, new ByteArrayInputStream(input));
+                while (mapper.read() != null) {
+                    // 読み捨てる
+                }
+                mapper.close();
+            }
+        });
+    }
+
+    /**
+     * CSVからMapへの読み込みが予算内であること。
+     */
+    @Test
+    public void testReadMap() throws Exception {
+        verify("csv.map.read", new Task() {
+            @Override
+            public void run() {
+                final ObjectMapper<Map> mapper = ObjectMapperFactory.create(
+                        Map.class, new ByteArrayInputStream(input), mapConfig());
+                while (mapper.read() != null) {
+                    // 読み捨てる
+                }
+                mapper.close();
+            }
+        });
+    }
+
+    /**
+     * BeanからCSVへの書き込みが予算内であること。
+     */
+    @Test
+    public void testWriteBean() throws Exception {
+        verify("csv.bean.write", new Task() {
+            @Override
+            public void run() {
+                final ObjectMapper<Person> mapper = ObjectMapperFactory.create(Person.class, new NullOutputStream());
+                for (Person person : persons) {
+                    mapper.write(person);
+                }
+                mapper.close();
+            }
+        });
+    }
+
+    /**
+     * MapからCSVへの書き込みが予算内であること。
+     */
+    @Test
+    public void testWriteMap() throws Exception {
+        verify("csv.map.write", new Task() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void run() {
+                final ObjectMapper<Map> mapper = ObjectMapperFactory.create(
+                        Map.class, new NullOutputStream(), mapConfig());
+                for (Map<String, ?> map : maps) {
+                    mapper.write(map);
+                }
+                mapper.close();
+            }
+        });
+    }
+
+    /**
+     * 処理を実行し、1レコードあたりのメモリ割り当て量が予算内であることを検証する。
+     *
+     * @param key 予算のキー
+     * @param task 計測する処理
+     */
+    private static void verify(final String key, final Task task) {
+        assumeTrue(threadMXBean != null);
+
+        for (int i = 0; i < WARMUP; i++) {
+            task.run();
+        }
+        final long threadId = Thread.currentThread().getId();
+        final long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        task.run();
+        final long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        final long actual = allocated / RECORDS;
+        final long budget = Long.parseLong(BUDGET.getProperty(key));
+        assertTrue("allocated bytes per record exceeded budget."
+                        + " key = [" + key + "], budget = [" + budget + "], actual = [" + actual + ']',
+                actual <= budget);
+    }
+
+    /**
+     * Map用のCSVの設定を生成する。
+     *
+     * @return CSVの設定
+     */
+    private static CsvDataBindConfig mapConfig() {
+        return CsvDataBindConfig.DEFAULT.withHeaderTitles(HEADER.split(","));
+    }
+
+    /**
+     * 計測する処理。
+     */
+    private interface Task {
+
+        /**
+         * 処理を実行する。
+         */
+        void run();
+    }
+
+    /**
+     * 書き込まれたデータを破棄する{@link OutputStream}。
+     */
+    private static class NullOutputStream extends OutputStream {
+
+        @Override
+        public void write(final int b) throws IOException {
+            // nop
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            // nop
+        }
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"name", "address", "age", "remarks"},
+            headers = {"氏名", "住所", "年齢", "備考"})
+    public static class Person {
+
+        private String name;
+
+        private String address;
+
+        private Integer age;
+
+        private String remarks;
+
+        public Person() {
+        }
+
+        public Person(final String name, final String address, final Integer age, final String remarks) {
+            this.name = name;
+            this.address = address;
+            this.age = age;
+            this.remarks = remarks;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public void setAddress(final String address) {
+            this.address = address;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(final Integer age) {
+            this.age = age;
+        }
+
+        public String getRemarks() {
+            return remarks;
+        }
+
+        public void setRemarks(final String remarks) {
+            this.remarks = remarks;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package nablarch.common.databind;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * {@link CharBufferPool}のテストクラス。
+ */
+public class CharBufferPoolTest {
+
+    /**
+     * 返却したバッファが再利用され、ヒット率が集計されること。
+     */
+    @Test
+    public void testBorrowAndRelease() throws Exception {
+        final CharBufferPool sut = new CharBufferPool(16, 2);
+
+        final char[] first = sut.borrow();
+        assertThat("プールが空なので新たに確保される", sut.getMissCount(), is(1L));
+        assertThat(first.length, is(16));
+
+        sut.release(first);
+        assertThat(sut.getIdleCount(), is(1));
+
+        final char[] second = sut.borrow();
+        assertThat("返却したバッファが再利用される", second, is(sameInstance(first)));
+        assertThat(sut.getHitCount(), is(1L));
+        assertThat(sut.getIdleCount(), is(0));
+        assertThat(sut.getHitRate(), is(0.5));
+    }
+
+    /**
+     * 上限を超えて返却されたバッファは破棄されること。
+     */
+    @Test
+    public void testRelease_full() throws Exception {
+        final CharBufferPool sut = new CharBufferPool(16, 2);
+
+        sut.release(new char[16]);
+        sut.release(new char[16]);
+        sut.release(new char[16]);
+
+        assertThat(sut.getIdleCount(), is(2));
+        assertThat(sut.getDiscardCount(), is(1L));
+    }
+
+    /**
+     * {@code null}やサイズの異なるバッファは返却されないこと。
+     */
+    @Test
+    public void testRelease_invalidBuffer() throws Exception {
+        final CharBufferPool sut = new CharBufferPool(16, 2);
+
+        sut.release(null);
+        sut.release(new char[8]);
+
+        assertThat(sut.getIdleCount(), is(0));
+        assertThat(sut.getDiscardCount(), is(0L));
+    }
+
+    /**
+     * 一度も借り受けていない場合、ヒット率は0となること。
+     */
+    @Test
+    public void testHitRate_empty() throws Exception {
+        assertThat(new CharBufferPool(16, 2).getHitRate(), is(0.0));
+    }
+
+    /**
+     * バッファサイズ及び上限に0以下を指定した場合、例外が発生すること。
+     */
+    @Test
+    public void testInvalidArguments() throws Exception {
+        try {
+            new CharBufferPool(0, 1);
+            fail("バッファサイズが不正なため、例外が発生する");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("buffer size must be greater than 0. buffer size = [0]"));
+        }
+        try {
+            new CharBufferPool(1, 0);
+            fail("上限が不正なため、例外が発生する");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("capacity must be greater than 0. capacity = [0]"));
+        }
+    }
+
+    /**
+     * 複数スレッドから同時に借り受けた場合でも、同じバッファが重複して貸し出されないこと。
+     */
+    @Test
+    public void testBorrow_concurrent() throws Exception {
+        final int threads = 8;
+        final CharBufferPool sut = new CharBufferPool(16, threads);
+        for (int i = 0; i < threads; i++) {
+            sut.release(new char[16]);
+        }
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<char[]>> futures = new ArrayList<Future<char[]>>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(new Callable<char[]>() {
+                    @Override
+                    public char[] call() throws Exception {
+                        latch.await();
+                        return sut.borrow();
+                    }
+                }));
+            }
+            latch.countDown();
+
+            final Map<char[], Boolean> borrowed = new IdentityHashMap<char[], Boolean>();
+            for (Future<char[]> future : futures) {
+                assertThat("重複して貸し出されないこと", borrowed.put(future.get(), Boolean.TRUE), is(not(Boolean.TRUE)));
+            }
+            assertThat(sut.getHitCount(), is((long) threads));
+            assertThat(sut.getIdleCount(), is(0));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
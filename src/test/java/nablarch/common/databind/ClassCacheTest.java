@@ -0,0 +1,122 @@
+package nablarch.common.databind;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * {@link ClassCache}のテストクラス。
+ */
+public class ClassCacheTest {
+
+    /**
+     * 値が導出されてキャッシュされ、2回目以降は導出されないこと。
+     */
+    @Test
+    public void testGet() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        final ClassCache<String> sut = new ClassCache<String>() {
+            @Override
+            protected String computeValue(final Class<?> clazz) {
+                count.incrementAndGet();
+                return clazz.getSimpleName();
+            }
+        };
+
+        assertThat(sut.get(String.class), is("String"));
+        assertThat(sut.get(Integer.class), is("Integer"));
+        assertThat(sut.get(String.class), is("String"));
+        assertThat(count.get(), is(2));
+        assertThat(sut.size(), is(2));
+    }
+
+    /**
+     * 複数スレッドから同時に取得した場合でも、全てのスレッドで同一の値が返されること。
+     */
+    @Test
+    public void testGet_concurrent() throws Exception {
+        final ClassCache<Object> sut = new ClassCache<Object>() {
+            @Override
+            protected Object computeValue(final Class<?> clazz) {
+                return new Object();
+            }
+        };
+        final int threads = 8;
+        final CountDownLatch latch = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Object>> futures = new ArrayList<Future<Object>>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        latch.await();
+                        return sut.get(ClassCacheTest.class);
+                    }
+                }));
+            }
+            latch.countDown();
+            final Object expected = sut.get(ClassCacheTest.class);
+            for (Future<Object> future : futures) {
+                assertThat(future.get(), is(sameInstance(expected)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * キーのクラスがアンロードされた場合、エントリが削除されること。
+     */
+    @Test
+    public void testGet_unloaded() throws Exception {
+        final ClassCache<String> sut = new ClassCache<String>() {
+            @Override
+            protected String computeValue(final Class<?> clazz) {
+                return clazz.getName();
+            }
+        };
+
+        loadAndCache(sut);
+        assertThat(sut.size(), is(1));
+
+        for (int i = 0; i < 50 && sut.size() != 0; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        assertThat("クラスローダごと回収されエントリが削除されること", sut.size(), is(0));
+    }
+
+    /**
+     * 使い捨てのクラスローダでクラスをロードし、キャッシュに格納する。
+     *
+     * @param sut テスト対象
+     */
+    private static void loadAndCache(final ClassCache<String> sut) throws Exception {
+        final URL location = Target.class.getProtectionDomain().getCodeSource().getLocation();
+        final URLClassLoader loader = new URLClassLoader(new URL[] {location}, null);
+        final Class<?> clazz = loader.loadClass(Target.class.getName());
+        assertThat(clazz, is(not(sameInstance((Object) Target.class))));
+        assertThat(sut.get(clazz), is(Target.class.getName()));
+    }
+
+    /**
+     * 使い捨てのクラスローダでロードするクラス。
+     */
+    public static class Target {
+    }
+}
@@ -2,14 +2,25 @@ package nablarch.common.databind;
 
 import static org.eclipse.persistence.jpa.jpql.Assert.fail;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import nablarch.common.databind.csv.Csv;
 import nablarch.common.databind.csv.CsvDataBindConfig;
 import nablarch.common.databind.csv.CsvFormat;
+import nablarch.common.databind.csv.CsvMappingMetadata;
 import nablarch.common.databind.csv.Quoted;
 import nablarch.core.beans.BeansException;
 
@@ -207,6 +218,82 @@ public class DataBindUtilTest {
         }
     }
 
+    /**
+     * Beanに定義されたマッピング情報が取得でき、2回目以降はキャッシュされた情報が返されること
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFindCsvMappingMetadata() throws Exception {
+        final CsvMappingMetadata metadata = DataBindUtil.findCsvMappingMetadata(PersonMetadata.class);
+
+        assertThat(metadata.getPropertyNames(), is(new String[] {"age", "name"}));
+        assertThat(metadata.getLineNumberPropertyName(), is("lineNumber"));
+        assertThat(metadata.getQuotedColumnNames(), is(Arrays.asList("name")));
+        assertThat(metadata.getConfig().getHeaderTitles(), is(new String[] {"年齢", "氏名"}));
+        assertThat(metadata.getConfig().getQuoteMode(), is(CsvDataBindConfig.QuoteMode.CUSTOM));
+
+        assertThat("キャッシュされた情報が返されること",
+                DataBindUtil.findCsvMappingMetadata(PersonMetadata.class), is(sameInstance(metadata)));
+        assertThat("設定情報もキャッシュされた情報が返されること",
+                DataBindUtil.createDataBindConfig(PersonMetadata.class), is(sameInstance((Object) metadata.getConfig())));
+    }
+
+    /**
+     * Beanに定義されたCSVの設定が不正な場合、例外が送出されその結果はキャッシュされないこと
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFindCsvMappingMetadata_invalid() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            try {
+                DataBindUtil.findCsvMappingMetadata(PersonHeader.class);
+                fail("ヘッダーとプロパティのサイズが一致しないため、例外が発生");
+            } catch (IllegalStateException e) {
+                assertThat(e.getMessage(), is("headers and properties size does not match. class = [nablarch.common.databind.DataBindUtilTest$PersonHeader]"));
+            }
+        }
+    }
+
+    /**
+     * 複数スレッドから同時にクラスの情報を取得した場合でも、全てのスレッドで同じキャッシュ値が返されること
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFindProperties_concurrent() throws Exception {
+        final int threads = 8;
+        final CountDownLatch latch = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Object[]>> futures = new ArrayList<Future<Object[]>>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(new Callable<Object[]>() {
+                    @Override
+                    public Object[] call() throws Exception {
+                        latch.await();
+                        return new Object[] {
+                                DataBindUtil.findCsvProperties(PersonDefault.class),
+                                DataBindUtil.findLineNumberProperty(PersonDefault.class),
+                                DataBindUtil.findLineNumberProperty(PersonWithLineNumber.class)
+                        };
+                    }
+                }));
+            }
+            latch.countDown();
+            final String[] expected = DataBindUtil.findCsvProperties(PersonDefault.class);
+            for (Future<Object[]> future : futures) {
+                final Object[] result = future.get();
+                assertThat(result[0], is(sameInstance((Object) expected)));
+                assertThat(result[1], is(nullValue()));
+                assertThat(result[2], is((Object) "lineNumber"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     /**
      * Beanを1件取得できること
      *
@@ -627,4 +714,45 @@ public class DataBindUtilTest {
         }
     }
 
-}
\ No newline at end of file
+    @Csv(type = Csv.CsvType.CUSTOM, properties = {"age", "name"}, headers = {"年齢", "氏名"})
+    @CsvFormat(fieldSeparator = ',',
+            lineSeparator = "\r\n",
+            quote = '"',
+            ignoreEmptyLine = true,
+            requiredHeader = true,
+            charset = "UTF-8",
+            emptyToNull = true,
+            quoteMode = CsvDataBindConfig.QuoteMode.CUSTOM)
+    public static class PersonMetadata {
+
+        private Long lineNumber;
+        private Integer age;
+        private String name;
+
+        @LineNumber
+        public Long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(Long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+
+        @Quoted
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package nablarch.common.databind;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.junit.matchers.JUnitMatchers.containsString;
@@ -20,8 +21,10 @@ import java.util.Map;
 import nablarch.common.databind.csv.BeanCsvMapper;
 import nablarch.common.databind.csv.Csv;
 import nablarch.common.databind.csv.CsvBeanMapper;
+import nablarch.common.databind.csv.CsvBeanMapperTemplate;
 import nablarch.common.databind.csv.CsvDataBindConfig;
 import nablarch.common.databind.csv.CsvMapMapper;
+import nablarch.common.databind.csv.CsvMapMapperTemplate;
 import nablarch.common.databind.csv.MapCsvMapper;
 import nablarch.core.repository.ObjectLoader;
 import nablarch.core.repository.SystemRepository;
@@ -157,6 +160,88 @@ public class ObjectMapperFactoryTest {
 
     }
 
+    /**
+     * CSV用アノテーションを持つBeanを指定しているので、{@link CsvBeanMapperTemplate}が生成され、
+     * テンプレートから{@link CsvBeanMapper}及び{@link BeanCsvMapper}が生成されること。
+     */
+    @Test
+    public void createCsvBeanMapperTemplate() throws Exception {
+        final MapperTemplate<CsvBean> sut = ObjectMapperFactory.createTemplate(CsvBean.class);
+        assertThat(sut, is(instanceOf(CsvBeanMapperTemplate.class)));
+
+        assertThat("input:InputStream",
+                sut.create(new ByteArrayInputStream(new byte[0])), is(instanceOf(CsvBeanMapper.class)));
+        assertThat("input:Reader", sut.create(new StringReader("1,2")), is(instanceOf(CsvBeanMapper.class)));
+        assertThat("input:String", sut.create("12345,12345"), is(instanceOf(CsvBeanMapper.class)));
+        assertThat("input:OutputStream",
+                sut.create(new ByteArrayOutputStream()), is(instanceOf(BeanCsvMapper.class)));
+        assertThat("input:Writer", sut.create(new StringWriter()), is(instanceOf(BeanCsvMapper.class)));
+    }
+
+    /**
+     * Mapインタフェースを指定しているので、{@link CsvMapMapperTemplate}が生成され、
+     * テンプレートから{@link CsvMapMapper}及び{@link MapCsvMapper}が生成されること。
+     */
+    @Test
+    public void createCsvMapMapperTemplate() throws Exception {
+        final MapperTemplate<Map> sut = ObjectMapperFactory.createTemplate(Map.class,
+                CsvDataBindConfig.DEFAULT.withRequiredHeader(true).withHeaderTitles("col1", "col2"));
+        assertThat(sut, is(instanceOf(CsvMapMapperTemplate.class)));
+
+        assertThat("input:InputStream",
+                sut.create(new ByteArrayInputStream(new byte[0])), is(instanceOf(CsvMapMapper.class)));
+        assertThat("input:Reader", sut.create(new StringReader("1,2")), is(instanceOf(CsvMapMapper.class)));
+        assertThat("input:String", sut.create("12345,12345"), is(instanceOf(CsvMapMapper.class)));
+        assertThat("input:OutputStream",
+                sut.create(new ByteArrayOutputStream()), is(instanceOf(MapCsvMapper.class)));
+        assertThat("input:Writer", sut.create(new StringWriter()), is(instanceOf(MapCsvMapper.class)));
+    }
+
+    /**
+     * テンプレートの生成時に、{@link ObjectMapper}の生成時と同じ検証が行われること。
+     */
+    @Test
+    public void createTemplate_invalid() throws Exception {
+        try {
+            ObjectMapperFactory.createTemplate(CsvBean.class, CsvDataBindConfig.DEFAULT);
+            fail("preferenceが指定されているため、例外が発生する");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("this class should not be set config. class = [nablarch.common.databind.ObjectMapperFactoryTest$CsvBean]"));
+        }
+
+        try {
+            ObjectMapperFactory.createTemplate(Map.class);
+            fail("configが存在しないため、例外が発生する");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("can not find config. class = [java.util.Map]"));
+        }
+    }
+
+    /**
+     * {@link SystemRepository}に登録されたファクトリでテンプレートが生成されること。
+     */
+    @Test
+    public void createTemplate_factory() throws Exception {
+        final MapperTemplate<CsvBean> template = ObjectMapperFactory.createTemplate(CsvBean.class);
+        SystemRepository.load(new ObjectLoader() {
+            @Override
+            public Map<String, Object> load() {
+                final HashMap<String, Object> objects = new HashMap<String, Object>();
+                objects.put("objectMapperFactory", new ObjectMapperFactory() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <T> MapperTemplate<T> createMapperTemplate(final Class<T> clazz) {
+                        return (MapperTemplate<T>) template;
+                    }
+                });
+                return objects;
+            }
+        });
+
+        assertThat(ObjectMapperFactory.createTemplate(CsvBean.class), is(sameInstance(template)));
+    }
+
     /**
      * Mapインタフェースを指定しているが{@link DataBindConfig}を指定していないので、例外が発生すること。
      */
@@ -0,0 +1,293 @@
+package nablarch.common.databind.checksum;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.common.databind.csv.CsvDataBindConfig;
+
+import org.junit.Test;
+
+/**
+ * {@link StreamChecksum}のテストクラス。
+ */
+public class StreamChecksumTest {
+
+    /** 種別と値の2項目のCSVの設定 */
+    private static final CsvDataBindConfig CONFIG = CsvDataBindConfig.DEFAULT.withHeaderTitles("type", "value");
+
+    /** 読み書きするレコードの型 */
+    @SuppressWarnings("unchecked")
+    private static final Class<Map<String, Object>> MAP_TYPE = (Class<Map<String, Object>>) (Class<?>) Map.class;
+
+    /** トレーラレコード(種別が{@code T})の値を件数とし、ヘッダレコード(種別が{@code H})を件数に含めない */
+    private static final TrailerVerifier<Map<String, Object>> VERIFIER = new TrailerVerifier<Map<String, Object>>() {
+        @Override
+        public boolean isTrailer(final Map<String, Object> record) {
+            return "T".equals(record.get("type"));
+        }
+
+        @Override
+        public boolean isCounted(final Map<String, Object> record) {
+            return !"H".equals(record.get("type"));
+        }
+
+        @Override
+        public long getRecordCount(final Map<String, Object> trailer) {
+            return Long.parseLong((String) trailer.get("value"));
+        }
+    };
+
+    private static byte[] toBytes(final String csv) throws Exception {
+        return csv.getBytes("UTF-8");
+    }
+
+    private static String sha256(final byte[] bytes) throws Exception {
+        final StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static String crc32(final byte[] bytes) {
+        final CRC32 crc32 = new CRC32();
+        crc32.update(bytes);
+        return String.format("%08x", crc32.getValue());
+    }
+
+    private static ObjectMapper<Map<String, Object>> open(final StreamChecksum checksum, final byte[] input) {
+        return ObjectMapperFactory.create(MAP_TYPE, checksum.track(new ByteArrayInputStream(input)), CONFIG);
+    }
+
+    /**
+     * 読み込みと同時に、入力全体のチェックサムとレコード数が算出されること。
+     */
+    @Test
+    public void testRead() throws Exception {
+        final byte[] input = toBytes("type,value\r\nH,x\r\nD,1\r\nD,2\r\nT,2\r\n");
+        final StreamChecksum checksum = new StreamChecksum(StreamChecksum.CRC32, StreamChecksum.SHA256);
+        final ObjectMapper<Map<String, Object>> mapper = checksum.attach(open(checksum, input));
+        while (mapper.read() != null) {
+            assertThat(checksum.isCompleted(), is(false));
+        }
+        mapper.close();
+
+        assertThat(checksum.isCompleted(), is(true));
+        assertThat(checksum.getRecordCount(), is(4L));
+        assertThat(checksum.getByteCount(), is((long) input.length));
+        assertThat(checksum.getHexValue(StreamChecksum.SHA256), is(sha256(input)));
+        assertThat(checksum.getHexValue(StreamChecksum.CRC32), is(crc32(input)));
+        assertThat(checksum.getValue(StreamChecksum.CRC32).length, is(4));
+    }
+
+    /**
+     * 書き込みと同時に、出力全体のチェックサムとレコード数が算出されること。
+     */
+    @Test
+    public void testWrite() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final StreamChecksum checksum = new StreamChecksum(StreamChecksum.SHA256);
+        final ObjectMapper<Map<String, Object>> mapper = checksum.attach(
+                ObjectMapperFactory.create(MAP_TYPE, checksum.track(out), CONFIG));
+        for (int i = 0; i < 3; i++) {
+            final Map<String, Object> map = new HashMap<String, Object>();
+            map.put("type", "D");
+            map.put("value", i);
+            mapper.write(map);
+        }
+        final Map<String, Object> trailer = new HashMap<String, Object>();
+        trailer.put("type", "T");
+        trailer.put("value", checksum.getRecordCount());
+        mapper.write(trailer);
+        mapper.close();
+
+        assertThat(new String(out.toByteArray(), "UTF-8"), is("type,value\r\nD,0\r\nD,1\r\nD,2\r\nT,3\r\n"));
+        assertThat(checksum.getRecordCount(), is(4L));
+        assertThat(checksum.getHexValue(StreamChecksum.SHA256), is(sha256(out.toByteArray())));
+    }
+
+    /**
+     * チェックサムの期待値が一致しない場合は、確定時に例外が送出されること。
+     * 一致する場合は例外が送出されないこと。
+     */
+    @Test
+    public void testExpectedValue() throws Exception {
+        final byte[] input = toBytes("type,value\r\nD,1\r\n");
+
+        StreamChecksum checksum = new StreamChecksum(StreamChecksum.SHA256);
+        checksum.setExpectedValue(StreamChecksum.SHA256, sha256(input).toUpperCase());
+        ObjectMapper<Map<String, Object>> mapper = checksum.attach(open(checksum, input));
+        while (mapper.read() != null) {
+            // 全て読み込む
+        }
+        mapper.close();
+
+        checksum = new StreamChecksum(StreamChecksum.SHA256);
+        checksum.setExpectedValue(StreamChecksum.SHA256, sha256(toBytes("other")));
+        mapper = checksum.attach(open(checksum, input));
+        while (mapper.read() != null) {
+            // 全て読み込む
+        }
+        try {
+            mapper.close();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("checksum does not match. algorithm = [SHA-256]"));
+        }
+    }
+
+    /**
+     * トレーラレコードに記載された件数と一致する場合は、全てのレコードを読み込めること。
+     */
+    @Test
+    public void testTrailer() throws Exception {
+        final StreamChecksum checksum = new StreamChecksum(StreamChecksum.CRC32);
+        final ObjectMapper<Map<String, Object>> mapper = checksum.attach(
+                open(checksum, toBytes("type,value\r\nH,x\r\nD,1\r\nD,2\r\nT,2\r\n")), VERIFIER);
+        int count = 0;
+        while (mapper.read() != null) {
+            count++;
+        }
+        mapper.close();
+        assertThat(count, is(4));
+    }
+
+    /**
+     * トレーラレコードに記載された件数と一致しない場合は例外が送出されること。
+     */
+    @Test
+    public void testTrailer_countMismatch() throws Exception {
+        final StreamChecksum checksum = new StreamChecksum(StreamChecksum.CRC32);
+        final ObjectMapper<Map<String, Object>> mapper = checksum.attach(
+                open(checksum, toBytes("type,value\r\nH,x\r\nD,1\r\nT,2\r\n")), VERIFIER);
+        mapper.read();
+        mapper.read();
+        try {
+            mapper.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString(
+                    "record count does not match trailer record. expected record count = [2], actual record count = [1]."));
+            assertThat(e.getLineNumber(), is(3L));
+        }
+        mapper.close();
+    }
+
+    /**
+     * トレーラレコードが存在しない場合、トレーラレコードの後にレコードが存在する場合は例外が送出されること。
+     */
+    @Test
+    public void testTrailer_invalidPosition() throws Exception {
+        StreamChecksum checksum = new StreamChecksum(StreamChecksum.CRC32);
+        ObjectMapper<Map<String, Object>> mapper = checksum.attach(
+                open(checksum, toBytes("type,value\r\nD,1\r\n")), VERIFIER);
+        mapper.read();
+        try {
+            mapper.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("trailer record not found."));
+        }
+        mapper.close();
+
+        checksum = new StreamChecksum(StreamChecksum.CRC32);
+        mapper = checksum.attach(open(checksum, toBytes("type,value\r\nT,0\r\nD,1\r\n")), VERIFIER);
+        mapper.read();
+        try {
+            mapper.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("record found after trailer record."));
+        }
+        mapper.close();
+    }
+
+    /**
+     * 読み飛ばしたバイト列もチェックサムに加算されること。
+     * 読み飛ばすバイト数が0以下の場合は読み飛ばさないこと。
+     */
+    @Test
+    public void testSkip() throws Exception {
+        final byte[] input = toBytes("0123456789");
+        final StreamChecksum checksum = new StreamChecksum(StreamChecksum.CRC32);
+        final InputStream in = checksum.track(new ByteArrayInputStream(input));
+        assertThat(in.skip(-1), is(0L));
+        assertThat(in.skip(0), is(0L));
+        assertThat(in.skip(4), is(4L));
+        final byte[] rest = new byte[10];
+        assertThat(in.read(rest), is(6));
+        assertThat(in.read(), is(-1));
+        checksum.complete();
+        assertThat(checksum.getHexValue(StreamChecksum.CRC32), is(crc32(input)));
+    }
+
+    /**
+     * マークはサポートされず、マーク位置に戻ろうとした場合は例外が送出されること。
+     */
+    @Test
+    public void testMarkNotSupported() throws Exception {
+        final byte[] input = toBytes("0123456789");
+        final StreamChecksum checksum = new StreamChecksum(StreamChecksum.CRC32);
+        final InputStream in = checksum.track(new ByteArrayInputStream(input));
+        assertThat(in.markSupported(), is(false));
+        in.mark(10);
+        assertThat(in.read(new byte[4]), is(4));
+        try {
+            in.reset();
+            fail();
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("mark/reset not supported."));
+        }
+        final byte[] rest = new byte[10];
+        assertThat(in.read(rest), is(6));
+        checksum.complete();
+        assertThat(checksum.getHexValue(StreamChecksum.CRC32), is(crc32(input)));
+    }
+
+    /**
+     * 不正なアルゴリズムの指定、確定前のチェックサムの取得は例外が送出されること。
+     */
+    @Test
+    public void testInvalidUsage() throws Exception {
+        try {
+            new StreamChecksum();
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("algorithms must not be empty."));
+        }
+        try {
+            new StreamChecksum("NO-SUCH-ALGORITHM");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("unsupported algorithm. algorithm = [NO-SUCH-ALGORITHM]"));
+        }
+        final StreamChecksum checksum = new StreamChecksum(StreamChecksum.CRC32);
+        try {
+            checksum.getHexValue(StreamChecksum.SHA256);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("algorithm is not computed. algorithm = [SHA-256]"));
+        }
+        try {
+            checksum.getValue(StreamChecksum.CRC32);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("checksum is not completed. algorithm = [CRC32]"));
+        }
+        assertThat(checksum.toString(), containsString("algorithms=[CRC32]"));
+    }
+}
@@ -0,0 +1,62 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * {@link CompactColumn}のテストクラス。
+ */
+public class CompactColumnTest {
+
+    /**
+     * 整数のみの間は数値として保持し、それ以外の値が現れた時点で文字列として保持すること。
+     * いずれの場合も追加した値を取得できること。
+     */
+    @Test
+    public void testAdd() throws Exception {
+        final CompactColumn column = new CompactColumn();
+        for (int i = 0; i < 100; i++) {
+            column.add(i % 10 == 0 ? null : String.valueOf(i - 50));
+        }
+        assertThat(column.isNumeric(), is(true));
+        assertThat(column.getLong(1), is(-49L));
+
+        column.add("あいう");
+        column.add("");
+        column.add("12");
+        assertThat(column.isNumeric(), is(false));
+        column.trim();
+
+        assertThat(column.size(), is(103));
+        for (int i = 0; i < 100; i++) {
+            assertThat(column.get(i), is(i % 10 == 0 ? null : String.valueOf(i - 50)));
+        }
+        assertThat(column.get(100), is("あいう"));
+        assertThat(column.get(101), is(""));
+        assertThat(column.get(102), is("12"));
+    }
+
+    /**
+     * {@link Long#toString(long)}で元に戻せる文字列のみを正規の表現と判定すること。
+     */
+    @Test
+    public void testIsCanonicalLong() throws Exception {
+        assertThat(CompactColumn.isCanonicalLong("0"), is(true));
+        assertThat(CompactColumn.isCanonicalLong("-1"), is(true));
+        assertThat(CompactColumn.isCanonicalLong("9223372036854775807"), is(true));
+        assertThat(CompactColumn.isCanonicalLong("-9223372036854775808"), is(true));
+
+        assertThat(CompactColumn.isCanonicalLong(""), is(false));
+        assertThat(CompactColumn.isCanonicalLong("-"), is(false));
+        assertThat(CompactColumn.isCanonicalLong("-0"), is(false));
+        assertThat(CompactColumn.isCanonicalLong("01"), is(false));
+        assertThat(CompactColumn.isCanonicalLong("+1"), is(false));
+        assertThat(CompactColumn.isCanonicalLong("1.0"), is(false));
+        assertThat(CompactColumn.isCanonicalLong("9223372036854775808"), is(false));
+        assertThat(CompactColumn.isCanonicalLong("-9223372036854775809"), is(false));
+        assertThat(CompactColumn.isCanonicalLong("12345678901234567890"), is(false));
+    }
+}
@@ -0,0 +1,154 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import nablarch.common.databind.DataBindUtil;
+import nablarch.common.databind.LineNumber;
+import nablarch.common.databind.MapperTemplate;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+
+import org.junit.Test;
+
+/**
+ * {@link CsvBeanMapperTemplate}のテストクラス。
+ */
+public class CsvBeanMapperTemplateTest {
+
+    /** テスト対象 */
+    private final MapperTemplate<Person> sut =
+            new CsvBeanMapperTemplate<Person>(Person.class, DataBindUtil.findCsvMappingMetadata(Person.class));
+
+    /**
+     * 1つのテンプレートから複数のストリームを読み込めること。
+     */
+    @Test
+    public void testRead() throws Exception {
+        final ObjectMapper<Person> first = sut.create(new StringReader("年齢,氏名\r\n20,山田太郎\r\n"));
+        final ObjectMapper<Person> second = sut.create(
+                new ByteArrayInputStream("年齢,氏名\r\n30,鈴木次郎\r\n40,\r\n".getBytes("utf-8")));
+
+        final Person person1 = first.read();
+        assertThat(person1.getAge(), is(20));
+        assertThat(person1.getName(), is("山田太郎"));
+        assertThat(person1.getLineNumber(), is(2L));
+        assertThat(first.read(), is(nullValue()));
+        first.close();
+
+        final Person person2 = second.read();
+        assertThat(person2.getAge(), is(30));
+        assertThat(person2.getName(), is("鈴木次郎"));
+        final Person person3 = second.read();
+        assertThat(person3.getAge(), is(40));
+        assertThat(person3.getName(), is(nullValue()));
+        assertThat(person3.getLineNumber(), is(3L));
+        assertThat(second.read(), is(nullValue()));
+        second.close();
+    }
+
+    /**
+     * 1つのテンプレートから複数のストリームに書き込めること。
+     */
+    @Test
+    public void testWrite() throws Exception {
+        final StringWriter writer = new StringWriter();
+        final ObjectMapper<Person> first = sut.create(writer);
+        first.write(new Person(20, "山田太郎"));
+        first.close();
+
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        final ObjectMapper<Person> second = sut.create(stream);
+        second.write(new Person(30, "鈴木次郎"));
+        second.close();
+
+        assertThat(writer.toString(), is("年齢,氏名\r\n20,山田太郎\r\n"));
+        assertThat(stream.toString("utf-8"), is("年齢,氏名\r\n30,鈴木次郎\r\n"));
+    }
+
+    /**
+     * 複数スレッドから同時にテンプレートを使用できること。
+     */
+    @Test
+    public void testConcurrent() throws Exception {
+        final MapperTemplate<Person> template = ObjectMapperFactory.createTemplate(Person.class);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < 20; i++) {
+                final int age = i;
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        final ObjectMapper<Person> mapper = template.create("年齢,氏名\r\n" + age + ",名前\r\n");
+                        try {
+                            return mapper.read().getAge();
+                        } finally {
+                            mapper.close();
+                        }
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertThat(futures.get(i).get(), is(i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"age", "name"}, headers = {"年齢", "氏名"})
+    public static class Person {
+
+        private Integer age;
+
+        private String name;
+
+        private Long lineNumber;
+
+        public Person() {
+        }
+
+        public Person(final Integer age, final String name) {
+            this.age = age;
+            this.name = name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(final Integer age) {
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+
+        @LineNumber
+        public Long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(final Long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+    }
+}
@@ -10,9 +10,11 @@ import static org.junit.runners.Parameterized.Parameters;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.Arrays;
 import java.util.List;
 
+import nablarch.common.databind.CharBufferPool;
 import nablarch.common.databind.DataReader;
 import nablarch.common.databind.InvalidDataFormatException;
 
@@ -235,4 +237,66 @@ public class CsvDataReaderTest {
             assertThat("IOExceptionが発生していること", e.getCause(), instanceOf(IOException.class));
         }
     }
+
+    /**
+     * 改行コードやエスケープされたクォートが内部バッファの境界をまたぐ場合でも、正しく読み込めること。
+     */
+    @Test
+    public void testRead_acrossBuffer() throws Exception {
+        final int bufferSize = CharBufferPool.DEFAULT_BUFFER_SIZE;
+        final String first = repeat('a', bufferSize - 1);
+        final String second = repeat('b', bufferSize - 3);
+        final String input = first + "\r\n"
+                + '"' + second + "\"\"c\r\nd\",e\r\n"
+                + "f\r\n";
+
+        final CsvDataReader sut = new CsvDataReader(new StringReader(input), format);
+
+        assertThat(sut.read(), is(new String[] {first}));
+        assertThat(sut.read(), is(new String[] {second + "\"c\r\nd", "e"}));
+        assertThat(sut.read(), is(new String[] {"f"}));
+        assertThat(sut.getLineNumber(), is(4L));
+        assertThat(sut.read(), is(nullValue()));
+        sut.close();
+    }
+
+    /**
+     * クローズ時に内部バッファがプールに返却され、次のリーダで再利用されること。
+     */
+    @Test
+    public void testClose_releaseBuffer() throws Exception {
+        final CharBufferPool pool = CharBufferPool.getDefault();
+        new CsvDataReader(new StringReader("1,2,3"), format).close();
+
+        final int idle = pool.getIdleCount();
+        final long hit = pool.getHitCount();
+        final CsvDataReader sut = new CsvDataReader(new StringReader("1,2,3"), format);
+        assertThat("返却されたバッファが再利用されること", pool.getHitCount(), is(hit + 1));
+        assertThat(pool.getIdleCount(), is(idle - 1));
+
+        sut.close();
+        sut.close();
+        assertThat("二重にクローズしても返却は1回のみであること", pool.getIdleCount(), is(idle));
+
+        try {
+            sut.read();
+            fail("クローズされているため、エラーが発生する");
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), is("failed to read file."));
+            assertThat(e.getCause(), instanceOf(IOException.class));
+        }
+    }
+
+    /**
+     * 指定した文字を繰り返した文字列を生成する。
+     *
+     * @param c 文字
+     * @param count 繰り返す回数
+     * @return 文字列
+     */
+    private static String repeat(final char c, final int count) {
+        final char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
 }
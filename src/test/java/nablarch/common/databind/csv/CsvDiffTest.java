@@ -0,0 +1,194 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import nablarch.common.databind.InvalidDataFormatException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link CsvDiff}のテストクラス。
+ */
+public class CsvDiffTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(final String name, final String csv) throws Exception {
+        final File file = new File(folder.getRoot(), name);
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(csv.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private static String read(final File file) throws Exception {
+        final Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+        try {
+            final StringBuilder result = new StringBuilder();
+            final char[] buffer = new char[4096];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                result.append(buffer, 0, read);
+            }
+            return result.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 追加と更新は新ファイルの順に、削除はその後に旧ファイルの順に出力され、
+     * 先頭の列に変更の種類が出力されること。
+     */
+    @Test
+    public void testDiff() throws Exception {
+        final File oldFile = write("old.csv", "id,name,amount\r\n"
+                + "1,a,10\r\n"
+                + "2,b,20\r\n"
+                + "3,c,30\r\n"
+                + "4,d,40\r\n");
+        final File newFile = write("new.csv", "id,name,amount\r\n"
+                + "2,b,20\r\n"
+                + "1,a,11\r\n"
+                + "5,\"e,f\",50\r\n"
+                + "3,c,30\r\n");
+        final File output = new File(folder.getRoot(), "output.csv");
+
+        final CsvDiff.Result result = new CsvDiff(CsvDataBindConfig.DEFAULT, 0).diff(oldFile, newFile, output);
+        assertThat(result.getInsertCount(), is(1L));
+        assertThat(result.getUpdateCount(), is(1L));
+        assertThat(result.getDeleteCount(), is(1L));
+        assertThat(result.getUnchangedCount(), is(2L));
+        assertThat(read(output), is("changeType,id,name,amount\r\n"
+                + "U,1,a,11\r\n"
+                + "I,5,\"e,f\",50\r\n"
+                + "D,4,d,40\r\n"));
+    }
+
+    /**
+     * 空文字列の要素と{@code null}の要素は、キーとしては同じ値として扱われ、
+     * レコードの内容としては異なる値として扱われること。
+     */
+    @Test
+    public void testDiff_emptyAndNull() throws Exception {
+        final File oldFile = write("old.csv", "id,name,amount\r\n"
+                + ",a,10\r\n"
+                + "2,,20\r\n"
+                + "3,\"\",30\r\n");
+        final File newFile = write("new.csv", "id,name,amount\r\n"
+                + "\"\",a,10\r\n"
+                + "2,\"\",20\r\n"
+                + "3,\"\",30\r\n");
+        final File output = new File(folder.getRoot(), "output.csv");
+
+        final CsvDiff.Result result = new CsvDiff(CsvDataBindConfig.DEFAULT, 0).diff(oldFile, newFile, output);
+        assertThat(result.toString(),
+                is("Result{insertCount=0, updateCount=2, deleteCount=0, unchangedCount=1}"));
+    }
+
+    /**
+     * メモリの上限を超える場合に、複数のパーティションに分割して比較しても同じ変更が出力され、
+     * 一時ファイルが削除されること。
+     */
+    @Test
+    public void testDiffWithPartitions() throws Exception {
+        assertDiffWithPartitions(4096);
+    }
+
+    /**
+     * パーティションの数が上限に達してもメモリの上限を超える場合に、
+     * パーティションを再分割して比較しても同じ変更が出力され、一時ファイルが削除されること。
+     */
+    @Test
+    public void testDiffWithRepartition() throws Exception {
+        assertDiffWithPartitions(128);
+    }
+
+    private void assertDiffWithPartitions(final long memoryLimit) throws Exception {
+        final StringBuilder oldCsv = new StringBuilder();
+        final StringBuilder newCsv = new StringBuilder();
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 3000; i++) {
+            final String row = i + ",顧客" + i + ",東京";
+            if (i % 10 == 0) {
+                // 削除
+                oldCsv.append(row).append("\r\n");
+                expected.add("D," + row);
+            } else if (i % 10 == 1) {
+                // 追加
+                newCsv.append(row).append("\r\n");
+                expected.add("I," + row);
+            } else if (i % 10 == 2) {
+                // 更新
+                oldCsv.append(row).append("\r\n");
+                newCsv.append(i).append(",顧客").append(i).append(",大阪\r\n");
+                expected.add("U," + i + ",顧客" + i + ",大阪");
+            } else {
+                oldCsv.append(row).append("\r\n");
+                newCsv.append(row).append("\r\n");
+            }
+        }
+        final File oldFile = write("old.csv", oldCsv.toString());
+        final File newFile = write("new.csv", newCsv.toString());
+        final File output = new File(folder.getRoot(), "output.csv");
+        final File temp = folder.newFolder("temp");
+
+        final CsvDiff.Result result = new CsvDiff(CsvDataBindConfig.DEFAULT.withRequiredHeader(false), 0, 1)
+                .withMemoryLimit(memoryLimit)
+                .withTempDirectory(temp)
+                .diff(oldFile, newFile, output);
+        assertThat(result.toString(),
+                is("Result{insertCount=300, updateCount=300, deleteCount=300, unchangedCount=2100}"));
+        final List<String> actual = new ArrayList<String>(Arrays.asList(read(output).split("\r\n")));
+        Collections.sort(actual);
+        Collections.sort(expected);
+        assertThat(actual, is(expected));
+        assertThat(temp.list().length, is(0));
+    }
+
+    /**
+     * 同じファイル内でキーが重複する場合は、重複したレコードの行番号で例外が送出され、
+     * 一時ファイルが削除されること。
+     */
+    @Test
+    public void testDuplicateKey() throws Exception {
+        final File oldFile = write("old.csv", "id,name\r\n1,a\r\n2,b\r\n");
+        final File newFile = write("new.csv", "id,name\r\n1,a\r\n2,b\r\n1,c\r\n");
+        final File temp = folder.newFolder("temp");
+        final CsvDiff diff = new CsvDiff(CsvDataBindConfig.DEFAULT, 0).withTempDirectory(temp);
+        try {
+            diff.diff(oldFile, newFile, new File(folder.getRoot(), "output.csv"));
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("new file has duplicate key. key = [1]."));
+            assertThat(e.getLineNumber(), is(4L));
+        }
+        assertThat(temp.list().length, is(0));
+
+        try {
+            diff.diff(oldFile, newFile, newFile);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("output file must be different from input files."));
+        }
+    }
+}
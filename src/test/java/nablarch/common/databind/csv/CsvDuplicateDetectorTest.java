@@ -0,0 +1,162 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+
+import nablarch.common.databind.csv.CsvDuplicateReport.Duplicate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link CsvDuplicateDetector}のテストクラス。
+ */
+public class CsvDuplicateDetectorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(final String name, final String csv) throws Exception {
+        final File file = new File(folder.getRoot(), name);
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(csv.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private static String read(final File file) throws Exception {
+        final Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+        try {
+            final StringBuilder result = new StringBuilder();
+            final char[] buffer = new char[4096];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                result.append(buffer, 0, read);
+            }
+            return result.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 複数の列のキーで重複が検出され、行番号が出現順に返されること。
+     * 空の列は同じキーとして扱われ、列の境界が異なるキーは重複とならないこと。
+     * 重複を除いた出力には、キーごとに最初のレコードが入力の順序で出力されること。
+     */
+    @Test
+    public void testDetectInMemory() throws Exception {
+        final File input = write("input.csv", "id,branch,name\r\n"
+                + "1,A,x\r\n"
+                + "2,A,y\r\n"
+                + "1,B,z\r\n"
+                + "1,A,w\r\n"
+                + ",A,n1\r\n"
+                + ",A,n2\r\n"
+                + "2,A,v\r\n"
+                + "1,A,u\r\n"
+                + "ab,c,p\r\n"
+                + "a,bc,q\r\n");
+        final CsvDuplicateDetector detector = new CsvDuplicateDetector(CsvDataBindConfig.DEFAULT, 0, 1);
+
+        final CsvDuplicateReport report = detector.detect(input);
+        assertThat(report.getRecordCount(), is(10L));
+        assertThat(report.hasDuplicates(), is(true));
+        assertThat(report.getDuplicateRecordCount(), is(4L));
+        final List<Duplicate> duplicates = report.getDuplicates();
+        assertThat(duplicates.size(), is(3));
+        assertThat(Arrays.asList(duplicates.get(0).getKey()), is(Arrays.asList("1", "A")));
+        assertThat(Arrays.toString(duplicates.get(0).getLineNumbers()), is("[2, 5, 9]"));
+        assertThat(Arrays.asList(duplicates.get(1).getKey()), is(Arrays.asList("2", "A")));
+        assertThat(Arrays.toString(duplicates.get(1).getLineNumbers()), is("[3, 8]"));
+        assertThat(Arrays.asList(duplicates.get(2).getKey()), is(Arrays.asList(null, "A")));
+        assertThat(Arrays.toString(duplicates.get(2).getLineNumbers()), is("[6, 7]"));
+
+        final File output = new File(folder.getRoot(), "output.csv");
+        assertThat(detector.dedup(input, output).toString(), is(report.toString()));
+        assertThat(read(output), is("id,branch,name\r\n"
+                + "1,A,x\r\n"
+                + "2,A,y\r\n"
+                + "1,B,z\r\n"
+                + ",A,n1\r\n"
+                + "ab,c,p\r\n"
+                + "a,bc,q\r\n"));
+
+        final CsvDuplicateReport unique = new CsvDuplicateDetector(CsvDataBindConfig.DEFAULT, 2).detect(input);
+        assertThat(unique.hasDuplicates(), is(false));
+        assertThat(unique.getRecordCount(), is(10L));
+    }
+
+    /**
+     * メモリの上限を超える場合に、パーティションへの書き出しと再分割を行っても、
+     * メモリ上で検出した場合と同じ結果となり、一時ファイルが削除されること。
+     */
+    @Test
+    public void testDetectWithPartitions() throws Exception {
+        final StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            csv.append("顧客").append(i % 15000).append(',').append(i).append("\r\n");
+        }
+        final File input = write("input.csv", csv.toString());
+        final File temp = folder.newFolder("temp");
+        final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT.withRequiredHeader(false);
+
+        final CsvDuplicateReport expected = new CsvDuplicateDetector(config, 0).detect(input);
+        assertThat(expected.getRecordCount(), is(20000L));
+        assertThat(expected.getDuplicates().size(), is(5000));
+        for (int i = 0; i < 5000; i++) {
+            final Duplicate duplicate = expected.getDuplicates().get(i);
+            assertThat(duplicate.getKey()[0], is("顧客" + i));
+            assertThat(Arrays.toString(duplicate.getLineNumbers()), is("[" + (i + 1) + ", " + (i + 15001) + ']'));
+        }
+
+        final CsvDuplicateDetector detector = new CsvDuplicateDetector(config, 0)
+                .withMemoryLimit(1024)
+                .withTempDirectory(temp);
+        assertThat(detector.detect(input).toString(), is(expected.toString()));
+        final File output = new File(folder.getRoot(), "output.csv");
+        assertThat(detector.dedup(input, output).getDuplicateRecordCount(), is(5000L));
+        assertThat(read(output).split("\r\n").length, is(15000));
+        assertThat(temp.list().length, is(0));
+    }
+
+    /**
+     * 不正な引数の場合に例外が送出されること。
+     */
+    @Test
+    public void testInvalidArguments() throws Exception {
+        try {
+            new CsvDuplicateDetector(CsvDataBindConfig.DEFAULT);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("key columns must not be empty."));
+        }
+        try {
+            new CsvDuplicateDetector(CsvDataBindConfig.DEFAULT, 0).withMemoryLimit(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("memory limit must be greater than 0."));
+        }
+        final File input = write("input.csv", "id\r\n1\r\n");
+        try {
+            new CsvDuplicateDetector(CsvDataBindConfig.DEFAULT, 0).dedup(input, input);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("output file must be different from input file."));
+        }
+    }
+}
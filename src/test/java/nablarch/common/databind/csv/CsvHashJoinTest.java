@@ -0,0 +1,155 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.common.databind.csv.CsvMasterTableTest.Item;
+
+import org.junit.Test;
+
+/**
+ * {@link CsvHashJoin}のテストクラス。
+ */
+public class CsvHashJoinTest {
+
+    private static InputStream toStream(final String csv) throws Exception {
+        return new ByteArrayInputStream(csv.getBytes("UTF-8"));
+    }
+
+    /** 書き込まれたレコードを保持する{@link ObjectMapper} */
+    private static class CollectingMapper implements ObjectMapper<String> {
+
+        private final List<String> records = new ArrayList<String>();
+
+        @Override
+        public void write(final String object) {
+            records.add(object);
+        }
+
+        @Override
+        public String read() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /** 一致したレコードのみ、プローブ側とビルド側の名前を連結して出力する{@link CsvHashJoin.Combiner} */
+    private static final CsvHashJoin.Combiner<Txn, Item, String> COMBINER =
+            new CsvHashJoin.Combiner<Txn, Item, String>() {
+                @Override
+                public String combine(final Txn probe, final Item build) {
+                    return build == null ? null : probe.getTxnId() + ':' + build.getName();
+                }
+            };
+
+    /**
+     * 整数のキーと整数でないキーのいずれでもビルド側のテーブルが構築され、
+     * 並列に結合しても出力の順序がプローブ側の入力の順序と同じになること。
+     */
+    @Test
+    public void testJoin() throws Exception {
+        final StringBuilder items = new StringBuilder("code,name,price\r\n");
+        for (int i = 0; i < 3000; i++) {
+            items.append(i).append(",品名").append(i).append(",1\r\n");
+        }
+        final CsvMasterTable<Item> longKeys =
+                CsvHashJoin.buildTable(Item.class, toStream(items.toString()), "code", true);
+        assertThat(longKeys.size(), is(3000));
+        // 整数でないキーが現れた場合は、文字列のキーに切り替わること
+        items.append("A-1,英字,1\r\n");
+        final CsvMasterTable<Item> stringKeys =
+                CsvHashJoin.buildTable(Item.class, toStream(items.toString()), "code", false);
+        assertThat(stringKeys.size(), is(3001));
+        assertThat(stringKeys.get(2999L).getName(), is("品名2999"));
+        assertThat(stringKeys.get("A-1").getName(), is("英字"));
+        assertThat(stringKeys.get("007"), is((Item) null));
+
+        final StringBuilder txns = new StringBuilder("txnId,code\r\n");
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 5000; i++) {
+            final String code = i % 7 == 0 ? "A-1" : String.valueOf(i % 3500);
+            txns.append(i).append(',').append(code).append("\r\n");
+            if (i % 7 == 0) {
+                expected.add(i + ":英字");
+            } else if (i % 3500 < 3000) {
+                expected.add(i + ":品名" + (i % 3500));
+            }
+        }
+        for (int parallelism = 1; parallelism <= 3; parallelism++) {
+            final CollectingMapper output = new CollectingMapper();
+            final ObjectMapper<Txn> probe = ObjectMapperFactory.create(Txn.class, toStream(txns.toString()));
+            try {
+                final long count = new CsvHashJoin<Txn, Item, String>(stringKeys, COMBINER)
+                        .withParallelism(parallelism)
+                        .withBatchSize(100)
+                        .join(probe, "code", output);
+                assertThat(count, is((long) expected.size()));
+            } finally {
+                probe.close();
+            }
+            assertThat(output.records, is(expected));
+        }
+    }
+
+    /**
+     * ビルド側のデータが不正な場合は、並列に構築しても行番号を含む例外が送出されること。
+     */
+    @Test
+    public void testInvalidBuildSide() throws Exception {
+        final StringBuilder items = new StringBuilder("code,name,price\r\n");
+        for (int i = 0; i < 5000; i++) {
+            items.append(i == 4000 ? "x" : String.valueOf(i)).append(",name,1\r\n");
+        }
+        items.append("x,name,1\r\n");
+        try {
+            CsvHashJoin.buildTable(Item.class, toStream(items.toString()), "code", true);
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("duplicate key. key = [x]."));
+            assertThat(e.getLineNumber(), is(5002L));
+        }
+        try {
+            CsvHashJoin.buildTable(Item.class, toStream("code,name,price\r\n1,a\r\n"), "code", true);
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("property size does not match."));
+        }
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"txnId", "code"}, headers = {"txnId", "code"})
+    public static class Txn {
+
+        private String txnId;
+
+        private String code;
+
+        public String getTxnId() {
+            return txnId;
+        }
+
+        public void setTxnId(final String txnId) {
+            this.txnId = txnId;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(final String code) {
+            this.code = code;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import nablarch.common.databind.LineNumber;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link CsvKeyIndex}のテストクラス。
+ */
+public class CsvKeyIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** CSVの設定 */
+    private static final CsvDataBindConfig CONFIG = CsvDataBindConfig.DEFAULT.withHeaderTitles("code", "name");
+
+    /** 5000件のコードを持つCSVファイル */
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = folder.newFile("master.csv");
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        writer.write("code,name\r\n");
+        for (int i = 0; i < 5000; i++) {
+            writer.write("C" + i + "," + (i % 100 == 0 ? "\"名称\r\n" + i + "\"" : "名称" + i) + "\r\n");
+        }
+        // キーが空のレコード、重複するキー
+        writer.write(",空\r\n");
+        writer.write("C1,重複\r\n");
+        writer.close();
+    }
+
+    /**
+     * キーに一致するレコードをBean及び要素の配列として取得できること。
+     */
+    @Test
+    public void testGet() throws Exception {
+        final CsvKeyIndex index = CsvKeyIndex.build(file, CONFIG, 0, folder.newFile("master.idx"));
+        assertThat(index.size(), is(5001L));
+        assertThat(index.getKeyColumn(), is(0));
+
+        for (int i = 0; i < 5000; i++) {
+            final Item item = index.get(Item.class, "C" + i);
+            assertThat(item.getCode(), is("C" + i));
+            assertThat(item.getName(), is(i % 100 == 0 ? "名称\r\n" + i : "名称" + i));
+        }
+        // 改行を含む要素があっても行番号が正しいこと
+        assertThat(index.get(Item.class, "C0").getLineNumber(), is(3L));
+        assertThat(index.get(Item.class, "C1").getLineNumber(), is(4L));
+        assertThat(index.get(Item.class, "C101").getLineNumber(), is(105L));
+
+        assertThat(Arrays.asList(index.getRecord("C4999")), is(Arrays.asList("C4999", "名称4999")));
+        assertThat(index.get(Item.class, "C5000"), is(nullValue()));
+        assertThat(index.getRecord(""), is(nullValue()));
+        assertThat(index.getRecord(null), is(nullValue()));
+        index.close();
+    }
+
+    /**
+     * キーが重複する場合は、ファイルの先頭に近いレコードを返すこと。
+     */
+    @Test
+    public void testGet_duplicateKey() throws Exception {
+        final CsvKeyIndex index = CsvKeyIndex.build(file, CONFIG, 0, folder.newFile("master.idx"));
+        assertThat(index.get(Item.class, "C1").getName(), is("名称1"));
+        index.close();
+    }
+
+    /**
+     * 保存した索引ファイルを開いて検索できること。
+     * CSVファイルが更新された場合は無効となり、再構築されること。
+     */
+    @Test
+    public void testOpen() throws Exception {
+        final File indexFile = new File(file.getPath() + ".key1.idx");
+        assertThat(CsvKeyIndex.open(file, CONFIG, 1, indexFile), is(nullValue()));
+
+        final CsvKeyIndex built = CsvKeyIndex.openOrBuild(file, CONFIG, 1);
+        assertThat(indexFile.isFile(), is(true));
+        final CsvKeyIndex opened = CsvKeyIndex.open(file, CONFIG, 1, indexFile);
+        assertThat(opened, is(notNullValue()));
+        assertThat(opened.size(), is(5002L));
+        assertThat(opened.getRecord("名称42")[0], is("C42"));
+        assertThat(opened.getRecord("名称\r\n200")[0], is("C200"));
+
+        // キーの列、区切り文字、ヘッダ行の有無が異なる場合は無効
+        assertThat(CsvKeyIndex.open(file, CONFIG, 0, indexFile), is(nullValue()));
+        assertThat(CsvKeyIndex.open(file, CONFIG.withFieldSeparator('\t'), 1, indexFile), is(nullValue()));
+        assertThat(CsvKeyIndex.open(file, CONFIG.withRequiredHeader(false), 1, indexFile), is(nullValue()));
+
+        assertThat(file.setLastModified(file.lastModified() - 10000L), is(true));
+        assertThat(CsvKeyIndex.open(file, CONFIG, 1, indexFile), is(nullValue()));
+        try {
+            opened.getRecord("名称42");
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("csv file has been modified after index was built."));
+        }
+        final CsvKeyIndex rebuilt = CsvKeyIndex.openOrBuild(file, CONFIG, 1);
+        assertThat(rebuilt.getRecord("名称42")[0], is("C42"));
+        built.close();
+        opened.close();
+        rebuilt.close();
+
+        // 壊れた索引ファイルは無効
+        final FileOutputStream out = new FileOutputStream(indexFile);
+        out.write(new byte[100]);
+        out.close();
+        assertThat(CsvKeyIndex.open(file, CONFIG, 1, indexFile), is(nullValue()));
+    }
+
+    /**
+     * 索引ファイルを開いているインスタンスで検索している間に、同じ索引ファイルを再構築しても、
+     * 検索中のインスタンスは全てのキーを検索でき、再構築後の索引ファイルも開けること。
+     * 一時ファイルが残らないこと。
+     */
+    @Test
+    public void testRebuildWhileSearching() throws Exception {
+        final File indexFile = new File(file.getPath() + ".key0.idx");
+        final CsvKeyIndex opened = CsvKeyIndex.openOrBuild(file, CONFIG, 0);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final AtomicBoolean stopped = new AtomicBoolean(false);
+        final Thread searcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    int i = 0;
+                    while (!stopped.get()) {
+                        final String[] record = opened.getRecord("C" + (i % 5000));
+                        if (record == null || !record[0].equals("C" + (i % 5000))) {
+                            throw new AssertionError("key not found. key = [C" + (i % 5000) + ']');
+                        }
+                        i++;
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            }
+        });
+        searcher.start();
+        try {
+            for (int i = 0; i < 5; i++) {
+                final CsvKeyIndex rebuilt = CsvKeyIndex.build(file, CONFIG, 0, indexFile);
+                assertThat(rebuilt.getRecord("C42")[1], is("名称42"));
+                rebuilt.close();
+                final CsvKeyIndex reopened = CsvKeyIndex.open(file, CONFIG, 0, indexFile);
+                assertThat(reopened.getRecord("C4999")[1], is("名称4999"));
+                reopened.close();
+            }
+        } finally {
+            stopped.set(true);
+            searcher.join();
+        }
+        assertThat(failure.get(), is(nullValue()));
+        assertThat(opened.getRecord("C1")[1], is("名称1"));
+        opened.close();
+        try {
+            opened.getRecord("C1");
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("index is closed."));
+        }
+        for (String name : folder.getRoot().list()) {
+            assertThat(name.endsWith(".tmp"), is(false));
+        }
+    }
+
+    /**
+     * 不正な引数の場合は例外が送出されること。
+     */
+    @Test
+    public void testInvalidArguments() throws Exception {
+        try {
+            CsvKeyIndex.build(file, CONFIG, -1, folder.newFile("master.idx"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("key column must not be negative. key column = [-1]"));
+        }
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"code", "name"}, headers = {"code", "name"})
+    public static class Item {
+
+        private String code;
+
+        private String name;
+
+        private Long lineNumber;
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(final String code) {
+            this.code = code;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+
+        @LineNumber
+        public Long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(final Long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.LineNumber;
+
+import org.junit.Test;
+
+/**
+ * {@link CsvMasterTable}のテストクラス。
+ */
+public class CsvMasterTableTest {
+
+    private static InputStream toStream(final String csv) throws Exception {
+        return new ByteArrayInputStream(csv.getBytes("UTF-8"));
+    }
+
+    /**
+     * キーでBeanを取得できること。
+     * 数値の列、文字列の列ともに読み込んだ値がそのまま設定されること。
+     */
+    @Test
+    public void testGet() throws Exception {
+        final StringBuilder csv = new StringBuilder("code,name,price\r\n");
+        for (int i = 0; i < 10000; i++) {
+            csv.append(i * 7).append(",品名").append(i).append(',').append(i % 5 == 0 ? "" : String.valueOf(i * 10))
+                    .append("\r\n");
+        }
+        csv.append("-1,\"改行\r\nを含む\",007\r\n");
+        final CsvMasterTable<Item> table = CsvMasterTable.load(Item.class, toStream(csv.toString()), "code");
+
+        assertThat(table.size(), is(10001));
+        assertThat(table.getKeyProperty(), is("code"));
+        for (int i = 0; i < 10000; i++) {
+            final Item item = table.get(i * 7L);
+            assertThat(item.getCode(), is(String.valueOf(i * 7)));
+            assertThat(item.getName(), is("品名" + i));
+            assertThat(item.getPrice(), is(i % 5 == 0 ? null : String.valueOf(i * 10)));
+            assertThat(item.getLineNumber(), is(i + 2L));
+        }
+        // 先頭の0は文字列として保持されるため失われないこと
+        final Item last = table.get(-1L);
+        assertThat(last.getName(), is("改行\r\nを含む"));
+        assertThat(last.getPrice(), is("007"));
+        assertThat(last.getLineNumber(), is(10003L));
+
+        assertThat(table.get(1L), is(nullValue()));
+        assertThat(table.containsKey(7L), is(true));
+        assertThat(table.containsKey(8L), is(false));
+        assertThat(table.getValue(14L, "name"), is("品名2"));
+        assertThat(table.getValue(15L, "name"), is(nullValue()));
+    }
+
+    /**
+     * 不正なデータの場合は例外が送出されること。
+     */
+    @Test
+    public void testInvalidData() throws Exception {
+        try {
+            CsvMasterTable.load(Item.class, toStream("code,name,price\r\n1,a,1\r\n1,b,2\r\n"), "code");
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("duplicate key. key = [1]."));
+            assertThat(e.getLineNumber(), is(3L));
+        }
+        try {
+            CsvMasterTable.load(Item.class, toStream("code,name,price\r\nA1,a,1\r\n"), "code");
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("key must be integer. key = [A1]."));
+        }
+        try {
+            CsvMasterTable.load(Item.class, toStream("code,name,price\r\n,a,1\r\n"), "code");
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("key must be integer. key = [null]."));
+        }
+        try {
+            CsvMasterTable.load(Item.class, toStream("code,name,price\r\n1,a\r\n"), "code");
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString(
+                    "property size does not match. expected field count = [3], actual field count = [2]."));
+        }
+        try {
+            CsvMasterTable.load(Item.class, toStream("code,name,price\r\n"), "unknown");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("key property not found. key property = [unknown]"));
+        }
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"code", "name", "price"}, headers = {"code", "name", "price"})
+    public static class Item {
+
+        private String code;
+
+        private String name;
+
+        private String price;
+
+        private Long lineNumber;
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(final String code) {
+            this.code = code;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+
+        public String getPrice() {
+            return price;
+        }
+
+        public void setPrice(final String price) {
+            this.price = price;
+        }
+
+        @LineNumber
+        public Long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(final Long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.common.databind.csv.CsvMergeJoin.JoinType;
+import nablarch.common.databind.csv.CsvMergeJoin.Joined;
+
+import org.junit.Test;
+
+/**
+ * {@link CsvMergeJoin}のテストクラス。
+ */
+public class CsvMergeJoinTest {
+
+    private static final String OURS = "accountNo,amount\r\n"
+            + ",0\r\n"
+            + "001,100\r\n"
+            + "002,200\r\n"
+            + "002,201\r\n"
+            + "004,400\r\n";
+
+    private static final String BANK = "account,balance\r\n"
+            + ",9\r\n"
+            + "002,2000\r\n"
+            + "002,2001\r\n"
+            + "003,3000\r\n"
+            + "004,4000\r\n"
+            + "005,5000\r\n";
+
+    private static ObjectMapper<Ours> ours(final String csv) throws Exception {
+        return ObjectMapperFactory.create(Ours.class, new ByteArrayInputStream(csv.getBytes("UTF-8")));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static ObjectMapper<Map> bank(final String csv) throws Exception {
+        return ObjectMapperFactory.create(Map.class, new ByteArrayInputStream(csv.getBytes("UTF-8")),
+                CsvDataBindConfig.DEFAULT.withHeaderTitles("account", "balance"));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static List<String> join(final JoinType type) throws Exception {
+        final CsvMergeJoin<Ours, Map> join =
+                new CsvMergeJoin<Ours, Map>(ours(OURS), "accountNo", bank(BANK), "account", type);
+        final List<String> result = new ArrayList<String>();
+        try {
+            Joined<Ours, Map> joined;
+            while ((joined = join.read()) != null) {
+                result.add((joined.getLeft() == null ? "-" : joined.getLeft().getAmount())
+                        + ":" + (joined.getRight() == null ? "-" : joined.getRight().get("balance")));
+            }
+        } finally {
+            join.close();
+        }
+        return result;
+    }
+
+    /**
+     * 結合の種類に応じて、レコードの組が返されること。
+     * キーが両側で重複する場合は全ての組み合わせが返され、キーがnullのレコードは結合されないこと。
+     */
+    @Test
+    public void testJoinTypes() throws Exception {
+        assertThat(join(JoinType.INNER).toString(), is("[200:2000, 200:2001, 201:2000, 201:2001, 400:4000]"));
+        assertThat(join(JoinType.LEFT_OUTER).toString(),
+                is("[0:-, 100:-, 200:2000, 200:2001, 201:2000, 201:2001, 400:4000]"));
+        assertThat(join(JoinType.RIGHT_OUTER).toString(),
+                is("[-:9, 200:2000, 200:2001, 201:2000, 201:2001, -:3000, 400:4000, -:5000]"));
+        assertThat(join(JoinType.FULL_OUTER).toString(),
+                is("[0:-, -:9, 100:-, 200:2000, 200:2001, 201:2000, 201:2001, -:3000, 400:4000, -:5000]"));
+    }
+
+    /**
+     * キーの順序が逆転している場合は、逆転したレコードの行番号で例外が送出されること。
+     * {@link Comparator}を指定した場合は、その順序で検証されること。
+     */
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testOutOfOrder() throws Exception {
+        final CsvMergeJoin<Ours, Map> join = new CsvMergeJoin<Ours, Map>(ours(OURS),
+                "accountNo", bank("account,balance\r\n002,1\r\n003,1\r\n001,1\r\n"), "account", JoinType.FULL_OUTER);
+        try {
+            while (join.read() != null) {
+                // 読み飛ばす
+            }
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("right input is not sorted by key. key property = [account],"
+                    + " previous key = [003], key = [001]."));
+            assertThat(e.getLineNumber(), is(4L));
+        } finally {
+            join.close();
+        }
+
+        final Comparator<Object> reverse = new Comparator<Object>() {
+            @Override
+            public int compare(final Object o1, final Object o2) {
+                return ((String) o2).compareTo((String) o1);
+            }
+        };
+        final CsvMergeJoin<Ours, Map> reversed = new CsvMergeJoin<Ours, Map>(
+                ours("accountNo,amount\r\n3,30\r\n1,10\r\n"), "accountNo",
+                bank("account,balance\r\n3,300\r\n2,200\r\n"), "account", JoinType.INNER, reverse);
+        try {
+            assertThat(reversed.read().getRight().get("balance"), is((Object) "300"));
+            assertThat(reversed.read() == null, is(true));
+        } finally {
+            reversed.close();
+        }
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"accountNo", "amount"}, headers = {"accountNo", "amount"})
+    public static class Ours {
+
+        private String accountNo;
+
+        private String amount;
+
+        public String getAccountNo() {
+            return accountNo;
+        }
+
+        public void setAccountNo(final String accountNo) {
+            this.accountNo = accountNo;
+        }
+
+        public String getAmount() {
+            return amount;
+        }
+
+        public void setAmount(final String amount) {
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.common.databind.LineNumber;
+import nablarch.common.databind.ReadPosition;
+import nablarch.common.databind.ResumableObjectMapper;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link CsvRecordIndex}のテストクラス。
+ */
+public class CsvRecordIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** CSVの設定 */
+    private static final CsvDataBindConfig CONFIG = CsvDataBindConfig.DEFAULT.withHeaderTitles("id", "name");
+
+    /** 1000件のレコードを持つCSVファイル(3件ごとに改行を含む要素、10件ごとに空行を含む) */
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = folder.newFile("test.csv");
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        writer.write("id,name\r\n");
+        for (int i = 0; i < 1000; i++) {
+            if (i % 10 == 0) {
+                writer.write("\r\n");
+            }
+            writer.write(i + "," + (i % 3 == 0 ? "\"名前\r\n" + i + "\"" : "名前" + i) + "\r\n");
+        }
+        writer.close();
+    }
+
+    /**
+     * 索引を使用して、任意のレコードから読み込めること。
+     * 行番号は先頭から読み込んだ場合と一致すること。
+     */
+    @Test
+    public void testOpen() throws Exception {
+        final CsvRecordIndex index = CsvRecordIndex.build(file, CONFIG, 64);
+        assertThat(index.getRecordCount(), is(1000L));
+        assertThat(index.getInterval(), is(64));
+
+        final ResumableObjectMapper<Person> sequential = index.open(Person.class, 0L);
+        for (int i = 0; i < 1000; i++) {
+            final Person expected = sequential.read();
+            final ResumableObjectMapper<Person> mapper = index.open(Person.class, i);
+            final Person actual = mapper.read();
+            assertThat(actual.getId(), is(String.valueOf(i)));
+            assertThat(actual.getName(), is(expected.getName()));
+            assertThat(actual.getLineNumber(), is(expected.getLineNumber()));
+            assertThat(mapper.getPosition(), is(sequential.getPosition()));
+            mapper.close();
+        }
+        sequential.close();
+
+        final ResumableObjectMapper<Person> end = index.open(Person.class, 1000L);
+        assertThat(end.read(), is(nullValue()));
+        end.close();
+    }
+
+    /**
+     * {@link java.util.Map}にマッピングする場合は、索引の構築に使用した設定で読み込めること。
+     */
+    @Test
+    public void testOpenWithConfig() throws Exception {
+        final CsvRecordIndex index = CsvRecordIndex.build(file, CONFIG, 100);
+        final ResumableObjectMapper<Map> mapper = index.openWithConfig(Map.class, 250L);
+        assertThat(mapper.read().get("name"), is((Object) "名前250"));
+        assertThat(mapper.getPosition().getRecordCount(), is(251L));
+        mapper.close();
+    }
+
+    /**
+     * サイドカーファイルに保存した索引を読み込めること。
+     * CSVファイルが更新された場合は無効となり、再構築されること。
+     */
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        final File indexFile = new File(file.getPath() + CsvRecordIndex.SIDECAR_SUFFIX);
+        assertThat(CsvRecordIndex.load(file, CONFIG, indexFile), is(nullValue()));
+
+        final CsvRecordIndex built = CsvRecordIndex.loadOrBuild(file, CONFIG, 100);
+        assertThat(indexFile.isFile(), is(true));
+        final CsvRecordIndex loaded = CsvRecordIndex.load(file, CONFIG, indexFile);
+        assertThat(loaded, is(notNullValue()));
+        assertThat(loaded.getRecordCount(), is(1000L));
+        for (int i = 0; i <= 1000; i += 100) {
+            assertThat(loaded.getNearestPosition(i), is(built.getNearestPosition(i)));
+        }
+        assertThat(loaded.locate(555L), is(built.locate(555L)));
+
+        // 文字コードが異なる場合は無効
+        assertThat(CsvRecordIndex.load(file, CONFIG.withCharset(Charset.forName("Windows-31J")),
+                indexFile), is(nullValue()));
+        // 区切り文字、クォート文字、改行コード、ヘッダ行の有無、空行の扱いが異なる場合は無効
+        assertThat(CsvRecordIndex.load(file, CONFIG.withFieldSeparator('\t'), indexFile), is(nullValue()));
+        assertThat(CsvRecordIndex.load(file, CONFIG.withQuote('\''), indexFile), is(nullValue()));
+        assertThat(CsvRecordIndex.load(file, CONFIG.withLineSeparator("\n"), indexFile), is(nullValue()));
+        assertThat(CsvRecordIndex.load(file, CONFIG.withRequiredHeader(false), indexFile), is(nullValue()));
+        assertThat(CsvRecordIndex.load(file, CONFIG.withIgnoreEmptyLine(false), indexFile), is(nullValue()));
+        assertThat(CsvRecordIndex.load(file, CONFIG, indexFile), is(notNullValue()));
+
+        // CSVファイルの最終更新日時が変わった場合は無効
+        assertThat(file.setLastModified(file.lastModified() - 10000L), is(true));
+        assertThat(loaded.isValid(), is(false));
+        assertThat(CsvRecordIndex.load(file, CONFIG, indexFile), is(nullValue()));
+        try {
+            loaded.locate(1L);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("csv file has been modified after index was built."));
+        }
+        final CsvRecordIndex rebuilt = CsvRecordIndex.loadOrBuild(file, CONFIG, 100);
+        assertThat(rebuilt.isValid(), is(true));
+        assertThat(CsvRecordIndex.load(file, CONFIG, indexFile), is(notNullValue()));
+
+        // 壊れたサイドカーファイルは無効
+        final byte[] saved = readBytes(indexFile);
+        FileOutputStream out = new FileOutputStream(indexFile);
+        out.write(new byte[] {0x43, 0x53});
+        out.close();
+        assertThat(CsvRecordIndex.load(file, CONFIG, indexFile), is(nullValue()));
+
+        // 索引の数が負、または残りのバイト数と一致しないサイドカーファイルは無効
+        for (int count : new int[] {-1, Integer.MAX_VALUE, 12}) {
+            final ByteBuffer corrupted = ByteBuffer.wrap(saved.clone());
+            corrupted.putInt(44, count);
+            out = new FileOutputStream(indexFile);
+            out.write(corrupted.array());
+            out.close();
+            assertThat(CsvRecordIndex.load(file, CONFIG, indexFile), is(nullValue()));
+        }
+        out = new FileOutputStream(indexFile);
+        out.write(saved, 0, saved.length - 8);
+        out.close();
+        assertThat(CsvRecordIndex.load(file, CONFIG, indexFile), is(nullValue()));
+
+        // 保存時は一時ファイルに書き込んでから置き換えるため、一時ファイルが残らない
+        rebuilt.save(indexFile);
+        assertThat(CsvRecordIndex.load(file, CONFIG, indexFile), is(notNullValue()));
+        for (String name : folder.getRoot().list()) {
+            assertThat(name.endsWith(".tmp"), is(false));
+        }
+    }
+
+    private static byte[] readBytes(final File file) throws Exception {
+        final RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            final byte[] bytes = new byte[(int) in.length()];
+            in.readFully(bytes);
+            return bytes;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * レコード数が均等になるよう分割でき、分割した範囲を読み込むと全てのレコードを1度ずつ読み込めること。
+     */
+    @Test
+    public void testSplit() throws Exception {
+        final CsvRecordIndex index = CsvRecordIndex.build(file, CONFIG, 50);
+        final List<ReadPosition> positions = index.split(4);
+        assertThat(positions.size(), is(4));
+        assertThat(positions.get(0).getRecordCount(), is(0L));
+        assertThat(positions.get(1).getRecordCount(), is(250L));
+        assertThat(positions.get(2).getRecordCount(), is(500L));
+        assertThat(positions.get(3).getRecordCount(), is(750L));
+
+        int expected = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            final long end = i + 1 < positions.size() ? positions.get(i + 1).getRecordCount() : Long.MAX_VALUE;
+            final ResumableObjectMapper<Person> mapper = index.open(Person.class, positions.get(i).getRecordCount());
+            Person person;
+            while (mapper.getPosition().getRecordCount() < end && (person = mapper.read()) != null) {
+                assertThat(person.getId(), is(String.valueOf(expected++)));
+            }
+            mapper.close();
+        }
+        assertThat(expected, is(1000));
+
+        // レコード数より索引が少ない場合は、分割数を減らす
+        assertThat(CsvRecordIndex.build(file, CONFIG, 400).split(10).size(), is(3));
+    }
+
+    /**
+     * 不正な引数の場合は例外が送出されること。
+     */
+    @Test
+    public void testInvalidArguments() throws Exception {
+        try {
+            CsvRecordIndex.build(file, CONFIG, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("interval must be greater than 0. interval = [0]"));
+        }
+        final CsvRecordIndex index = CsvRecordIndex.build(file, CONFIG, 10);
+        try {
+            index.locate(1001L);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("record index is out of range. record index = [1001], record count = [1000]"));
+        }
+        try {
+            index.split(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("parts must be greater than 0. parts = [0]"));
+        }
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"id", "name"}, headers = {"id", "name"})
+    public static class Person {
+
+        private String id;
+
+        private String name;
+
+        private Long lineNumber;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(final String id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+
+        @LineNumber
+        public Long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(final Long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+
+import org.junit.Test;
+
+/**
+ * 大量のCSVを読み込んでも、メモリ使用量が増加し続けないことを検証するテストクラス。
+ * <p/>
+ * {@link CsvWorkloadGenerator}で生成したCSVをパイプ経由で読み込むため、ディスクは使用しない。
+ * 読み込み中に一定間隔でGC後のヒープ使用量を計測し、読み込み開始直後からの増加量が許容値以内であることを確認する。
+ * <p/>
+ * 長時間かかるため、システムプロパティ{@code databind.soak.size}(例: {@code 10g})を指定した場合のみ実行する。
+ * ビルドの{@code soakTest}タスクで実行できる。
+ * <ul>
+ *     <li>{@code databind.soak.size}: 読み込むサイズ</li>
+ *     <li>{@code databind.soak.seed}: 生成に使用するシード(デフォルトは0)</li>
+ *     <li>{@code databind.soak.tolerance}: ヒープ使用量の増加の許容値(MB、デフォルトは16)</li>
+ * </ul>
+ */
+public class CsvSoakTest {
+
+    /** ヒープ使用量を計測する回数 */
+    private static final int CHECKPOINTS = 100;
+
+    /**
+     * 指定したサイズのCSVを読み込んでも、ヒープ使用量が増加し続けないこと。
+     */
+    @Test
+    public void testRead() throws Exception {
+        final String size = System.getProperty("databind.soak.size");
+        assumeTrue(size != null);
+        final long bytes = CsvWorkloadGenerator.parseSize(size);
+        final long seed = Long.getLong("databind.soak.seed", 0L);
+        final long tolerance = Long.getLong("databind.soak.tolerance", 16L) << 20;
+
+        final CsvWorkloadGenerator generator = new CsvWorkloadGenerator(CsvDataBindConfig.DEFAULT, seed);
+        generator.setColumns(50);
+        final PipedInputStream in = new PipedInputStream(1 << 16);
+        final PipedOutputStream out = new PipedOutputStream(in);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Future<Long> generated = executor.submit(new Callable<Long>() {
+            @Override
+            public Long call() throws IOException {
+                try {
+                    return generator.write(out, bytes);
+                } finally {
+                    out.close();
+                }
+            }
+        });
+
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        final long estimatedRecords = bytes / 600;
+        final long interval = Math.max(1L, estimatedRecords / CHECKPOINTS);
+        long baseline = -1L;
+        long peak = 0L;
+        long records = 0L;
+        try {
+            final ObjectMapper<Map> mapper = ObjectMapperFactory.create(
+                    Map.class, in, CsvDataBindConfig.DEFAULT.withHeaderTitles(generator.getHeaders()));
+            try {
+                while (mapper.read() != null) {
+                    records++;
+                    if (records % interval == 0) {
+                        final long used = usedHeapAfterGc(memory);
+                        if (baseline < 0) {
+                            baseline = used;
+                        }
+                        peak = Math.max(peak, used);
+                    }
+                }
+            } finally {
+                mapper.close();
+            }
+        } finally {
+            // 読み込み側が例外で終了した場合に、書き込み待ちの生成スレッドを終了させるため、パイプの読み込み側を閉じる
+            in.close();
+            executor.shutdownNow();
+        }
+
+        assertThat("生成したレコードを全て読み込めること", records, is(generated.get()));
+        assertTrue("heap usage grew beyond tolerance. baseline = [" + baseline + "], peak = [" + peak
+                + "], tolerance = [" + tolerance + ']', peak - baseline <= tolerance);
+    }
+
+    /**
+     * GC後のヒープ使用量を取得する。
+     *
+     * @param memory MXBean
+     * @return ヒープ使用量
+     */
+    private static long usedHeapAfterGc(final MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,141 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import nablarch.common.databind.InvalidDataFormatException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link CsvSorter}のテストクラス。
+ */
+public class CsvSorterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String sort(final CsvSorter sorter, final String csv) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sorter.sort(new ByteArrayInputStream(csv.getBytes("UTF-8")), out);
+        return out.toString("UTF-8");
+    }
+
+    /**
+     * メモリに収まる場合に、キーの型と昇順降順に従ってソートされること。
+     * キーが等しいレコードは入力の順序を保ち、空のキーは昇順の先頭となること。
+     */
+    @Test
+    public void testSortInMemory() throws Exception {
+        final CsvSorter sorter = new CsvSorter(CsvDataBindConfig.DEFAULT,
+                CsvSortKey.ofLong(0), CsvSortKey.ofDecimal(2).descending());
+        final String actual = sort(sorter, "id,name,amount\r\n"
+                + "10,a,1.5\r\n"
+                + "9,b,1.5\r\n"
+                + "10,c,2\r\n"
+                + ",d,0\r\n"
+                + "10,e,1.50\r\n"
+                + "-3,\"f,\"\"g\"\"\",1\r\n");
+        assertThat(actual, is("id,name,amount\r\n"
+                + ",d,0\r\n"
+                + "-3,\"f,\"\"g\"\"\",1\r\n"
+                + "9,b,1.5\r\n"
+                + "10,c,2\r\n"
+                + "10,a,1.5\r\n"
+                + "10,e,1.50\r\n"));
+
+        final CsvSorter custom = new CsvSorter(CsvDataBindConfig.DEFAULT.withRequiredHeader(false),
+                CsvSortKey.of(1, String.CASE_INSENSITIVE_ORDER).descending());
+        assertThat(sort(custom, "1,b\r\n2,A\r\n3,C\r\n4\r\n"), is("3,C\r\n1,b\r\n2,A\r\n4\r\n"));
+    }
+
+    /**
+     * メモリの上限を超える場合に、ランへの書き出しと複数回のマージでソートされること。
+     * 並列にランを作成しても結果は同じであり、一時ファイルは削除されること。
+     */
+    @Test
+    public void testExternalSort() throws Exception {
+        final Random random = new Random(1L);
+        final List<String[]> records = new ArrayList<String[]>();
+        final StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            final String[] record = {String.valueOf(random.nextInt(500)), "顧客" + i, String.valueOf(i)};
+            records.add(record);
+            csv.append(record[0]).append(',').append(record[1]).append(',').append(record[2]).append("\r\n");
+        }
+        Collections.sort(records, new Comparator<String[]>() {
+            @Override
+            public int compare(final String[] o1, final String[] o2) {
+                return Long.valueOf(o1[0]).compareTo(Long.valueOf(o2[0]));
+            }
+        });
+        final StringBuilder expected = new StringBuilder();
+        for (String[] record : records) {
+            expected.append(record[0]).append(',').append(record[1]).append(',').append(record[2]).append("\r\n");
+        }
+
+        final File temp = folder.newFolder("temp");
+        final CsvSorter sorter = new CsvSorter(CsvDataBindConfig.DEFAULT.withRequiredHeader(false),
+                CsvSortKey.ofLong(0))
+                .withMemoryLimit(20000L)
+                .withMergeWidth(3)
+                .withTempDirectory(temp);
+        assertThat(sort(sorter, csv.toString()), is(expected.toString()));
+        assertThat(sort(sorter.withParallelism(3), csv.toString()), is(expected.toString()));
+        assertThat(temp.list().length, is(0));
+
+        final File input = new File(folder.getRoot(), "input.csv");
+        final File output = new File(folder.getRoot(), "output.csv");
+        final FileOutputStream out = new FileOutputStream(input);
+        out.write(csv.toString().getBytes("UTF-8"));
+        out.close();
+        assertThat(sorter.sort(input, output), is(5000L));
+        assertThat(output.length(), is(input.length()));
+    }
+
+    /**
+     * 数値のキーが数値として解釈できない場合は例外が送出され、一時ファイルは削除されること。
+     */
+    @Test
+    public void testInvalidNumber() throws Exception {
+        final File temp = folder.newFolder("temp");
+        final CsvSorter sorter = new CsvSorter(CsvDataBindConfig.DEFAULT.withRequiredHeader(false),
+                CsvSortKey.ofLong(0))
+                .withMemoryLimit(1000L)
+                .withTempDirectory(temp);
+        final StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            csv.append(i).append(",name\r\n");
+        }
+        csv.append("x1,name\r\n");
+        try {
+            sort(sorter, csv.toString());
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("sort key must be number. column = [0], value = [x1]."));
+            assertThat(e.getLineNumber(), is(101L));
+        }
+        assertThat(temp.list().length, is(0));
+
+        try {
+            new CsvSorter(CsvDataBindConfig.DEFAULT);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("keys must not be empty."));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import nablarch.common.databind.csv.CsvMasterTableTest.Item;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link CsvTableCache}のテストクラス。
+ */
+public class CsvTableCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** 再構築の処理を保持し、テストから実行する{@link Executor} */
+    private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+    private final CsvTableCache sut = new CsvTableCache();
+
+    @Before
+    public void setUp() {
+        sut.setCheckIntervalMillis(0L);
+        sut.setExecutor(new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                tasks.add(command);
+            }
+        });
+    }
+
+    private void runTasks() {
+        final List<Runnable> runnables = new ArrayList<Runnable>(tasks);
+        tasks.clear();
+        for (Runnable runnable : runnables) {
+            runnable.run();
+        }
+    }
+
+    private static void write(final File file, final String csv) throws Exception {
+        final long lastModified = file.exists() ? file.lastModified() : 0L;
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(csv.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        // 最終更新日時の精度が秒の場合でも変更を検知できるようにする
+        file.setLastModified(Math.max(file.lastModified(), lastModified + 2000L));
+    }
+
+    /**
+     * ファイルが変更された場合、再構築が完了するまでは変更前のテーブルが返され、
+     * 完了後は変更後のテーブルが返されること。
+     */
+    @Test
+    public void testReload() throws Exception {
+        final File file = new File(folder.getRoot(), "item.csv");
+        write(file, "code,name,price\r\n1,a,10\r\n");
+
+        final CsvMasterTable<Item> first = sut.getMasterTable(file, Item.class, "code");
+        assertThat(first.get(1L).getName(), is("a"));
+        assertThat(sut.getMasterTable(file, Item.class, "code"), sameInstance(first));
+        assertThat(tasks.size(), is(0));
+
+        write(file, "code,name,price\r\n1,b,10\r\n2,c,20\r\n");
+        assertThat(sut.getMasterTable(file, Item.class, "code"), sameInstance(first));
+        // 再構築中は再構築を重複して開始しないこと
+        assertThat(sut.getMasterTable(file, Item.class, "code"), sameInstance(first));
+        assertThat(tasks.size(), is(1));
+
+        runTasks();
+        final CsvMasterTable<Item> second = sut.getMasterTable(file, Item.class, "code");
+        assertThat(second, not(sameInstance(first)));
+        assertThat(second.get(1L).getName(), is("b"));
+        assertThat(second.size(), is(2));
+        assertThat(sut.size(), is(1));
+        assertThat(sut.getTotalBytes(), is(second.getMemoryBytes()));
+        // 差し替え前のテーブルは引き続き使用できること
+        assertThat(first.get(1L).getName(), is("a"));
+    }
+
+    /**
+     * 再構築に失敗した場合は、変更前のテーブルが使用され続けること。
+     * ファイルが修正された場合は再度再構築されること。
+     */
+    @Test
+    public void testReloadFailure() throws Exception {
+        final File file = new File(folder.getRoot(), "item.csv");
+        write(file, "code,name,price\r\n1,a,10\r\n");
+        final CsvMasterTable<Item> first = sut.getMasterTable(file, Item.class, "code");
+
+        write(file, "code,name,price\r\n1,a,10\r\n1,b,20\r\n");
+        sut.getMasterTable(file, Item.class, "code");
+        runTasks();
+        assertThat(sut.getMasterTable(file, Item.class, "code"), sameInstance(first));
+        runTasks();
+
+        write(file, "code,name,price\r\n1,a,10\r\n2,b,20\r\n");
+        sut.getMasterTable(file, Item.class, "code");
+        runTasks();
+        assertThat(sut.getMasterTable(file, Item.class, "code").size(), is(2));
+    }
+
+    /**
+     * 合計バイト数が上限を超えた場合は、最後に取得された日時が古いテーブルから破棄されること。
+     */
+    @Test
+    public void testEviction() throws Exception {
+        final File[] files = new File[3];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = new File(folder.getRoot(), "item" + i + ".csv");
+            write(files[i], "code,name,price\r\n1,name" + i + ",10\r\n");
+        }
+        final long bytes = sut.getMasterTable(files[0], Item.class, "code").getMemoryBytes();
+        sut.setMaxBytes(bytes * 2);
+
+        sut.getMasterTable(files[1], Item.class, "code");
+        sut.getMasterTable(files[0], Item.class, "code");
+        assertThat(sut.size(), is(2));
+
+        // 最後に取得された日時が最も古いitem1.csvが破棄されること
+        sut.getMasterTable(files[2], Item.class, "code");
+        assertThat(sut.size(), is(2));
+        assertThat(sut.getTotalBytes(), is(bytes * 2));
+
+        final CsvMasterTable<Item> table0 = sut.getMasterTable(files[0], Item.class, "code");
+        assertThat(sut.getMasterTable(files[0], Item.class, "code"), sameInstance(table0));
+        assertThat(sut.getMasterTable(files[1], Item.class, "code").get(1L).getName(), is("name1"));
+        assertThat(sut.size(), is(2));
+
+        sut.invalidate(files[1]);
+        assertThat(sut.size(), is(1));
+        sut.clear();
+        assertThat(sut.size(), is(0));
+        assertThat(sut.getTotalBytes(), is(0L));
+    }
+}
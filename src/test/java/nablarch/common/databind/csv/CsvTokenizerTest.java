@@ -132,7 +132,7 @@ public class CsvTokenizerTest {
     @Test(expected = RuntimeException.class)
     public void reader_getLineNumber_fail(@Mocked final BufferedReader mockReader) throws Exception {
         new Expectations() {{
-            mockReader.read();
+            mockReader.read((char[]) any, anyInt, anyInt);
             result = new IOException("io error");
         }};
 
@@ -0,0 +1,370 @@
+package nablarch.common.databind.csv;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.CharsetEncoder;
+import java.util.Random;
+
+/**
+ * 負荷試験及び長時間試験用のCSVを生成するクラス。
+ * <p/>
+ * 本番環境の入力を模した以下の要素を含むCSVを、{@link CsvDataBindConfig}の形式で生成する。
+ * <ul>
+ *     <li>日本語(マルチバイト文字)を含むフィールド</li>
+ *     <li>フィールド囲み文字で囲まれたフィールド(改行及びエスケープしたフィールド囲み文字を含む)</li>
+ *     <li>列数の多いレコード</li>
+ *     <li>空行(空行を無視する形式の場合のみ)</li>
+ * </ul>
+ * 同じシードと設定を指定した場合は、常に同じ内容を生成する。
+ * <p/>
+ * 生成しながら出力するため、GB単位のサイズでもメモリ使用量は一定となる。
+ * コマンドラインから実行する場合は、{@link #main(String[])}を参照。
+ */
+public class CsvWorkloadGenerator {
+
+    /** マルチバイト文字の候補 */
+    private static final String MULTIBYTE = "あいうえおかきくけこさしすせそたちつてとなにぬねのはひふへほまみむめもやゆよらりるれろわをん"
+            + "アイウエオカキクケコサシスセソタチツテトナニヌネノハヒフヘホマミムメモヤユヨラリルレロワヲン"
+            + "日本東京大阪名古屋福岡札幌仙台横浜神戸京都山田鈴木佐藤高橋田中伊藤渡辺中村小林加藤吉田"
+            + "株式会社支店営業部経理総務人事開発顧客注文商品請求入金出荷在庫番号住所氏名電話備考"
+            + "ー・、。「」（）０１２３４５６７８９";
+
+    /** 1バイト文字の候補 */
+    private static final String SINGLE_BYTE = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_.@/ ";
+
+    /** 生成する形式 */
+    private final CsvDataBindConfig config;
+
+    /** 乱数 */
+    private final Random random;
+
+    /** 使用するマルチバイト文字(文字コードで表現できる文字のみ) */
+    private final char[] multibyteChars;
+
+    /** 使用する1バイト文字(区切り文字及び囲み文字を除く) */
+    private final char[] singleByteChars;
+
+    /** 列数 */
+    private int columns = 10;
+
+    /** フィールドの最大文字数 */
+    private int maxFieldLength = 20;
+
+    /** フィールド内の文字がマルチバイト文字となる割合 */
+    private double multibyteRatio = 0.5;
+
+    /** フィールド囲み文字で囲むフィールドの割合 */
+    private double quotedRatio = 0.1;
+
+    /** 囲まれたフィールドのうち、改行を含むフィールドの割合 */
+    private double lineBreakRatio = 0.1;
+
+    /** 囲まれたフィールドのうち、フィールド囲み文字を含むフィールドの割合 */
+    private double escapedQuoteRatio = 0.1;
+
+    /** レコードの前に空行を出力する割合 */
+    private double emptyLineRatio = 0.001;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param config 生成する形式
+     * @param seed 乱数のシード
+     */
+    public CsvWorkloadGenerator(final CsvDataBindConfig config, final long seed) {
+        this.config = config;
+        random = new Random(seed);
+        multibyteChars = encodableChars(MULTIBYTE, config.getCharset().newEncoder());
+        singleByteChars = SINGLE_BYTE.replace(String.valueOf(config.getFieldSeparator()), "")
+                                     .replace(String.valueOf(config.getQuote()), "")
+                                     .toCharArray();
+    }
+
+    /**
+     * 文字コードで表現できる文字のみを抽出する。
+     *
+     * @param candidates 候補の文字
+     * @param encoder エンコーダ
+     * @return 表現できる文字
+     */
+    private static char[] encodableChars(final String candidates, final CharsetEncoder encoder) {
+        final StringBuilder chars = new StringBuilder();
+        for (char c : candidates.toCharArray()) {
+            if (encoder.canEncode(c)) {
+                chars.append(c);
+            }
+        }
+        return chars.toString().toCharArray();
+    }
+
+    /**
+     * 列数を設定する。
+     * <p/>
+     * 形式にヘッダのタイトルが設定されている場合は、タイトルの数が列数となる。
+     *
+     * @param columns 列数
+     */
+    public void setColumns(final int columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * フィールドの最大文字数を設定する。
+     *
+     * @param maxFieldLength フィールドの最大文字数
+     */
+    public void setMaxFieldLength(final int maxFieldLength) {
+        this.maxFieldLength = maxFieldLength;
+    }
+
+    /**
+     * フィールド内の文字がマルチバイト文字となる割合を設定する。
+     *
+     * @param multibyteRatio 割合(0.0～1.0)
+     */
+    public void setMultibyteRatio(final double multibyteRatio) {
+        this.multibyteRatio = multibyteRatio;
+    }
+
+    /**
+     * フィールド囲み文字で囲むフィールドの割合を設定する。
+     *
+     * @param quotedRatio 割合(0.0～1.0)
+     */
+    public void setQuotedRatio(final double quotedRatio) {
+        this.quotedRatio = quotedRatio;
+    }
+
+    /**
+     * 囲まれたフィールドのうち、改行を含むフィールドの割合を設定する。
+     *
+     * @param lineBreakRatio 割合(0.0～1.0)
+     */
+    public void setLineBreakRatio(final double lineBreakRatio) {
+        this.lineBreakRatio = lineBreakRatio;
+    }
+
+    /**
+     * 囲まれたフィールドのうち、フィールド囲み文字を含むフィールドの割合を設定する。
+     *
+     * @param escapedQuoteRatio 割合(0.0～1.0)
+     */
+    public void setEscapedQuoteRatio(final double escapedQuoteRatio) {
+        this.escapedQuoteRatio = escapedQuoteRatio;
+    }
+
+    /**
+     * レコードの前に空行を出力する割合を設定する。
+     * <p/>
+     * 空行を無視しない形式の場合は、空行を出力しない。
+     *
+     * @param emptyLineRatio 割合(0.0～1.0)
+     */
+    public void setEmptyLineRatio(final double emptyLineRatio) {
+        this.emptyLineRatio = emptyLineRatio;
+    }
+
+    /**
+     * ヘッダのタイトルを取得する。
+     *
+     * @return ヘッダのタイトル
+     */
+    public String[] getHeaders() {
+        final String[] titles = config.getHeaderTitles();
+        if (titles != null && titles.length != 0) {
+            return titles;
+        }
+        final String[] headers = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            headers[i] = "col" + (i + 1);
+        }
+        return headers;
+    }
+
+    /**
+     * 指定したバイト数に達するまでCSVを出力する。
+     * <p/>
+     * 出力したバイト数は、最後のレコードの分だけ指定したバイト数を超える場合がある。
+     * {@code out}は閉じない。
+     *
+     * @param out 出力先
+     * @param size 出力するバイト数
+     * @return 出力したレコード数(ヘッダを除く)
+     * @throws IOException 出力に失敗した場合
+     */
+    public long write(final OutputStream out, final long size) throws IOException {
+        final CountingOutputStream counter = new CountingOutputStream(out);
+        final Writer writer = new OutputStreamWriter(counter, config.getCharset());
+        final String[] headers = getHeaders();
+        final StringBuilder record = new StringBuilder(256);
+        if (config.isRequiredHeader()) {
+            for (int i = 0; i < headers.length; i++) {
+                if (i != 0) {
+                    record.append(config.getFieldSeparator());
+                }
+                record.append(headers[i]);
+            }
+            record.append(config.getLineSeparator());
+            writer.write(record.toString());
+        }
+        long records = 0;
+        while (counter.count < size) {
+            record.setLength(0);
+            appendRecord(record, headers.length);
+            writer.write(record.toString());
+            records++;
+            if ((records & 0xFF) == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return records;
+    }
+
+    /**
+     * 1レコード分の文字列を追加する。
+     *
+     * @param record 追加先
+     * @param columnCount 列数
+     */
+    private void appendRecord(final StringBuilder record, final int columnCount) {
+        if (config.isIgnoreEmptyLine() && random.nextDouble() < emptyLineRatio) {
+            record.append(config.getLineSeparator());
+        }
+        for (int i = 0; i < columnCount; i++) {
+            if (i != 0) {
+                record.append(config.getFieldSeparator());
+            }
+            appendField(record);
+        }
+        record.append(config.getLineSeparator());
+    }
+
+    /**
+     * 1フィールド分の文字列を追加する。
+     *
+     * @param record 追加先
+     */
+    private void appendField(final StringBuilder record) {
+        final int length = random.nextInt(maxFieldLength + 1);
+        if (random.nextDouble() >= quotedRatio) {
+            appendText(record, length);
+            return;
+        }
+        final char quote = config.getQuote();
+        record.append(quote);
+        final int first = length / 2;
+        appendText(record, first);
+        if (random.nextDouble() < lineBreakRatio) {
+            record.append("\r\n");
+        }
+        if (random.nextDouble() < escapedQuoteRatio) {
+            record.append(quote).append(quote);
+        }
+        appendText(record, length - first);
+        record.append(quote);
+    }
+
+    /**
+     * ランダムな文字列を追加する。
+     *
+     * @param record 追加先
+     * @param length 文字数
+     */
+    private void appendText(final StringBuilder record, final int length) {
+        for (int i = 0; i < length; i++) {
+            if (multibyteChars.length != 0 && random.nextDouble() < multibyteRatio) {
+                record.append(multibyteChars[random.nextInt(multibyteChars.length)]);
+            } else {
+                record.append(singleByteChars[random.nextInt(singleByteChars.length)]);
+            }
+        }
+    }
+
+    /**
+     * CSVファイルを生成する。
+     * <p/>
+     * 引数は以下の通り。
+     * <ol>
+     *     <li>出力先のファイル</li>
+     *     <li>サイズ(例: {@code 500m}、{@code 10g})</li>
+     *     <li>シード(省略時は{@code 0})</li>
+     *     <li>形式({@code DEFAULT}、{@code RFC4180}、{@code EXCEL}、{@code TSV}。省略時は{@code DEFAULT})</li>
+     *     <li>列数(省略時は{@code 10})</li>
+     * </ol>
+     * 実行例: {@code gradlew generateCsv -PgeneratorArgs="build/soak.csv 1g 42 DEFAULT 50"}
+     *
+     * @param args 引数
+     * @throws Exception 生成に失敗した場合
+     */
+    public static void main(final String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: CsvWorkloadGenerator <file> <size> [seed] [DEFAULT|RFC4180|EXCEL|TSV] [columns]");
+            System.exit(1);
+        }
+        final long size = parseSize(args[1]);
+        final long seed = args.length > 2 ? Long.parseLong(args[2]) : 0L;
+        final CsvDataBindConfig config = args.length > 3
+                ? (CsvDataBindConfig) CsvDataBindConfig.class.getField(args[3]).get(null) : CsvDataBindConfig.DEFAULT;
+        final CsvWorkloadGenerator generator = new CsvWorkloadGenerator(config, seed);
+        if (args.length > 4) {
+            generator.setColumns(Integer.parseInt(args[4]));
+        }
+        final OutputStream out = new BufferedOutputStream(new FileOutputStream(args[0]), 65536);
+        try {
+            final long records = generator.write(out, size);
+            System.out.println("generated " + records + " records. file = [" + args[0] + ']');
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * サイズの表記をバイト数に変換する。
+     *
+     * @param size サイズ(末尾に{@code k}、{@code m}、{@code g}を指定できる)
+     * @return バイト数
+     */
+    static long parseSize(final String size) {
+        final String value = size.toLowerCase();
+        final char unit = value.charAt(value.length() - 1);
+        final long multiplier = unit == 'k' ? 1L << 10 : unit == 'm' ? 1L << 20 : unit == 'g' ? 1L << 30 : 1L;
+        final String number = multiplier == 1L ? value : value.substring(0, value.length() - 1);
+        return Long.parseLong(number) * multiplier;
+    }
+
+    /**
+     * 出力したバイト数を数える出力ストリーム。
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        /** 出力したバイト数 */
+        private long count;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param out 出力先
+         */
+        private CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Map;
+
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+
+import org.junit.Test;
+
+/**
+ * {@link CsvWorkloadGenerator}のテストクラス。
+ */
+public class CsvWorkloadGeneratorTest {
+
+    /**
+     * 同じシードからは同じ内容が生成され、異なるシードからは異なる内容が生成されること。
+     */
+    @Test
+    public void testSeed() throws Exception {
+        final byte[] first = generate(new CsvWorkloadGenerator(CsvDataBindConfig.DEFAULT, 1L), 65536);
+        final byte[] second = generate(new CsvWorkloadGenerator(CsvDataBindConfig.DEFAULT, 1L), 65536);
+        final byte[] third = generate(new CsvWorkloadGenerator(CsvDataBindConfig.DEFAULT, 2L), 65536);
+
+        assertThat(Arrays.equals(first, second), is(true));
+        assertThat(Arrays.equals(first, third), is(false));
+        assertThat(first.length >= 65536, is(true));
+    }
+
+    /**
+     * 生成したCSVを、生成したレコード数だけ読み込めること。
+     * また、改行、エスケープしたフィールド囲み文字、マルチバイト文字を含むこと。
+     */
+    @Test
+    public void testRead() throws Exception {
+        assertReadable(CsvDataBindConfig.DEFAULT, 30);
+        assertReadable(CsvDataBindConfig.RFC4180.withRequiredHeader(true), 5);
+        assertReadable(CsvDataBindConfig.TSV.withRequiredHeader(true).withCharset(Charset.forName("Windows-31J")), 100);
+    }
+
+    /**
+     * サイズの表記をバイト数に変換できること。
+     */
+    @Test
+    public void testParseSize() throws Exception {
+        assertThat(CsvWorkloadGenerator.parseSize("100"), is(100L));
+        assertThat(CsvWorkloadGenerator.parseSize("2k"), is(2048L));
+        assertThat(CsvWorkloadGenerator.parseSize("3M"), is(3L << 20));
+        assertThat(CsvWorkloadGenerator.parseSize("10g"), is(10L << 30));
+    }
+
+    /**
+     * 生成したCSVを読み込めることを検証する。
+     *
+     * @param config 形式
+     * @param columns 列数
+     */
+    private static void assertReadable(final CsvDataBindConfig config, final int columns) throws Exception {
+        final CsvWorkloadGenerator generator = new CsvWorkloadGenerator(config, 42L);
+        generator.setColumns(columns);
+        generator.setEmptyLineRatio(0.05);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long records = generator.write(out, 1 << 18);
+        assertThat(new String(out.toByteArray(), config.getCharset()).contains("\r\n\r\n"),
+                is(config.isIgnoreEmptyLine()));
+
+        final ObjectMapper<Map> mapper = ObjectMapperFactory.create(Map.class,
+                new ByteArrayInputStream(out.toByteArray()), config.withHeaderTitles(generator.getHeaders()));
+        long count = 0;
+        boolean lineBreak = false;
+        boolean quote = false;
+        boolean multibyte = false;
+        Map<?, ?> record;
+        while ((record = mapper.read()) != null) {
+            count++;
+            assertThat(record.size(), is(columns));
+            for (Object value : record.values()) {
+                final String text = value == null ? "" : value.toString();
+                lineBreak |= text.contains("\r\n");
+                quote |= text.indexOf(config.getQuote()) != -1;
+                multibyte |= text.getBytes(config.getCharset()).length != text.length();
+            }
+        }
+        mapper.close();
+
+        assertThat(count, is(records));
+        assertThat(count, is(not(0L)));
+        assertThat(lineBreak, is(true));
+        assertThat(quote, is(true));
+        assertThat(multibyte, is(true));
+    }
+
+    /**
+     * CSVを生成する。
+     *
+     * @param generator ジェネレータ
+     * @param size サイズ
+     * @return 生成したCSV
+     */
+    private static byte[] generate(final CsvWorkloadGenerator generator, final long size) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.write(out, size);
+        return out.toByteArray();
+    }
+}
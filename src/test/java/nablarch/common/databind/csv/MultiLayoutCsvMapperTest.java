@@ -0,0 +1,472 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.LineNumber;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * {@link MultiLayoutCsvMapper}のテストクラス。
+ */
+public class MultiLayoutCsvMapperTest {
+
+    @Rule
+    public CsvResource resource = new CsvResource("test.csv", "utf-8", "\r\n");
+
+    /**
+     * レコード種別ごとに異なるBeanとして読み込めること。
+     */
+    @Test
+    public void testRead() throws Exception {
+        resource.writeLine("1,0001,みずほ");
+        resource.writeLine("2,山田太郎,1000");
+        resource.writeLine("2,鈴木一郎,2000");
+        resource.writeLine("9,2");
+        resource.close();
+
+        final ObjectMapper<BankRecord> mapper = ObjectMapperFactory.create(BankRecord.class, resource.createInputStream());
+        final BankRecord header = mapper.read();
+        final BankRecord detail1 = mapper.read();
+        final BankRecord detail2 = mapper.read();
+        final BankRecord trailer = mapper.read();
+        assertThat(mapper.read(), is(nullValue()));
+        mapper.close();
+
+        assertThat(header, is(instanceOf(BankHeader.class)));
+        assertThat(((BankHeader) header).getBankCode(), is("0001"));
+        assertThat(((BankHeader) header).getBankName(), is("みずほ"));
+
+        assertThat(detail1, is(instanceOf(BankDetail.class)));
+        assertThat(((BankDetail) detail1).getName(), is("山田太郎"));
+        assertThat(((BankDetail) detail1).getAmount(), is(1000L));
+        assertThat(((BankDetail) detail1).getLineNumber(), is(2L));
+        assertThat(((BankDetail) detail2).getName(), is("鈴木一郎"));
+        assertThat(((BankDetail) detail2).getLineNumber(), is(3L));
+
+        assertThat(trailer, is(instanceOf(BankTrailer.class)));
+        assertThat(((BankTrailer) trailer).getCount(), is(2));
+    }
+
+    /**
+     * 未定義のレコード種別の場合は例外が送出され、後続のレコードは読み込めること。
+     */
+    @Test
+    public void testRead_unknownRecordType() throws Exception {
+        final ObjectMapper<BankRecord> mapper = ObjectMapperFactory.create(BankRecord.class,
+                new StringReader("5,\"a\r\nb\",c\r\n9,1\r\n"));
+        try {
+            mapper.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("unknown record type. record type = [5]."));
+            assertThat(e.getLineNumber(), is(2L));
+        }
+        assertThat(((BankTrailer) mapper.read()).getCount(), is(1));
+        mapper.close();
+    }
+
+    /**
+     * 要素数がレイアウトと一致しない場合は例外が送出されること。
+     */
+    @Test
+    public void testRead_fieldCount() throws Exception {
+        final ObjectMapper<BankRecord> mapper = ObjectMapperFactory.create(BankRecord.class,
+                new StringReader("2,山田太郎\r\n2,山田太郎,1000,x\r\n2,山田太郎,1000\r\n"));
+        try {
+            mapper.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString(
+                    "property size does not match. expected field count = [3], actual field count = [2]."));
+            assertThat(e.getLineNumber(), is(1L));
+        }
+        try {
+            mapper.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("expected field count = [3], actual field count = [4]."));
+        }
+        assertThat(((BankDetail) mapper.read()).getAmount(), is(1000L));
+        mapper.close();
+    }
+
+    /**
+     * 空行を無視しない設定の場合、空行は未定義のレコード種別として例外が送出されること。
+     */
+    @Test
+    public void testRead_emptyLine() throws Exception {
+        final ObjectMapper<BankRecord> mapper = ObjectMapperFactory.create(BankRecord.class,
+                new StringReader("\r\n9,1\r\n"));
+        try {
+            mapper.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("unknown record type. record type = [null]."));
+        }
+        mapper.close();
+    }
+
+    /**
+     * レコード種別の列が先頭以外の場合でも読み込めること。
+     * 空行を無視する設定の場合、空行は読み飛ばされること。
+     */
+    @Test
+    public void testRead_recordTypeIndex() throws Exception {
+        final ObjectMapper<SecondColumnRecord> mapper = ObjectMapperFactory.create(SecondColumnRecord.class,
+                new StringReader("x,A,1\r\n\r\ny,B\r\n"));
+        final SecondColumnRecord a = mapper.read();
+        final SecondColumnRecord b = mapper.read();
+        assertThat(mapper.read(), is(nullValue()));
+        mapper.close();
+
+        assertThat(a, is(instanceOf(TypeA.class)));
+        assertThat(((TypeA) a).getValue(), is("1"));
+        assertThat(b, is(instanceOf(TypeB.class)));
+        assertThat(((TypeB) b).getId(), is("y"));
+    }
+
+    /**
+     * レコード種別の列が先頭の場合でも、空行を無視する設定の場合は空行が読み飛ばされること。
+     */
+    @Test
+    public void testRead_emptyLineWithFirstColumnRecordType() throws Exception {
+        final ObjectMapper<FirstColumnRecord> mapper = ObjectMapperFactory.create(FirstColumnRecord.class,
+                new StringReader("A,1\r\n\r\nB,2\r\n"));
+        final FirstColumnRecord a = mapper.read();
+        final FirstColumnRecord b = mapper.read();
+        assertThat(mapper.read(), is(nullValue()));
+        mapper.close();
+
+        assertThat(a, is(instanceOf(FirstA.class)));
+        assertThat(a.getValue(), is("1"));
+        assertThat(b, is(instanceOf(FirstB.class)));
+        assertThat(b.getValue(), is("2"));
+    }
+
+    /**
+     * 書き込みはサポートしないこと。
+     */
+    @Test
+    public void testWrite() throws Exception {
+        try {
+            ObjectMapperFactory.create(BankRecord.class, new ByteArrayOutputStream());
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("multi layout csv does not support writing."));
+        }
+    }
+
+    /**
+     * レイアウトの定義が不正な場合は例外が送出されること。
+     */
+    @Test
+    public void testInvalidLayouts() throws Exception {
+        assertInvalid(NotSubtypeRecord.class, "layout class must be subtype of");
+        assertInvalid(NoRecordTypeRecord.class, "record type is required.");
+        assertInvalid(DuplicateRecord.class, "invalid layouts.");
+        assertInvalid(FormatMismatchRecord.class, "csv format does not match first layout.");
+        assertInvalid(HeaderRecord.class, "header can not be required in multi layout csv.");
+        assertInvalid(EmptyLayoutsRecord.class, "layouts is required.");
+    }
+
+    private static void assertInvalid(final Class<?> clazz, final String message) {
+        try {
+            ObjectMapperFactory.create(clazz, new StringReader(""));
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString(message));
+        }
+    }
+
+    @CsvLayouts({BankHeader.class, BankDetail.class, BankTrailer.class})
+    public interface BankRecord {
+    }
+
+    @Csv(type = Csv.CsvType.RFC4180, properties = {"recordType", "bankCode", "bankName"})
+    @RecordType("1")
+    public static class BankHeader implements BankRecord {
+
+        private String recordType;
+
+        private String bankCode;
+
+        private String bankName;
+
+        public String getRecordType() {
+            return recordType;
+        }
+
+        public void setRecordType(String recordType) {
+            this.recordType = recordType;
+        }
+
+        public String getBankCode() {
+            return bankCode;
+        }
+
+        public void setBankCode(String bankCode) {
+            this.bankCode = bankCode;
+        }
+
+        public String getBankName() {
+            return bankName;
+        }
+
+        public void setBankName(String bankName) {
+            this.bankName = bankName;
+        }
+    }
+
+    @Csv(type = Csv.CsvType.RFC4180, properties = {"recordType", "name", "amount"})
+    @RecordType("2")
+    public static class BankDetail implements BankRecord {
+
+        private String recordType;
+
+        private String name;
+
+        private Long amount;
+
+        private Long lineNumber;
+
+        public String getRecordType() {
+            return recordType;
+        }
+
+        public void setRecordType(String recordType) {
+            this.recordType = recordType;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Long getAmount() {
+            return amount;
+        }
+
+        public void setAmount(Long amount) {
+            this.amount = amount;
+        }
+
+        @LineNumber
+        public Long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(Long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+    }
+
+    @Csv(type = Csv.CsvType.RFC4180, properties = {"recordType", "count"})
+    @RecordType("9")
+    public static class BankTrailer implements BankRecord {
+
+        private String recordType;
+
+        private Integer count;
+
+        public String getRecordType() {
+            return recordType;
+        }
+
+        public void setRecordType(String recordType) {
+            this.recordType = recordType;
+        }
+
+        public Integer getCount() {
+            return count;
+        }
+
+        public void setCount(Integer count) {
+            this.count = count;
+        }
+    }
+
+    @CsvLayouts(value = {TypeA.class, TypeB.class}, recordTypeIndex = 1)
+    public interface SecondColumnRecord {
+    }
+
+    @Csv(type = Csv.CsvType.CUSTOM, properties = {"id", "type", "value"})
+    @CsvFormat(fieldSeparator = ',', lineSeparator = "\r\n", quote = '"', ignoreEmptyLine = true,
+            requiredHeader = false, charset = "UTF-8", emptyToNull = false, quoteMode = CsvDataBindConfig.QuoteMode.NORMAL)
+    @RecordType("A")
+    public static class TypeA implements SecondColumnRecord {
+
+        private String id;
+
+        private String type;
+
+        private String value;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+
+    @Csv(type = Csv.CsvType.CUSTOM, properties = {"id", "type"})
+    @CsvFormat(fieldSeparator = ',', lineSeparator = "\r\n", quote = '"', ignoreEmptyLine = true,
+            requiredHeader = false, charset = "UTF-8", emptyToNull = false, quoteMode = CsvDataBindConfig.QuoteMode.NORMAL)
+    @RecordType("B")
+    public static class TypeB implements SecondColumnRecord {
+
+        private String id;
+
+        private String type;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+    }
+
+    @CsvLayouts({FirstA.class, FirstB.class})
+    public static abstract class FirstColumnRecord {
+
+        private String type;
+
+        private String value;
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+
+    @Csv(type = Csv.CsvType.CUSTOM, properties = {"type", "value"})
+    @CsvFormat(fieldSeparator = ',', lineSeparator = "\r\n", quote = '"', ignoreEmptyLine = true,
+            requiredHeader = false, charset = "UTF-8", emptyToNull = false, quoteMode = CsvDataBindConfig.QuoteMode.NORMAL)
+    @RecordType("A")
+    public static class FirstA extends FirstColumnRecord {
+    }
+
+    @Csv(type = Csv.CsvType.CUSTOM, properties = {"type", "value"})
+    @CsvFormat(fieldSeparator = ',', lineSeparator = "\r\n", quote = '"', ignoreEmptyLine = true,
+            requiredHeader = false, charset = "UTF-8", emptyToNull = false, quoteMode = CsvDataBindConfig.QuoteMode.NORMAL)
+    @RecordType("B")
+    public static class FirstB extends FirstColumnRecord {
+    }
+
+    @CsvLayouts(BankHeader.class)
+    public interface NotSubtypeRecord {
+    }
+
+    @CsvLayouts(NoRecordType.class)
+    public interface NoRecordTypeRecord {
+    }
+
+    @Csv(type = Csv.CsvType.RFC4180, properties = "recordType")
+    public static class NoRecordType implements NoRecordTypeRecord {
+
+        private String recordType;
+
+        public String getRecordType() {
+            return recordType;
+        }
+
+        public void setRecordType(String recordType) {
+            this.recordType = recordType;
+        }
+    }
+
+    @CsvLayouts({Duplicate1.class, Duplicate2.class})
+    public interface DuplicateRecord {
+    }
+
+    @Csv(type = Csv.CsvType.RFC4180, properties = "recordType")
+    @RecordType("1")
+    public static class Duplicate1 extends NoRecordType implements DuplicateRecord {
+    }
+
+    @Csv(type = Csv.CsvType.RFC4180, properties = "recordType")
+    @RecordType("1")
+    public static class Duplicate2 extends NoRecordType implements DuplicateRecord {
+    }
+
+    @CsvLayouts({FormatRfc.class, FormatTsv.class})
+    public interface FormatMismatchRecord {
+    }
+
+    @Csv(type = Csv.CsvType.RFC4180, properties = "recordType")
+    @RecordType("1")
+    public static class FormatRfc extends NoRecordType implements FormatMismatchRecord {
+    }
+
+    @Csv(type = Csv.CsvType.TSV, properties = "recordType")
+    @RecordType("2")
+    public static class FormatTsv extends NoRecordType implements FormatMismatchRecord {
+    }
+
+    @CsvLayouts(Header.class)
+    public interface HeaderRecord {
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = "recordType", headers = "種別")
+    @RecordType("1")
+    public static class Header extends NoRecordType implements HeaderRecord {
+    }
+
+    @CsvLayouts({})
+    public interface EmptyLayoutsRecord {
+    }
+}
@@ -0,0 +1,70 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import nablarch.common.databind.CharBufferPool;
+
+import org.junit.Test;
+
+/**
+ * {@link PooledBufferedWriter}のテストクラス。
+ */
+public class PooledBufferedWriterTest {
+
+    /** テストで使用するプール */
+    private final CharBufferPool pool = new CharBufferPool(4, 1);
+
+    /**
+     * バッファサイズを超える書き込みを行った場合でも、全ての文字が順序通りに出力されること。
+     */
+    @Test
+    public void testWrite() throws Exception {
+        final StringWriter out = new StringWriter();
+        final PooledBufferedWriter sut = new PooledBufferedWriter(out, pool);
+
+        sut.write('a');
+        sut.write("bcdefg");
+        assertThat("バッファに収まらない分のみ出力されていること", out.toString(), is("abcd"));
+
+        sut.write("xyz".toCharArray(), 0, 2);
+        assertThat(out.toString(), is("abcdefg"));
+
+        sut.write("0123456789".toCharArray());
+        assertThat("バッファより大きい配列は直接出力されること", out.toString(), is("abcdefgxy0123456789"));
+
+        sut.write("end");
+        sut.flush();
+        assertThat(out.toString(), is("abcdefgxy0123456789end"));
+        sut.close();
+    }
+
+    /**
+     * クローズ時にバッファの内容が出力され、バッファがプールに返却されること。
+     */
+    @Test
+    public void testClose() throws Exception {
+        final StringWriter out = new StringWriter();
+        final PooledBufferedWriter sut = new PooledBufferedWriter(out, pool);
+        sut.write("ab");
+        assertThat(pool.getIdleCount(), is(0));
+
+        sut.close();
+        assertThat(out.toString(), is("ab"));
+        assertThat("バッファが返却されること", pool.getIdleCount(), is(1));
+
+        sut.close();
+        assertThat("二重にクローズしても返却は1回のみであること", pool.getDiscardCount(), is(0L));
+
+        try {
+            sut.write('c');
+            fail("クローズされているため、例外が発生する");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("Stream closed"));
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.common.databind.LineNumber;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.common.databind.ReadPosition;
+import nablarch.common.databind.ResumableObjectMapper;
+import nablarch.common.databind.fixedlength.FixedLengthDataBindConfig;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * {@link ObjectMapperFactory#createResumable(Class, InputStream, ReadPosition)}による、
+ * CSVの読み込みの中断・再開のテストクラス。
+ */
+public class ResumableCsvReadTest {
+
+    @Rule
+    public CsvResource resource = new CsvResource("test.csv", "utf-8", "\r\n");
+
+    /**
+     * 中断した位置から読み込みを再開でき、行番号とレコード数が再開前から連続すること。
+     * ヘッダ行は再開時に読み込まないこと。
+     */
+    @Test
+    public void testResume() throws Exception {
+        resource.writeLine("id,name");
+        resource.writeLine("1,山田");
+        resource.writeLine("2,\"鈴木\r\n一郎\"");
+        resource.writeLine("");
+        resource.writeLine("3,𠮷野");
+        resource.writeLine("4,田中");
+        resource.close();
+
+        ResumableObjectMapper<Person> mapper =
+                ObjectMapperFactory.createResumable(Person.class, resource.createInputStream(), ReadPosition.START);
+        assertThat(mapper.read().getName(), is("山田"));
+        final Person second = mapper.read();
+        assertThat(second.getName(), is("鈴木\r\n一郎"));
+        assertThat(second.getLineNumber(), is(4L));
+        final ReadPosition checkpoint = mapper.getPosition();
+        mapper.close();
+
+        final String consumed = "id,name\r\n1,山田\r\n2,\"鈴木\r\n一郎\"\r\n";
+        assertThat(checkpoint, is(new ReadPosition(consumed.getBytes("UTF-8").length, 5L, 2L)));
+
+        mapper = ObjectMapperFactory.createResumable(Person.class, resource.createInputStream(), checkpoint);
+        final Person third = mapper.read();
+        assertThat(third.getId(), is("3"));
+        assertThat(third.getName(), is("𠮷野"));
+        assertThat(third.getLineNumber(), is(6L));
+        final Person fourth = mapper.read();
+        assertThat(fourth.getId(), is("4"));
+        assertThat(fourth.getLineNumber(), is(7L));
+        assertThat(mapper.read(), is(nullValue()));
+
+        final ReadPosition end = mapper.getPosition();
+        assertThat(end.getByteOffset(), is(new File(resource.getRoot(), "test.csv").length()));
+        assertThat(end.getLineNumber(), is(8L));
+        assertThat(end.getRecordCount(), is(4L));
+        mapper.close();
+    }
+
+    /**
+     * 全てのレコードの区切り位置で、読み込み位置のバイト位置が実際のバイト位置と一致すること。
+     * バッファの境界をまたぐ場合や、マルチバイト文字、サロゲートペアを含む場合も一致すること。
+     */
+    @Test
+    public void testPositionAtEveryRecord() throws Exception {
+        assertPositions(Charset.forName("UTF-8"), "あ𠮷\"\"é");
+        assertPositions(Charset.forName("Windows-31J"), "あｱ①\"\"漢");
+        assertPositions(Charset.forName("EUC-JP"), "あｱ\"\"漢");
+        assertPositions(Charset.forName("UTF-16LE"), "あ𠮷\"\"é");
+        assertPositions(Charset.forName("ISO-8859-1"), "é\"\"ü");
+    }
+
+    /**
+     * 指定された文字コードのCSVで、全てのレコードの区切り位置を検証する。
+     *
+     * @param charset 文字コード
+     * @param text レコードに含める文字列
+     */
+    private static void assertPositions(final Charset charset, final String text) throws Exception {
+        final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT.withCharset(charset).withHeaderTitles("id", "name");
+        final StringBuilder csv = new StringBuilder("id,name\r\n");
+        final List<Long> offsets = new ArrayList<Long>();
+        for (int i = 0; i < 3000; i++) {
+            csv.append(i).append(",\"");
+            for (int j = 0; j < i % 7; j++) {
+                csv.append(text);
+            }
+            csv.append("\"\r\n");
+            offsets.add((long) csv.toString().getBytes(charset).length);
+        }
+        final byte[] bytes = csv.toString().getBytes(charset);
+
+        final ResumableObjectMapper<Map> mapper = ObjectMapperFactory.createResumable(
+                Map.class, new ByteArrayInputStream(bytes), config, ReadPosition.START);
+        for (int i = 0; i < offsets.size(); i++) {
+            assertThat(mapper.read().get("id"), is((Object) String.valueOf(i)));
+            assertThat(charset + " record " + i, mapper.getPosition(),
+                    is(new ReadPosition(offsets.get(i), i + 3L, i + 1L)));
+        }
+        mapper.close();
+
+        // 途中から再開した場合も同じ位置となること
+        final ResumableObjectMapper<Map> resumed = ObjectMapperFactory.createResumable(Map.class,
+                new ByteArrayInputStream(bytes), config, new ReadPosition(offsets.get(1499), 1502L, 1500L));
+        for (int i = 1500; i < offsets.size(); i++) {
+            assertThat(resumed.read().get("id"), is((Object) String.valueOf(i)));
+            assertThat(charset + " record " + i, resumed.getPosition().getByteOffset(), is(offsets.get(i)));
+        }
+        assertThat(resumed.read(), is(nullValue()));
+        resumed.close();
+    }
+
+    /**
+     * ヘッダ行を読み込んだ直後の位置から再開した場合、ヘッダ行を読み込まないこと。
+     */
+    @Test
+    public void testResume_afterHeader() throws Exception {
+        final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT.withHeaderTitles("id", "name");
+        final byte[] bytes = "id,name\r\n1,a\r\n".getBytes("UTF-8");
+
+        final ResumableObjectMapper<Map> mapper = ObjectMapperFactory.createResumable(
+                Map.class, new ByteArrayInputStream(bytes), config, ReadPosition.START);
+        final ReadPosition position = mapper.getPosition();
+        mapper.close();
+        assertThat(position, is(new ReadPosition(9L, 2L, 0L)));
+
+        final ResumableObjectMapper<Map> resumed = ObjectMapperFactory.createResumable(
+                Map.class, new ByteArrayInputStream(bytes), config, position);
+        assertThat(resumed.read().get("name"), is((Object) "a"));
+        assertThat(resumed.read(), is(nullValue()));
+        resumed.close();
+    }
+
+    /**
+     * 読み込み位置を追跡していない場合、再開できない形式の場合、ストリームの終端を超える位置の場合は例外が送出されること。
+     */
+    @Test
+    public void testInvalidUsage() throws Exception {
+        final ObjectMapper<Person> mapper = ObjectMapperFactory.create(
+                Person.class, new ByteArrayInputStream("id,name\r\n".getBytes("UTF-8")));
+        try {
+            ((ResumableObjectMapper<Person>) mapper).getPosition();
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("position is not tracked."));
+        }
+        mapper.close();
+
+        try {
+            ObjectMapperFactory.createResumable(Map.class, new ByteArrayInputStream(new byte[0]),
+                    new FixedLengthDataBindConfig(10, Charset.forName("UTF-8")).withField("a", 1, 10),
+                    ReadPosition.START);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("resumable read is supported only for csv. class = [java.util.Map]"));
+        }
+
+        try {
+            ObjectMapperFactory.createResumable(Person.class, new ByteArrayInputStream(new byte[3]) {
+                @Override
+                public synchronized long skip(final long n) {
+                    return 0L;
+                }
+            }, new ReadPosition(5L, 2L, 1L));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("byte offset exceeds stream length. byte offset = [5], stream length = [3]"));
+        }
+
+        try {
+            new ReadPosition(0L, 0L, 0L);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("line number must be greater than 0. line number = [0]"));
+        }
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"id", "name"}, headers = {"id", "name"})
+    public static class Person {
+
+        private String id;
+
+        private String name;
+
+        private Long lineNumber;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(final String id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+
+        @LineNumber
+        public Long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(final Long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package nablarch.common.databind.csv.processor;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import nablarch.common.databind.DataBindUtil;
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.common.databind.csv.Csv;
+import nablarch.common.databind.csv.CsvBeanMapper;
+import nablarch.common.databind.csv.CsvDataBindConfig;
+import nablarch.common.databind.csv.CsvMapperProvider;
+import nablarch.core.beans.BeanUtil;
+import nablarch.core.beans.BeansException;
+import nablarch.core.util.annotation.Published;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link CsvMapperProcessor}のテストクラス。
+ */
+public class CsvMapperProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** ソースの出力先 */
+    private File sourceDir;
+
+    /** クラスファイルの出力先 */
+    private File classesDir;
+
+    /** コンパイル時の診断情報 */
+    private DiagnosticCollector<JavaFileObject> diagnostics;
+
+    @Before
+    public void setUp() throws Exception {
+        sourceDir = folder.newFolder("src");
+        classesDir = folder.newFolder("classes");
+        diagnostics = new DiagnosticCollector<JavaFileObject>();
+    }
+
+    /**
+     * 生成されたMapperを使用してCSVを読み込めること。
+     */
+    @Test
+    public void testGeneratedReader() throws Exception {
+        writeSource("sample/Person.java",
+                "package sample;",
+                "import nablarch.common.databind.LineNumber;",
+                "import nablarch.common.databind.csv.Csv;",
+                "@Csv(type = Csv.CsvType.DEFAULT, properties = {\"age\", \"name\"}, headers = {\"年齢\", \"氏名\"})",
+                "public class Person {",
+                "    private int age;",
+                "    private String name;",
+                "    private Long lineNumber;",
+                "    public int getAge() { return age; }",
+                "    public void setAge(int age) { this.age = age; }",
+                "    public String getName() { return name; }",
+                "    public void setName(String name) { this.name = name; }",
+                "    @LineNumber",
+                "    public Long getLineNumber() { return lineNumber; }",
+                "    public void setLineNumber(Long lineNumber) { this.lineNumber = lineNumber; }",
+                "}");
+        compile();
+
+        assertThat(new File(classesDir, "sample/Person_CsvMapperProvider.class").exists(), is(true));
+
+        final Class<Object> clazz = loadClass("sample.Person");
+        final ObjectMapper<Object> mapper = ObjectMapperFactory.create(clazz, "年齢,氏名\r\n20,山田太郎\r\n\r\n30,\r\n");
+        assertThat(mapper, is(instanceOf(CsvBeanMapper.class)));
+        assertThat(mapper.getClass().getName(), containsString(CsvMapperProvider.CLASS_NAME_SUFFIX));
+
+        final Object person1 = mapper.read();
+        assertThat((Integer) BeanUtil.getProperty(person1, "age"), is(20));
+        assertThat((String) BeanUtil.getProperty(person1, "name"), is("山田太郎"));
+        assertThat((Long) BeanUtil.getProperty(person1, "lineNumber"), is(2L));
+
+        final Object person2 = mapper.read();
+        assertThat((Integer) BeanUtil.getProperty(person2, "age"), is(30));
+        assertThat(BeanUtil.getProperty(person2, "name"), is(nullValue()));
+        assertThat((Long) BeanUtil.getProperty(person2, "lineNumber"), is(4L));
+
+        assertThat(mapper.read(), is(nullValue()));
+        mapper.close();
+    }
+
+    /**
+     * 生成されたMapperでフィールド数や値が不正な場合、リフレクションによるMapperと同じ例外が送出されること。
+     */
+    @Test
+    public void testGeneratedReader_invalid() throws Exception {
+        writeSource("sample/Item.java",
+                "package sample;",
+                "import nablarch.common.databind.csv.Csv;",
+                "@Csv(type = Csv.CsvType.RFC4180, properties = {\"code\", \"price\"})",
+                "public class Item {",
+                "    private String code;",
+                "    private Integer price;",
+                "    public String getCode() { return code; }",
+                "    public void setCode(String code) { this.code = code; }",
+                "    public Integer getPrice() { return price; }",
+                "    public void setPrice(Integer price) { this.price = price; }",
+                "}");
+        compile();
+        final Class<Object> clazz = loadClass("sample.Item");
+
+        final ObjectMapper<Object> mapper = ObjectMapperFactory.create(clazz, "A001,100,1\r\nA002,abc\r\n");
+        try {
+            mapper.read();
+            fail("フィールド数が不正なので例外が発生する");
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString(
+                    "property size does not match. expected field count = [2], actual field count = [3]."));
+            assertThat(e.getLineNumber(), is(1L));
+        }
+        try {
+            mapper.read();
+            fail("数値に変換できないので例外が発生する");
+        } catch (BeansException e) {
+            assertThat(e.getMessage(), containsString("abc"));
+        }
+        mapper.close();
+    }
+
+    /**
+     * 生成されたMapperを使用してCSVを書き込めること。
+     */
+    @Test
+    public void testGeneratedWriter() throws Exception {
+        writeSource("sample/Order.java",
+                "package sample;",
+                "import nablarch.common.databind.csv.Csv;",
+                "import nablarch.common.databind.csv.CsvDataBindConfig;",
+                "import nablarch.common.databind.csv.CsvFormat;",
+                "import nablarch.common.databind.csv.Quoted;",
+                "public class Order {",
+                "    @Csv(type = Csv.CsvType.CUSTOM, properties = {\"id\", \"item\", \"note\"}, headers = {\"id\", \"品名\", \"note\"})",
+                "    @CsvFormat(fieldSeparator = '\\t', lineSeparator = \"\\n\", quote = '\\'', ignoreEmptyLine = false,",
+                "            requiredHeader = true, charset = \"Windows-31J\", emptyToNull = false,",
+                "            quoteMode = CsvDataBindConfig.QuoteMode.CUSTOM)",
+                "    public static class Line {",
+                "        private long id;",
+                "        private String item;",
+                "        private String note;",
+                "        public long getId() { return id; }",
+                "        public void setId(long id) { this.id = id; }",
+                "        @Quoted",
+                "        public String getItem() { return item; }",
+                "        public void setItem(String item) { this.item = item; }",
+                "        public String getNote() { return note; }",
+                "        public void setNote(String note) { this.note = note; }",
+                "    }",
+                "}");
+        compile();
+        assertThat(new File(classesDir, "sample/Order_Line_CsvMapperProvider.class").exists(), is(true));
+
+        final Class<Object> clazz = loadClass("sample.Order$Line");
+        final CsvMapperProvider<Object> provider = DataBindUtil.findCsvMapperProvider(clazz);
+        assertThat(provider, is(not(nullValue())));
+        assertThat(provider.getConfig().getCharset().name(), is("windows-31j"));
+        assertThat(provider.getConfig().getQuotedColumnNames(), is(Arrays.asList("item")));
+
+        final StringWriter writer = new StringWriter();
+        final ObjectMapper<Object> mapper = ObjectMapperFactory.create(clazz, writer);
+        final Object line = clazz.newInstance();
+        BeanUtil.setProperty(line, "id", 1L);
+        BeanUtil.setProperty(line, "item", "りんご");
+        BeanUtil.setProperty(line, "note", "it's");
+        mapper.write(line);
+        mapper.close();
+
+        assertThat(writer.toString(), is("id\t'品名'\tnote\n1\t'りんご'\tit''s\n"));
+    }
+
+    /**
+     * 生成されたフォーマット定義が、全てのアノテーションの組み合わせでリフレクションによる構築結果と一致すること。
+     */
+    @Test
+    public void testGeneratedConfig_sameAsReflection() throws Exception {
+        final List<String> formats = new ArrayList<String>();
+        for (Csv.CsvType csvType : Csv.CsvType.values()) {
+            if (csvType != Csv.CsvType.CUSTOM) {
+                formats.add("@Csv(type = Csv.CsvType." + csvType + ", properties = {\"id\", \"name\"}, headers = {\"ID\", \"名前\"})");
+            }
+        }
+        for (CsvDataBindConfig.QuoteMode quoteMode : CsvDataBindConfig.QuoteMode.values()) {
+            for (boolean flag : new boolean[] {true, false}) {
+                formats.add("@Csv(type = Csv.CsvType.CUSTOM, properties = {\"id\", \"name\"}, headers = {\"ID\", \"名前\"})"
+                        + " @CsvFormat(fieldSeparator = ';', lineSeparator = \"\\n\", quote = '\\'',"
+                        + " ignoreEmptyLine = " + flag + ", requiredHeader = " + flag + ", charset = \"Windows-31J\","
+                        + " emptyToNull = " + !flag + ", quoteMode = CsvDataBindConfig.QuoteMode." + quoteMode + ')');
+            }
+        }
+        for (int i = 0; i < formats.size(); i++) {
+            writeSource("sample/Bean" + i + ".java",
+                    "package sample;",
+                    "import nablarch.common.databind.csv.Csv;",
+                    "import nablarch.common.databind.csv.CsvDataBindConfig;",
+                    "import nablarch.common.databind.csv.CsvFormat;",
+                    "import nablarch.common.databind.csv.Quoted;",
+                    formats.get(i),
+                    "public class Bean" + i + " {",
+                    "    private String id;",
+                    "    private String name;",
+                    "    public String getId() { return id; }",
+                    "    public void setId(String id) { this.id = id; }",
+                    "    @Quoted",
+                    "    public String getName() { return name; }",
+                    "    public void setName(String name) { this.name = name; }",
+                    "}");
+        }
+        compile();
+
+        for (int i = 0; i < formats.size(); i++) {
+            final Class<Object> clazz = loadClass("sample.Bean" + i);
+            final CsvMapperProvider<Object> provider = DataBindUtil.findCsvMapperProvider(clazz);
+            assertThat(formats.get(i), provider, is(not(nullValue())));
+            assertThat(formats.get(i), provider.getConfig().toString(),
+                    is(DataBindUtil.findCsvMappingMetadata(clazz).getConfig().toString()));
+        }
+    }
+
+    /**
+     * 生成対象外のBeanの場合、警告が出力されリフレクションによるMapperが使用されること。
+     */
+    @Test
+    public void testNotGenerated() throws Exception {
+        writeSource("sample/ReadOnly.java",
+                "package sample;",
+                "import nablarch.common.databind.csv.Csv;",
+                "@Csv(type = Csv.CsvType.RFC4180, properties = {\"code\"})",
+                "public class ReadOnly {",
+                "    private String code;",
+                "    public String getCode() { return code; }",
+                "}");
+        compile();
+
+        assertThat(new File(classesDir, "sample/ReadOnly_CsvMapperProvider.class").exists(), is(false));
+        final List<String> warnings = new ArrayList<String>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.WARNING) {
+                warnings.add(diagnostic.getMessage(null));
+            }
+        }
+        assertThat(warnings.toString(), containsString("accessor not found. property = [code]"));
+
+        final Class<Object> clazz = loadClass("sample.ReadOnly");
+        assertThat(DataBindUtil.findCsvMapperProvider(clazz), is(nullValue()));
+        final ObjectMapper<Object> mapper = ObjectMapperFactory.create(clazz, "A001\r\n");
+        assertThat(mapper.getClass().getName(), is(CsvBeanMapper.class.getName()));
+        mapper.close();
+    }
+
+    /**
+     * ソースファイルを作成する。
+     *
+     * @param path パス
+     * @param lines ソースの各行
+     */
+    private void writeSource(final String path, final String... lines) throws IOException {
+        final File file = new File(sourceDir, path);
+        file.getParentFile().mkdirs();
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * 注釈プロセッサを指定してソースをコンパイルする。
+     */
+    private void compile() throws Exception {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
+        try {
+            final List<File> sources = new ArrayList<File>();
+            collectSources(sourceDir, sources);
+            final List<String> options = Arrays.asList(
+                    "-encoding", "UTF-8",
+                    "-classpath", classpath(),
+                    "-processor", CsvMapperProcessor.class.getName(),
+                    "-s", sourceDir.getPath(),
+                    "-d", classesDir.getPath());
+            final Boolean result = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    fileManager.getJavaFileObjectsFromFiles(sources)).call();
+            assertThat(diagnostics.getDiagnostics().toString(), result, is(true));
+        } finally {
+            fileManager.close();
+        }
+    }
+
+    /**
+     * ソースファイルを収集する。
+     *
+     * @param dir ディレクトリ
+     * @param sources ソースファイルの格納先
+     */
+    private static void collectSources(final File dir, final List<File> sources) {
+        for (File file : dir.listFiles()) {
+            if (file.isDirectory()) {
+                collectSources(file, sources);
+            } else if (file.getName().endsWith(".java")) {
+                sources.add(file);
+            }
+        }
+    }
+
+    /**
+     * コンパイルに必要なクラスパスを構築する。
+     *
+     * @return クラスパス
+     */
+    private static String classpath() throws Exception {
+        final StringBuilder sb = new StringBuilder();
+        for (Class<?> clazz : new Class<?>[] {Csv.class, BeanUtil.class, Published.class}) {
+            if (sb.length() != 0) {
+                sb.append(File.pathSeparatorChar);
+            }
+            sb.append(new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * コンパイルしたクラスをロードする。
+     *
+     * @param name クラス名
+     * @return クラス
+     */
+    @SuppressWarnings("unchecked")
+    private Class<Object> loadClass(final String name) throws Exception {
+        final URLClassLoader loader = new URLClassLoader(
+                new URL[] {classesDir.toURI().toURL()}, getClass().getClassLoader());
+        return (Class<Object>) loader.loadClass(name);
+    }
+}
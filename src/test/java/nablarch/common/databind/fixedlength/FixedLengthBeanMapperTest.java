@@ -0,0 +1,247 @@
+package nablarch.common.databind.fixedlength;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.LineNumber;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+
+import org.junit.Test;
+
+/**
+ * 固定長ファイルとBean及びMapとのマッパーのテストクラス。
+ */
+public class FixedLengthBeanMapperTest {
+
+    private static InputStream toStream(final String data) throws UnsupportedEncodingException {
+        return new ByteArrayInputStream(data.getBytes("Windows-31J"));
+    }
+
+    /**
+     * {@link FixedLength}を設定したBeanを指定した場合、固定長ファイルのレコードをBeanとして読み込めること。
+     */
+    @Test
+    public void testRead_bean() throws Exception {
+        final ObjectMapper<Person> mapper = ObjectMapperFactory.create(Person.class,
+                toStream("山田太郎  020\r\n鈴木      005\r\n"));
+        final Person person1 = mapper.read();
+        final Person person2 = mapper.read();
+        final Person person3 = mapper.read();
+        mapper.close();
+
+        assertThat(person1.getName(), is("山田太郎"));
+        assertThat(person1.getAge(), is(20));
+        assertThat(person1.getLineNumber(), is(1L));
+        assertThat(person2.getName(), is("鈴木"));
+        assertThat(person2.getAge(), is(5));
+        assertThat(person2.getLineNumber(), is(2L));
+        assertThat(person3, is(nullValue()));
+    }
+
+    /**
+     * フォーマット不正の場合は、行番号を持つ例外が送出されること。
+     */
+    @Test
+    public void testRead_invalidRecord() throws Exception {
+        final ObjectMapper<Person> mapper = ObjectMapperFactory.create(Person.class,
+                toStream("山田太郎  020\r\n鈴木  005\r\n"));
+        mapper.read();
+        try {
+            mapper.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getLineNumber(), is(2L));
+        }
+        mapper.close();
+    }
+
+    /**
+     * {@link FixedLengthDataBindConfig}を指定した場合、固定長ファイルのレコードをMapとして読み込めること。
+     */
+    @Test
+    public void testRead_map() throws Exception {
+        final FixedLengthDataBindConfig config = new FixedLengthDataBindConfig(13,
+                Charset.forName("Windows-31J"))
+                .withField("name", 1, 10)
+                .withNumericField("age", 11, 3);
+        final ObjectMapper<Map> mapper = ObjectMapperFactory.create(Map.class,
+                toStream("山田太郎  020          001"), config);
+        final Map<?, ?> map1 = mapper.read();
+        final Map<?, ?> map2 = mapper.read();
+        assertThat(mapper.read(), is(nullValue()));
+        mapper.close();
+
+        assertThat((String) map1.get("name"), is("山田太郎"));
+        assertThat((String) map1.get("age"), is("020"));
+        assertThat((String) map2.get("name"), is(""));
+        assertThat((String) map2.get("age"), is("001"));
+    }
+
+    /**
+     * {@link FixedLength}を設定したBeanを固定長ファイルに書き込めること。
+     * 書き込んだファイルを読み込んだ結果が、元のBeanと一致すること。
+     */
+    @Test
+    public void testWrite_bean() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ObjectMapper<Person> mapper = ObjectMapperFactory.create(Person.class, out);
+        mapper.write(person("山田太郎", 20));
+        mapper.write(person(null, 5));
+        mapper.close();
+
+        assertThat(new String(out.toByteArray(), "Windows-31J"), is("山田太郎  020\r\n          005\r\n"));
+
+        final ObjectMapper<Person> reader = ObjectMapperFactory.create(Person.class,
+                new ByteArrayInputStream(out.toByteArray()));
+        final Person person = reader.read();
+        assertThat(person.getName(), is("山田太郎"));
+        assertThat(person.getAge(), is(20));
+        assertThat(reader.read().getName(), is(""));
+        reader.close();
+    }
+
+    /**
+     * {@link FixedLengthDataBindConfig}を指定した場合、Mapを固定長ファイルに書き込めること。
+     */
+    @Test
+    public void testWrite_map() throws Exception {
+        final FixedLengthDataBindConfig config = new FixedLengthDataBindConfig(13, Charset.forName("Windows-31J"))
+                .withField("name", 1, 10)
+                .withNumericField("age", 11, 3);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ObjectMapper<Map> mapper = ObjectMapperFactory.create(Map.class, out, config);
+        final Map<String, Object> map = new HashMap<String, Object>();
+        map.put("name", "鈴木");
+        map.put("age", 30);
+        mapper.write(map);
+        mapper.close();
+
+        assertThat(new String(out.toByteArray(), "Windows-31J"), is("鈴木      030"));
+    }
+
+    /**
+     * 文字ストリームへの書き込みは例外が送出されること。
+     */
+    @Test
+    public void testWrite_writer() throws Exception {
+        try {
+            ObjectMapperFactory.create(Person.class, new StringWriter());
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("fixed length data requires InputStream or OutputStream."));
+        }
+    }
+
+    private static Person person(final String name, final Integer age) {
+        final Person person = new Person();
+        person.setName(name);
+        person.setAge(age);
+        return person;
+    }
+
+    /**
+     * 文字ストリームを指定した場合は例外が送出されること。
+     */
+    @Test
+    public void testRead_reader() throws Exception {
+        try {
+            ObjectMapperFactory.create(Person.class, new StringReader(""));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("fixed length data requires InputStream or OutputStream."));
+        }
+    }
+
+    /**
+     * Beanに設定を指定した場合は例外が送出されること。
+     */
+    @Test
+    public void testRead_beanWithConfig() throws Exception {
+        try {
+            ObjectMapperFactory.create(Person.class, toStream(""),
+                    new FixedLengthDataBindConfig(1, Charset.forName("UTF-8")));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("this class should not be set config."));
+        }
+    }
+
+    /**
+     * フィールドの定義がないBeanは例外が送出されること。
+     */
+    @Test
+    public void testRead_noField() throws Exception {
+        try {
+            ObjectMapperFactory.create(NoField.class, toStream(""));
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("fields is required."));
+        }
+    }
+
+    @FixedLength(length = 13, charset = "Windows-31J", lineSeparator = "\r\n")
+    public static class Person {
+
+        private String name;
+
+        private Integer age;
+
+        private Long lineNumber;
+
+        @Field(offset = 1, length = 10)
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @Field(offset = 11, length = 3, numeric = true)
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+
+        @LineNumber
+        public Long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(Long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+    }
+
+    @FixedLength(length = 10, charset = "UTF-8")
+    public static class NoField {
+
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
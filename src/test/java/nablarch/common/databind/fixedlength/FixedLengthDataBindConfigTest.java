@@ -0,0 +1,85 @@
+package nablarch.common.databind.fixedlength;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+/**
+ * {@link FixedLengthDataBindConfig}のテストクラス。
+ */
+public class FixedLengthDataBindConfigTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * フィールドがバイト位置の昇順に並べ替えられること。
+     */
+    @Test
+    public void testFieldOrder() throws Exception {
+        final FixedLengthDataBindConfig config = new FixedLengthDataBindConfig(10, UTF8)
+                .withField("c", 8, 3)
+                .withField("a", 1, 2)
+                .withNumericField("b", 3, 5);
+
+        assertThat(config.getFieldNames(), is(new String[] {"a", "b", "c"}));
+        assertThat(config.getFields().get(1).isNumeric(), is(true));
+        assertThat(config.getLineSeparator(), is(""));
+        assertThat(config.getFillChar(), is(' '));
+    }
+
+    /**
+     * フィールドが重複する場合は例外が送出されること。
+     */
+    @Test
+    public void testOverlap() throws Exception {
+        try {
+            new FixedLengthDataBindConfig(10, UTF8).withField("a", 1, 5).withField("b", 5, 2);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("field overlaps with previous field."));
+        }
+    }
+
+    /**
+     * レコード長を超えるフィールドは例外が送出されること。
+     */
+    @Test
+    public void testExceedsRecordLength() throws Exception {
+        try {
+            new FixedLengthDataBindConfig(10, UTF8).withField("a", 6, 6);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("field exceeds record length."));
+        }
+    }
+
+    /**
+     * 不正なレコード長、位置、バイト数は例外が送出されること。
+     */
+    @Test
+    public void testInvalidValue() throws Exception {
+        try {
+            new FixedLengthDataBindConfig(0, UTF8);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("record length must be greater than 0. record length = [0]"));
+        }
+        try {
+            new FixedLengthField("a", 0, 1, false);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("offset must be greater than 0."));
+        }
+        try {
+            new FixedLengthField("a", 1, 0, false);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("length must be greater than 0."));
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package nablarch.common.databind.fixedlength;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import nablarch.common.databind.InvalidDataFormatException;
+
+import org.junit.Test;
+
+/**
+ * {@link FixedLengthDataReader}のテストクラス。
+ */
+public class FixedLengthDataReaderTest {
+
+    /** テストで使用する文字コード */
+    private static final Charset MS932 = Charset.forName("Windows-31J");
+
+    /** 氏名(10バイト)、年齢(3バイト)の設定 */
+    private static final FixedLengthDataBindConfig CONFIG = new FixedLengthDataBindConfig(13, MS932)
+            .withField("name", 1, 10)
+            .withNumericField("age", 11, 3);
+
+    private static InputStream toStream(final String data) {
+        return new ByteArrayInputStream(data.getBytes(MS932));
+    }
+
+    /**
+     * レコード区切り文字なしで連続するレコードを読み込めること。
+     * 文字列フィールドは末尾の埋め字、数値フィールドは先頭の半角スペースが除去されること。
+     */
+    @Test
+    public void testRead_withoutLineSeparator() throws Exception {
+        final FixedLengthDataReader reader = new FixedLengthDataReader(
+                toStream("yamada    020suzuki      5"), CONFIG);
+
+        assertThat(reader.read(), is(new String[] {"yamada", "020"}));
+        assertThat(reader.getLineNumber(), is(1L));
+        assertThat(reader.read(), is(new String[] {"suzuki", "5"}));
+        assertThat(reader.getLineNumber(), is(2L));
+        assertThat(reader.read(), is(nullValue()));
+        reader.close();
+    }
+
+    /**
+     * レコード区切り文字を指定した場合、区切り文字を除いてフィールドを切り出せること。
+     * 最終レコードのみ区切り文字を省略できること。
+     */
+    @Test
+    public void testRead_withLineSeparator() throws Exception {
+        final FixedLengthDataReader reader = new FixedLengthDataReader(
+                toStream("yamada    020\r\nsuzuki    030\r\ntanaka    040"), CONFIG.withLineSeparator("\r\n"));
+
+        assertThat(reader.read(), is(new String[] {"yamada", "020"}));
+        assertThat(reader.read(), is(new String[] {"suzuki", "030"}));
+        assertThat(reader.read(), is(new String[] {"tanaka", "040"}));
+        assertThat(reader.read(), is(nullValue()));
+        reader.close();
+    }
+
+    /**
+     * マルチバイト文字を含むフィールドをバイト位置で切り出せること。
+     */
+    @Test
+    public void testRead_multiByte() throws Exception {
+        final FixedLengthDataReader reader = new FixedLengthDataReader(toStream("山田太郎  020"), CONFIG);
+
+        assertThat(reader.read(), is(new String[] {"山田太郎", "020"}));
+        assertThat(reader.read(), is(nullValue()));
+        reader.close();
+    }
+
+    /**
+     * 埋め字のみのフィールドは、CSVと同様に空文字列となること。
+     * 埋め字を変更した場合、変更後の埋め字が除去されること。
+     */
+    @Test
+    public void testRead_emptyField() throws Exception {
+        FixedLengthDataReader reader = new FixedLengthDataReader(toStream("             "), CONFIG);
+        assertThat(reader.read(), is(new String[] {"", ""}));
+        reader.close();
+
+        reader = new FixedLengthDataReader(toStream("abc*******  1"), CONFIG.withFillChar('*'));
+        assertThat(reader.read(), is(new String[] {"abc", "1"}));
+        reader.close();
+    }
+
+    /**
+     * マルチバイト文字の2バイト目が埋め字と同じ値であっても、文字の途中で除去されないこと。
+     * (Windows-31Jの「ソ」は0x83 0x5Cであり、2バイト目が「\」と同じ値となる)
+     */
+    @Test
+    public void testRead_multiByteTrailByteSameAsFillChar() throws Exception {
+        final FixedLengthDataReader reader = new FixedLengthDataReader(
+                toStream("ソソ\\\\\\\\\\\\  1"), CONFIG.withFillChar('\\'));
+        assertThat(reader.read(), is(new String[] {"ソソ", "1"}));
+        reader.close();
+    }
+
+    /**
+     * 大量のレコードをバッファの境界をまたいで読み込めること。
+     */
+    @Test
+    public void testRead_manyRecords() throws Exception {
+        final StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            data.append(String.format("name%-6d%3d\n", i, i % 1000));
+        }
+        final FixedLengthDataReader reader = new FixedLengthDataReader(
+                toStream(data.toString()), CONFIG.withLineSeparator("\n"));
+        for (int i = 0; i < 5000; i++) {
+            assertThat(reader.read(), is(new String[] {"name" + i, String.valueOf(i % 1000)}));
+        }
+        assertThat(reader.read(), is(nullValue()));
+        assertThat(reader.getLineNumber(), is(5000L));
+        reader.close();
+    }
+
+    /**
+     * 最終レコードのバイト数が不足している場合は例外が送出されること。
+     */
+    @Test
+    public void testRead_shortRecord() throws Exception {
+        final FixedLengthDataReader reader = new FixedLengthDataReader(toStream("yamada    020suzuki"), CONFIG);
+        reader.read();
+        try {
+            reader.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString(
+                    "record length does not match. expected record length = [13], actual record length = [6]."));
+            assertThat(e.getLineNumber(), is(2L));
+        }
+    }
+
+    /**
+     * レコード区切り文字が一致しない場合は例外が送出されること。
+     */
+    @Test
+    public void testRead_invalidLineSeparator() throws Exception {
+        final FixedLengthDataReader reader = new FixedLengthDataReader(
+                toStream("yamada    020\r\nsuzuki    030\n\n"), CONFIG.withLineSeparator("\r\n"));
+        reader.read();
+        try {
+            reader.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("line separator does not match."));
+            assertThat(e.getLineNumber(), is(2L));
+        }
+    }
+
+    /**
+     * 1バイトで表現できない埋め字を指定した場合は例外が送出されること。
+     */
+    @Test
+    public void testInvalidFillChar() throws Exception {
+        try {
+            new FixedLengthDataReader(toStream(""), CONFIG.withFillChar('　'));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("fill char must be single byte. fill char = [　]"));
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package nablarch.common.databind.fixedlength;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.matchers.JUnitMatchers.containsString;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+/**
+ * {@link FixedLengthDataWriter}のテストクラス。
+ */
+public class FixedLengthDataWriterTest {
+
+    /** テストで使用する文字コード */
+    private static final Charset MS932 = Charset.forName("Windows-31J");
+
+    /** 氏名(10バイト)、年齢(5バイト)の設定 */
+    private static final FixedLengthDataBindConfig CONFIG = new FixedLengthDataBindConfig(15, MS932)
+            .withField("name", 1, 10)
+            .withNumericField("age", 11, 5);
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private String written() throws Exception {
+        return new String(out.toByteArray(), MS932);
+    }
+
+    /**
+     * 文字列フィールドは左詰めで埋め字が、数値フィールドは右詰めで{@code 0}が埋められること。
+     */
+    @Test
+    public void testWrite() throws Exception {
+        final FixedLengthDataWriter writer = new FixedLengthDataWriter(out, CONFIG.withLineSeparator("\r\n"));
+        writer.write(new Object[] {"yamada", 20});
+        writer.write(new Object[] {"山田太郎", 5L});
+        writer.close();
+
+        assertThat(written(), is("yamada    00020\r\n山田太郎  00005\r\n"));
+    }
+
+    /**
+     * 値が{@code null}のフィールドは埋め字のままとなること。
+     * 埋め字を変更した場合、変更後の埋め字が使用されること。
+     */
+    @Test
+    public void testWrite_null() throws Exception {
+        final FixedLengthDataWriter writer = new FixedLengthDataWriter(out, CONFIG.withFillChar('*'));
+        writer.write(new Object[] {null, null});
+        writer.write(new Object[] {"a", null});
+        writer.close();
+
+        assertThat(written(), is("***************a**************"));
+    }
+
+    /**
+     * 様々な数値型を書き込めること。
+     */
+    @Test
+    public void testWrite_numeric() throws Exception {
+        final FixedLengthDataWriter writer = new FixedLengthDataWriter(out,
+                new FixedLengthDataBindConfig(20, MS932).withNumericField("value", 1, 20).withLineSeparator("\n"));
+        writer.write(new Object[] {0});
+        writer.write(new Object[] {-12});
+        writer.write(new Object[] {(short) 7});
+        writer.write(new Object[] {(byte) -1});
+        writer.write(new Object[] {Long.MAX_VALUE});
+        writer.write(new Object[] {Long.MIN_VALUE});
+        writer.write(new Object[] {new BigInteger("123")});
+        writer.write(new Object[] {new BigInteger("12345678901234567890")});
+        writer.write(new Object[] {new BigDecimal("-1.50")});
+        writer.write(new Object[] {new BigDecimal("1E+3")});
+        writer.write(new Object[] {"42"});
+        writer.close();
+
+        assertThat(written(), is(
+                "00000000000000000000\n"
+                        + "-0000000000000000012\n"
+                        + "00000000000000000007\n"
+                        + "-0000000000000000001\n"
+                        + "09223372036854775807\n"
+                        + "-9223372036854775808\n"
+                        + "00000000000000000123\n"
+                        + "12345678901234567890\n"
+                        + "-0000000000000001.50\n"
+                        + "00000000000000001000\n"
+                        + "00000000000000000042\n"));
+    }
+
+    /**
+     * 浮動小数点数は、文字列表現が指数表記となる値も通常の表記で書き込めること。
+     * 非数と無限大は例外が送出されること。
+     */
+    @Test
+    public void testWrite_floatingPoint() throws Exception {
+        final FixedLengthDataWriter writer = new FixedLengthDataWriter(out,
+                new FixedLengthDataBindConfig(12, MS932).withNumericField("value", 1, 12).withLineSeparator("\n"));
+        writer.write(new Object[] {12345678.0d});
+        writer.write(new Object[] {0.0001d});
+        writer.write(new Object[] {-1.5d});
+        writer.write(new Object[] {1.0E7f});
+        writer.write(new Object[] {2.5E-3f});
+        for (Object value : new Object[] {Double.NaN, Double.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY}) {
+            try {
+                writer.write(new Object[] {value});
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), containsString("numeric value must consist of digits."));
+            }
+        }
+        writer.close();
+
+        assertThat(written(), is(
+                "000012345678\n"
+                        + "000000.00010\n"
+                        + "-000000001.5\n"
+                        + "000010000000\n"
+                        + "0000000.0025\n"));
+    }
+
+    /**
+     * 値がフィールドのバイト数を超える場合は例外が送出され、書きかけのレコードは出力されないこと。
+     */
+    @Test
+    public void testWrite_exceedsLength() throws Exception {
+        final FixedLengthDataWriter writer = new FixedLengthDataWriter(out, CONFIG);
+        writer.write(new Object[] {"a", 1});
+        assertExceeds(writer, new Object[] {"b", 123456});
+        assertExceeds(writer, new Object[] {"b", -12345});
+        assertExceeds(writer, new Object[] {"b", new BigDecimal("1234.5")});
+        assertExceeds(writer, new Object[] {"山田太郎山田", 1});
+        writer.write(new Object[] {"c", -1234});
+        writer.close();
+
+        assertThat(written(), is("a         00001c         -1234"));
+    }
+
+    private static void assertExceeds(final FixedLengthDataWriter writer, final Object[] values) throws Exception {
+        try {
+            writer.write(values);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("value exceeds field length."));
+        }
+    }
+
+    /**
+     * 数値フィールドに数字以外を含む値を指定した場合は例外が送出されること。
+     */
+    @Test
+    public void testWrite_invalidNumeric() throws Exception {
+        final FixedLengthDataWriter writer = new FixedLengthDataWriter(out, CONFIG);
+        try {
+            writer.write(new Object[] {"a", "1e3"});
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("numeric value must consist of digits."));
+        }
+    }
+
+    /**
+     * 値の数がフィールドの数と一致しない場合は例外が送出されること。
+     */
+    @Test
+    public void testWrite_valueCount() throws Exception {
+        final FixedLengthDataWriter writer = new FixedLengthDataWriter(out, CONFIG);
+        try {
+            writer.write(new Object[] {"a"});
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("value count does not match field count. field count = [2], value count = [1]"));
+        }
+    }
+
+    /**
+     * 大量のレコードをバッファの境界をまたいで書き込み、読み込んだ結果と一致すること。
+     */
+    @Test
+    public void testWrite_manyRecords() throws Exception {
+        final FixedLengthDataBindConfig config = CONFIG.withLineSeparator("\r\n");
+        final FixedLengthDataWriter writer = new FixedLengthDataWriter(out, config);
+        for (int i = 0; i < 5000; i++) {
+            writer.write(new Object[] {"name" + i, i});
+        }
+        writer.close();
+
+        final FixedLengthDataReader reader = new FixedLengthDataReader(
+                new ByteArrayInputStream(out.toByteArray()), config);
+        for (int i = 0; i < 5000; i++) {
+            final String[] record = reader.read();
+            assertThat(record[0], is("name" + i));
+            assertThat(Integer.valueOf(record[1]), is(i));
+        }
+        assertThat(reader.read(), is(nullValue()));
+        reader.close();
+    }
+}
@@ -0,0 +1,170 @@
+package nablarch.common.databind.metrics;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.common.databind.csv.CsvDataBindConfig;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link JfrMapperEventListener}のテストクラス。
+ * <p/>
+ * 本モジュールはJava6でコンパイルするため、{@code jdk.jfr}のAPIはリフレクションで呼び出す。
+ * JFRが存在しない実行環境ではスキップする。
+ */
+public class JfrMapperEventListenerTest {
+
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue(JfrMapperEventListener.isAvailable());
+    }
+
+    /**
+     * 記録中のイベントがJFRのファイルに出力されること。
+     * オープンとクローズのイベントには、ファクトリが設定した入出力先が出力されること。
+     */
+    @Test
+    public void testRecord() throws Exception {
+        final JfrMapperEventListener sut = new JfrMapperEventListener();
+        sut.setChunkSize(2);
+        final InputStream input = new ByteArrayInputStream("a,b\r\n1,2\r\n3,4\r\n5,6\r\n7\r\n".getBytes("utf-8"));
+        final ObjectMapperFactory factory = new ObjectMapperFactory() {
+            @Override
+            protected String describeSource(final Object source) {
+                return source == input ? "customer.csv" : super.describeSource(source);
+            }
+        };
+        factory.setMetricsListener(sut);
+
+        final Object recording = startRecording();
+        final ObjectMapper<Map> mapper = factory.createMapper(Map.class, input,
+                CsvDataBindConfig.DEFAULT.withHeaderTitles("a", "b"));
+        try {
+            while (mapper.read() != null) {
+            }
+        } catch (InvalidDataFormatException ignored) {
+        }
+        mapper.close();
+        final List<String> events = stopRecording(recording);
+
+        assertThat(events.toString(), is("[nablarch.databind.MapperOpen:customer.csv:a,b, "
+                + "nablarch.databind.MapperChunk:2, "
+                + "nablarch.databind.MapperChunk:2, "
+                + "nablarch.databind.InvalidDataFormat:5, "
+                + "nablarch.databind.MapperClose:customer.csv:4]"));
+    }
+
+    /**
+     * 入出力先の説明は、デフォルトではストリームのクラス名と識別ハッシュコードとなること。
+     */
+    @Test
+    public void testRecord_defaultSource() throws Exception {
+        final ObjectMapperFactory factory = new ObjectMapperFactory();
+        factory.setMetricsListener(new JfrMapperEventListener());
+        final InputStream input = new ByteArrayInputStream("a,b\r\n1,2\r\n".getBytes("utf-8"));
+
+        final Object recording = startRecording();
+        final ObjectMapper<Map> mapper = factory.createMapper(Map.class, input,
+                CsvDataBindConfig.DEFAULT.withHeaderTitles("a", "b"));
+        while (mapper.read() != null) {
+        }
+        mapper.close();
+        final List<String> events = stopRecording(recording);
+
+        final String source = "java.io.ByteArrayInputStream@" + Integer.toHexString(System.identityHashCode(input));
+        assertThat(events.toString(), is("[nablarch.databind.MapperOpen:" + source + ":a,b, "
+                + "nablarch.databind.MapperChunk:1, "
+                + "nablarch.databind.MapperClose:" + source + ":1]"));
+    }
+
+    /**
+     * 記録していない場合でも、例外が発生しないこと。
+     */
+    @Test
+    public void testNotRecording() throws Exception {
+        final ObjectMapperFactory factory = new ObjectMapperFactory();
+        factory.setMetricsListener(new JfrMapperEventListener());
+        final ObjectMapper<Map> mapper = factory.createMapper(Map.class,
+                new ByteArrayInputStream("a,b\r\n1,2\r\n".getBytes("utf-8")),
+                CsvDataBindConfig.DEFAULT.withHeaderTitles("a", "b"));
+        assertThat(mapper.read().get("a"), is((Object) "1"));
+        mapper.close();
+    }
+
+    /**
+     * 本モジュールのイベントを有効にして記録を開始する。
+     *
+     * @return {@code jdk.jfr.Recording}
+     */
+    private static Object startRecording() throws Exception {
+        final Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        final Object recording = recordingClass.newInstance();
+        final Method enable = recordingClass.getMethod("enable", String.class);
+        for (String name : new String[] {"MapperOpen", "MapperChunk", "MapperClose", "InvalidDataFormat"}) {
+            enable.invoke(recording, "nablarch.databind." + name);
+        }
+        recordingClass.getMethod("start").invoke(recording);
+        return recording;
+    }
+
+    /**
+     * 記録を終了し、記録されたイベントを「イベント名:主要な値」の形式で時系列順に返す。
+     *
+     * @param recording {@code jdk.jfr.Recording}
+     * @return 記録されたイベント
+     */
+    private static List<String> stopRecording(final Object recording) throws Exception {
+        final Class<?> recordingClass = recording.getClass();
+        recordingClass.getMethod("stop").invoke(recording);
+        final File file = File.createTempFile("databind", ".jfr");
+        try {
+            final Object path = File.class.getMethod("toPath").invoke(file);
+            final Class<?> pathClass = Class.forName("java.nio.file.Path");
+            recordingClass.getMethod("dump", pathClass).invoke(recording, path);
+            recordingClass.getMethod("close").invoke(recording);
+
+            final List<?> recorded = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+                                                     .getMethod("readAllEvents", pathClass)
+                                                     .invoke(null, path);
+            final Class<?> eventClass = Class.forName("jdk.jfr.consumer.RecordedEvent");
+            final Method getEventType = eventClass.getMethod("getEventType");
+            final Method getValue = eventClass.getMethod("getValue", String.class);
+            final Method getName = Class.forName("jdk.jfr.EventType").getMethod("getName");
+            final List<String> events = new ArrayList<String>();
+            for (Object event : recorded) {
+                final String name = (String) getName.invoke(getEventType.invoke(event));
+                final Object value;
+                if (name.endsWith("MapperOpen")) {
+                    final String config = (String) getValue.invoke(event, "config");
+                    value = getValue.invoke(event, "source") + ":"
+                            + config.substring(config.indexOf("headerTitles=[") + 14, config.indexOf("], charset"))
+                                    .replace(" ", "");
+                } else if (name.endsWith("InvalidDataFormat")) {
+                    value = getValue.invoke(event, "lineNumber");
+                } else if (name.endsWith("MapperClose")) {
+                    value = getValue.invoke(event, "source") + ":" + getValue.invoke(event, "records");
+                } else {
+                    value = getValue.invoke(event, "records");
+                }
+                events.add(name + ':' + value);
+            }
+            return events;
+        } finally {
+            file.delete();
+        }
+    }
+}
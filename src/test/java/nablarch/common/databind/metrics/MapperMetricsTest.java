@@ -0,0 +1,306 @@
+package nablarch.common.databind.metrics;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.MapperTemplate;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.common.databind.csv.Csv;
+import nablarch.common.databind.csv.CsvDataBindConfig;
+import nablarch.core.repository.ObjectLoader;
+import nablarch.core.repository.SystemRepository;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * {@link MapperMetrics}のテストクラス。
+ */
+public class MapperMetricsTest {
+
+    /** 通知されたメトリクス */
+    private final List<MapperMetrics> notified = new ArrayList<MapperMetrics>();
+
+    @After
+    public void tearDown() throws Exception {
+        SystemRepository.clear();
+    }
+
+    /**
+     * 読み込んだレコード数、フィールド数、バイト数が収集され、クローズ時に1度だけ通知されること。
+     */
+    @Test
+    public void testRead() throws Exception {
+        registerFactory(1);
+        final byte[] input = "age,name\r\n20,yamada\r\n30,suzuki-jiro\r\n".getBytes("utf-8");
+        final ObjectMapper<Person> mapper = ObjectMapperFactory.create(Person.class, new ByteArrayInputStream(input));
+        while (mapper.read() != null) {
+        }
+        assertThat("クローズ前は通知されないこと", notified.size(), is(0));
+        mapper.close();
+        mapper.close();
+
+        assertThat(notified.size(), is(1));
+        final MapperMetrics metrics = notified.get(0);
+        assertThat(metrics.getType(), is(sameInstance((Object) Person.class)));
+        assertThat(metrics.getDirection(), is(MapperMetrics.Direction.READ));
+        assertThat(metrics.getRecordCount(), is(2L));
+        assertThat(metrics.getFieldCount(), is(4L));
+        assertThat(metrics.getByteCount(), is((long) input.length));
+        assertThat(metrics.getPeakFieldLength(), is(11));
+        assertThat(metrics.getSampledRecordCount(), is(2L));
+    }
+
+    /**
+     * 書き込んだレコード数、フィールド数、バイト数が収集されること。
+     */
+    @Test
+    public void testWrite() throws Exception {
+        registerFactory(1);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final ObjectMapper<Person> mapper = ObjectMapperFactory.create(Person.class, output);
+        mapper.write(new Person(20, "yamada"));
+        mapper.write(new Person(30, "suzuki"));
+        mapper.close();
+
+        assertThat(notified.size(), is(1));
+        final MapperMetrics metrics = notified.get(0);
+        assertThat(metrics.getDirection(), is(MapperMetrics.Direction.WRITE));
+        assertThat(metrics.getRecordCount(), is(2L));
+        assertThat("ヘッダはフィールド数に含まれないこと", metrics.getFieldCount(), is(4L));
+        assertThat(metrics.getByteCount(), is((long) output.size()));
+        assertThat(metrics.getSampledRecordCount(), is(2L));
+    }
+
+    /**
+     * Readerから読み込んだ場合、バイト数は計測されないこと。
+     * また、処理時間は指定した間隔のレコードのみ計測されること。
+     */
+    @Test
+    public void testRead_reader() throws Exception {
+        registerFactory(2);
+        final ObjectMapper<Map> mapper = ObjectMapperFactory.create(Map.class,
+                new StringReader("a,b\r\n1,2\r\n3,4\r\n5,6\r\n"), CsvDataBindConfig.DEFAULT.withHeaderTitles("a", "b"));
+        while (mapper.read() != null) {
+        }
+        mapper.close();
+
+        final MapperMetrics metrics = notified.get(0);
+        assertThat(metrics.getRecordCount(), is(3L));
+        assertThat(metrics.getByteCount(), is(-1L));
+        assertThat(metrics.getSampledRecordCount(), is(2L));
+    }
+
+    /**
+     * テンプレートから生成した{@link ObjectMapper}ごとに通知されること。
+     */
+    @Test
+    public void testTemplate() throws Exception {
+        registerFactory(1);
+        final MapperTemplate<Person> template = ObjectMapperFactory.createTemplate(Person.class);
+        for (int i = 0; i < 3; i++) {
+            final ObjectMapper<Person> mapper = template.create(
+                    new ByteArrayInputStream("age,name\r\n20,yamada\r\n".getBytes("utf-8")));
+            mapper.read();
+            mapper.close();
+        }
+
+        assertThat(notified.size(), is(3));
+        for (MapperMetrics metrics : notified) {
+            assertThat(metrics.getRecordCount(), is(1L));
+            assertThat(metrics.getByteCount(), is(21L));
+        }
+    }
+
+    /**
+     * リスナーを設定しない場合、メトリクスは生成されないこと。
+     */
+    @Test
+    public void testNoListener() throws Exception {
+        final ObjectMapper<Person> mapper = ObjectMapperFactory.create(Person.class, "age,name\r\n20,yamada\r\n");
+        mapper.read();
+        mapper.close();
+        assertThat(notified.size(), is(0));
+    }
+
+    /**
+     * {@link CounterRegistryMetricsListener}でカウンタに加算されること。
+     */
+    @Test
+    public void testCounterRegistry() throws Exception {
+        final SimpleCounterRegistry registry = new SimpleCounterRegistry();
+        final CounterRegistryMetricsListener listener = new CounterRegistryMetricsListener();
+        listener.setCounterRegistry(registry);
+        listener.setPrefix("csv");
+
+        final MapperMetrics first = new MapperMetrics(Person.class, MapperMetrics.Direction.READ, listener, 1);
+        first.addRecord();
+        first.addField(5);
+        first.addField(10);
+        first.close();
+        final MapperMetrics second = new MapperMetrics(Person.class, MapperMetrics.Direction.READ, listener, 1);
+        second.addRecord();
+        second.addField(3);
+        second.close();
+
+        assertThat(registry.get("csv.read.mappers"), is(2L));
+        assertThat(registry.get("csv.read.records"), is(2L));
+        assertThat(registry.get("csv.read.fields"), is(3L));
+        assertThat(registry.get("csv.read.peakFieldLength"), is(10L));
+        assertThat("バイト数が不明な場合は加算されないこと", registry.getCounters().containsKey("csv.read.bytes"), is(false));
+        assertThat(registry.get("csv.write.records"), is(0L));
+
+        registry.clear();
+        assertThat(registry.getCounters().isEmpty(), is(true));
+    }
+
+    /**
+     * {@link MapperEventListener}には、オープン、チャンクごと、形式誤り、クローズの順に通知されること。
+     */
+    @Test
+    public void testEvents() throws Exception {
+        final List<String> events = new ArrayList<String>();
+        final MapperEventListener listener = new MapperEventListener() {
+            @Override
+            public int getChunkSize() {
+                return 2;
+            }
+
+            @Override
+            public void onOpen(final MapperMetrics metrics) {
+                events.add("open:" + (metrics.getConfig() != null));
+            }
+
+            @Override
+            public void onChunk(final MapperMetrics metrics, final long records, final long bytes,
+                    final long elapsedNanos) {
+                events.add("chunk:" + records + ':' + (bytes >= 0 && elapsedNanos >= 0));
+            }
+
+            @Override
+            public void onError(final MapperMetrics metrics, final InvalidDataFormatException e) {
+                events.add("error:" + e.getLineNumber());
+            }
+
+            @Override
+            public void onClose(final MapperMetrics metrics) {
+                events.add("close:" + metrics.getRecordCount());
+            }
+        };
+        final ObjectMapperFactory factory = new ObjectMapperFactory();
+        factory.setMetricsListener(listener);
+        final ObjectMapper<Map> mapper = factory.createMapper(Map.class,
+                new ByteArrayInputStream("a,b\r\n1,2\r\n3,4\r\n5,6\r\n7\r\n8,9\r\n".getBytes("utf-8")),
+                CsvDataBindConfig.DEFAULT.withHeaderTitles("a", "b"));
+        mapper.read();
+        mapper.read();
+        mapper.read();
+        try {
+            mapper.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getLineNumber(), is(5L));
+        }
+        assertThat("形式誤りの後も読み込みを継続できること", mapper.read().get("a"), is((Object) "8"));
+        mapper.close();
+
+        assertThat("形式誤りのレコードも読み込んだレコードとして集計されること", events.toString(),
+                is("[open:true, chunk:2:true, chunk:2:true, error:5, chunk:1:true, close:5]"));
+    }
+
+    /**
+     * チャンクのレコード数に0以下を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void testInvalidChunkSize() throws Exception {
+        final JfrMapperEventListener listener = new JfrMapperEventListener();
+        listener.setChunkSize(0);
+        try {
+            new MapperMetrics(Person.class, MapperMetrics.Direction.READ, listener, 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("chunk size must be greater than 0. chunk size = [0]"));
+        }
+    }
+
+    /**
+     * 計測間隔に0以下を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void testInvalidSamplingInterval() throws Exception {
+        try {
+            new MapperMetrics(Person.class, MapperMetrics.Direction.READ, null, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("sampling interval must be greater than 0. sampling interval = [0]"));
+        }
+    }
+
+    /**
+     * メトリクスを通知するファクトリを{@link SystemRepository}に登録する。
+     *
+     * @param samplingInterval 処理時間を計測する間隔
+     */
+    private void registerFactory(final int samplingInterval) {
+        final ObjectMapperFactory factory = new ObjectMapperFactory();
+        factory.setMetricsListener(new MapperMetricsListener() {
+            @Override
+            public void onClose(final MapperMetrics metrics) {
+                notified.add(metrics);
+            }
+        });
+        factory.setMetricsSamplingInterval(samplingInterval);
+        SystemRepository.load(new ObjectLoader() {
+            @Override
+            public Map<String, Object> load() {
+                final Map<String, Object> objects = new HashMap<String, Object>();
+                objects.put("objectMapperFactory", factory);
+                return objects;
+            }
+        });
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"age", "name"}, headers = {"age", "name"})
+    public static class Person {
+
+        private Integer age;
+
+        private String name;
+
+        public Person() {
+        }
+
+        public Person(final Integer age, final String name) {
+            this.age = age;
+            this.name = name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(final Integer age) {
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+    }
+}
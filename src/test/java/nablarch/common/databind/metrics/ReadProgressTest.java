@@ -0,0 +1,200 @@
+package nablarch.common.databind.metrics;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.common.databind.csv.CsvDataBindConfig;
+
+import org.junit.Test;
+
+/**
+ * {@link ReadProgress}のテストクラス。
+ */
+public class ReadProgressTest {
+
+    /** CSVの設定 */
+    private static final CsvDataBindConfig CONFIG = CsvDataBindConfig.DEFAULT.withHeaderTitles("a", "b");
+
+    /** 通知されたレコード数 */
+    private final List<Long> records = new ArrayList<Long>();
+
+    /** 通知された読み込み位置 */
+    private final List<Long> positions = new ArrayList<Long>();
+
+    /** テスト用のリスナ */
+    private final ProgressListener listener = new ProgressListener() {
+        @Override
+        public void onProgress(final ReadProgress progress) {
+            records.add(progress.getRecordCount());
+            positions.add(progress.getPosition());
+        }
+    };
+
+    /**
+     * 指定したレコード数ごと、及びクローズ時に1度だけ通知されること。
+     */
+    @Test
+    public void testRecordInterval() throws Exception {
+        final byte[] input = createCsv(10);
+        final ReadProgress sut = new ReadProgress(listener, input.length, 3, 0);
+        final ObjectMapper<Map> mapper = sut.attach(
+                ObjectMapperFactory.create(Map.class, sut.track(new ByteArrayInputStream(input)), CONFIG));
+        readAll(mapper);
+        assertThat(sut.isCompleted(), is(false));
+        mapper.close();
+        mapper.close();
+
+        assertThat(records.toString(), is("[3, 6, 9, 10]"));
+        assertThat(sut.isCompleted(), is(true));
+        assertThat(sut.getRecordCount(), is(10L));
+        assertThat(sut.getByteOffset(), is((long) input.length));
+        assertThat(sut.getRatio(), is(1.0));
+        assertThat(sut.getEstimatedRemainingMillis(), is(0L));
+    }
+
+    /**
+     * 読み込んだバイト数が指定した間隔を超えるごとに通知されること。
+     * また、バイト数はバッファへの補充単位で加算されること。
+     */
+    @Test
+    public void testPositionInterval() throws Exception {
+        final byte[] input = createCsv(20000);
+        final ReadProgress sut = new ReadProgress(listener, input.length, 0, 32768);
+        final ObjectMapper<Map> mapper = sut.attach(
+                ObjectMapperFactory.create(Map.class, sut.track(new ByteArrayInputStream(input)), CONFIG));
+        readAll(mapper);
+        mapper.close();
+
+        final int expected = (int) (input.length / 32768) + 1;
+        assertThat("間隔ごとの通知と完了時の通知", positions.size(), is(expected));
+        for (int i = 0; i < positions.size() - 1; i++) {
+            assertThat(positions.get(i) >= 32768L * (i + 1), is(true));
+            assertThat("レコード単位ではなくバッファ単位で加算されること", positions.get(i) % 8192, is(0L));
+        }
+        assertThat(positions.get(positions.size() - 1), is((long) input.length));
+        assertThat(records.get(records.size() - 1), is(20000L));
+    }
+
+    /**
+     * 入力全体のサイズから進捗率と残り時間の見込みが算出されること。
+     */
+    @Test
+    public void testEstimate() throws Exception {
+        final byte[] input = createCsv(20000);
+        final List<Double> ratios = new ArrayList<Double>();
+        final List<Long> remaining = new ArrayList<Long>();
+        final ReadProgress sut = new ReadProgress(new ProgressListener() {
+            @Override
+            public void onProgress(final ReadProgress progress) {
+                ratios.add(progress.getRatio());
+                remaining.add(progress.getEstimatedRemainingMillis());
+            }
+        }, input.length, 5000, 0);
+        final ObjectMapper<Map> mapper = sut.attach(
+                ObjectMapperFactory.create(Map.class, sut.track(new ByteArrayInputStream(input)), CONFIG));
+        readAll(mapper);
+        mapper.close();
+
+        assertThat(ratios.size(), is(5));
+        for (int i = 1; i < ratios.size(); i++) {
+            assertThat("進捗率が増加していくこと", ratios.get(i) >= ratios.get(i - 1), is(true));
+            assertThat(remaining.get(i - 1) >= 0L, is(true));
+        }
+        assertThat(ratios.get(4), is(1.0));
+    }
+
+    /**
+     * {@link java.io.Reader}から読み込む場合、文字数が読み込み位置となること。
+     * また、入力全体のサイズが不明な場合は進捗率と残り時間が算出されないこと。
+     */
+    @Test
+    public void testReader() throws Exception {
+        final String input = "a,b\r\n1,あいう\r\n2,えお\r\n";
+        final ReadProgress sut = new ReadProgress(listener, -1, 1, 0);
+        final ObjectMapper<Map> mapper = sut.attach(ObjectMapperFactory.create(Map.class, new StringReader(input), CONFIG));
+        mapper.read();
+
+        assertThat(sut.getByteOffset(), is(-1L));
+        assertThat(sut.getCharOffset(), is((long) input.length()));
+        assertThat(sut.getPosition(), is((long) input.length()));
+        assertThat(sut.getRatio(), is(-1.0));
+        assertThat(sut.getEstimatedRemainingMillis(), is(-1L));
+        mapper.close();
+    }
+
+    /**
+     * 進捗の通知をサポートしない{@link ObjectMapper}を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void testAttach_unsupported() throws Exception {
+        final ObjectMapper<Map> mapper = ObjectMapperFactory.create(Map.class, new ByteArrayOutputStream(), CONFIG);
+        try {
+            new ReadProgress(listener, -1, 1, 0).attach(mapper);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("progress is not supported. mapper = [nablarch.common.databind.csv.MapCsvMapper]"));
+        } finally {
+            mapper.close();
+        }
+    }
+
+    /**
+     * 不正な引数を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void testInvalidArguments() throws Exception {
+        try {
+            new ReadProgress(null, -1, 1, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("listener must not be null."));
+        }
+        try {
+            new ReadProgress(listener, -1, -1, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("record interval must not be negative. record interval = [-1]"));
+        }
+        try {
+            new ReadProgress(listener, -1, 0, -1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("position interval must not be negative. position interval = [-1]"));
+        }
+    }
+
+    /**
+     * 全てのレコードを読み込む。
+     *
+     * @param mapper マッパー
+     */
+    private static void readAll(final ObjectMapper<Map> mapper) {
+        while (mapper.read() != null) {
+        }
+    }
+
+    /**
+     * テスト用のCSVを生成する。
+     *
+     * @param count レコード数
+     * @return CSV
+     */
+    private static byte[] createCsv(final int count) throws Exception {
+        final StringBuilder csv = new StringBuilder("a,b\r\n");
+        for (int i = 0; i < count; i++) {
+            csv.append(i).append(",value").append(i).append("\r\n");
+        }
+        return csv.toString().getBytes("utf-8");
+    }
+}